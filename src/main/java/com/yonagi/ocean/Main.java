@@ -7,6 +7,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 /**
  * @author Yonagi
@@ -20,6 +21,7 @@ public class Main {
 
     public static void main(String[] args) throws IOException {
         log.info("Ocean is starting...");
+        allowHostHeader();
         try {
             HttpServer server = new HttpServer();
             server.start();
@@ -32,4 +34,18 @@ public class Main {
             System.exit(1);
         }
     }
+
+    /**
+     * 按地址展开的上游节点需要以原主机名作为 Host 访问上游，HttpClient 默认禁止设置该请求头。
+     * 该属性在 HttpClient 首次使用时读取，必须在服务器启动前设置
+     */
+    private static void allowHostHeader() {
+        String property = "jdk.httpclient.allowRestrictedHeaders";
+        String allowed = System.getProperty(property);
+        if (allowed == null || allowed.isBlank()) {
+            System.setProperty(property, "host");
+        } else if (Arrays.stream(allowed.split(",")).noneMatch(name -> name.trim().equalsIgnoreCase("host"))) {
+            System.setProperty(property, allowed + ",host");
+        }
+    }
 }
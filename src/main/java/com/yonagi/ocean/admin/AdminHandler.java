@@ -1,6 +1,7 @@
 package com.yonagi.ocean.admin;
 
 import com.yonagi.ocean.admin.metrics.MetricsRegistry;
+import com.yonagi.ocean.core.bulkhead.BulkheadRegistry;
 import com.yonagi.ocean.core.context.HttpContext;
 import com.yonagi.ocean.core.protocol.HttpResponse;
 import com.yonagi.ocean.core.protocol.enums.ContentType;
@@ -84,6 +85,8 @@ public class AdminHandler implements RequestHandler {
             model.put("processCpuUsage", processCpuUsage);
             model.put("uptime", startTime);
 
+            model.put("bulkheads", BulkheadRegistry.getInstance().getBulkheads());
+
             String html = TemplateRenderer.render("admin", model);
             HttpResponse response = httpContext.getResponse().toBuilder()
                     .httpStatus(HttpStatus.OK)
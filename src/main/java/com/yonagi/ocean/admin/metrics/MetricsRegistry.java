@@ -2,6 +2,8 @@ package com.yonagi.ocean.admin.metrics;
 
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 import io.micrometer.core.instrument.Tags;
 import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.binder.jvm.JvmMemoryMetrics;
@@ -23,6 +25,8 @@ import java.util.concurrent.TimeUnit;
  */
 public class MetricsRegistry {
 
+    private static volatile MetricsRegistry INSTANCE;
+
     private final PrometheusMeterRegistry registry;
     private static final String REQUEST_TIMER_NAME = "http.server.requests";
 
@@ -81,6 +85,26 @@ public class MetricsRegistry {
         }
     }
 
+    public static MetricsRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    public static void setInstance(MetricsRegistry instance) {
+        INSTANCE = instance;
+    }
+
+    public MeterRegistry getMeterRegistry() {
+        return registry;
+    }
+
+    /**
+     * 服务器尚未初始化指标时返回 Micrometer 的全局组合注册表，注册到其中的指标不会产生任何输出
+     */
+    public static MeterRegistry currentMeterRegistry() {
+        MetricsRegistry instance = INSTANCE;
+        return instance != null ? instance.registry : Metrics.globalRegistry;
+    }
+
     public String getPrometheusFormattedData() {
         return this.registry.scrape();
     }
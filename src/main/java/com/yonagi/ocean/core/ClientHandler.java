@@ -1,6 +1,11 @@
 package com.yonagi.ocean.core;
 
 import com.yonagi.ocean.admin.metrics.MetricsRegistry;
+import com.yonagi.ocean.core.address.ClientAddress;
+import com.yonagi.ocean.core.address.ClientAddressResolver;
+import com.yonagi.ocean.core.admission.OverloadResponse;
+import com.yonagi.ocean.core.admission.ReservedLane;
+import com.yonagi.ocean.core.admission.Sheddable;
 import com.yonagi.ocean.core.context.ConnectionContext;
 import com.yonagi.ocean.core.context.HttpContext;
 import com.yonagi.ocean.core.protocol.DefaultProtocolHandlerFactory;
@@ -38,7 +43,7 @@ import java.util.regex.Pattern;
  * @description
  * @date 2025/10/03 18:23
  */
-public class ClientHandler implements Runnable {
+public class ClientHandler implements Runnable, Sheddable {
 
     private static final Logger log = LoggerFactory.getLogger(ClientHandler.class);
     private static final Pattern ABORT_PATTERN = Pattern.compile("connection (reset|abort)|主机中的软件中止|socket closed", Pattern.CASE_INSENSITIVE);
@@ -86,8 +91,12 @@ public class ClientHandler implements Runnable {
             }
         }
 
-        try (InputStream input = client.getInputStream();
-             OutputStream output = client.getOutputStream()) {
+        try {
+            // 不使用 try-with-resources：关闭流会关闭连接，而被接管的连接需要保持打开
+            InputStream input = client.getInputStream();
+            OutputStream output = client.getOutputStream();
+            // 对端地址在连接内不变，只转换一次
+            ClientAddress peerAddress = ClientAddress.of(client.getInetAddress());
             
             // Handle multiple requests on the same connection
             while (!client.isClosed() && !client.isInputShutdown()) {
@@ -98,19 +107,10 @@ public class ClientHandler implements Runnable {
                 if (request == null) {
                     break;
                 }
-                HttpRequest currentRequest = request;
-
-                for (HttpProtocolHandler handler : protocolHandlers) {
-                    currentRequest = handler.handle(currentRequest, output);
-                    if (currentRequest == null) {
-                        break;
-                    }
-                }
+                HttpRequest currentRequest = prepareRequest(request, output, peerAddress);
                 if (currentRequest == null) {
                     break;
                 }
-                currentRequest.getAttribute().setClientIp(client.getInetAddress().getHostAddress());
-                currentRequest.getAttribute().setSsl(connectionContext.isSsl());
 
                 boolean shouldKeepAlive = shouldKeepAlive(currentRequest);
                 if (!shouldKeepAlive) {
@@ -119,6 +119,9 @@ public class ClientHandler implements Runnable {
                 }
 
                 handleRequest(currentRequest, output, true);
+                if (connectionContext.isDetached()) {
+                    break;
+                }
                 connectionManager.recordRequest(client);
                 if (!connectionManager.shouldKeepAlive(client)) {
                     break;
@@ -134,13 +137,84 @@ public class ClientHandler implements Runnable {
         } finally {
             try {
                 connectionManager.removeConnection(client);
-                client.close();
+                if (!connectionContext.isDetached()) {
+                    client.close();
+                }
             } catch (IOException e) {
                 log.warn("Error closing client connection: {}", e.getMessage());
             }
         }
     }
 
+    /**
+     * 经过协议处理器并写入客户端地址等属性，请求已被协议处理器处理完时返回 null
+     */
+    private HttpRequest prepareRequest(HttpRequest request, OutputStream output, ClientAddress peerAddress) throws IOException {
+        HttpRequest currentRequest = request;
+        for (HttpProtocolHandler handler : protocolHandlers) {
+            currentRequest = handler.handle(currentRequest, output);
+            if (currentRequest == null) {
+                return null;
+            }
+        }
+        ClientAddress clientAddress = ClientAddressResolver.getInstance().resolve(currentRequest, peerAddress);
+        currentRequest.getAttribute().setClientAddress(clientAddress);
+        currentRequest.getAttribute().setClientIp(clientAddress.toString());
+        currentRequest.getAttribute().setSsl(connectionContext.isSsl());
+        return currentRequest;
+    }
+
+    /**
+     * 连接在工作队列中等待过久时被丢弃。TLS 连接尚未握手，握手本身就是过载时要省下的开销，直接关闭；
+     * 明文连接交给预留通道分类，健康检查和指标请求仍会被处理，预留通道不可用时直接回 503
+     */
+    @Override
+    public void shed() {
+        if (connectionContext.isSsl()) {
+            OverloadResponse.close(client);
+        } else if (!ReservedLane.getInstance().admit(client, this::serveReserved)) {
+            OverloadResponse.send(client);
+        }
+    }
+
+    /**
+     * 专用探针端口上的连接不经过工作队列，直接在预留通道中处理
+     */
+    public void serveProbe() {
+        if (!ReservedLane.getInstance().trySubmit(() -> serveReserved(null))) {
+            OverloadResponse.send(client);
+        }
+    }
+
+    /**
+     * 在预留通道中只处理一个请求，处理完即关闭连接；requestLine 是分类时已经读出的请求行
+     */
+    private void serveReserved(byte[] requestLine) {
+        try {
+            client.setSoTimeout(ReservedLane.getInstance().getReadTimeoutMillis());
+            InputStream input = requestLine == null
+                    ? client.getInputStream()
+                    : new SequenceInputStream(new ByteArrayInputStream(requestLine), client.getInputStream());
+            OutputStream output = client.getOutputStream();
+            HttpRequest request = HttpRequestParser.parse(input);
+            if (request == null) {
+                return;
+            }
+            if (!ReservedLane.isReserved(request.getUri())) {
+                OverloadResponse.send(client);
+                return;
+            }
+            HttpRequest currentRequest = prepareRequest(request, output, ClientAddress.of(client.getInetAddress()));
+            if (currentRequest != null) {
+                handleRequest(currentRequest, output, false);
+            }
+        } catch (IOException e) {
+            log.debug("Error serving reserved lane request: {}", e.getMessage());
+        } finally {
+            OverloadResponse.close(client);
+        }
+    }
+
     private void performHandshakeCleanup(Socket client) {
         connectionManager.removeConnection(client);
         try {
@@ -18,10 +18,21 @@ import com.yonagi.ocean.core.reverseproxy.ReverseProxyManager;
 import com.yonagi.ocean.core.gzip.GzipEncoderManager;
 import com.yonagi.ocean.core.ratelimiter.RateLimiterChecker;
 import com.yonagi.ocean.core.ratelimiter.RateLimiterManager;
+import com.yonagi.ocean.core.ratelimiter.cluster.InMemoryQuotaStore;
+import com.yonagi.ocean.core.ratelimiter.cluster.QuotaLeaser;
+import com.yonagi.ocean.core.ratelimiter.cluster.QuotaServer;
 import com.yonagi.ocean.core.router.RouteManager;
+import com.yonagi.ocean.core.admission.CoDelThreadPoolExecutor;
+import com.yonagi.ocean.core.admission.LoadSheddingManager;
+import com.yonagi.ocean.core.admission.ReservedLane;
+import com.yonagi.ocean.core.bulkhead.BulkheadRegistry;
 import com.yonagi.ocean.core.config.ServerStartupConfig;
 import com.yonagi.ocean.core.router.Router;
 import com.yonagi.ocean.admin.metrics.MetricsRegistry;
+import com.yonagi.ocean.core.loadbalance.UpstreamHealthCheckService;
+import com.yonagi.ocean.core.loadbalance.dns.UpstreamAddressResolver;
+import com.yonagi.ocean.core.reverseproxy.cache.ProxyResponseCache;
+import com.yonagi.ocean.core.reverseproxy.mirror.MirrorExecutor;
 import com.yonagi.ocean.middleware.MiddlewareChain;
 import com.yonagi.ocean.middleware.MiddlewareLoader;
 import com.yonagi.ocean.utils.LocalConfigLoader;
@@ -34,6 +45,7 @@ import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLServerSocket;
 import javax.net.ssl.SSLServerSocketFactory;
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.net.InetAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
@@ -56,6 +68,7 @@ public class HttpServer {
 
     private ServerSocket httpServerSocket;
     private ServerSocket httpsServerSocket;
+    private ServerSocket probeServerSocket;
     private final AtomicBoolean isRunning = new AtomicBoolean(false);
 
     private final CountDownLatch shutdownLatch = new CountDownLatch(1);
@@ -77,6 +90,7 @@ public class HttpServer {
 
     private RateLimiterChecker rateLimiterChecker;
     private RateLimiterManager rateLimiterManager;
+    private QuotaServer quotaServer;
     private ConfigManager ratelimitConfigManager;
 
     private ReverseProxyChecker reverseProxyChecker;
@@ -130,6 +144,13 @@ public class HttpServer {
         // Initialize CORS manager
         CorsManager.init();
 
+        // Initialize metrics registry before core components so they can register meters
+        MetricsRegistry metricsRegistry = new MetricsRegistry(workerThreadExecutor, virtualThreadsEnabled);
+        MetricsRegistry.setInstance(metricsRegistry);
+        if (workerThreadExecutor instanceof CoDelThreadPoolExecutor coDelExecutor) {
+            coDelExecutor.bindMeters(metricsRegistry.getMeterRegistry());
+        }
+
         // Initialize core components
         initializeComponents(startupConfig);
         this.serverContext = new ServerContext(
@@ -138,7 +159,7 @@ public class HttpServer {
                 this.reverseProxyChecker,
                 this.router,
                 this.connectionManager,
-                new MetricsRegistry(workerThreadExecutor, virtualThreadsEnabled),
+                metricsRegistry,
                 new HealthCheckService(createHealthIndicators()),
                 new EnvironmentInfo(LocalConfigLoader.getProperty("server.version"))
         );
@@ -148,6 +169,10 @@ public class HttpServer {
                 keepAliveConfig.getTimeoutSeconds(),
                 keepAliveConfig.getMaxRequests());
 
+        if (workerThreadExecutor instanceof CoDelThreadPoolExecutor coDelExecutor) {
+            LoadSheddingManager.getInstance().bindQueueController(coDelExecutor.getController());
+        }
+
         if (this.sslEnabled) {
             try {
                 initSSL(startupConfig);
@@ -203,6 +228,19 @@ public class HttpServer {
                 log.error("Failed to start HTTPS listener on port {}: {}", sslPort, e.getMessage(), e);
             }
         }
+        int probePort = ReservedLane.getInstance().getPort();
+        if (probePort > 0) {
+            try {
+                probeServerSocket = new ServerSocket(probePort);
+                // 平台线程模式下监听线程池最多两个线程，探针监听单独起一个线程
+                Thread probeListener = new Thread(new ProbeListenerThread(probeServerSocket, probePort), "Probe-Listener");
+                probeListener.setDaemon(true);
+                probeListener.start();
+                log.info("Ocean probe listener is running on port {}", probePort);
+            } catch (Exception e) {
+                log.error("Failed to start probe listener on port {}: {}", probePort, e.getMessage(), e);
+            }
+        }
         log.info("Web root: {}", webRoot);
         if (!httpServerSocket.isBound() && (httpsServerSocket == null || !httpsServerSocket.isBound())) {
             log.error("Server failed to start any listeners");
@@ -253,6 +291,13 @@ public class HttpServer {
         } catch (Exception e) {
             log.warn("Error closing HTTPS server socket: {}", e.getMessage());
         }
+        try {
+            if (probeServerSocket != null && !probeServerSocket.isClosed()) {
+                probeServerSocket.close();
+            }
+        } catch (Exception e) {
+            log.warn("Error closing probe server socket: {}", e.getMessage());
+        }
         if (workerThreadExecutor != null && !workerThreadExecutor.isShutdown()) {
             workerThreadExecutor.shutdown();
         }
@@ -269,6 +314,19 @@ public class HttpServer {
         if (reverseProxyManager != null) {
             reverseProxyManager.shutdownAll();
         }
+        UpstreamHealthCheckService.getInstance().shutdown();
+        ProxyResponseCache.getInstance().shutdown();
+        MirrorExecutor.getInstance().shutdown();
+        UpstreamAddressResolver.getInstance().shutdown();
+        LoadSheddingManager.getInstance().shutdown();
+        ReservedLane.getInstance().shutdown();
+        BulkheadRegistry.getInstance().shutdown();
+        if (QuotaLeaser.isEnabled()) {
+            QuotaLeaser.getInstance().shutdown();
+        }
+        if (quotaServer != null) {
+            quotaServer.stop();
+        }
         BackupScheduler.shutdownAll();
 
         log.info("Ocean stopped.");
@@ -305,6 +363,17 @@ public class HttpServer {
         // Register route config change listener
         this.routeConfigManager.onChange(() -> routeManager.refreshRoutes(routeConfigManager));
 
+        // Start embedded quota server if enabled
+        if (Boolean.parseBoolean(LocalConfigLoader.getProperty("server.rate_limit.cluster.server.enabled", "false"))) {
+            int quotaPort = Integer.parseInt(LocalConfigLoader.getProperty("server.rate_limit.cluster.server.port", "7070"));
+            this.quotaServer = QuotaServer.fromConfig(quotaPort, new InMemoryQuotaStore());
+            try {
+                this.quotaServer.start();
+            } catch (IOException e) {
+                log.error("Failed to start rate limit quota server on port {}: {}", quotaPort, e.getMessage(), e);
+            }
+        }
+
         // Initialize rate limiter manager and initial rate limit config
         this.rateLimiterManager = new RateLimiterManager();
         RateLimiterManager.setInstance(this.rateLimiterManager);
@@ -312,7 +381,6 @@ public class HttpServer {
         // Initialize rate limit if enabled
         if (Boolean.parseBoolean(LocalConfigLoader.getProperty("server.rate_limit.enabled", "true"))) {
             this.rateLimiterManager.refreshRateLimiter(ratelimitConfigManager);
-            this.rateLimiterManager.preloadGlobalLimiter();
         }
         // Register rate limit config change listener
         this.ratelimitConfigManager.onChange(() -> rateLimiterManager.refreshRateLimiter(ratelimitConfigManager));
@@ -370,7 +438,7 @@ public class HttpServer {
             while (isRunning.get()) {
                 try {
                     Socket client = serverSocket.accept();
-                    ConnectionContext connectContext = new ConnectionContext(isSsl, sslEnabled, redirectSslEnabled, sslPort, serverContext);
+                    ConnectionContext connectContext = new ConnectionContext(isSsl, sslEnabled, redirectSslEnabled, sslPort, serverContext, client);
                     workerThreadExecutor.execute(new ClientHandler(client, connectContext));
                 } catch (Exception e) {
                     if (isRunning.get()) {
@@ -382,4 +450,34 @@ public class HttpServer {
             }
         }
     }
+
+    /**
+     * 专用探针端口的监听线程，连接不进入工作队列，直接交给预留通道
+     */
+    private class ProbeListenerThread implements Runnable {
+        private final ServerSocket serverSocket;
+        private final int port;
+
+        public ProbeListenerThread(ServerSocket serverSocket, int port) {
+            this.serverSocket = serverSocket;
+            this.port = port;
+        }
+
+        @Override
+        public void run() {
+            while (isRunning.get()) {
+                try {
+                    Socket client = serverSocket.accept();
+                    ConnectionContext connectContext = new ConnectionContext(false, sslEnabled, false, sslPort, serverContext, client);
+                    new ClientHandler(client, connectContext).serveProbe();
+                } catch (Exception e) {
+                    if (isRunning.get()) {
+                        log.error("Probe listener error on port {}: {}", port, e.getMessage());
+                    } else {
+                        log.info("Probe listener on port {} stopped successfully.", port);
+                    }
+                }
+            }
+        }
+    }
 }
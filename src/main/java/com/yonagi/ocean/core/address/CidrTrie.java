@@ -0,0 +1,131 @@
+package com.yonagi.ocean.core.address;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 按位组织的 CIDR 前缀树，IPv4 网段映射到 ::ffff:0:0/96 之下，与 ClientAddress 的存储方式一致。
+ * 节点用两个 int 数组保存左右子节点，查找时沿地址的位向下走，遇到网段终点即命中，最多 128 步且不产生对象
+ * @date 2025/11/23 16:20
+ */
+public final class CidrTrie {
+
+    private static final Logger log = LoggerFactory.getLogger(CidrTrie.class);
+
+    public static final CidrTrie EMPTY = new CidrTrie();
+
+    private static final int IPV4_PREFIX_OFFSET = 96;
+
+    private int[] zero = new int[16];
+
+    private int[] one = new int[16];
+
+    private boolean[] terminal = new boolean[16];
+
+    private int size = 1;
+
+    // ::/0 只标记根节点而不分配节点，不能用 size 判断是否为空
+    private boolean empty = true;
+
+    private CidrTrie() {
+    }
+
+    /**
+     * 解析逗号分隔的列表，元素可以是单个地址或 CIDR 网段；非法元素会被记录并跳过
+     */
+    public static CidrTrie parse(String list) {
+        CidrTrie trie = new CidrTrie();
+        if (list == null || list.isBlank()) {
+            return trie;
+        }
+        for (String entry : list.split(",")) {
+            String value = entry.trim();
+            if (value.isEmpty()) {
+                continue;
+            }
+            if (!trie.add(value)) {
+                log.warn("Ignoring invalid address or CIDR: {}", value);
+            }
+        }
+        return trie;
+    }
+
+    private boolean add(String cidr) {
+        int slash = cidr.indexOf('/');
+        ClientAddress network = ClientAddress.parse(cidr, 0, slash < 0 ? cidr.length() : slash);
+        if (network == null) {
+            return false;
+        }
+        int maxLength = network.isIpv4() ? 32 : 128;
+        int prefixLength = maxLength;
+        if (slash >= 0) {
+            try {
+                prefixLength = Integer.parseInt(cidr.substring(slash + 1).trim());
+            } catch (NumberFormatException e) {
+                return false;
+            }
+            if (prefixLength < 0 || prefixLength > maxLength) {
+                return false;
+            }
+        }
+        int bits = network.isIpv4() ? IPV4_PREFIX_OFFSET + prefixLength : prefixLength;
+        int node = 0;
+        for (int i = 0; i < bits; i++) {
+            if (terminal[node]) {
+                // 已被更短的网段覆盖
+                return true;
+            }
+            boolean isZero = network.bit(i) == 0;
+            int child = isZero ? zero[node] : one[node];
+            if (child == 0) {
+                // newNode 可能扩容，先分配再写入新数组
+                child = newNode();
+                if (isZero) {
+                    zero[node] = child;
+                } else {
+                    one[node] = child;
+                }
+            }
+            node = child;
+        }
+        terminal[node] = true;
+        empty = false;
+        return true;
+    }
+
+    private int newNode() {
+        if (size == terminal.length) {
+            int capacity = size * 2;
+            zero = Arrays.copyOf(zero, capacity);
+            one = Arrays.copyOf(one, capacity);
+            terminal = Arrays.copyOf(terminal, capacity);
+        }
+        return size++;
+    }
+
+    public boolean contains(ClientAddress address) {
+        if (address == null || empty) {
+            return false;
+        }
+        int node = 0;
+        for (int i = 0; i < 128; i++) {
+            if (terminal[node]) {
+                return true;
+            }
+            node = address.bit(i) == 0 ? zero[node] : one[node];
+            if (node == 0) {
+                return false;
+            }
+        }
+        return terminal[node];
+    }
+
+    public boolean isEmpty() {
+        return empty;
+    }
+}
@@ -0,0 +1,337 @@
+package com.yonagi.ocean.core.address;
+
+import java.net.InetAddress;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 不可变的客户端地址，以 128 位二进制形式保存（IPv4 存为 ::ffff:a.b.c.d），
+ * equals/hashCode 只比较两个 long，可直接作为限流器存储、哈希负载均衡和白名单的键。
+ * 解析逐字符进行，不使用正则，也不做 DNS 查询；文本形式在第一次 toString 时生成并缓存
+ * @date 2025/11/23 16:00
+ */
+public final class ClientAddress {
+
+    public static final ClientAddress UNKNOWN = new ClientAddress(0L, 0L, false, "UNKNOWN_IP");
+
+    private static final long IPV4_MAPPED_HIGH = 0L;
+
+    private static final long IPV4_MAPPED_LOW_PREFIX = 0x0000FFFF00000000L;
+
+    private final long high;
+
+    private final long low;
+
+    private final boolean ipv4;
+
+    private String text;
+
+    private ClientAddress(long high, long low, boolean ipv4, String text) {
+        this.high = high;
+        this.low = low;
+        this.ipv4 = ipv4;
+        this.text = text;
+    }
+
+    public static ClientAddress ofIpv4(int address) {
+        return new ClientAddress(IPV4_MAPPED_HIGH, IPV4_MAPPED_LOW_PREFIX | (address & 0xFFFFFFFFL), true, null);
+    }
+
+    public static ClientAddress ofIpv6(long high, long low) {
+        if (high == IPV4_MAPPED_HIGH && (low & 0xFFFFFFFF00000000L) == IPV4_MAPPED_LOW_PREFIX) {
+            return new ClientAddress(high, low, true, null);
+        }
+        return new ClientAddress(high, low, false, null);
+    }
+
+    public static ClientAddress of(InetAddress address) {
+        if (address == null) {
+            return UNKNOWN;
+        }
+        byte[] bytes = address.getAddress();
+        if (bytes.length == 4) {
+            return ofIpv4(readInt(bytes, 0));
+        }
+        long high = ((long) readInt(bytes, 0) << 32) | (readInt(bytes, 4) & 0xFFFFFFFFL);
+        long low = ((long) readInt(bytes, 8) << 32) | (readInt(bytes, 12) & 0xFFFFFFFFL);
+        return ofIpv6(high, low);
+    }
+
+    public static ClientAddress parse(CharSequence value) {
+        return value == null ? null : parse(value, 0, value.length());
+    }
+
+    /**
+     * 解析 [from, to) 区间内的地址，允许首尾空白、IPv6 的方括号与 zone id、以及 IPv4 或 [IPv6] 后跟的端口；非法时返回 null
+     */
+    public static ClientAddress parse(CharSequence value, int from, int to) {
+        while (from < to && value.charAt(from) == ' ') {
+            from++;
+        }
+        while (to > from && value.charAt(to - 1) == ' ') {
+            to--;
+        }
+        if (from >= to) {
+            return null;
+        }
+        if (value.charAt(from) == '[') {
+            int close = indexOf(value, ']', from, to);
+            if (close < 0 || (close + 1 < to && !isPort(value, close + 1, to))) {
+                return null;
+            }
+            return parseIpv6(value, from + 1, close);
+        }
+        int firstColon = indexOf(value, ':', from, to);
+        if (firstColon < 0) {
+            return parseIpv4Address(value, from, to);
+        }
+        if (indexOf(value, ':', firstColon + 1, to) < 0 && indexOf(value, '.', from, firstColon) >= 0) {
+            // IPv4:port
+            return isPort(value, firstColon, to) ? parseIpv4Address(value, from, firstColon) : null;
+        }
+        return parseIpv6(value, from, to);
+    }
+
+    private static ClientAddress parseIpv4Address(CharSequence value, int from, int to) {
+        long address = parseIpv4(value, from, to);
+        return address < 0 ? null : ofIpv4((int) address);
+    }
+
+    /**
+     * 返回 32 位地址，非法时返回 -1；不接受前导零，避免与八进制写法混淆
+     */
+    private static long parseIpv4(CharSequence value, int from, int to) {
+        long address = 0;
+        int octets = 0;
+        int i = from;
+        while (i <= to) {
+            int start = i;
+            int octet = 0;
+            while (i < to && value.charAt(i) != '.') {
+                char c = value.charAt(i);
+                if (c < '0' || c > '9' || i - start >= 3) {
+                    return -1;
+                }
+                octet = octet * 10 + (c - '0');
+                i++;
+            }
+            int digits = i - start;
+            if (digits == 0 || octet > 255 || (digits > 1 && value.charAt(start) == '0')) {
+                return -1;
+            }
+            address = (address << 8) | octet;
+            octets++;
+            if (i == to) {
+                break;
+            }
+            i++;
+            if (octets == 4) {
+                return -1;
+            }
+        }
+        return octets == 4 ? address : -1;
+    }
+
+    private static ClientAddress parseIpv6(CharSequence value, int from, int to) {
+        int zone = indexOf(value, '%', from, to);
+        if (zone >= 0) {
+            to = zone;
+        }
+        if (from >= to) {
+            return null;
+        }
+        // 最多 8 组 16 位，compressAt 记录 :: 出现时已解析的组数
+        int[] groups = new int[8];
+        int count = 0;
+        int compressAt = -1;
+        int i = from;
+        if (value.charAt(i) == ':') {
+            if (i + 1 >= to || value.charAt(i + 1) != ':') {
+                return null;
+            }
+            compressAt = 0;
+            i += 2;
+        }
+        while (i < to) {
+            int start = i;
+            int group = 0;
+            while (i < to && value.charAt(i) != ':' && value.charAt(i) != '.') {
+                int digit = Character.digit(value.charAt(i), 16);
+                if (digit < 0 || i - start >= 4) {
+                    return null;
+                }
+                group = (group << 4) | digit;
+                i++;
+            }
+            if (i < to && value.charAt(i) == '.') {
+                // 末尾内嵌的 IPv4
+                long ipv4 = parseIpv4(value, start, to);
+                if (ipv4 < 0 || count > 6) {
+                    return null;
+                }
+                groups[count++] = (int) (ipv4 >>> 16);
+                groups[count++] = (int) (ipv4 & 0xFFFF);
+                i = to;
+                break;
+            }
+            if (i == start || count == 8) {
+                return null;
+            }
+            groups[count++] = group;
+            if (i == to) {
+                break;
+            }
+            i++;
+            if (i < to && value.charAt(i) == ':') {
+                if (compressAt >= 0) {
+                    return null;
+                }
+                compressAt = count;
+                i++;
+            } else if (i == to) {
+                // 以单个冒号结尾
+                return null;
+            }
+        }
+        if (compressAt < 0 ? count != 8 : count > 7) {
+            return null;
+        }
+        long high = 0;
+        long low = 0;
+        int gap = 8 - count;
+        for (int g = 0, src = 0; g < 8; g++) {
+            int group;
+            if (compressAt >= 0 && g >= compressAt && g < compressAt + gap) {
+                group = 0;
+            } else {
+                group = groups[src++];
+            }
+            if (g < 4) {
+                high = (high << 16) | group;
+            } else {
+                low = (low << 16) | group;
+            }
+        }
+        return ofIpv6(high, low);
+    }
+
+    private static boolean isPort(CharSequence value, int colon, int to) {
+        if (value.charAt(colon) != ':' || colon + 1 >= to || to - colon - 1 > 5) {
+            return false;
+        }
+        for (int i = colon + 1; i < to; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(CharSequence value, char target, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (value.charAt(i) == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16)
+                | ((bytes[offset + 2] & 0xFF) << 8) | (bytes[offset + 3] & 0xFF);
+    }
+
+    public long getHigh() {
+        return high;
+    }
+
+    public long getLow() {
+        return low;
+    }
+
+    public boolean isIpv4() {
+        return ipv4;
+    }
+
+    /**
+     * 128 位形式下从最高位开始的第 index 位，供前缀树使用
+     */
+    int bit(int index) {
+        return (int) (index < 64 ? (high >>> (63 - index)) & 1L : (low >>> (127 - index)) & 1L);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof ClientAddress)) {
+            return false;
+        }
+        ClientAddress that = (ClientAddress) obj;
+        return high == that.high && low == that.low;
+    }
+
+    @Override
+    public int hashCode() {
+        long h = high * 31 + low;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        String result = text;
+        if (result == null) {
+            result = ipv4 ? formatIpv4() : formatIpv6();
+            text = result;
+        }
+        return result;
+    }
+
+    private String formatIpv4() {
+        int address = (int) low;
+        return ((address >>> 24) & 0xFF) + "." + ((address >>> 16) & 0xFF) + "." + ((address >>> 8) & 0xFF) + "." + (address & 0xFF);
+    }
+
+    /**
+     * RFC 5952：小写、去前导零、最长的一段（至少两组）连续零压缩为 ::
+     */
+    private String formatIpv6() {
+        int[] groups = new int[8];
+        for (int g = 0; g < 8; g++) {
+            long word = g < 4 ? high : low;
+            groups[g] = (int) ((word >>> (48 - 16 * (g % 4))) & 0xFFFF);
+        }
+        int bestStart = -1;
+        int bestLength = 1;
+        for (int g = 0; g < 8; ) {
+            if (groups[g] != 0) {
+                g++;
+                continue;
+            }
+            int start = g;
+            while (g < 8 && groups[g] == 0) {
+                g++;
+            }
+            if (g - start > bestLength) {
+                bestStart = start;
+                bestLength = g - start;
+            }
+        }
+        StringBuilder builder = new StringBuilder(39);
+        for (int g = 0; g < 8; g++) {
+            if (g == bestStart) {
+                builder.append("::");
+                g += bestLength - 1;
+                continue;
+            }
+            if (builder.length() > 0 && builder.charAt(builder.length() - 1) != ':') {
+                builder.append(':');
+            }
+            builder.append(Integer.toHexString(groups[g]));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,58 @@
+package com.yonagi.ocean.core.address;
+
+import com.yonagi.ocean.core.protocol.HttpRequest;
+import com.yonagi.ocean.utils.LocalConfigLoader;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 确定请求的真实客户端地址。只有直连对端属于 trusted_proxies 时才读取转发头，
+ * 并从右向左逐跳检查：遇到第一个不受信任的地址即为客户端，遇到无法解析的条目则停在它右侧的那一跳；
+ * 未配置受信代理时直接使用对端地址，伪造的转发头不会生效
+ * @date 2025/11/23 16:40
+ */
+public class ClientAddressResolver {
+
+    private static final ClientAddressResolver INSTANCE = new ClientAddressResolver(
+            CidrTrie.parse(LocalConfigLoader.getProperty("server.client_address.trusted_proxies", "")),
+            LocalConfigLoader.getProperty("server.client_address.forwarded_header", "x-forwarded-for").trim().toLowerCase());
+
+    private final CidrTrie trustedProxies;
+
+    private final String forwardedHeader;
+
+    public ClientAddressResolver(CidrTrie trustedProxies, String forwardedHeader) {
+        this.trustedProxies = trustedProxies;
+        this.forwardedHeader = forwardedHeader;
+    }
+
+    public static ClientAddressResolver getInstance() {
+        return INSTANCE;
+    }
+
+    public ClientAddress resolve(HttpRequest request, ClientAddress peer) {
+        if (trustedProxies.isEmpty() || !trustedProxies.contains(peer) || request.getHeaders() == null) {
+            return peer;
+        }
+        String chain = request.getHeaders().get(forwardedHeader);
+        if (chain == null || chain.isEmpty()) {
+            return peer;
+        }
+        ClientAddress client = peer;
+        int end = chain.length();
+        while (end > 0) {
+            int comma = chain.lastIndexOf(',', end - 1);
+            ClientAddress hop = ClientAddress.parse(chain, comma + 1, end);
+            if (hop == null) {
+                break;
+            }
+            client = hop;
+            if (!trustedProxies.contains(hop)) {
+                break;
+            }
+            end = comma;
+        }
+        return client;
+    }
+}
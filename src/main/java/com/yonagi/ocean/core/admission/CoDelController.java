@@ -0,0 +1,73 @@
+package com.yonagi.ocean.core.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description CoDel 风格的排队时延控制器：统计每个 interval 内出队任务的最小排队时间，
+ * 若整个区间的最小值都超过 target，说明队列一直没有排空，进入过载状态；过载时丢弃排队超过 2 × target 的任务，
+ * 直到某个区间的最小排队时间回落到 target 以内。短暂的突发不会触发丢弃
+ * @date 2025/11/23 17:00
+ */
+public final class CoDelController {
+
+    private final long targetNanos;
+
+    private final long intervalNanos;
+
+    private final long sloughNanos;
+
+    private final AtomicLong minDelayNanos = new AtomicLong(Long.MAX_VALUE);
+
+    private final AtomicLong intervalEndNanos;
+
+    private volatile boolean overloaded;
+
+    private volatile long standingDelayNanos;
+
+    public CoDelController(long targetNanos, long intervalNanos) {
+        if (targetNanos <= 0 || intervalNanos <= 0) {
+            throw new IllegalArgumentException("target and interval must be positive");
+        }
+        this.targetNanos = targetNanos;
+        this.intervalNanos = intervalNanos;
+        this.sloughNanos = targetNanos * 2;
+        this.intervalEndNanos = new AtomicLong(System.nanoTime() + intervalNanos);
+    }
+
+    /**
+     * 在任务出队时调用，返回 true 表示应当丢弃该任务
+     */
+    public boolean shouldDrop(long sojournNanos, long nowNanos) {
+        long end = intervalEndNanos.get();
+        if (nowNanos - end >= 0 && intervalEndNanos.compareAndSet(end, nowNanos + intervalNanos)) {
+            long minDelay = minDelayNanos.getAndSet(Long.MAX_VALUE);
+            // 区间内没有出队说明队列空闲，不算过载
+            standingDelayNanos = minDelay == Long.MAX_VALUE ? 0L : minDelay;
+            overloaded = standingDelayNanos > targetNanos;
+        }
+        minDelayNanos.accumulateAndGet(sojournNanos, Math::min);
+        return overloaded && sojournNanos > sloughNanos;
+    }
+
+    public boolean isOverloaded() {
+        return overloaded;
+    }
+
+    /**
+     * 上一个完整区间内的最小排队时间，即无法靠突发消化掉的常驻排队时延
+     */
+    public long getStandingDelayNanos() {
+        return standingDelayNanos;
+    }
+
+    public long getTargetNanos() {
+        return targetNanos;
+    }
+
+    public long getIntervalNanos() {
+        return intervalNanos;
+    }
+}
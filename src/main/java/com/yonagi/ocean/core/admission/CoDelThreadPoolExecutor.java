@@ -0,0 +1,156 @@
+package com.yonagi.ocean.core.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 按排队时间做准入的平台线程池：入队时记录时间，出队时交给 CoDelController 判断，
+ * 排队过久的 Sheddable 任务直接 shed 而不执行；队列已满或线程池关闭时同样 shed，避免接受的连接无人处理。
+ * 排队时延以直方图导出为 worker_queue.delay，丢弃数导出为 worker_queue.shed.total{reason}
+ * @date 2025/11/23 17:20
+ */
+public class CoDelThreadPoolExecutor extends ThreadPoolExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(CoDelThreadPoolExecutor.class);
+
+    private static final String REASON_QUEUE_DELAY = "queue_delay";
+
+    private static final String REASON_QUEUE_FULL = "queue_full";
+
+    private static final String REASON_SHUTDOWN = "shutdown";
+
+    private final CoDelController controller;
+
+    // 线程池在 MetricsRegistry 之前创建，指标由 bindMeters 在注册表就绪后一次性创建
+    private volatile QueueMeters meters;
+
+    public CoDelThreadPoolExecutor(int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit,
+                                   BlockingQueue<Runnable> workQueue, CoDelController controller) {
+        super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, new ShedPolicy());
+        this.controller = controller;
+    }
+
+    /**
+     * 在指标注册表创建后调用，之前排队和丢弃的任务不计入指标
+     */
+    public void bindMeters(MeterRegistry meterRegistry) {
+        this.meters = new QueueMeters(meterRegistry);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+        super.execute(new QueuedTask(command, System.nanoTime()));
+    }
+
+    public CoDelController getController() {
+        return controller;
+    }
+
+    private void runQueued(QueuedTask task) {
+        long now = System.nanoTime();
+        long sojournNanos = now - task.enqueuedNanos;
+        QueueMeters current = meters;
+        if (current != null) {
+            current.queueDelayTimer.record(sojournNanos, TimeUnit.NANOSECONDS);
+        }
+        if (task.delegate instanceof Sheddable sheddable && controller.shouldDrop(sojournNanos, now)) {
+            log.debug("Shedding task after {} ms in queue", TimeUnit.NANOSECONDS.toMillis(sojournNanos));
+            if (current != null) {
+                current.queueDelayShedCounter.increment();
+            }
+            sheddable.shed();
+            return;
+        }
+        task.delegate.run();
+    }
+
+    private static final class QueueMeters {
+
+        private final Timer queueDelayTimer;
+
+        private final Counter queueDelayShedCounter;
+
+        private final Counter queueFullShedCounter;
+
+        private final Counter shutdownShedCounter;
+
+        private QueueMeters(MeterRegistry meterRegistry) {
+            this.queueDelayTimer = Timer.builder("worker_queue.delay")
+                    .description("Time connections spend in the worker queue before a thread picks them up")
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            this.queueDelayShedCounter = shedCounter(meterRegistry, REASON_QUEUE_DELAY);
+            this.queueFullShedCounter = shedCounter(meterRegistry, REASON_QUEUE_FULL);
+            this.shutdownShedCounter = shedCounter(meterRegistry, REASON_SHUTDOWN);
+        }
+
+        private static Counter shedCounter(MeterRegistry meterRegistry, String reason) {
+            return Counter.builder("worker_queue.shed.total")
+                    .description("Connections rejected with 503 instead of being served")
+                    .tag("reason", reason)
+                    .register(meterRegistry);
+        }
+    }
+
+    private final class QueuedTask implements Runnable, Sheddable {
+
+        private final Runnable delegate;
+
+        private final long enqueuedNanos;
+
+        private QueuedTask(Runnable delegate, long enqueuedNanos) {
+            this.delegate = delegate;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+
+        @Override
+        public void run() {
+            runQueued(this);
+        }
+
+        @Override
+        public void shed() {
+            if (delegate instanceof Sheddable sheddable) {
+                sheddable.shed();
+            }
+        }
+
+        private boolean isSheddable() {
+            return delegate instanceof Sheddable;
+        }
+    }
+
+    /**
+     * 队列满或线程池已关闭时 shed 任务；不可丢弃的任务沿用 AbortPolicy 的行为
+     */
+    private static final class ShedPolicy implements RejectedExecutionHandler {
+
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            if (r instanceof CoDelThreadPoolExecutor.QueuedTask task && task.isSheddable()) {
+                QueueMeters meters = ((CoDelThreadPoolExecutor) executor).meters;
+                if (meters != null) {
+                    (executor.isShutdown() ? meters.shutdownShedCounter : meters.queueFullShedCounter).increment();
+                }
+                task.shed();
+                return;
+            }
+            throw new RejectedExecutionException("Task " + r + " rejected from " + executor);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.yonagi.ocean.core.admission;
+
+import com.yonagi.ocean.admin.metrics.MetricsRegistry;
+import com.yonagi.ocean.core.admission.enums.RequestPriority;
+import com.yonagi.ocean.utils.LocalConfigLoader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 按优先级做准入判断。观测三个负载信号：CPU 使用率（定时采样）、工作队列的常驻排队时延（来自 CoDelController）
+ * 以及经过本中间件的在途请求数；每个优先级有各自的阈值，任一信号越过阈值时该优先级的请求被拒绝。
+ * 默认阈值随优先级升高，因此负载上升时 SHEDDABLE 最先被丢弃，CRITICAL 默认不参与丢弃
+ * @date 2025/11/23 18:00
+ */
+public class LoadSheddingManager {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadSheddingManager.class);
+
+    public static final String REASON_CPU = "cpu";
+
+    public static final String REASON_QUEUE_DELAY = "queue_delay";
+
+    public static final String REASON_IN_FLIGHT = "in_flight";
+
+    private static final LoadSheddingManager INSTANCE = new LoadSheddingManager();
+
+    private final boolean enabled;
+
+    private final RequestPriority defaultPriority;
+
+    private final Thresholds[] thresholds = new Thresholds[RequestPriority.values().length];
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double cpuLoad;
+
+    private volatile CoDelController queueController;
+
+    private final ScheduledExecutorService sampler;
+
+    private final Map<RequestPriority, Map<String, Counter>> shedCounters = new EnumMap<>(RequestPriority.class);
+
+    private LoadSheddingManager() {
+        this.enabled = Boolean.parseBoolean(LocalConfigLoader.getProperty("server.load_shedding.enabled", "false"));
+        String priorityName = LocalConfigLoader.getProperty("server.load_shedding.default_priority", "NORMAL");
+        RequestPriority configured = RequestPriority.getRequestPriority(priorityName);
+        if (configured == null) {
+            log.warn("Unknown default request priority {}, falling back to NORMAL", priorityName);
+            configured = RequestPriority.NORMAL;
+        }
+        this.defaultPriority = configured;
+        thresholds[RequestPriority.SHEDDABLE.ordinal()] = Thresholds.load("sheddable", "0.75", "20", "200");
+        thresholds[RequestPriority.NORMAL.ordinal()] = Thresholds.load("normal", "0.90", "100", "400");
+        thresholds[RequestPriority.CRITICAL.ordinal()] = Thresholds.load("critical", "0", "0", "0");
+
+        if (enabled) {
+            long intervalMillis = Long.parseLong(LocalConfigLoader.getProperty("server.load_shedding.cpu_sample_interval_millis", "500"));
+            this.sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "Load-Shedding-Sampler");
+                t.setDaemon(true);
+                return t;
+            });
+            sampler.scheduleAtFixedRate(this::sampleCpu, 0, intervalMillis, TimeUnit.MILLISECONDS);
+            Gauge.builder("load_shedding.in_flight", inFlight, AtomicInteger::get)
+                    .description("Requests currently admitted by load shedding")
+                    .register(MetricsRegistry.currentMeterRegistry());
+            Gauge.builder("load_shedding.cpu_load", this, manager -> manager.cpuLoad)
+                    .description("Sampled CPU load used for load shedding decisions")
+                    .register(MetricsRegistry.currentMeterRegistry());
+            for (RequestPriority priority : RequestPriority.values()) {
+                Map<String, Counter> counters = new HashMap<>();
+                for (String reason : new String[]{REASON_CPU, REASON_QUEUE_DELAY, REASON_IN_FLIGHT}) {
+                    counters.put(reason, Counter.builder("load_shedding.shed.total")
+                            .description("Requests rejected by priority load shedding")
+                            .tags("priority", priority.name(), "reason", reason)
+                            .register(MetricsRegistry.currentMeterRegistry()));
+                }
+                shedCounters.put(priority, counters);
+            }
+        } else {
+            this.sampler = null;
+        }
+    }
+
+    public static LoadSheddingManager getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public RequestPriority getDefaultPriority() {
+        return defaultPriority;
+    }
+
+    /**
+     * 绑定平台线程池的排队时延来源，使用虚拟线程时不绑定，该信号恒为 0
+     */
+    public void bindQueueController(CoDelController controller) {
+        this.queueController = controller;
+    }
+
+    /**
+     * 是否有任何优先级的阈值被越过，用于在无压力时跳过优先级解析
+     */
+    public boolean isUnderPressure() {
+        for (Thresholds t : thresholds) {
+            if (t.exceeded(cpuLoad, queueDelayNanos(), inFlight.get()) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return 应当丢弃时返回越过阈值的信号名，否则返回 null
+     */
+    public String shedReason(RequestPriority priority) {
+        String reason = thresholds[priority.ordinal()].exceeded(cpuLoad, queueDelayNanos(), inFlight.get());
+        Map<String, Counter> counters = shedCounters.get(priority);
+        if (reason != null && counters != null) {
+            counters.get(reason).increment();
+        }
+        return reason;
+    }
+
+    public void enter() {
+        inFlight.incrementAndGet();
+    }
+
+    public void exit() {
+        inFlight.decrementAndGet();
+    }
+
+    public void shutdown() {
+        if (sampler != null) {
+            sampler.shutdownNow();
+        }
+    }
+
+    private long queueDelayNanos() {
+        CoDelController controller = queueController;
+        return controller == null ? 0L : controller.getStandingDelayNanos();
+    }
+
+    private void sampleCpu() {
+        OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+        double load = bean instanceof com.sun.management.OperatingSystemMXBean sunBean ? sunBean.getCpuLoad() : -1;
+        if (load < 0) {
+            // 拿不到 CPU 使用率时用平均负载近似
+            double average = bean.getSystemLoadAverage();
+            load = average < 0 ? 0 : Math.min(1.0, average / bean.getAvailableProcessors());
+        }
+        cpuLoad = load;
+    }
+
+    /**
+     * 某一优先级的阈值，非正数表示不检查该信号
+     */
+    private static final class Thresholds {
+
+        private final double cpuLoad;
+
+        private final long queueDelayNanos;
+
+        private final int maxInFlight;
+
+        private Thresholds(double cpuLoad, long queueDelayNanos, int maxInFlight) {
+            this.cpuLoad = cpuLoad;
+            this.queueDelayNanos = queueDelayNanos;
+            this.maxInFlight = maxInFlight;
+        }
+
+        private static Thresholds load(String name, String cpu, String queueDelayMillis, String maxInFlight) {
+            String prefix = "server.load_shedding." + name + ".";
+            return new Thresholds(
+                    Double.parseDouble(LocalConfigLoader.getProperty(prefix + "cpu_threshold", cpu)),
+                    TimeUnit.MILLISECONDS.toNanos(Long.parseLong(LocalConfigLoader.getProperty(prefix + "queue_delay_millis", queueDelayMillis))),
+                    Integer.parseInt(LocalConfigLoader.getProperty(prefix + "max_in_flight", maxInFlight)));
+        }
+
+        private String exceeded(double currentCpu, long currentQueueDelay, int currentInFlight) {
+            if (cpuLoad > 0 && currentCpu >= cpuLoad) {
+                return REASON_CPU;
+            }
+            if (queueDelayNanos > 0 && currentQueueDelay >= queueDelayNanos) {
+                return REASON_QUEUE_DELAY;
+            }
+            if (maxInFlight > 0 && currentInFlight >= maxInFlight) {
+                return REASON_IN_FLIGHT;
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.yonagi.ocean.core.admission;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 预先序列化好的 503 响应。被丢弃的连接不经过解析和中间件链，直接写出这段字节后关闭，
+ * 不需要为过载时的拒绝再分配响应对象
+ * @date 2025/11/23 17:10
+ */
+public final class OverloadResponse {
+
+    private static final Logger log = LoggerFactory.getLogger(OverloadResponse.class);
+
+    private static final byte[] BODY = "Server is overloaded. Try again later.".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] RESPONSE = buildResponse();
+
+    private OverloadResponse() {
+    }
+
+    private static byte[] buildResponse() {
+        String head = "HTTP/1.1 503 Service Unavailable\r\n"
+                + "Content-Type: text/plain; charset=utf-8\r\n"
+                + "Content-Length: " + BODY.length + "\r\n"
+                + "Retry-After: 1\r\n"
+                + "Connection: close\r\n"
+                + "\r\n";
+        byte[] headBytes = head.getBytes(StandardCharsets.US_ASCII);
+        byte[] response = new byte[headBytes.length + BODY.length];
+        System.arraycopy(headBytes, 0, response, 0, headBytes.length);
+        System.arraycopy(BODY, 0, response, headBytes.length, BODY.length);
+        return response;
+    }
+
+    /**
+     * 写出 503 并关闭连接，任何 I/O 错误都只记录不抛出
+     */
+    public static void send(Socket client) {
+        try {
+            OutputStream output = client.getOutputStream();
+            output.write(RESPONSE);
+            output.flush();
+            client.shutdownOutput();
+        } catch (IOException e) {
+            log.debug("Failed to send overload response to {}: {}", client.getInetAddress(), e.getMessage());
+        } finally {
+            close(client);
+        }
+    }
+
+    public static void close(Socket client) {
+        try {
+            client.close();
+        } catch (IOException e) {
+            log.debug("Error closing shed connection: {}", e.getMessage());
+        }
+    }
+}
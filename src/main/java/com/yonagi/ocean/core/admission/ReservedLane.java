@@ -0,0 +1,191 @@
+package com.yonagi.ocean.core.admission;
+
+import com.yonagi.ocean.admin.utils.AdminUtil;
+import com.yonagi.ocean.utils.LocalConfigLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 健康检查和指标端点的预留通道。被工作线程池丢弃的连接不直接回 503，而是先在虚拟线程上用很短的超时读取请求行：
+ * 请求健康检查或指标端点的连接才交给这组独立线程处理，其余连接直接回 503，被丢弃的普通流量不会占满预留通道。
+ * 配置了 port 时另开一个只服务这些端点的端口，探针不必先在工作队列里排队。
+ * 工作线程池被占满时探针仍然能得到应答，不会因为一次流量尖峰被误判为宕机
+ * @date 2025/11/23 18:20
+ */
+public class ReservedLane {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservedLane.class);
+
+    private static final ReservedLane INSTANCE = new ReservedLane();
+
+    private static final int MAX_REQUEST_LINE_LENGTH = 8192;
+
+    // 同时在分类的连接上限，超出时直接回 503
+    private static final int MAX_CLASSIFYING = 256;
+
+    private final boolean enabled;
+
+    private final int readTimeoutMillis;
+
+    private final int classifyTimeoutMillis;
+
+    private final int port;
+
+    private final AtomicInteger classifying = new AtomicInteger();
+
+    private final ThreadPoolExecutor executor;
+
+    private ReservedLane() {
+        this.enabled = Boolean.parseBoolean(LocalConfigLoader.getProperty("server.load_shedding.reserved_lane.enabled", "true"));
+        this.readTimeoutMillis = Integer.parseInt(LocalConfigLoader.getProperty("server.load_shedding.reserved_lane.read_timeout_millis", "2000"));
+        this.classifyTimeoutMillis = Math.max(1, Integer.parseInt(LocalConfigLoader.getProperty("server.load_shedding.reserved_lane.classify_timeout_millis", "200")));
+        this.port = Integer.parseInt(LocalConfigLoader.getProperty("server.load_shedding.reserved_lane.port", "0"));
+        if (enabled) {
+            int threads = Integer.parseInt(LocalConfigLoader.getProperty("server.load_shedding.reserved_lane.threads", "2"));
+            int queueSize = Integer.parseInt(LocalConfigLoader.getProperty("server.load_shedding.reserved_lane.queue_size", "16"));
+            AtomicInteger threadIndex = new AtomicInteger();
+            this.executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(queueSize),
+                    r -> {
+                        Thread t = new Thread(r, "Reserved-Lane-" + threadIndex.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    },
+                    new ThreadPoolExecutor.AbortPolicy());
+            executor.allowCoreThreadTimeOut(true);
+        } else {
+            this.executor = null;
+        }
+    }
+
+    public static ReservedLane getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getReadTimeoutMillis() {
+        return readTimeoutMillis;
+    }
+
+    /**
+     * 专用探针端口，未配置或通道未启用时返回 0
+     */
+    public int getPort() {
+        return enabled ? Math.max(0, port) : 0;
+    }
+
+    /**
+     * 是否是走预留通道的端点
+     */
+    public static boolean isReserved(String uri) {
+        return uri != null && (AdminUtil.getHealthUri().equalsIgnoreCase(uri) || AdminUtil.getMetricUri().equalsIgnoreCase(uri));
+    }
+
+    /**
+     * 接收一个被丢弃的连接：在虚拟线程上读取请求行，请求预留端点时把已读出的请求行交给 handler 在预留通道中处理，
+     * 否则回 503。
+     * @return 通道未启用或分类中的连接过多时返回 false，由调用方直接回 503
+     */
+    public boolean admit(Socket client, Consumer<byte[]> handler) {
+        if (executor == null) {
+            return false;
+        }
+        if (classifying.incrementAndGet() > MAX_CLASSIFYING) {
+            classifying.decrementAndGet();
+            return false;
+        }
+        Thread.ofVirtual().name("Reserved-Lane-Classifier").start(() -> {
+            byte[] requestLine;
+            try {
+                requestLine = readRequestLine(client);
+            } finally {
+                classifying.decrementAndGet();
+            }
+            if (requestLine == null || !isReserved(parseUri(requestLine))) {
+                OverloadResponse.send(client);
+            } else if (!trySubmit(() -> handler.accept(requestLine))) {
+                OverloadResponse.send(client);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * @return 通道未启用或已满时返回 false，由调用方直接回 503
+     */
+    public boolean trySubmit(Runnable task) {
+        if (executor == null) {
+            return false;
+        }
+        try {
+            executor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.debug("Reserved lane is full");
+            return false;
+        }
+    }
+
+    /**
+     * 读取请求行（含行尾），超时、连接结束或超长时返回 null
+     */
+    private byte[] readRequestLine(Socket client) {
+        try {
+            client.setSoTimeout(classifyTimeoutMillis);
+            InputStream input = client.getInputStream();
+            ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+            while (line.size() < MAX_REQUEST_LINE_LENGTH) {
+                int b = input.read();
+                if (b == -1) {
+                    return null;
+                }
+                line.write(b);
+                if (b == '\n') {
+                    return line.toByteArray();
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Could not read request line of shed connection: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    private static String parseUri(byte[] requestLine) {
+        String line = new String(requestLine, StandardCharsets.ISO_8859_1);
+        int start = line.indexOf(' ');
+        if (start < 0) {
+            return null;
+        }
+        int end = line.indexOf(' ', start + 1);
+        if (end < 0) {
+            return null;
+        }
+        String uri = line.substring(start + 1, end);
+        int query = uri.indexOf('?');
+        return query < 0 ? uri : uri.substring(0, query);
+    }
+
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.yonagi.ocean.core.admission;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 可以在不执行的情况下被丢弃的任务，丢弃时应以尽量小的代价通知对端并释放资源
+ * @date 2025/11/23 17:00
+ */
+public interface Sheddable {
+
+    void shed();
+}
@@ -0,0 +1,30 @@
+package com.yonagi.ocean.core.admission.enums;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 请求优先级，过载时从最低的 SHEDDABLE 开始丢弃
+ * @date 2025/11/23 17:40
+ */
+public enum RequestPriority {
+    CRITICAL,
+    NORMAL,
+    SHEDDABLE;
+
+    public static RequestPriority getRequestPriority(String priority) {
+        if (priority == null) {
+            return null;
+        }
+        try {
+            return RequestPriority.valueOf(priority.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return this.name();
+    }
+}
@@ -0,0 +1,208 @@
+package com.yonagi.ocean.core.bulkhead;
+
+import com.yonagi.ocean.admin.metrics.MetricsRegistry;
+import com.yonagi.ocean.core.bulkhead.config.BulkheadConfig;
+import com.yonagi.ocean.core.bulkhead.enums.BulkheadRejectionPolicy;
+import com.yonagi.ocean.core.bulkhead.enums.BulkheadType;
+import io.micrometer.core.instrument.Counter;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 一个舱壁。两种类型都用信号量做准入：SEMAPHORE 的名额为 maxConcurrent，任务在调用线程上执行；
+ * THREAD_POOL 的名额为 maxConcurrent + queueSize，任务交给 maxConcurrent 个专属线程执行，调用线程等待结果，
+ * 因此慢路由最多占用 maxConcurrent + queueSize 个工作线程，其余请求按拒绝策略处理
+ * @date 2025/11/23 19:20
+ */
+public class Bulkhead {
+
+    private static final String ACTION_REJECTED = "rejected";
+
+    private static final String ACTION_CALLER_RUNS = "caller_runs";
+
+    private final String name;
+
+    private final BulkheadConfig config;
+
+    private final Semaphore permits;
+
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicInteger active = new AtomicInteger();
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    private final Counter rejectedOverflowCounter;
+
+    private final Counter callerRunsOverflowCounter;
+
+    public Bulkhead(String name, BulkheadConfig config) {
+        this.name = name;
+        this.config = config;
+        int maxConcurrent = config.getMaxConcurrent();
+        if (config.getType() == BulkheadType.THREAD_POOL) {
+            this.permits = new Semaphore(maxConcurrent + config.getQueueSize(), true);
+            AtomicInteger threadIndex = new AtomicInteger();
+            // 队列长度由信号量限制，这里不再设上限
+            this.executor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 60L, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(),
+                    r -> {
+                        Thread t = new Thread(r, "Bulkhead-" + name + "-" + threadIndex.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    });
+            this.executor.allowCoreThreadTimeOut(true);
+        } else {
+            this.permits = new Semaphore(maxConcurrent, true);
+            this.executor = null;
+        }
+        this.rejectedOverflowCounter = overflowCounter(name, ACTION_REJECTED);
+        this.callerRunsOverflowCounter = overflowCounter(name, ACTION_CALLER_RUNS);
+    }
+
+    public <T> T call(Callable<T> task) throws Exception {
+        if (!acquire()) {
+            if (config.getRejectionPolicy() == BulkheadRejectionPolicy.CALLER_RUNS) {
+                callerRunsOverflowCounter.increment();
+                return task.call();
+            }
+            rejected.incrementAndGet();
+            rejectedOverflowCounter.increment();
+            throw new BulkheadFullException(name);
+        }
+        if (executor == null) {
+            active.incrementAndGet();
+            try {
+                return task.call();
+            } finally {
+                active.decrementAndGet();
+                permits.release();
+            }
+        }
+        return callOnExecutor(task);
+    }
+
+    private boolean acquire() throws InterruptedException {
+        long maxWaitMillis = config.getMaxWaitMillis();
+        if (config.getRejectionPolicy() == BulkheadRejectionPolicy.WAIT && maxWaitMillis > 0) {
+            return permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        }
+        return permits.tryAcquire();
+    }
+
+    private <T> T callOnExecutor(Callable<T> task) throws Exception {
+        // 调用方放弃等待时，由先拿到 started 的一方负责归还名额
+        AtomicBoolean started = new AtomicBoolean();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                if (!started.compareAndSet(false, true)) {
+                    return null;
+                }
+                active.incrementAndGet();
+                try {
+                    return task.call();
+                } finally {
+                    active.decrementAndGet();
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            rejected.incrementAndGet();
+            rejectedOverflowCounter.increment();
+            throw new BulkheadFullException(name);
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            if (started.compareAndSet(false, true)) {
+                permits.release();
+            }
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private static Counter overflowCounter(String name, String action) {
+        return Counter.builder("bulkhead.overflow.total")
+                .description("Calls that found the bulkhead full, by the action taken")
+                .tags("bulkhead", name, "action", action)
+                .register(MetricsRegistry.currentMeterRegistry());
+    }
+
+    /**
+     * 停止接收新任务，已排队和执行中的任务继续完成
+     */
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public BulkheadConfig getConfig() {
+        return config;
+    }
+
+    public BulkheadType getType() {
+        return config.getType();
+    }
+
+    public int getMaxConcurrent() {
+        return config.getMaxConcurrent();
+    }
+
+    public int getQueueCapacity() {
+        return executor != null ? config.getQueueSize() : 0;
+    }
+
+    public int getActive() {
+        return active.get();
+    }
+
+    /**
+     * 已获得名额但尚未开始执行的任务数，加上正在等待名额的调用数
+     */
+    public int getQueued() {
+        int waiting = permits.getQueueLength();
+        return executor != null ? executor.getQueue().size() + waiting : waiting;
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    /**
+     * 执行中的任务占 maxConcurrent 的比例
+     */
+    public double getSaturation() {
+        return (double) active.get() / config.getMaxConcurrent();
+    }
+}
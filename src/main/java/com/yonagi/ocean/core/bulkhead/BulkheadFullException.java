@@ -0,0 +1,17 @@
+package com.yonagi.ocean.core.bulkhead;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 舱壁没有名额且拒绝策略不允许继续执行
+ * @date 2025/11/23 19:10
+ */
+public class BulkheadFullException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    public BulkheadFullException(String bulkheadName) {
+        super("Bulkhead " + bulkheadName + " is full");
+    }
+}
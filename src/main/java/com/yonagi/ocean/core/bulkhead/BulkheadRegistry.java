@@ -0,0 +1,180 @@
+package com.yonagi.ocean.core.bulkhead;
+
+import com.yonagi.ocean.admin.metrics.MetricsRegistry;
+import com.yonagi.ocean.core.bulkhead.config.BulkheadConfig;
+import com.yonagi.ocean.core.protocol.enums.HttpMethod;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 按名称持有舱壁。名称取配置中的 group，未配置时由调用方给出（每条路由或反向代理规则各一个）。
+ * 路由与反向代理规则刷新时通过 reconcile 上报各自声明的舱壁：配置变化的舱壁换成新实例，旧实例停止接收新任务、
+ * 已排队的任务执行完毕；不再被声明的舱壁连同线程池和指标一起移除。共享 group 的声明不一致时沿用先声明的配置并告警
+ * @date 2025/11/23 19:40
+ */
+public class BulkheadRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkheadRegistry.class);
+
+    private static final BulkheadRegistry INSTANCE = new BulkheadRegistry();
+
+    public static final String SOURCE_ROUTE = "route";
+
+    public static final String SOURCE_PROXY = "proxy";
+
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    // 来源 -> (舱壁名称 -> 配置)
+    private final Map<String, Map<String, BulkheadConfig>> declarations = new ConcurrentHashMap<>();
+
+    private volatile Map<String, BulkheadConfig> declared = Map.of();
+
+    private final Map<String, List<Meter>> meters = new ConcurrentHashMap<>();
+
+    private BulkheadRegistry() {
+    }
+
+    public static BulkheadRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    public static String routeName(HttpMethod method, String path) {
+        return "route:" + method + " " + path;
+    }
+
+    public static String proxyName(String id) {
+        return "proxy:" + id;
+    }
+
+    private static String nameOf(String defaultName, BulkheadConfig config) {
+        return config.getGroup() != null ? config.getGroup() : defaultName;
+    }
+
+    public Bulkhead getOrCreate(String defaultName, BulkheadConfig config) {
+        String name = nameOf(defaultName, config);
+        Bulkhead bulkhead = bulkheads.get(name);
+        if (bulkhead != null && (bulkhead.getConfig().equals(config) || declared.containsKey(name))) {
+            return bulkhead;
+        }
+        // 首次使用，或未经 reconcile 上报的舱壁配置发生了变化
+        return install(name, declared.getOrDefault(name, config));
+    }
+
+    /**
+     * 用某个来源（路由或反向代理规则）刷新后的完整声明校准舱壁，key 为未配置 group 时使用的默认名称，
+     * 只应包含已启用的舱壁
+     */
+    public synchronized void reconcile(String source, Map<String, BulkheadConfig> sourceDeclarations) {
+        Map<String, BulkheadConfig> byName = new HashMap<>();
+        sourceDeclarations.forEach((defaultName, config) -> declare(byName, nameOf(defaultName, config), config));
+        Map<String, BulkheadConfig> previous = declarations.put(source, byName);
+
+        Map<String, BulkheadConfig> merged = new LinkedHashMap<>();
+        declareAll(merged, declarations.get(SOURCE_ROUTE));
+        declareAll(merged, declarations.get(SOURCE_PROXY));
+        this.declared = merged;
+
+        if (previous != null) {
+            previous.keySet().stream()
+                    .filter(name -> !merged.containsKey(name))
+                    .forEach(this::evict);
+        }
+        merged.forEach((name, config) -> {
+            if (bulkheads.containsKey(name)) {
+                install(name, config);
+            }
+        });
+    }
+
+    private static void declareAll(Map<String, BulkheadConfig> target, Map<String, BulkheadConfig> configs) {
+        if (configs != null) {
+            configs.forEach((name, config) -> declare(target, name, config));
+        }
+    }
+
+    private static void declare(Map<String, BulkheadConfig> target, String name, BulkheadConfig config) {
+        BulkheadConfig first = target.putIfAbsent(name, config);
+        if (first != null && !first.equals(config)) {
+            log.warn("Bulkhead {} is declared with different settings, keeping the first ones", name);
+        }
+    }
+
+    private synchronized Bulkhead install(String name, BulkheadConfig config) {
+        Bulkhead current = bulkheads.get(name);
+        if (current != null && current.getConfig().equals(config)) {
+            return current;
+        }
+        Bulkhead bulkhead = new Bulkhead(name, config);
+        bulkheads.put(name, bulkhead);
+        if (current == null) {
+            log.info("Created {} bulkhead {} with max concurrent {}", config.getType(), name, config.getMaxConcurrent());
+            meters.computeIfAbsent(name, this::registerMeters);
+        } else {
+            log.info("Replaced bulkhead {} with {} bulkhead of max concurrent {}", name, config.getType(), config.getMaxConcurrent());
+            current.shutdown();
+        }
+        return bulkhead;
+    }
+
+    private void evict(String name) {
+        Bulkhead bulkhead = bulkheads.remove(name);
+        if (bulkhead == null) {
+            return;
+        }
+        bulkhead.shutdown();
+        MeterRegistry registry = MetricsRegistry.currentMeterRegistry();
+        List<Meter> registered = meters.remove(name);
+        if (registered != null) {
+            registered.forEach(registry::remove);
+        }
+        registry.find("bulkhead.overflow.total").tag("bulkhead", name).meters().forEach(registry::remove);
+        log.info("Removed bulkhead {} that is no longer declared", name);
+    }
+
+    /**
+     * 按名称排序的当前舱壁，供管理页面展示
+     */
+    public List<Bulkhead> getBulkheads() {
+        List<Bulkhead> result = new ArrayList<>(bulkheads.values());
+        result.sort(Comparator.comparing(Bulkhead::getName));
+        return result;
+    }
+
+    public void shutdown() {
+        bulkheads.values().forEach(Bulkhead::shutdown);
+    }
+
+    private List<Meter> registerMeters(String name) {
+        MeterRegistry registry = MetricsRegistry.currentMeterRegistry();
+        return List.of(
+                gauge(registry, name, "bulkhead.active", "Calls currently executing in the bulkhead", b -> b.getActive()),
+                gauge(registry, name, "bulkhead.queued", "Calls waiting in the bulkhead", b -> b.getQueued()),
+                gauge(registry, name, "bulkhead.max_concurrent", "Concurrency limit of the bulkhead", b -> b.getMaxConcurrent()),
+                gauge(registry, name, "bulkhead.saturation", "Executing calls as a fraction of the concurrency limit", Bulkhead::getSaturation));
+    }
+
+    private Meter gauge(MeterRegistry registry, String name, String meterName, String description, ToDoubleFunction<Bulkhead> value) {
+        return Gauge.builder(meterName, bulkheads, map -> {
+                    Bulkhead bulkhead = map.get(name);
+                    return bulkhead == null ? 0 : value.applyAsDouble(bulkhead);
+                })
+                .description(description)
+                .tag("bulkhead", name)
+                .register(registry);
+    }
+}
@@ -0,0 +1,103 @@
+package com.yonagi.ocean.core.bulkhead.config;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.yonagi.ocean.core.bulkhead.enums.BulkheadRejectionPolicy;
+import com.yonagi.ocean.core.bulkhead.enums.BulkheadType;
+
+import java.util.Objects;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 舱壁隔离配置。group 相同的路由与反向代理规则共用一个舱壁，未指定时每条规则独占一个；
+ * 无法识别的 type / rejectionPolicy 分别按 SEMAPHORE / REJECT 处理
+ * @date 2025/11/23 19:05
+ */
+public final class BulkheadConfig {
+
+    private final Boolean enabled;
+
+    private final String group;
+
+    private final BulkheadType type;
+
+    private final Integer maxConcurrent;
+
+    private final Integer queueSize;
+
+    private final Long maxWaitMillis;
+
+    private final BulkheadRejectionPolicy rejectionPolicy;
+
+    @JsonCreator
+    public BulkheadConfig(@JsonProperty("enabled") Boolean enabled,
+                          @JsonProperty("group") String group,
+                          @JsonProperty("type") String type,
+                          @JsonProperty("maxConcurrent") Integer maxConcurrent,
+                          @JsonProperty("queueSize") Integer queueSize,
+                          @JsonProperty("maxWaitMillis") Long maxWaitMillis,
+                          @JsonProperty("rejectionPolicy") String rejectionPolicy) {
+        this.enabled = enabled != null && enabled;
+        this.group = group != null && !group.isBlank() ? group.trim() : null;
+        BulkheadType parsedType = BulkheadType.getBulkheadType(type);
+        this.type = parsedType != null ? parsedType : BulkheadType.SEMAPHORE;
+        this.maxConcurrent = maxConcurrent != null ? Math.max(1, maxConcurrent) : 10;
+        this.queueSize = queueSize != null ? Math.max(0, queueSize) : 0;
+        this.maxWaitMillis = maxWaitMillis != null ? Math.max(0L, maxWaitMillis) : 0L;
+        BulkheadRejectionPolicy parsedPolicy = BulkheadRejectionPolicy.getBulkheadRejectionPolicy(rejectionPolicy);
+        this.rejectionPolicy = parsedPolicy != null ? parsedPolicy : BulkheadRejectionPolicy.REJECT;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(enabled, group, type, maxConcurrent, queueSize, maxWaitMillis, rejectionPolicy);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (obj == null || obj.getClass() != getClass()) {
+            return false;
+        }
+        BulkheadConfig that = (BulkheadConfig) obj;
+        return Objects.equals(enabled, that.enabled) &&
+                Objects.equals(group, that.group) &&
+                Objects.equals(type, that.type) &&
+                Objects.equals(maxConcurrent, that.maxConcurrent) &&
+                Objects.equals(queueSize, that.queueSize) &&
+                Objects.equals(maxWaitMillis, that.maxWaitMillis) &&
+                Objects.equals(rejectionPolicy, that.rejectionPolicy);
+    }
+
+    public Boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getGroup() {
+        return group;
+    }
+
+    public BulkheadType getType() {
+        return type;
+    }
+
+    public Integer getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public Integer getQueueSize() {
+        return queueSize;
+    }
+
+    public Long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    public BulkheadRejectionPolicy getRejectionPolicy() {
+        return rejectionPolicy;
+    }
+}
@@ -0,0 +1,31 @@
+package com.yonagi.ocean.core.bulkhead.enums;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 舱壁满时的处理方式：REJECT 立即返回 503；WAIT 最多等待 maxWaitMillis，仍无名额时返回 503；
+ * CALLER_RUNS 不经隔离直接在调用线程上执行
+ * @date 2025/11/23 19:00
+ */
+public enum BulkheadRejectionPolicy {
+    REJECT,
+    WAIT,
+    CALLER_RUNS;
+
+    public static BulkheadRejectionPolicy getBulkheadRejectionPolicy(String policy) {
+        if (policy == null) {
+            return null;
+        }
+        try {
+            return BulkheadRejectionPolicy.valueOf(policy.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return this.name();
+    }
+}
@@ -0,0 +1,29 @@
+package com.yonagi.ocean.core.bulkhead.enums;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 舱壁类型：SEMAPHORE 在调用线程上执行，只限制并发数；THREAD_POOL 在独立线程池上执行，带有界队列
+ * @date 2025/11/23 19:00
+ */
+public enum BulkheadType {
+    SEMAPHORE,
+    THREAD_POOL;
+
+    public static BulkheadType getBulkheadType(String type) {
+        if (type == null) {
+            return null;
+        }
+        try {
+            return BulkheadType.valueOf(type.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return this.name();
+    }
+}
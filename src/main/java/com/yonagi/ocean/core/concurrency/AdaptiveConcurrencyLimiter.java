@@ -0,0 +1,214 @@
+package com.yonagi.ocean.core.concurrency;
+
+import com.yonagi.ocean.admin.metrics.MetricsRegistry;
+import com.yonagi.ocean.core.concurrency.algorithm.LimitAlgorithm;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 一个路由的自适应并发限制。在途请求数低于当前上限时直接放行，
+ * 否则最多 queue_size 个请求排队等待 max_wait_millis，超出的请求被拒绝。
+ * 每个请求结束后把耗时与无负载基线交给 LimitAlgorithm 调整上限；基线取该路由最近两个 baseline_window 内的最小 RTT，
+ * 后端持续变慢时基线会随窗口滚动而抬升，不会被很久以前的低延迟一直压着。
+ * algorithm 为 null 时上限固定不变，只按在途请求数限制，用于混合了各路由延迟、无法得到有意义基线的全局限制
+ * @date 2025/11/23 14:30
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final String name;
+
+    private final LimitAlgorithm algorithm;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final int queueSize;
+
+    private final long maxWaitNanos;
+
+    private final long baselineWindowNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger(0);
+
+    private final AtomicInteger queued = new AtomicInteger(0);
+
+    private volatile double limit;
+
+    private final ReentrantLock waitLock = new ReentrantLock();
+
+    private final Condition released = waitLock.newCondition();
+
+    // 以下基线状态只在 synchronized (this) 中访问
+    private long windowStartNanos = System.nanoTime();
+
+    private long currentWindowMinRtt = Long.MAX_VALUE;
+
+    private long previousWindowMinRtt = Long.MAX_VALUE;
+
+    private final Counter queueFullCounter;
+
+    private final Counter timeoutCounter;
+
+    public AdaptiveConcurrencyLimiter(String name, LimitAlgorithm algorithm, int initialLimit, int minLimit, int maxLimit,
+                                      int queueSize, long maxWaitMillis, long baselineWindowMillis) {
+        this.name = name;
+        this.algorithm = algorithm;
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.max(this.minLimit, Math.min(this.maxLimit, initialLimit));
+        this.queueSize = Math.max(0, queueSize);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, maxWaitMillis));
+        this.baselineWindowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1L, baselineWindowMillis));
+
+        MeterRegistry meterRegistry = MetricsRegistry.currentMeterRegistry();
+        Gauge.builder("adaptive_concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit")
+                .tag("route", name)
+                .register(meterRegistry);
+        Gauge.builder("adaptive_concurrency.in_flight", inFlight, AtomicInteger::get)
+                .description("Requests currently holding a concurrency slot")
+                .tag("route", name)
+                .register(meterRegistry);
+        Gauge.builder("adaptive_concurrency.queued", queued, AtomicInteger::get)
+                .description("Requests waiting for a concurrency slot")
+                .tag("route", name)
+                .register(meterRegistry);
+        this.queueFullCounter = rejectedCounter(meterRegistry, name, "queue_full");
+        this.timeoutCounter = rejectedCounter(meterRegistry, name, "timeout");
+    }
+
+    public static AdaptiveConcurrencyLimiter fixed(String name, int limit, int queueSize, long maxWaitMillis) {
+        return new AdaptiveConcurrencyLimiter(name, null, limit, limit, limit, queueSize, maxWaitMillis, 1L);
+    }
+
+    /**
+     * 获取一个并发名额，成功后必须调用 release 或 cancel 归还
+     */
+    public boolean acquire() throws InterruptedException {
+        if (tryIncrement()) {
+            return true;
+        }
+        if (maxWaitNanos == 0 || !tryEnqueue()) {
+            queueFullCounter.increment();
+            return false;
+        }
+        waitLock.lock();
+        try {
+            long remaining = maxWaitNanos;
+            while (true) {
+                if (tryIncrement()) {
+                    return true;
+                }
+                if (remaining <= 0) {
+                    timeoutCounter.increment();
+                    return false;
+                }
+                remaining = released.awaitNanos(remaining);
+            }
+        } finally {
+            queued.decrementAndGet();
+            waitLock.unlock();
+        }
+    }
+
+    /**
+     * 归还名额并用本次请求的耗时更新上限
+     */
+    public void release(long rttNanos, boolean dropped) {
+        int current = inFlight.getAndDecrement();
+        if (algorithm == null) {
+            signalWaiter();
+            return;
+        }
+        synchronized (this) {
+            long baseline = updateBaseline(rttNanos);
+            double next = algorithm.update(limit, rttNanos, baseline, current, dropped);
+            limit = Math.max(minLimit, Math.min(maxLimit, next));
+        }
+        signalWaiter();
+    }
+
+    /**
+     * 归还名额但不计入采样，用于请求没有真正执行的情况
+     */
+    public void cancel() {
+        inFlight.decrementAndGet();
+        signalWaiter();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private boolean tryIncrement() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private boolean tryEnqueue() {
+        while (true) {
+            int current = queued.get();
+            if (current >= queueSize) {
+                return false;
+            }
+            if (queued.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void signalWaiter() {
+        if (queued.get() == 0) {
+            return;
+        }
+        waitLock.lock();
+        try {
+            released.signal();
+        } finally {
+            waitLock.unlock();
+        }
+    }
+
+    private long updateBaseline(long rttNanos) {
+        long now = System.nanoTime();
+        if (now - windowStartNanos >= baselineWindowNanos) {
+            previousWindowMinRtt = currentWindowMinRtt;
+            currentWindowMinRtt = Long.MAX_VALUE;
+            windowStartNanos = now;
+        }
+        currentWindowMinRtt = Math.min(currentWindowMinRtt, rttNanos);
+        return Math.min(currentWindowMinRtt, previousWindowMinRtt);
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String name, String reason) {
+        return Counter.builder("adaptive_concurrency.rejected.total")
+                .description("Requests rejected by the adaptive concurrency limiter")
+                .tags("route", name, "reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,115 @@
+package com.yonagi.ocean.core.concurrency;
+
+import com.yonagi.ocean.core.concurrency.algorithm.AimdLimitAlgorithm;
+import com.yonagi.ocean.core.concurrency.algorithm.GradientLimitAlgorithm;
+import com.yonagi.ocean.core.concurrency.algorithm.LimitAlgorithm;
+import com.yonagi.ocean.core.concurrency.enums.ConcurrencyLimitAlgorithm;
+import com.yonagi.ocean.core.router.config.RouteConfig;
+import com.yonagi.ocean.utils.LocalConfigLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 持有全局与各路由的并发限制器。路由以反向代理规则 ID 或 Router 中匹配的路由区分，
+ * 都没有匹配的请求（静态资源等）共用 local 路由；路由限制器在第一次请求时创建并各自维护延迟基线。
+ * 全局限制器混合了所有路由的延迟，不做自适应，只把总在途请求数限制在 global.max_limit 以内
+ * @date 2025/11/23 14:50
+ */
+public class AdaptiveConcurrencyManager {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveConcurrencyManager.class);
+
+    public static final String LOCAL_ROUTE = "local";
+
+    private static final String HANDLER_ROUTE_PREFIX = "route:";
+
+    private static final String GLOBAL_NAME = "global";
+
+    private static final AdaptiveConcurrencyManager INSTANCE = new AdaptiveConcurrencyManager();
+
+    private final boolean enabled;
+
+    private final ConcurrencyLimitAlgorithm algorithm;
+
+    private final double rttTolerance;
+
+    private final double backoffRatio;
+
+    private final double smoothing;
+
+    private final int queueSize;
+
+    private final long maxWaitMillis;
+
+    private final long baselineWindowMillis;
+
+    private final AdaptiveConcurrencyLimiter globalLimiter;
+
+    private final Map<String, AdaptiveConcurrencyLimiter> routeLimiters = new ConcurrentHashMap<>();
+
+    private AdaptiveConcurrencyManager() {
+        this.enabled = Boolean.parseBoolean(LocalConfigLoader.getProperty("server.adaptive_concurrency.enabled", "false"));
+        String algorithmName = LocalConfigLoader.getProperty("server.adaptive_concurrency.algorithm", "GRADIENT");
+        ConcurrencyLimitAlgorithm configured = ConcurrencyLimitAlgorithm.getConcurrencyLimitAlgorithm(algorithmName);
+        if (configured == null) {
+            log.warn("Unknown adaptive concurrency algorithm {}, falling back to GRADIENT", algorithmName);
+            configured = ConcurrencyLimitAlgorithm.GRADIENT;
+        }
+        this.algorithm = configured;
+        this.rttTolerance = Double.parseDouble(LocalConfigLoader.getProperty("server.adaptive_concurrency.rtt_tolerance", "2.0"));
+        this.backoffRatio = Double.parseDouble(LocalConfigLoader.getProperty("server.adaptive_concurrency.aimd.backoff_ratio", "0.9"));
+        this.smoothing = Double.parseDouble(LocalConfigLoader.getProperty("server.adaptive_concurrency.gradient.smoothing", "0.2"));
+        this.queueSize = Integer.parseInt(LocalConfigLoader.getProperty("server.adaptive_concurrency.queue_size", "50"));
+        this.maxWaitMillis = Long.parseLong(LocalConfigLoader.getProperty("server.adaptive_concurrency.max_wait_millis", "50"));
+        this.baselineWindowMillis = Long.parseLong(LocalConfigLoader.getProperty("server.adaptive_concurrency.baseline_window_millis", "30000"));
+        this.globalLimiter = enabled
+                ? AdaptiveConcurrencyLimiter.fixed(GLOBAL_NAME,
+                        Integer.parseInt(LocalConfigLoader.getProperty("server.adaptive_concurrency.global.max_limit", "2000")),
+                        queueSize, maxWaitMillis)
+                : null;
+    }
+
+    public static AdaptiveConcurrencyManager getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public AdaptiveConcurrencyLimiter getGlobalLimiter() {
+        return globalLimiter;
+    }
+
+    /**
+     * Router 中路由的限制器名称，按方法和路径区分
+     */
+    public static String handlerRoute(RouteConfig routeConfig) {
+        return HANDLER_ROUTE_PREFIX + routeConfig.getMethod() + " " + routeConfig.getPath();
+    }
+
+    public AdaptiveConcurrencyLimiter getRouteLimiter(String route) {
+        AdaptiveConcurrencyLimiter limiter = routeLimiters.get(route);
+        if (limiter != null) {
+            return limiter;
+        }
+        return routeLimiters.computeIfAbsent(route, name -> new AdaptiveConcurrencyLimiter(name, createAlgorithm(),
+                Integer.parseInt(LocalConfigLoader.getProperty("server.adaptive_concurrency.route.initial_limit", "20")),
+                Integer.parseInt(LocalConfigLoader.getProperty("server.adaptive_concurrency.route.min_limit", "4")),
+                Integer.parseInt(LocalConfigLoader.getProperty("server.adaptive_concurrency.route.max_limit", "500")),
+                queueSize, maxWaitMillis, baselineWindowMillis));
+    }
+
+    private LimitAlgorithm createAlgorithm() {
+        return switch (algorithm) {
+            case AIMD -> new AimdLimitAlgorithm(backoffRatio, rttTolerance);
+            case GRADIENT -> new GradientLimitAlgorithm(rttTolerance, smoothing);
+        };
+    }
+}
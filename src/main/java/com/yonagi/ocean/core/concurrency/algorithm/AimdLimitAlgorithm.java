@@ -0,0 +1,35 @@
+package com.yonagi.ocean.core.concurrency.algorithm;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 加性增、乘性减：请求以过载信号结束或 RTT 超过基线的 tolerance 倍时上限乘以 backoff_ratio，
+ * 否则在在途请求达到上限一半以上时加 1（负载不足时上限不再上涨，避免空闲期无限增长）
+ * @date 2025/11/23 14:10
+ */
+public class AimdLimitAlgorithm implements LimitAlgorithm {
+
+    private final double backoffRatio;
+
+    private final double rttTolerance;
+
+    public AimdLimitAlgorithm(double backoffRatio, double rttTolerance) {
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("AIMD backoff ratio must be between 0 and 1");
+        }
+        this.backoffRatio = backoffRatio;
+        this.rttTolerance = Math.max(1.0d, rttTolerance);
+    }
+
+    @Override
+    public double update(double limit, long rttNanos, long baseline, int inFlight, boolean dropped) {
+        if (dropped || rttNanos > baseline * rttTolerance) {
+            return limit * backoffRatio;
+        }
+        if (inFlight * 2 >= limit) {
+            return limit + 1;
+        }
+        return limit;
+    }
+}
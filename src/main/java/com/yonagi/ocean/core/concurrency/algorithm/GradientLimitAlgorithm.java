@@ -0,0 +1,39 @@
+package com.yonagi.ocean.core.concurrency.algorithm;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 梯度算法：gradient = clamp(tolerance * baseline / rtt, 0.5, 1)，新上限 = limit * gradient + sqrt(limit)。
+ * RTT 接近基线时梯度为 1，上限按 sqrt(limit) 的排队余量缓慢上探；RTT 升高时按比例收缩，过载信号直接按 0.5 收缩。
+ * 结果按 smoothing 做指数平滑，负载不足一半时不上调
+ * @date 2025/11/23 14:20
+ */
+public class GradientLimitAlgorithm implements LimitAlgorithm {
+
+    private static final double MIN_GRADIENT = 0.5d;
+
+    private final double rttTolerance;
+
+    private final double smoothing;
+
+    public GradientLimitAlgorithm(double rttTolerance, double smoothing) {
+        if (smoothing <= 0 || smoothing > 1) {
+            throw new IllegalArgumentException("Gradient smoothing must be in (0, 1]");
+        }
+        this.rttTolerance = Math.max(1.0d, rttTolerance);
+        this.smoothing = smoothing;
+    }
+
+    @Override
+    public double update(double limit, long rttNanos, long baseline, int inFlight, boolean dropped) {
+        double gradient = dropped
+                ? MIN_GRADIENT
+                : Math.max(MIN_GRADIENT, Math.min(1.0d, rttTolerance * baseline / Math.max(1L, rttNanos)));
+        double target = limit * gradient + Math.sqrt(limit);
+        if (target > limit && inFlight * 2 < limit) {
+            return limit;
+        }
+        return limit * (1 - smoothing) + target * smoothing;
+    }
+}
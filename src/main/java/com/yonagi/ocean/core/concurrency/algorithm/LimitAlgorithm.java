@@ -0,0 +1,21 @@
+package com.yonagi.ocean.core.concurrency.algorithm;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 根据一次请求的观测结果计算新的并发上限。调用方负责加锁，实现可以持有可变状态
+ * @date 2025/11/23 14:00
+ */
+public interface LimitAlgorithm {
+
+    /**
+     * @param limit      当前上限
+     * @param rttNanos   本次请求的耗时
+     * @param baseline   无负载时的耗时基线（近期最小 RTT）
+     * @param inFlight   请求开始时的在途请求数
+     * @param dropped    请求是否以过载信号结束（上游 502/503/504 或异常）
+     * @return 新的上限，由调用方裁剪到 [min_limit, max_limit]
+     */
+    double update(double limit, long rttNanos, long baseline, int inFlight, boolean dropped);
+}
@@ -0,0 +1,29 @@
+package com.yonagi.ocean.core.concurrency.enums;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 自适应并发限制算法
+ * @date 2025/11/23 14:00
+ */
+public enum ConcurrencyLimitAlgorithm {
+    AIMD,
+    GRADIENT;
+
+    public static ConcurrencyLimitAlgorithm getConcurrencyLimitAlgorithm(String algorithm) {
+        if (algorithm == null) {
+            return null;
+        }
+        try {
+            return ConcurrencyLimitAlgorithm.valueOf(algorithm.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return this.name();
+    }
+}
@@ -1,5 +1,7 @@
 package com.yonagi.ocean.core.config;
 
+import com.yonagi.ocean.core.admission.CoDelController;
+import com.yonagi.ocean.core.admission.CoDelThreadPoolExecutor;
 import com.yonagi.ocean.utils.LocalConfigLoader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -153,14 +155,28 @@ public final class ServerStartupConfig {
     }
 
     private void initializeTraditionalThreadPools(int corePoolSize, int maximumPoolSize, long keepAliveTime, int queueCapacity) {
-        this.workerThreadExecutor = new ThreadPoolExecutor(
-                corePoolSize,
-                maximumPoolSize,
-                keepAliveTime,
-                TimeUnit.SECONDS,
-                new ArrayBlockingQueue<>(queueCapacity),
-                new ThreadPoolExecutor.AbortPolicy()
-        );
+        if (Boolean.parseBoolean(LocalConfigLoader.getProperty("server.thread_pool.codel.enabled", "true"))) {
+            long targetMillis = Long.parseLong(LocalConfigLoader.getProperty("server.thread_pool.codel.target_millis", "50"));
+            long intervalMillis = Long.parseLong(LocalConfigLoader.getProperty("server.thread_pool.codel.interval_millis", "500"));
+            log.info("Worker queue admission enabled, target: {}ms, interval: {}ms", targetMillis, intervalMillis);
+            this.workerThreadExecutor = new CoDelThreadPoolExecutor(
+                    corePoolSize,
+                    maximumPoolSize,
+                    keepAliveTime,
+                    TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity),
+                    new CoDelController(TimeUnit.MILLISECONDS.toNanos(targetMillis), TimeUnit.MILLISECONDS.toNanos(intervalMillis))
+            );
+        } else {
+            this.workerThreadExecutor = new ThreadPoolExecutor(
+                    corePoolSize,
+                    maximumPoolSize,
+                    keepAliveTime,
+                    TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity),
+                    new ThreadPoolExecutor.AbortPolicy()
+            );
+        }
         this.listenerThreadExecutor = new ThreadPoolExecutor(
                 1,
                 2,
@@ -1,5 +1,8 @@
 package com.yonagi.ocean.core.context;
 
+import java.net.Socket;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * @author Yonagi
  * @version 1.0
@@ -14,13 +17,16 @@ public class ConnectionContext {
     private final boolean redirectSslEnabled;
     private final int sslPort;
     private final ServerContext serverContext;
+    private final Socket socket;
+    private final AtomicBoolean detached = new AtomicBoolean(false);
 
-    public ConnectionContext(boolean isSsl, boolean sslEnabled, boolean redirectSslEnabled, int sslPort, ServerContext serverContext) {
+    public ConnectionContext(boolean isSsl, boolean sslEnabled, boolean redirectSslEnabled, int sslPort, ServerContext serverContext, Socket socket) {
         this.isSsl = isSsl;
         this.sslEnabled = sslEnabled;
         this.redirectSslEnabled = redirectSslEnabled;
         this.sslPort = sslPort;
         this.serverContext = serverContext;
+        this.socket = socket;
     }
 
     public boolean isSsl() {
@@ -42,4 +48,22 @@ public class ConnectionContext {
     public ServerContext getServerContext() {
         return serverContext;
     }
+
+    /**
+     * 客户端连接本身，只有需要接管整条连接的场景（如 Upgrade 隧道）才应直接使用
+     */
+    public Socket getSocket() {
+        return socket;
+    }
+
+    /**
+     * 连接已被其他线程接管（如 Upgrade 隧道），ClientHandler 结束时不再关闭它，由接管方负责关闭
+     */
+    public void detach() {
+        detached.set(true);
+    }
+
+    public boolean isDetached() {
+        return detached.get();
+    }
 }
@@ -24,6 +24,8 @@ public class HttpContext {
     private final AtomicBoolean commited = new AtomicBoolean(false);
     private String traceId;
     private String sessionId;
+    // 本次请求与上游交换的耗时，没有访问上游时为 -1
+    private volatile long upstreamRttNanos = -1L;
 
     public HttpContext(HttpRequest request, HttpResponse response, OutputStream output,
                        boolean keepalive, ConnectionContext connectionContext) {
@@ -89,4 +91,12 @@ public class HttpContext {
     public String getSessionId() {
         return sessionId;
     }
+
+    public void recordUpstreamRtt(long rttNanos) {
+        this.upstreamRttNanos = rttNanos;
+    }
+
+    public long getUpstreamRttNanos() {
+        return upstreamRttNanos;
+    }
 }
@@ -1,22 +1,35 @@
 package com.yonagi.ocean.core.loadbalance;
 
+import com.yonagi.ocean.core.loadbalance.circuitbreaker.CircuitBreakerConfig;
 import com.yonagi.ocean.core.loadbalance.config.LoadBalancerConfig;
 import com.yonagi.ocean.core.loadbalance.config.Upstream;
 import com.yonagi.ocean.core.loadbalance.config.enums.HealthCheckMode;
-import com.yonagi.ocean.core.loadbalance.config.enums.Strategy;
-import com.yonagi.ocean.core.loadbalance.impl.WeightRandomLoadBalancer;
+import com.yonagi.ocean.core.loadbalance.dns.UpstreamAddressResolver;
 import com.yonagi.ocean.core.loadbalance.utils.GrayReleaseUtils;
 import com.yonagi.ocean.core.protocol.HttpRequest;
+import com.yonagi.ocean.core.reverseproxy.HttpClientManager;
 import com.yonagi.ocean.utils.LocalConfigLoader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.net.InetAddress;
 import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -31,31 +44,281 @@ public abstract class AbstractLoadBalancer implements LoadBalancer {
 
     private static final Logger log = LoggerFactory.getLogger(AbstractLoadBalancer.class);
 
+    private static final int CLIENT_REMOVE_DELAY_MS = Integer.parseInt(LocalConfigLoader.getProperty("server.reverse_proxy.client_remove_delay_millis", "3000"));
+
+    private static final long WEIGHT_REBUILD_DELAY_MS = 200L;
+
+    private static final boolean EXPAND_ENDPOINTS = UpstreamAddressResolver.isEnabled()
+            && Boolean.parseBoolean(LocalConfigLoader.getProperty("server.reverse_proxy.dns.expand_endpoints", "false"));
+
     protected final LoadBalancerConfig config;
 
-    protected final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    protected final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "LoadBalancer-Scheduler");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final AtomicLong snapshotVersion = new AtomicLong(0);
+    private final AtomicBoolean rebuildPending = new AtomicBoolean(false);
+
+    private volatile UpstreamSnapshot normalSnapshot = UpstreamSnapshot.EMPTY;
+    private volatile UpstreamSnapshot canarySnapshot = UpstreamSnapshot.EMPTY;
+
+    // 运行时状态：主机名展开出的按地址节点，按 URL 复用以保留熔断与延迟统计
+    private final Map<String, Upstream> addressEndpoints = new ConcurrentHashMap<>();
+    private volatile long dnsGeneration = -1L;
+
+    // 使用该负载均衡器的规则数，大于 0 时展开出的节点才登记主动健康检查
+    private final AtomicInteger retainCount = new AtomicInteger(0);
 
     public AbstractLoadBalancer(LoadBalancerConfig config) {
         this.config = config;
+        for (Upstream upstream : config.getUpstreams()) {
+            upstream.setOnStageChange(this::onUpstreamChanged);
+        }
+        for (Upstream upstream : config.getCanaryUpstreams()) {
+            upstream.setOnStageChange(this::onUpstreamChanged);
+        }
+        rebuildSnapshots();
+    }
+
+    @Override
+    public LoadBalancerConfig getConfig() {
+        return config;
+    }
+
+    @Override
+    public Upstream choose(HttpRequest request, Collection<Upstream> exclude) {
+        Upstream upstream = choose(request);
+        if (upstream == null || exclude == null || exclude.isEmpty() || !exclude.contains(upstream)) {
+            return upstream;
+        }
+        // 策略选中的节点已被排除时，从同一快照的其余节点中随机起点顺序查找
+        UpstreamSnapshot snapshot = getTargetSnapshot(request);
+        int size = snapshot.size();
+        if (size == 0) {
+            return null;
+        }
+        int start = ThreadLocalRandom.current().nextInt(size);
+        for (int i = 0; i < size; i++) {
+            Upstream candidate = snapshot.get((start + i) % size);
+            if (!exclude.contains(candidate)) {
+                return candidate;
+            }
+        }
+        return null;
     }
 
     protected List<Upstream> selectHealthyUpstreams(List<Upstream> upstreams) {
         return upstreams.stream()
-                .filter(Upstream::isHealthy)
+                .filter(Upstream::isAvailable)
                 .collect(Collectors.toList());
     }
 
-    protected List<Upstream> getTargetUpstreams(HttpRequest request) {
-        LoadBalancerConfig lbConfig = config;
+    /**
+     * 返回本次请求应使用的健康节点快照（普通或灰度）
+     */
+    protected UpstreamSnapshot getTargetSnapshot(HttpRequest request) {
+        refreshIfStale();
+        return useCanary(request) ? canarySnapshot : normalSnapshot;
+    }
+
+    protected UpstreamSnapshot getNormalSnapshot() {
+        refreshIfStale();
+        return normalSnapshot;
+    }
+
+    /**
+     * 配置版本变化，或展开节点时上游地址发生变化，都需要重建快照
+     */
+    protected void refreshIfStale() {
+        if (config.getVersion() != normalSnapshot.getConfigVersion()
+                || (EXPAND_ENDPOINTS && dnsGeneration != UpstreamAddressResolver.getInstance().getGeneration())) {
+            rebuildSnapshots();
+        }
+    }
+
+    protected UpstreamSnapshot getCanarySnapshot() {
+        return canarySnapshot;
+    }
+
+    protected boolean useCanary(HttpRequest request) {
         boolean useCanary = false;
         String sessionId = request.getAttribute().getSessionId();
-        if (sessionId != null && lbConfig.getCanaryUpstreams() != null) {
+        if (sessionId != null && !config.getCanaryUpstreams().isEmpty()) {
             useCanary = GrayReleaseUtils.isGrayRelease(request, config.getCanaryPercent());
             if (useCanary) {
                 log.debug("Using canary upstreams for session ID: {}", sessionId);
             }
         }
-        return useCanary ? lbConfig.getCanaryUpstreams() : lbConfig.getUpstreams();
+        return useCanary;
+    }
+
+    /**
+     * 快照重建后的回调，子类可以在此基于新快照预计算自己的查找结构
+     */
+    protected void onSnapshotRebuilt(UpstreamSnapshot normal, UpstreamSnapshot canary) {
+    }
+
+    protected final synchronized void rebuildSnapshots() {
+        long configVersion = config.getVersion();
+        Set<String> usedEndpoints = new HashSet<>();
+        if (EXPAND_ENDPOINTS) {
+            dnsGeneration = UpstreamAddressResolver.getInstance().getGeneration();
+        }
+        UpstreamSnapshot normal = UpstreamSnapshot.build(snapshotVersion.incrementAndGet(), configVersion,
+                selectHealthyUpstreams(expandEndpoints(config.getUpstreams(), usedEndpoints)));
+        UpstreamSnapshot canary = UpstreamSnapshot.build(snapshotVersion.incrementAndGet(), configVersion,
+                selectHealthyUpstreams(expandEndpoints(config.getCanaryUpstreams(), usedEndpoints)));
+        for (Map.Entry<String, Upstream> entry : addressEndpoints.entrySet()) {
+            if (!usedEndpoints.contains(entry.getKey())) {
+                addressEndpoints.remove(entry.getKey());
+                dropEndpoint(entry.getValue(), retainCount.get() > 0);
+            }
+        }
+        this.normalSnapshot = normal;
+        this.canarySnapshot = canary;
+        onSnapshotRebuilt(normal, canary);
+    }
+
+    /**
+     * 负载均衡器可能被缓存并由多条规则共享，主机名按使用方计数，最后一个使用方释放后才停止缓存
+     */
+    @Override
+    public void retain() {
+        forEachHost(true);
+        synchronized (this) {
+            if (retainCount.getAndIncrement() == 0 && isActiveCheck()) {
+                addressEndpoints.values().forEach(this::registerHealthCheck);
+            }
+        }
+    }
+
+    @Override
+    public void release() {
+        forEachHost(false);
+        synchronized (this) {
+            if (retainCount.decrementAndGet() == 0) {
+                // 最后一个使用方释放后不再探测展开出的节点，也不再保留它们的连接
+                addressEndpoints.values().forEach(endpoint -> dropEndpoint(endpoint, true));
+                addressEndpoints.clear();
+                dnsGeneration = -1L;
+            }
+        }
+    }
+
+    private boolean isActiveCheck() {
+        return config.getHealthCheckMode() == HealthCheckMode.ACTIVE_CHECK;
+    }
+
+    private void registerHealthCheck(Upstream endpoint) {
+        UpstreamHealthCheckService.getInstance().register(endpoint, HealthChecker.intervalMs(config));
+    }
+
+    /**
+     * 地址不再出现在解析结果中，或负载均衡器不再被使用时调用：注销主动健康检查，关闭该地址的 HttpClient
+     */
+    private void dropEndpoint(Upstream endpoint, boolean probed) {
+        if (probed && isActiveCheck()) {
+            UpstreamHealthCheckService.getInstance().unregister(endpoint, HealthChecker.intervalMs(config));
+        }
+        HttpClientManager.removeClient(endpoint.getUrl());
+        log.debug("Dropped address endpoint {}", endpoint.getUrl());
+    }
+
+    private void forEachHost(boolean register) {
+        if (!UpstreamAddressResolver.isEnabled()) {
+            return;
+        }
+        for (Upstream upstream : Stream.concat(config.getUpstreams().stream(), config.getCanaryUpstreams().stream()).toList()) {
+            String host;
+            try {
+                host = URI.create(upstream.getUrl()).getHost();
+            } catch (IllegalArgumentException e) {
+                log.warn("Invalid upstream url {}, skip DNS caching: {}", upstream.getUrl(), e.getMessage());
+                continue;
+            }
+            if (register) {
+                UpstreamAddressResolver.getInstance().register(host);
+            } else {
+                UpstreamAddressResolver.getInstance().unregister(host);
+            }
+        }
+    }
+
+    /**
+     * 开启 expand_endpoints 时，把解析出多个地址的 http 上游展开为每个地址一个节点，节点访问上游时仍携带原来的 Host，
+     * 并和配置中的节点一样登记主动健康检查。
+     * https 上游不展开，因为以 IP 访问无法通过证书校验；主机名节点本身不健康时不展开，由健康检查统一摘除
+     */
+    private List<Upstream> expandEndpoints(List<Upstream> upstreams, Set<String> usedEndpoints) {
+        if (!EXPAND_ENDPOINTS) {
+            return upstreams;
+        }
+        List<Upstream> expanded = new ArrayList<>(upstreams.size());
+        for (Upstream upstream : upstreams) {
+            URI uri;
+            try {
+                uri = URI.create(upstream.getUrl());
+            } catch (IllegalArgumentException e) {
+                expanded.add(upstream);
+                continue;
+            }
+            List<InetAddress> addresses = "http".equalsIgnoreCase(uri.getScheme())
+                    ? UpstreamAddressResolver.getInstance().cachedAddresses(uri.getHost())
+                    : List.of();
+            if (addresses.size() <= 1 || !upstream.isAvailable()) {
+                expanded.add(upstream);
+                continue;
+            }
+            for (InetAddress address : addresses) {
+                String url;
+                try {
+                    url = new URI(uri.getScheme(), uri.getUserInfo(), address.getHostAddress(), uri.getPort(),
+                            uri.getPath(), uri.getQuery(), uri.getFragment()).toString();
+                } catch (URISyntaxException e) {
+                    continue;
+                }
+                usedEndpoints.add(url);
+                String host = uri.getHost() + (uri.getPort() != -1 ? ":" + uri.getPort() : "");
+                expanded.add(addressEndpoints.computeIfAbsent(url, k -> {
+                    Upstream endpoint = new Upstream(k, upstream.getWeight());
+                    endpoint.setHostHeader(host);
+                    endpoint.setOnStageChange(this::onUpstreamChanged);
+                    if (retainCount.get() > 0 && isActiveCheck()) {
+                        registerHealthCheck(endpoint);
+                    }
+                    return endpoint;
+                }));
+            }
+        }
+        return expanded;
+    }
+
+    private void onUpstreamChanged(Upstream upstream) {
+        boolean inSnapshot = normalSnapshot.contains(upstream) || canarySnapshot.contains(upstream);
+        if (inSnapshot != upstream.isAvailable()) {
+            // 健康或熔断状态变化立即重建，避免继续选中不可用的节点
+            rebuildSnapshots();
+            log.debug("Rebuilt upstream snapshots due to availability change: {}", upstream);
+            if (!upstream.isHealthy()) {
+                scheduler.schedule(() -> HttpClientManager.removeClient(upstream.getUrl()), CLIENT_REMOVE_DELAY_MS, TimeUnit.MILLISECONDS);
+            }
+            return;
+        }
+        // 有效权重的调整非常频繁，合并后延迟重建
+        if (!rebuildPending.compareAndSet(false, true)) {
+            return;
+        }
+        scheduler.schedule(() -> {
+            try {
+                rebuildSnapshots();
+                log.debug("Rebuilt upstream snapshots due to weight change: {}", upstream.getUrl());
+            } finally {
+                rebuildPending.set(false);
+            }
+        }, WEIGHT_REBUILD_DELAY_MS, TimeUnit.MILLISECONDS);
     }
 
     @Override
@@ -63,6 +326,11 @@ public abstract class AbstractLoadBalancer implements LoadBalancer {
         if (config.getHealthCheckMode() != HealthCheckMode.PASSIVE_CHECK) {
             return;
         }
+        if (CircuitBreakerConfig.getDefault().isEnabled()) {
+            // 熔断器开启时由其根据滚动窗口内的失败率摘除节点，不再因单次失败标记为不健康
+            log.debug("PASSIVE CHECK: failure of {} is handled by circuit breaker", url);
+            return;
+        }
         URI uri = URI.create(url);
         String failedHost = uri.getScheme() + "://" + uri.getAuthority();
 
@@ -80,7 +348,6 @@ public abstract class AbstractLoadBalancer implements LoadBalancer {
                     boolean ok = HttpClient.checkHealth(upstream);
                     if (ok) {
                         upstream.setHealthy(true);
-                        upstream.getCurrentWeight().set(0.0d);
                         log.info("PASSIVE CHECK: Upstream {} automatically recovered.", failedHost);
                     } else {
                         upstream.getRecovering().set(false);
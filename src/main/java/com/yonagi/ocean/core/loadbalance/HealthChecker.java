@@ -3,59 +3,65 @@ package com.yonagi.ocean.core.loadbalance;
 import com.yonagi.ocean.core.loadbalance.config.LoadBalancerConfig;
 import com.yonagi.ocean.core.loadbalance.config.Upstream;
 import com.yonagi.ocean.core.loadbalance.config.enums.HealthCheckMode;
-import com.yonagi.ocean.core.loadbalance.config.enums.Strategy;
-import com.yonagi.ocean.core.loadbalance.impl.WeightRandomLoadBalancer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * @author Yonagi
  * @version 1.0
  * @program Ocean
- * @description
+ * @description 将一个负载均衡配置中的节点注册到共享的 UpstreamHealthCheckService
  * @date 2025/11/11 10:11
  */
 public class HealthChecker {
 
     private static final Logger log = LoggerFactory.getLogger(HealthChecker.class);
 
+    private static final long DEFAULT_CHECK_INTERVAL_MS = 5000L;
+
     private final LoadBalancerConfig config;
 
-    private final ScheduledExecutorService scheduler;
+    private final AtomicBoolean started = new AtomicBoolean(false);
 
     public HealthChecker(LoadBalancerConfig config) {
         this.config = config;
-        this.scheduler = Executors.newSingleThreadScheduledExecutor();
     }
 
     public void start() {
-        if (config.getHealthCheckMode() == HealthCheckMode.ACTIVE_CHECK) {
-            log.info("Starting ACTIVE health checks with interval {} ms", config.getCheckIntervalMs());
-            scheduler.scheduleAtFixedRate(this::performCheck,
-                    0,
-                    config.getCheckIntervalMs(),
-                    TimeUnit.MILLISECONDS
-            );
+        if (config.getHealthCheckMode() != HealthCheckMode.ACTIVE_CHECK || !started.compareAndSet(false, true)) {
+            return;
         }
-    }
-
-    private void performCheck() {
+        log.info("Starting ACTIVE health checks with interval {} ms", intervalMs());
+        UpstreamHealthCheckService service = UpstreamHealthCheckService.getInstance();
         for (Upstream upstream : config.getUpstreams()) {
-            boolean isHealthy = HttpClient.checkHealth(upstream);
-            upstream.setHealthy(isHealthy);
+            service.register(upstream, intervalMs());
         }
         for (Upstream upstream : config.getCanaryUpstreams()) {
-            boolean isHealthy = HttpClient.checkHealth(upstream);
-            upstream.setHealthy(isHealthy);
+            service.register(upstream, intervalMs());
         }
     }
 
     public void stop() {
-        scheduler.shutdownNow();
+        if (!started.compareAndSet(true, false)) {
+            return;
+        }
+        UpstreamHealthCheckService service = UpstreamHealthCheckService.getInstance();
+        for (Upstream upstream : config.getUpstreams()) {
+            service.unregister(upstream, intervalMs());
+        }
+        for (Upstream upstream : config.getCanaryUpstreams()) {
+            service.unregister(upstream, intervalMs());
+        }
         log.info("Health checks stopped.");
     }
+
+    private long intervalMs() {
+        return intervalMs(config);
+    }
+
+    static long intervalMs(LoadBalancerConfig config) {
+        return config.getCheckIntervalMs() == null ? DEFAULT_CHECK_INTERVAL_MS : config.getCheckIntervalMs();
+    }
 }
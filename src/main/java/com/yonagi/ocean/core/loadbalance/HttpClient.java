@@ -7,6 +7,7 @@ import org.slf4j.LoggerFactory;
 
 import java.net.URI;
 import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author Yonagi
@@ -23,6 +24,45 @@ public class HttpClient {
             .connectTimeout(Duration.ofMillis(1000))
             .build();
 
+    public static CompletableFuture<Boolean> checkHealthAsync(String targetBase) {
+        return checkHealthAsync(targetBase, null);
+    }
+
+    /**
+     * hostHeader 不为 null 时作为探测请求的 Host，用于以地址访问按主机名区分站点的上游
+     */
+    public static CompletableFuture<Boolean> checkHealthAsync(String targetBase, String hostHeader) {
+        String targetPath = LocalConfigLoader.getProperty("server.load_balance.health_check.path", "/health");
+        String finalUri = targetBase.replaceAll("/+$", "") + targetPath;
+        java.net.http.HttpRequest request;
+        try {
+            java.net.http.HttpRequest.Builder builder = java.net.http.HttpRequest.newBuilder()
+                    .uri(new URI(finalUri))
+                    .timeout(java.time.Duration.ofMillis(2000))
+                    .GET();
+            if (hostHeader != null) {
+                builder.setHeader("Host", hostHeader);
+            }
+            request = builder.build();
+        } catch (Exception e) {
+            log.error("{}: Health check failed: {}", targetBase, e.getMessage());
+            return CompletableFuture.completedFuture(false);
+        }
+        return CLIENT.sendAsync(request, java.net.http.HttpResponse.BodyHandlers.discarding())
+                .handle((response, e) -> {
+                    if (e != null) {
+                        log.error("{}: Health check failed: {}", targetBase, e.getMessage());
+                        return false;
+                    }
+                    int statusCode = response.statusCode();
+                    boolean isHealthy = (statusCode >= 200 && statusCode < 300);
+                    if (!isHealthy) {
+                        log.error("{}: Health check failed, statusCode: {}", targetBase, statusCode);
+                    }
+                    return isHealthy;
+                });
+    }
+
     public static boolean checkHealth(Upstream upstream) {
         String targetBase = upstream.getUrl();
         String targetPath = LocalConfigLoader.getProperty("server.load_balance.health_check.path", "/health");
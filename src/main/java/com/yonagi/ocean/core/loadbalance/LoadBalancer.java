@@ -1,8 +1,11 @@
 package com.yonagi.ocean.core.loadbalance;
 
+import com.yonagi.ocean.core.loadbalance.config.LoadBalancerConfig;
 import com.yonagi.ocean.core.loadbalance.config.Upstream;
 import com.yonagi.ocean.core.protocol.HttpRequest;
 
+import java.util.Collection;
+
 /**
  * @author Yonagi
  * @version 1.0
@@ -14,5 +17,21 @@ public interface LoadBalancer {
 
     Upstream choose(HttpRequest request);
 
+    /**
+     * 在当前健康节点中跳过 exclude 里的节点进行选择，用于重试与对冲时换一个节点
+     */
+    Upstream choose(HttpRequest request, Collection<Upstream> exclude);
+
     void reportFailure(String url, long failureTime);
+
+    /**
+     * 反向代理规则开始使用该负载均衡器时调用，与 release 成对调用，用于登记上游主机名的 DNS 缓存
+     */
+    default void retain() {
+    }
+
+    default void release() {
+    }
+
+    LoadBalancerConfig getConfig();
 }
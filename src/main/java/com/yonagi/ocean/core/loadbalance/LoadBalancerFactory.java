@@ -39,6 +39,9 @@ public class LoadBalancerFactory {
             case NONE -> new NoneLoadBalancer(config);
             case WEIGHT_ROUND_ROBIN -> new WeightRoundRobinLoadBalancer(config);
             case WEIGHT_RANDOM -> new WeightRandomLoadBalancer(config);
+            case LEAST_REQUESTS -> new LeastRequestsLoadBalancer(config);
+            case P2C_PEAK_EWMA -> new P2CPeakEwmaLoadBalancer(config);
+            case CONSISTENT_HASH -> new ConsistentHashLoadBalancer(config);
         };
     }
 
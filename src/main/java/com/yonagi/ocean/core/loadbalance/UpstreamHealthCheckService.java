@@ -0,0 +1,254 @@
+package com.yonagi.ocean.core.loadbalance;
+
+import com.yonagi.ocean.admin.metrics.MetricsRegistry;
+import com.yonagi.ocean.core.loadbalance.config.Upstream;
+import com.yonagi.ocean.utils.LocalConfigLoader;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 所有反向代理配置共享的主动健康检查服务。
+ * 同一个 Upstream URL 只会被探测一次，探测结果同步到所有注册了该 URL 的 Upstream 实例；
+ * 探测请求异步并发执行，每次探测结束后按带抖动的间隔安排下一次，连续成功/失败达到阈值才会切换健康状态
+ * @date 2025/11/17 15:10
+ */
+public class UpstreamHealthCheckService {
+
+    private static final Logger log = LoggerFactory.getLogger(UpstreamHealthCheckService.class);
+
+    private static final UpstreamHealthCheckService INSTANCE = new UpstreamHealthCheckService();
+
+    private static final String PROBE_TIMER_NAME = "upstream.health.probe";
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "Upstream-HealthCheck");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Map<String, ProbeTarget> targets = new ConcurrentHashMap<>();
+
+    private final int healthyThreshold;
+
+    private final int unhealthyThreshold;
+
+    private final double jitterRatio;
+
+    private UpstreamHealthCheckService() {
+        this.healthyThreshold = Math.max(1, Integer.parseInt(LocalConfigLoader.getProperty("server.load_balance.health_check.healthy_threshold", "2")));
+        this.unhealthyThreshold = Math.max(1, Integer.parseInt(LocalConfigLoader.getProperty("server.load_balance.health_check.unhealthy_threshold", "3")));
+        this.jitterRatio = Math.min(0.5d, Math.max(0.0d, Double.parseDouble(LocalConfigLoader.getProperty("server.load_balance.health_check.jitter_ratio", "0.2"))));
+    }
+
+    public static UpstreamHealthCheckService getInstance() {
+        return INSTANCE;
+    }
+
+    public void register(Upstream upstream, long intervalMs) {
+        long interval = Math.max(100L, intervalMs);
+        String url = upstream.getUrl();
+        targets.compute(url, (k, target) -> {
+            boolean created = target == null;
+            if (created) {
+                target = new ProbeTarget(url, upstream.getHostHeader());
+            }
+            synchronized (target) {
+                target.registrations.add(new Registration(upstream, interval));
+            }
+            if (created) {
+                // 首次探测随机分布在一个周期内，避免所有节点同时被探测
+                scheduleProbe(target, ThreadLocalRandom.current().nextLong(interval));
+                log.info("Registered upstream {} for active health check, interval {} ms", url, interval);
+            }
+            return target;
+        });
+    }
+
+    public void unregister(Upstream upstream, long intervalMs) {
+        long interval = Math.max(100L, intervalMs);
+        targets.computeIfPresent(upstream.getUrl(), (k, target) -> {
+            boolean empty;
+            synchronized (target) {
+                for (int i = 0; i < target.registrations.size(); i++) {
+                    Registration registration = target.registrations.get(i);
+                    if (registration.upstream == upstream && registration.intervalMs == interval) {
+                        target.registrations.remove(i);
+                        break;
+                    }
+                }
+                empty = target.registrations.isEmpty();
+            }
+            if (empty) {
+                target.cancelled = true;
+                target.removeTimers();
+                log.info("Unregistered upstream {} from active health check", k);
+                return null;
+            }
+            return target;
+        });
+    }
+
+    private void scheduleProbe(ProbeTarget target, long delayMs) {
+        try {
+            scheduler.schedule(() -> probe(target), delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            log.debug("Health check scheduler is shut down, stop probing {}", target.url);
+        }
+    }
+
+    private void probe(ProbeTarget target) {
+        if (target.cancelled) {
+            return;
+        }
+        long start = System.nanoTime();
+        HttpClient.checkHealthAsync(target.url, target.hostHeader).whenComplete((healthy, e) -> {
+            boolean ok = e == null && Boolean.TRUE.equals(healthy);
+            if (!target.cancelled) {
+                target.probeTimer(ok).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            applyResult(target, ok);
+            if (!target.cancelled) {
+                scheduleProbe(target, nextDelay(target.intervalMs()));
+            }
+        });
+    }
+
+    private void applyResult(ProbeTarget target, boolean ok) {
+        List<Upstream> members;
+        synchronized (target) {
+            if (ok) {
+                target.consecutiveFailures = 0;
+                target.consecutiveSuccesses++;
+                if (target.consecutiveSuccesses < healthyThreshold) {
+                    return;
+                }
+            } else {
+                target.consecutiveSuccesses = 0;
+                target.consecutiveFailures++;
+                if (target.consecutiveFailures < unhealthyThreshold) {
+                    return;
+                }
+            }
+            members = target.upstreams();
+        }
+        for (Upstream upstream : members) {
+            if (upstream.isHealthy() != ok) {
+                log.warn("ACTIVE CHECK: Upstream {} marked {}", upstream.getUrl(), ok ? "HEALTHY" : "UNHEALTHY");
+            }
+            upstream.setHealthy(ok);
+        }
+    }
+
+    private long nextDelay(long intervalMs) {
+        if (jitterRatio == 0.0d) {
+            return intervalMs;
+        }
+        double factor = 1.0d + ThreadLocalRandom.current().nextDouble(-jitterRatio, jitterRatio);
+        return Math.max(1L, (long) (intervalMs * factor));
+    }
+
+    public void shutdown() {
+        targets.values().forEach(target -> target.cancelled = true);
+        targets.clear();
+        scheduler.shutdownNow();
+        log.info("Upstream health check service stopped.");
+    }
+
+    private static final class ProbeTarget {
+
+        private final String url;
+
+        private final String hostHeader;
+
+        // 注册信息的修改和读取都需要持有该对象的锁
+        private final List<Registration> registrations = new ArrayList<>();
+
+        private volatile boolean cancelled = false;
+
+        private int consecutiveSuccesses;
+
+        private int consecutiveFailures;
+
+        // 计时器在第一次探测结束时创建，节点注销时移除
+        private Timer healthyTimer;
+
+        private Timer unhealthyTimer;
+
+        private ProbeTarget(String url, String hostHeader) {
+            this.url = url;
+            this.hostHeader = hostHeader;
+        }
+
+        private synchronized Timer probeTimer(boolean ok) {
+            if (ok) {
+                if (healthyTimer == null) {
+                    healthyTimer = createProbeTimer(url, "healthy");
+                }
+                return healthyTimer;
+            }
+            if (unhealthyTimer == null) {
+                unhealthyTimer = createProbeTimer(url, "unhealthy");
+            }
+            return unhealthyTimer;
+        }
+
+        private synchronized void removeTimers() {
+            if (healthyTimer != null) {
+                MetricsRegistry.currentMeterRegistry().remove(healthyTimer);
+            }
+            if (unhealthyTimer != null) {
+                MetricsRegistry.currentMeterRegistry().remove(unhealthyTimer);
+            }
+        }
+
+        private static Timer createProbeTimer(String url, String result) {
+            return Timer.builder(PROBE_TIMER_NAME)
+                    .description("Records upstream active health check probe latency")
+                    .tags("upstream", url, "result", result)
+                    .publishPercentileHistogram()
+                    .register(MetricsRegistry.currentMeterRegistry());
+        }
+
+        private synchronized long intervalMs() {
+            long interval = Long.MAX_VALUE;
+            for (Registration registration : registrations) {
+                interval = Math.min(interval, registration.intervalMs);
+            }
+            return interval == Long.MAX_VALUE ? 1000L : interval;
+        }
+
+        private List<Upstream> upstreams() {
+            List<Upstream> upstreams = new ArrayList<>(registrations.size());
+            for (Registration registration : registrations) {
+                upstreams.add(registration.upstream);
+            }
+            return upstreams;
+        }
+    }
+
+    private static final class Registration {
+
+        private final Upstream upstream;
+
+        private final long intervalMs;
+
+        private Registration(Upstream upstream, long intervalMs) {
+            this.upstream = upstream;
+            this.intervalMs = intervalMs;
+        }
+    }
+}
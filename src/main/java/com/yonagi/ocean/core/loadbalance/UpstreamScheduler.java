@@ -0,0 +1,26 @@
+package com.yonagi.ocean.core.loadbalance;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 节点级别定时任务（熔断器状态切换、慢启动爬坡）共用的调度线程
+ * @date 2025/11/18 10:10
+ */
+public class UpstreamScheduler {
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "Upstream-Scheduler");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public static ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+        return SCHEDULER.schedule(task, delay, unit);
+    }
+}
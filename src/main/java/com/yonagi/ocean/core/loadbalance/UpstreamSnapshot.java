@@ -0,0 +1,164 @@
+package com.yonagi.ocean.core.loadbalance;
+
+import com.yonagi.ocean.core.loadbalance.config.Upstream;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 某一组 Upstream（普通或灰度）中健康节点的不可变快照，只在节点状态变化时重建。
+ * 除健康节点数组外，还预先计算了按有效权重的前缀和以及平滑加权轮询的选择序列，
+ * 使各负载均衡策略在选择节点时只需读取数组
+ * @date 2025/11/17 09:20
+ */
+public final class UpstreamSnapshot {
+
+    public static final UpstreamSnapshot EMPTY = new UpstreamSnapshot(0L, -1L, new Upstream[0], new double[0], new int[0]);
+
+    // 有效权重按 0.1 的步长调整，放大 10 倍后取整
+    private static final int WEIGHT_SCALE = 10;
+
+    private static final int MAX_SEQUENCE_LENGTH = 4096;
+
+    private final long version;
+
+    private final long configVersion;
+
+    private final Upstream[] upstreams;
+
+    private final double[] prefixSumWeights;
+
+    private final int[] smoothWrrSequence;
+
+    private UpstreamSnapshot(long version, long configVersion, Upstream[] upstreams, double[] prefixSumWeights, int[] smoothWrrSequence) {
+        this.version = version;
+        this.configVersion = configVersion;
+        this.upstreams = upstreams;
+        this.prefixSumWeights = prefixSumWeights;
+        this.smoothWrrSequence = smoothWrrSequence;
+    }
+
+    public static UpstreamSnapshot build(long version, long configVersion, List<Upstream> healthyUpstreams) {
+        Upstream[] upstreams = healthyUpstreams.toArray(new Upstream[0]);
+        double[] weights = new double[upstreams.length];
+        double[] prefix = new double[upstreams.length];
+        double sum = 0.0d;
+        for (int i = 0; i < upstreams.length; i++) {
+            weights[i] = Math.max(0.0d, upstreams[i].getEffectiveWeight().get());
+            sum += weights[i];
+            prefix[i] = sum;
+        }
+        return new UpstreamSnapshot(version, configVersion, upstreams, prefix, buildSmoothWrrSequence(weights));
+    }
+
+    /**
+     * 用 nginx 的平滑加权轮询离线生成一个完整周期的选择序列，运行时只需按计数器取模
+     */
+    private static int[] buildSmoothWrrSequence(double[] weights) {
+        int n = weights.length;
+        if (n == 0) {
+            return new int[0];
+        }
+        int[] scaled = new int[n];
+        long total = 0L;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = (int) Math.round(weights[i] * WEIGHT_SCALE);
+            total += scaled[i];
+        }
+        if (total == 0L) {
+            // 所有节点有效权重都降到 0 时退化为等权轮询
+            Arrays.fill(scaled, 1);
+            total = n;
+        }
+        if (total > MAX_SEQUENCE_LENGTH) {
+            long reduced = 0L;
+            for (int i = 0; i < n; i++) {
+                if (scaled[i] > 0) {
+                    scaled[i] = (int) Math.max(1L, scaled[i] * (long) MAX_SEQUENCE_LENGTH / total);
+                }
+                reduced += scaled[i];
+            }
+            total = reduced;
+        }
+        int gcd = 0;
+        for (int w : scaled) {
+            gcd = gcd(gcd, w);
+        }
+        total = 0L;
+        for (int i = 0; i < n; i++) {
+            scaled[i] /= gcd;
+            total += scaled[i];
+        }
+
+        int[] sequence = new int[(int) total];
+        long[] current = new long[n];
+        for (int step = 0; step < sequence.length; step++) {
+            int selected = -1;
+            for (int i = 0; i < n; i++) {
+                current[i] += scaled[i];
+                if (scaled[i] > 0 && (selected < 0 || current[i] > current[selected])) {
+                    selected = i;
+                }
+            }
+            current[selected] -= total;
+            sequence[step] = selected;
+        }
+        return sequence;
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getConfigVersion() {
+        return configVersion;
+    }
+
+    public boolean isEmpty() {
+        return upstreams.length == 0;
+    }
+
+    public int size() {
+        return upstreams.length;
+    }
+
+    public Upstream get(int index) {
+        return upstreams[index];
+    }
+
+    /**
+     * 返回内部数组，调用方不得修改
+     */
+    public Upstream[] upstreams() {
+        return upstreams;
+    }
+
+    public double[] prefixSumWeights() {
+        return prefixSumWeights;
+    }
+
+    public int[] smoothWrrSequence() {
+        return smoothWrrSequence;
+    }
+
+    public boolean contains(Upstream upstream) {
+        for (Upstream u : upstreams) {
+            if (u == upstream) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,230 @@
+package com.yonagi.ocean.core.loadbalance.circuitbreaker;
+
+import com.yonagi.ocean.admin.metrics.MetricsRegistry;
+import com.yonagi.ocean.core.loadbalance.UpstreamScheduler;
+import com.yonagi.ocean.core.loadbalance.config.enums.CircuitState;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 单个 Upstream 的熔断器。
+ * CLOSED 状态下按秒分桶统计滚动窗口内的失败率与慢调用率，超过阈值后进入 OPEN；
+ * OPEN 持续 open_duration 后由定时任务切换到 HALF_OPEN，只放行有限个试探请求，
+ * 试探全部成功则回到 CLOSED，任意一次失败则重新 OPEN
+ * @date 2025/11/18 10:40
+ */
+public class CircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    private static final String TRANSITION_COUNTER_NAME = "upstream.circuit_breaker.transitions";
+    private static final String STATE_GAUGE_NAME = "upstream.circuit_breaker.state";
+
+    // 同一 URL 在配置刷新后会产生新的 Upstream 实例，状态指标按 URL 共享
+    private static final Map<String, AtomicInteger> STATE_BY_URL = new ConcurrentHashMap<>();
+
+    private final String name;
+
+    private final CircuitBreakerConfig config;
+
+    private final Consumer<CircuitState> onStateChange;
+
+    private final AtomicReference<CircuitState> state = new AtomicReference<>(CircuitState.CLOSED);
+
+    private final AtomicInteger halfOpenPermits = new AtomicInteger(0);
+
+    private final AtomicInteger halfOpenSuccesses = new AtomicInteger(0);
+
+    private final ReentrantLock windowLock = new ReentrantLock();
+
+    private final long[] bucketEpochs;
+    private final int[] bucketCalls;
+    private final int[] bucketFailures;
+    private final int[] bucketSlowCalls;
+
+    public CircuitBreaker(String name, CircuitBreakerConfig config, Consumer<CircuitState> onStateChange) {
+        this.name = name;
+        this.config = config;
+        this.onStateChange = onStateChange;
+        int buckets = config.getWindowSeconds();
+        this.bucketEpochs = new long[buckets];
+        this.bucketCalls = new int[buckets];
+        this.bucketFailures = new int[buckets];
+        this.bucketSlowCalls = new int[buckets];
+    }
+
+    public CircuitState getState() {
+        return state.get();
+    }
+
+    /**
+     * 请求发出前调用。OPEN 状态直接拒绝，HALF_OPEN 状态只放行剩余的试探名额
+     */
+    public boolean tryAcquirePermission() {
+        if (!config.isEnabled()) {
+            return true;
+        }
+        return switch (state.get()) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> acquireHalfOpenPermit();
+        };
+    }
+
+    private boolean acquireHalfOpenPermit() {
+        // 名额用完后不再递减，避免计数变为负数后归还的名额无法被再次使用
+        while (true) {
+            int permits = halfOpenPermits.get();
+            if (permits <= 0) {
+                return false;
+            }
+            if (halfOpenPermits.compareAndSet(permits, permits - 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 已获得许可的请求被取消且没有结果时归还半开状态的试探名额
+     */
+    public void releasePermission() {
+        if (config.isEnabled() && state.get() == CircuitState.HALF_OPEN) {
+            halfOpenPermits.incrementAndGet();
+        }
+    }
+
+    public void onResult(boolean success, long durationNanos) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        boolean slow = durationNanos >= config.getSlowCallDurationNanos();
+        switch (state.get()) {
+            case CLOSED -> {
+                if (record(!success, slow)) {
+                    transition(CircuitState.CLOSED, CircuitState.OPEN);
+                }
+            }
+            case HALF_OPEN -> {
+                if (!success) {
+                    transition(CircuitState.HALF_OPEN, CircuitState.OPEN);
+                } else if (halfOpenSuccesses.incrementAndGet() >= config.getHalfOpenPermits()) {
+                    transition(CircuitState.HALF_OPEN, CircuitState.CLOSED);
+                }
+            }
+            default -> {
+                // OPEN 状态下迟到的结果不参与统计
+            }
+        }
+    }
+
+    /**
+     * 记录一次调用结果，返回是否达到熔断条件
+     */
+    private boolean record(boolean failure, boolean slow) {
+        long epoch = System.currentTimeMillis() / 1000L;
+        int buckets = bucketEpochs.length;
+        int calls = 0;
+        int failures = 0;
+        int slowCalls = 0;
+        windowLock.lock();
+        try {
+            int index = (int) (epoch % buckets);
+            if (bucketEpochs[index] != epoch) {
+                bucketEpochs[index] = epoch;
+                bucketCalls[index] = 0;
+                bucketFailures[index] = 0;
+                bucketSlowCalls[index] = 0;
+            }
+            bucketCalls[index]++;
+            if (failure) {
+                bucketFailures[index]++;
+            }
+            if (slow) {
+                bucketSlowCalls[index]++;
+            }
+            for (int i = 0; i < buckets; i++) {
+                if (epoch - bucketEpochs[i] < buckets) {
+                    calls += bucketCalls[i];
+                    failures += bucketFailures[i];
+                    slowCalls += bucketSlowCalls[i];
+                }
+            }
+        } finally {
+            windowLock.unlock();
+        }
+        if (calls < config.getMinimumCalls()) {
+            return false;
+        }
+        return failures * 100.0d / calls >= config.getFailureRateThreshold()
+                || slowCalls * 100.0d / calls >= config.getSlowCallRateThreshold();
+    }
+
+    private void resetWindow() {
+        windowLock.lock();
+        try {
+            for (int i = 0; i < bucketEpochs.length; i++) {
+                bucketEpochs[i] = 0L;
+                bucketCalls[i] = 0;
+                bucketFailures[i] = 0;
+                bucketSlowCalls[i] = 0;
+            }
+        } finally {
+            windowLock.unlock();
+        }
+    }
+
+    private void transition(CircuitState from, CircuitState to) {
+        if (to == CircuitState.HALF_OPEN) {
+            halfOpenSuccesses.set(0);
+            halfOpenPermits.set(config.getHalfOpenPermits());
+        }
+        if (!state.compareAndSet(from, to)) {
+            return;
+        }
+        log.warn("Circuit breaker of upstream {} transitioned from {} to {}", name, from, to);
+        switch (to) {
+            case OPEN -> UpstreamScheduler.schedule(
+                    () -> transition(CircuitState.OPEN, CircuitState.HALF_OPEN),
+                    config.getOpenDurationMillis(), TimeUnit.MILLISECONDS);
+            case CLOSED -> resetWindow();
+            default -> {
+            }
+        }
+        publish(from, to);
+        if (onStateChange != null) {
+            onStateChange.accept(to);
+        }
+    }
+
+    private void publish(CircuitState from, CircuitState to) {
+        MeterRegistry meterRegistry = MetricsRegistry.currentMeterRegistry();
+        AtomicInteger stateValue = STATE_BY_URL.computeIfAbsent(name, k -> {
+            AtomicInteger value = new AtomicInteger(CircuitState.CLOSED.getCode());
+            Gauge.builder(STATE_GAUGE_NAME, value, AtomicInteger::get)
+                    .description("Circuit breaker state of upstream (0 closed, 1 half-open, 2 open)")
+                    .tag("upstream", k)
+                    .register(meterRegistry);
+            return value;
+        });
+        stateValue.set(to.getCode());
+        Counter.builder(TRANSITION_COUNTER_NAME)
+                .description("Counts circuit breaker state transitions")
+                .tags("upstream", name, "from", from.name(), "to", to.name())
+                .register(meterRegistry)
+                .increment();
+    }
+}
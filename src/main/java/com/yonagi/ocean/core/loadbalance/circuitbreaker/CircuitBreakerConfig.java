@@ -0,0 +1,85 @@
+package com.yonagi.ocean.core.loadbalance.circuitbreaker;
+
+import com.yonagi.ocean.utils.LocalConfigLoader;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 熔断器与慢启动参数，读取自 server.load_balance.circuit_breaker.*
+ * @date 2025/11/18 10:20
+ */
+public final class CircuitBreakerConfig {
+
+    private static final CircuitBreakerConfig DEFAULT = new CircuitBreakerConfig();
+
+    private final boolean enabled;
+
+    private final int windowSeconds;
+
+    private final int minimumCalls;
+
+    private final double failureRateThreshold;
+
+    private final double slowCallRateThreshold;
+
+    private final long slowCallDurationNanos;
+
+    private final long openDurationMillis;
+
+    private final int halfOpenPermits;
+
+    private final long slowStartMillis;
+
+    private CircuitBreakerConfig() {
+        this.enabled = Boolean.parseBoolean(LocalConfigLoader.getProperty("server.load_balance.circuit_breaker.enabled", "true"));
+        this.windowSeconds = Math.max(1, Integer.parseInt(LocalConfigLoader.getProperty("server.load_balance.circuit_breaker.window_seconds", "10")));
+        this.minimumCalls = Math.max(1, Integer.parseInt(LocalConfigLoader.getProperty("server.load_balance.circuit_breaker.minimum_calls", "20")));
+        this.failureRateThreshold = Double.parseDouble(LocalConfigLoader.getProperty("server.load_balance.circuit_breaker.failure_rate_threshold", "50"));
+        this.slowCallRateThreshold = Double.parseDouble(LocalConfigLoader.getProperty("server.load_balance.circuit_breaker.slow_call_rate_threshold", "80"));
+        this.slowCallDurationNanos = Long.parseLong(LocalConfigLoader.getProperty("server.load_balance.circuit_breaker.slow_call_duration_millis", "1000")) * 1_000_000L;
+        this.openDurationMillis = Long.parseLong(LocalConfigLoader.getProperty("server.load_balance.circuit_breaker.open_duration_millis", "30000"));
+        this.halfOpenPermits = Math.max(1, Integer.parseInt(LocalConfigLoader.getProperty("server.load_balance.circuit_breaker.half_open_permits", "5")));
+        this.slowStartMillis = Long.parseLong(LocalConfigLoader.getProperty("server.load_balance.slow_start_millis", "30000"));
+    }
+
+    public static CircuitBreakerConfig getDefault() {
+        return DEFAULT;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getWindowSeconds() {
+        return windowSeconds;
+    }
+
+    public int getMinimumCalls() {
+        return minimumCalls;
+    }
+
+    public double getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public double getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+
+    public long getSlowCallDurationNanos() {
+        return slowCallDurationNanos;
+    }
+
+    public long getOpenDurationMillis() {
+        return openDurationMillis;
+    }
+
+    public int getHalfOpenPermits() {
+        return halfOpenPermits;
+    }
+
+    public long getSlowStartMillis() {
+        return slowStartMillis;
+    }
+}
@@ -0,0 +1,59 @@
+package com.yonagi.ocean.core.loadbalance.config;
+
+import com.yonagi.ocean.core.loadbalance.config.enums.HashKeyType;
+
+import java.util.Locale;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 一致性哈希的取值来源，配置格式为 ip | path | header:Name | cookie:Name
+ * @date 2025/11/16 14:05
+ */
+public final class HashKey {
+
+    public static final HashKey IP = new HashKey(HashKeyType.IP, null);
+
+    private final HashKeyType type;
+
+    private final String name;
+
+    private HashKey(HashKeyType type, String name) {
+        this.type = type;
+        this.name = name;
+    }
+
+    public static HashKey parse(String value) {
+        if (value == null || value.isBlank()) {
+            return IP;
+        }
+        int colon = value.indexOf(':');
+        HashKeyType type = HashKeyType.getHashKeyType(colon < 0 ? value : value.substring(0, colon));
+        if (type == null) {
+            throw new IllegalArgumentException("Unsupported hash key: " + value);
+        }
+        String name = colon < 0 ? null : value.substring(colon + 1).trim();
+        if ((type == HashKeyType.HEADER || type == HashKeyType.COOKIE) && (name == null || name.isEmpty())) {
+            throw new IllegalArgumentException("Hash key " + type + " requires a name, e.g. " + type.name().toLowerCase(Locale.ROOT) + ":X-User-Id");
+        }
+        // 请求头在解析时已统一转为小写
+        if (type == HashKeyType.HEADER) {
+            name = name.toLowerCase(Locale.ROOT);
+        }
+        return new HashKey(type, name);
+    }
+
+    public HashKeyType getType() {
+        return type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return name == null ? type.name().toLowerCase(Locale.ROOT) : type.name().toLowerCase(Locale.ROOT) + ":" + name;
+    }
+}
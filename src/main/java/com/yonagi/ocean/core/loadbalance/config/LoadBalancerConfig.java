@@ -31,12 +31,14 @@ public final class LoadBalancerConfig {
 
     private final Integer canaryPercent;
 
+    private final String hashKey;
+
     // 运行时状态：LB配置的版本号
     private final AtomicLong version = new AtomicLong(0);
 
     @Override
     public int hashCode() {
-        return Objects.hash(strategy, healthCheckMode, checkIntervalMs, upstreams, canaryUpstreams, canaryPercent);
+        return Objects.hash(strategy, healthCheckMode, checkIntervalMs, upstreams, canaryUpstreams, canaryPercent, hashKey);
     }
 
     @Override
@@ -53,7 +55,8 @@ public final class LoadBalancerConfig {
                 Objects.equals(checkIntervalMs, that.checkIntervalMs) &&
                 Objects.equals(upstreams, that.upstreams) &&
                 Objects.equals(canaryUpstreams, that.canaryUpstreams) &&
-                Objects.equals(canaryPercent, that.canaryPercent);
+                Objects.equals(canaryPercent, that.canaryPercent) &&
+                Objects.equals(hashKey, that.hashKey);
     }
 
     @JsonCreator
@@ -62,13 +65,15 @@ public final class LoadBalancerConfig {
                               @JsonProperty("checkIntervalMs") Long checkIntervalMs,
                               @JsonProperty("upstreams") List<Upstream> upstreams,
                               @JsonProperty("canaryUpstreams") List<Upstream> canaryUpstreams,
-                              @JsonProperty("canaryPercent") Integer canaryPercent) {
+                              @JsonProperty("canaryPercent") Integer canaryPercent,
+                              @JsonProperty("hashKey") String hashKey) {
         this.strategy = strategy;
         this.healthCheckMode = healthCheckMode;
         this.checkIntervalMs = checkIntervalMs;
         this.upstreams = new ArrayList<>(upstreams);
         this.canaryUpstreams = new ArrayList<>(canaryUpstreams);
         this.canaryPercent = canaryPercent;
+        this.hashKey = hashKey;
     }
 
     public Strategy getStrategy() {
@@ -95,6 +100,10 @@ public final class LoadBalancerConfig {
         return canaryPercent;
     }
 
+    public String getHashKey() {
+        return hashKey;
+    }
+
     public String getCacheKey() {
         return String.valueOf(this.hashCode());
     }
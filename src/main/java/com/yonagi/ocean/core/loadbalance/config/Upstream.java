@@ -4,12 +4,20 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.google.common.util.concurrent.AtomicDouble;
+import com.yonagi.ocean.core.loadbalance.UpstreamScheduler;
+import com.yonagi.ocean.core.loadbalance.circuitbreaker.CircuitBreaker;
+import com.yonagi.ocean.core.loadbalance.circuitbreaker.CircuitBreakerConfig;
+import com.yonagi.ocean.core.loadbalance.config.enums.CircuitState;
+import com.yonagi.ocean.core.loadbalance.stats.PeakEwma;
+import com.yonagi.ocean.utils.LocalConfigLoader;
 import org.checkerframework.checker.guieffect.qual.UI;
 
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 
 /**
@@ -21,6 +29,10 @@ import java.util.function.Consumer;
  */
 public class Upstream {
 
+    private static final int SLOW_START_STEPS = 10;
+
+    private static final double SLOW_START_MIN_RATIO = 0.1d;
+
     private final String url;
 
     private final double weight;
@@ -43,9 +55,25 @@ public class Upstream {
     // 运行时状态： 节点的有效权重，用于加权轮询
     private final AtomicDouble effectiveWeight;
 
+    // 运行时状态：正在处理中的请求数，使用分段计数器降低竞争
+    private final LongAdder inFlight = new LongAdder();
+
+    // 运行时状态：请求耗时的 Peak-EWMA
+    private final PeakEwma peakEwma = new PeakEwma(
+            Long.parseLong(LocalConfigLoader.getProperty("server.load_balance.peak_ewma.decay_millis", "10000")));
+
+    // 运行时状态：熔断器
+    private final transient CircuitBreaker circuitBreaker;
+
+    // 运行时状态：慢启动开始时间，0 表示不在慢启动中
+    private volatile long slowStartBeginMillis = 0L;
+
     // 运行时状态：节点状态变更回调
     private transient Consumer<Upstream> onStageChange;
 
+    // 运行时状态：按地址展开的节点访问上游时携带的原始 Host，null 表示使用 url 中的主机
+    private transient volatile String hostHeader;
+
     @JsonCreator
     public Upstream(@JsonProperty("url") String url,
                     @JsonProperty("weight") double weight) {
@@ -53,6 +81,7 @@ public class Upstream {
         this.weight = Math.max(1, weight);
         this.currentWeight = new AtomicDouble(0.0d);
         this.effectiveWeight = new AtomicDouble(weight);
+        this.circuitBreaker = new CircuitBreaker(url, CircuitBreakerConfig.getDefault(), this::onCircuitStateChanged);
     }
 
     @Override
@@ -88,6 +117,9 @@ public class Upstream {
         if (this.isHealthy.get() != healthy) {
             isHealthy.set(healthy);
             lastCheckedTime = System.currentTimeMillis();
+            if (healthy) {
+                startSlowStart();
+            }
             if (onStageChange != null) {
                 onStageChange.accept(this);
             }
@@ -123,10 +155,108 @@ public class Upstream {
         }
     }
 
+    public void onRequestStart() {
+        inFlight.increment();
+    }
+
+    public void onRequestComplete(long rttNanos, boolean success) {
+        inFlight.decrement();
+        peakEwma.observe(rttNanos);
+        circuitBreaker.onResult(success, rttNanos);
+    }
+
+    /**
+     * 请求被主动取消（如对冲请求的落败方），只归还处理中计数，不计入延迟与熔断统计
+     */
+    public void onRequestCancelled() {
+        inFlight.decrement();
+        circuitBreaker.releasePermission();
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * 节点健康且熔断器未打开时才可以参与负载均衡
+     */
+    public boolean isAvailable() {
+        return isHealthy.get() && circuitBreaker.getState() != CircuitState.OPEN;
+    }
+
+    /**
+     * 节点恢复后在 slow_start_millis 内将有效权重从 10% 线性提升到配置权重
+     */
+    public void startSlowStart() {
+        long window = CircuitBreakerConfig.getDefault().getSlowStartMillis();
+        currentWeight.set(0.0d);
+        if (window <= 0) {
+            setEffectiveWeight(weight);
+            return;
+        }
+        long begin = System.currentTimeMillis();
+        slowStartBeginMillis = begin;
+        setEffectiveWeight(getMaxEffectiveWeight());
+        scheduleSlowStartStep(begin, window / SLOW_START_STEPS);
+    }
+
+    private void scheduleSlowStartStep(long begin, long stepMillis) {
+        UpstreamScheduler.schedule(() -> {
+            if (slowStartBeginMillis != begin) {
+                return;
+            }
+            double cap = getMaxEffectiveWeight();
+            setEffectiveWeight(Math.max(cap, effectiveWeight.get()));
+            if (cap >= weight) {
+                slowStartBeginMillis = 0L;
+                return;
+            }
+            scheduleSlowStartStep(begin, stepMillis);
+        }, Math.max(1L, stepMillis), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 有效权重当前允许的上限，慢启动期间随时间线性增长
+     */
+    public double getMaxEffectiveWeight() {
+        long begin = slowStartBeginMillis;
+        if (begin == 0L) {
+            return weight;
+        }
+        long window = CircuitBreakerConfig.getDefault().getSlowStartMillis();
+        double progress = (System.currentTimeMillis() - begin) / (double) window;
+        return weight * Math.min(1.0d, Math.max(SLOW_START_MIN_RATIO, progress));
+    }
+
+    private void onCircuitStateChanged(CircuitState state) {
+        if (state == CircuitState.CLOSED) {
+            startSlowStart();
+        }
+        if (onStageChange != null) {
+            onStageChange.accept(this);
+        }
+    }
+
+    public long getInFlight() {
+        return Math.max(0L, inFlight.sum());
+    }
+
+    public PeakEwma getPeakEwma() {
+        return peakEwma;
+    }
+
     public void setOnStageChange(Consumer<Upstream> listener) {
         this.onStageChange = listener;
     }
 
+    public String getHostHeader() {
+        return hostHeader;
+    }
+
+    public void setHostHeader(String hostHeader) {
+        this.hostHeader = hostHeader;
+    }
+
     @Override
     public String toString() {
         return String.format("%s (Weight: %f, Healthy: %b)", url, weight, isHealthy.get());
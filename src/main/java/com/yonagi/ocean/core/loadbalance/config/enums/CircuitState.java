@@ -0,0 +1,29 @@
+package com.yonagi.ocean.core.loadbalance.config.enums;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description
+ * @date 2025/11/18 10:02
+ */
+public enum CircuitState {
+    CLOSED(0),
+    HALF_OPEN(1),
+    OPEN(2);
+
+    private final int code;
+
+    CircuitState(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    @Override
+    public String toString() {
+        return this.name();
+    }
+}
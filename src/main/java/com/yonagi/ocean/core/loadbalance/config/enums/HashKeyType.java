@@ -0,0 +1,28 @@
+package com.yonagi.ocean.core.loadbalance.config.enums;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description
+ * @date 2025/11/16 14:02
+ */
+public enum HashKeyType {
+    IP,
+    HEADER,
+    COOKIE,
+    PATH;
+
+    public static HashKeyType getHashKeyType(String type) {
+        try {
+            return HashKeyType.valueOf(type.trim().toUpperCase());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return this.name();
+    }
+}
@@ -13,7 +13,10 @@ public enum Strategy {
     IP_HASH,
     RANDOM,
     WEIGHT_ROUND_ROBIN,
-    WEIGHT_RANDOM;
+    WEIGHT_RANDOM,
+    LEAST_REQUESTS,
+    P2C_PEAK_EWMA,
+    CONSISTENT_HASH;
 
     public static Strategy getLbStrategy(String type) {
         try {
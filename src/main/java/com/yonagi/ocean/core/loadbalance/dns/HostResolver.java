@@ -0,0 +1,35 @@
+package com.yonagi.ocean.core.loadbalance.dns;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.net.spi.InetAddressResolver;
+import java.net.spi.InetAddressResolver.LookupPolicy;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 把主机名解析为地址列表的解析器，UpstreamAddressResolver 通过它访问真正的 DNS，
+ * 测试时可以注入固定结果的本地实现
+ * @date 2025/11/22 14:00
+ */
+@FunctionalInterface
+public interface HostResolver {
+
+    InetAddress[] resolve(String host) throws UnknownHostException;
+
+    /**
+     * 使用 JDK 内置解析器。UpstreamInetAddressResolverProvider 生效后直接调用它持有的内置解析器，
+     * 避免经由 InetAddress 再次回到缓存造成递归
+     */
+    static HostResolver system() {
+        return host -> {
+            InetAddressResolver builtin = UpstreamInetAddressResolverProvider.builtinResolver();
+            if (builtin != null) {
+                return builtin.lookupByName(host, LookupPolicy.of(LookupPolicy.IPV4 | LookupPolicy.IPV6))
+                        .toArray(InetAddress[]::new);
+            }
+            return InetAddress.getAllByName(host);
+        };
+    }
+}
@@ -0,0 +1,245 @@
+package com.yonagi.ocean.core.loadbalance.dns;
+
+import com.yonagi.ocean.admin.metrics.MetricsRegistry;
+import com.yonagi.ocean.utils.LocalConfigLoader;
+import io.micrometer.core.instrument.Counter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 上游主机名的地址缓存。反向代理规则使用负载均衡器时按引用计数登记上游主机名，之后由后台线程每隔 ttl_millis 重新解析，
+ * 请求路径上只读取缓存；解析失败时保留上一次成功的结果（last-known-good），并按 failure_retry_millis 重试。
+ * 地址集合变化时递增 generation，展开多地址节点的负载均衡器据此重建快照。
+ * 引用计数归零的主机名在下一次刷新时移除，期间重新登记则继续保留
+ * @date 2025/11/22 14:30
+ */
+public class UpstreamAddressResolver {
+
+    private static final Logger log = LoggerFactory.getLogger(UpstreamAddressResolver.class);
+
+    private static final boolean ENABLED = Boolean.parseBoolean(LocalConfigLoader.getProperty("server.reverse_proxy.dns.enabled", "true"));
+
+    private static final UpstreamAddressResolver INSTANCE = createDefault();
+
+    private volatile HostResolver hostResolver;
+
+    private final long ttlMillis;
+
+    private final long failureRetryMillis;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final AtomicLong generation = new AtomicLong(0);
+
+    private final Counter successCounter;
+
+    private final Counter failureCounter;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "Upstream-DNS-Refresh");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public UpstreamAddressResolver(HostResolver hostResolver, long ttlMillis, long failureRetryMillis) {
+        this.hostResolver = hostResolver;
+        this.ttlMillis = Math.max(1L, ttlMillis);
+        this.failureRetryMillis = Math.max(1L, failureRetryMillis);
+        this.successCounter = createResolveCounter("success");
+        this.failureCounter = createResolveCounter("failure");
+    }
+
+    private static UpstreamAddressResolver createDefault() {
+        long ttlMillis = Long.parseLong(LocalConfigLoader.getProperty("server.reverse_proxy.dns.ttl_millis", "30000"));
+        long failureRetryMillis = Long.parseLong(LocalConfigLoader.getProperty("server.reverse_proxy.dns.failure_retry_millis", "5000"));
+        UpstreamAddressResolver resolver = new UpstreamAddressResolver(HostResolver.system(), ttlMillis, failureRetryMillis);
+        if (ENABLED) {
+            UpstreamInetAddressResolverProvider.activate(resolver);
+        }
+        return resolver;
+    }
+
+    public static UpstreamAddressResolver getInstance() {
+        return INSTANCE;
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    public void setHostResolver(HostResolver hostResolver) {
+        this.hostResolver = hostResolver;
+    }
+
+    /**
+     * 登记需要缓存的主机名，首次登记时立即在后台解析，IP 字面量会被忽略；与 unregister 成对调用
+     */
+    public void register(String host) {
+        if (host == null || isIpLiteral(host)) {
+            return;
+        }
+        entries.compute(normalize(host), (k, entry) -> {
+            if (entry == null) {
+                entry = new Entry();
+                schedule(k, entry, 0L);
+            }
+            entry.references++;
+            return entry;
+        });
+    }
+
+    public void unregister(String host) {
+        if (host == null || isIpLiteral(host)) {
+            return;
+        }
+        entries.computeIfPresent(normalize(host), (k, entry) -> {
+            entry.references = Math.max(0, entry.references - 1);
+            return entry;
+        });
+    }
+
+    public boolean isManaged(String host) {
+        return host != null && entries.containsKey(normalize(host));
+    }
+
+    /**
+     * 返回缓存的地址；尚未解析成功过的主机名在调用线程中同步解析一次
+     */
+    public List<InetAddress> resolve(String host) throws UnknownHostException {
+        String key = normalize(host);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            // 判断 isManaged 之后刚被移除，直接解析一次，不再登记
+            InetAddress[] resolved = hostResolver.resolve(key);
+            if (resolved == null || resolved.length == 0) {
+                throw new UnknownHostException(host);
+            }
+            return List.of(resolved);
+        }
+        List<InetAddress> addresses = entry.addresses;
+        if (addresses != null) {
+            return addresses;
+        }
+        synchronized (entry) {
+            if (entry.addresses == null) {
+                resolveNow(key, entry);
+            }
+        }
+        addresses = entry.addresses;
+        if (addresses == null) {
+            throw new UnknownHostException(host);
+        }
+        return addresses;
+    }
+
+    /**
+     * 只读缓存，不触发解析；未登记或尚未解析成功时返回空列表
+     */
+    public List<InetAddress> cachedAddresses(String host) {
+        if (host == null) {
+            return List.of();
+        }
+        Entry entry = entries.get(normalize(host));
+        List<InetAddress> addresses = entry != null ? entry.addresses : null;
+        return addresses != null ? addresses : List.of();
+    }
+
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void refresh(String key, Entry entry) {
+        // 没有规则再使用该主机名时移除条目并停止刷新
+        if (entries.computeIfPresent(key, (k, e) -> e == entry && e.references == 0 ? null : e) != entry) {
+            log.debug("Upstream host {} is no longer referenced, stop refreshing", key);
+            return;
+        }
+        boolean success = resolveNow(key, entry);
+        schedule(key, entry, success ? ttlMillis : failureRetryMillis);
+    }
+
+    private boolean resolveNow(String key, Entry entry) {
+        try {
+            InetAddress[] resolved = hostResolver.resolve(key);
+            if (resolved == null || resolved.length == 0) {
+                throw new UnknownHostException(key);
+            }
+            List<InetAddress> addresses = List.of(resolved);
+            List<InetAddress> previous = entry.addresses;
+            if (!addresses.equals(previous)) {
+                entry.addresses = addresses;
+                generation.incrementAndGet();
+                log.info("Resolved upstream host {} to {}", key, addresses);
+            }
+            successCounter.increment();
+            return true;
+        } catch (UnknownHostException | RuntimeException e) {
+            failureCounter.increment();
+            if (entry.addresses != null) {
+                log.warn("Failed to resolve upstream host {}, keeping last known addresses {}: {}", key, entry.addresses, e.getMessage());
+            } else {
+                log.warn("Failed to resolve upstream host {}: {}", key, e.getMessage());
+            }
+            return false;
+        }
+    }
+
+    private void schedule(String key, Entry entry, long delayMillis) {
+        try {
+            scheduler.schedule(() -> refresh(key, entry), delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            log.debug("DNS refresh scheduler is stopped, skip refreshing {}", key);
+        }
+    }
+
+    private static Counter createResolveCounter(String result) {
+        return Counter.builder("upstream.dns.resolve.total")
+                .description("Counts background and first-use resolutions of upstream host names")
+                .tag("result", result)
+                .register(MetricsRegistry.currentMeterRegistry());
+    }
+
+    private static String normalize(String host) {
+        return host.toLowerCase();
+    }
+
+    static boolean isIpLiteral(String host) {
+        if (host.indexOf(':') >= 0 || host.startsWith("[")) {
+            return true;
+        }
+        for (int i = 0; i < host.length(); i++) {
+            char c = host.charAt(i);
+            if (c != '.' && (c < '0' || c > '9')) {
+                return false;
+            }
+        }
+        return !host.isEmpty();
+    }
+
+    private static final class Entry {
+
+        // 最近一次成功解析的结果，解析失败时不会被清空
+        private volatile List<InetAddress> addresses;
+
+        // 只在 entries 的 compute 系列方法中修改
+        private int references;
+    }
+}
@@ -0,0 +1,72 @@
+package com.yonagi.ocean.core.loadbalance.dns;
+
+import java.net.InetAddress;
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.UnknownHostException;
+import java.net.spi.InetAddressResolver;
+import java.net.spi.InetAddressResolverProvider;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 通过 META-INF/services 注册的 JVM 地址解析器。
+ * 已登记的上游主机名直接从 UpstreamAddressResolver 的缓存返回，HttpClient、健康检查与 Upgrade 隧道因此都不会阻塞在 DNS 上；
+ * 其余主机名以及反向解析交给 JDK 内置解析器
+ * @date 2025/11/22 14:10
+ */
+public class UpstreamInetAddressResolverProvider extends InetAddressResolverProvider {
+
+    private static volatile InetAddressResolver builtin;
+
+    private static volatile UpstreamAddressResolver active;
+
+    @Override
+    public InetAddressResolver get(Configuration configuration) {
+        InetAddressResolver builtinResolver = configuration.builtinResolver();
+        builtin = builtinResolver;
+        return new InetAddressResolver() {
+            @Override
+            public Stream<InetAddress> lookupByName(String host, LookupPolicy lookupPolicy) throws UnknownHostException {
+                UpstreamAddressResolver resolver = active;
+                if (resolver == null || !resolver.isManaged(host)) {
+                    return builtinResolver.lookupByName(host, lookupPolicy);
+                }
+                return filter(host, resolver.resolve(host), lookupPolicy);
+            }
+
+            @Override
+            public String lookupByAddress(byte[] addr) throws UnknownHostException {
+                return builtinResolver.lookupByAddress(addr);
+            }
+        };
+    }
+
+    @Override
+    public String name() {
+        return "ocean-upstream-address-cache";
+    }
+
+    static InetAddressResolver builtinResolver() {
+        return builtin;
+    }
+
+    static void activate(UpstreamAddressResolver resolver) {
+        active = resolver;
+    }
+
+    private static Stream<InetAddress> filter(String host, List<InetAddress> addresses, InetAddressResolver.LookupPolicy lookupPolicy) throws UnknownHostException {
+        boolean ipv4 = (lookupPolicy.characteristics() & InetAddressResolver.LookupPolicy.IPV4) != 0;
+        boolean ipv6 = (lookupPolicy.characteristics() & InetAddressResolver.LookupPolicy.IPV6) != 0;
+        List<InetAddress> allowed = addresses.stream()
+                .filter(address -> (ipv4 && address instanceof Inet4Address) || (ipv6 && address instanceof Inet6Address))
+                .toList();
+        if (allowed.isEmpty()) {
+            throw new UnknownHostException(host);
+        }
+        return allowed.stream();
+    }
+}
@@ -0,0 +1,241 @@
+package com.yonagi.ocean.core.loadbalance.impl;
+
+import com.yonagi.ocean.core.address.ClientAddress;
+import com.yonagi.ocean.core.loadbalance.AbstractLoadBalancer;
+import com.yonagi.ocean.core.loadbalance.UpstreamSnapshot;
+import com.yonagi.ocean.core.loadbalance.config.HashKey;
+import com.yonagi.ocean.core.loadbalance.config.LoadBalancerConfig;
+import com.yonagi.ocean.core.loadbalance.config.Upstream;
+import com.yonagi.ocean.core.loadbalance.utils.HashUtils;
+import com.yonagi.ocean.core.protocol.HttpRequest;
+import com.yonagi.ocean.utils.LocalConfigLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 基于 Maglev 查找表的一致性哈希负载均衡。
+ * 查找表只包含健康节点，按 Upstream 的配置权重分配槽位，健康节点快照的成员变化时在调度线程上异步重建；
+ * 选择节点时只需计算一次哈希并读取数组，不产生任何对象分配
+ * @date 2025/11/16 14:40
+ */
+public class ConsistentHashLoadBalancer extends AbstractLoadBalancer {
+
+    private static final Logger log = LoggerFactory.getLogger(ConsistentHashLoadBalancer.class);
+
+    private static final long OFFSET_SEED = 0x9E3779B97F4A7C15L;
+    private static final long SKIP_SEED = 0xC2B2AE3D27D4EB4FL;
+    private static final long KEY_SEED = 0x165667B19E3779F9L;
+
+    private static final int TABLE_SIZE = nextPrime(Integer.parseInt(
+            LocalConfigLoader.getProperty("server.load_balance.consistent_hash.table_size", "65537")));
+
+    private static final MaglevTable EMPTY_TABLE = new MaglevTable(new Upstream[0], new int[0]);
+
+    private final HashKey hashKey;
+
+    // 父类构造器中就会回调 onSnapshotRebuilt，这两个字段不能带初始化表达式，否则会被覆盖
+    private volatile MaglevTable normalTable;
+    private volatile MaglevTable canaryTable;
+
+    private final AtomicBoolean tableRebuildPending = new AtomicBoolean(false);
+
+    public ConsistentHashLoadBalancer(LoadBalancerConfig config) {
+        this(config, HashKey.parse(config.getHashKey()));
+    }
+
+    protected ConsistentHashLoadBalancer(LoadBalancerConfig config, HashKey hashKey) {
+        super(config);
+        this.hashKey = hashKey;
+    }
+
+    @Override
+    public Upstream choose(HttpRequest request) {
+        refreshIfStale();
+        boolean canary = useCanary(request);
+        UpstreamSnapshot snapshot = canary ? getCanarySnapshot() : getNormalSnapshot();
+        if (snapshot.isEmpty()) {
+            return null;
+        }
+        MaglevTable table = canary ? canaryTable : normalTable;
+        long hash = hashRequest(request);
+        int[] entries = table.entries;
+        if (entries.length > 0) {
+            Upstream upstream = table.upstreams[entries[(int) Long.remainderUnsigned(hash, entries.length)]];
+            if (upstream.isAvailable()) {
+                return upstream;
+            }
+        }
+        // 查找表尚未按最新快照重建完成时，命中已摘除的节点则临时在快照内取模
+        return snapshot.get((int) Long.remainderUnsigned(hash, snapshot.size()));
+    }
+
+    private long hashRequest(HttpRequest request) {
+        String value = null;
+        switch (hashKey.getType()) {
+            case HEADER -> value = request.getHeaders().get(hashKey.getName());
+            case PATH -> value = request.getUri();
+            case COOKIE -> {
+                String cookieHeader = request.getHeaders().get("cookie");
+                if (cookieHeader != null) {
+                    long hash = hashCookie(cookieHeader, hashKey.getName());
+                    if (hash != 0L) {
+                        return hash;
+                    }
+                }
+            }
+            default -> {
+            }
+        }
+        if (value != null && !value.isEmpty()) {
+            return HashUtils.hash(value, KEY_SEED);
+        }
+        // 取不到配置的哈希键时退化为按客户端地址哈希
+        ClientAddress clientAddress = request.getAttribute().getClientAddress();
+        if (clientAddress != null) {
+            return HashUtils.hash(clientAddress.getHigh(), clientAddress.getLow(), KEY_SEED);
+        }
+        value = request.getAttribute().getClientIp();
+        return value == null ? 0L : HashUtils.hash(value, KEY_SEED);
+    }
+
+    private static long hashCookie(String cookieHeader, String name) {
+        int length = cookieHeader.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && (cookieHeader.charAt(i) == ' ' || cookieHeader.charAt(i) == ';')) {
+                i++;
+            }
+            int end = cookieHeader.indexOf(';', i);
+            if (end < 0) {
+                end = length;
+            }
+            int valueStart = i + name.length() + 1;
+            if (valueStart <= end
+                    && cookieHeader.regionMatches(i, name, 0, name.length())
+                    && cookieHeader.charAt(i + name.length()) == '=') {
+                return valueStart == end ? 0L : HashUtils.hash(cookieHeader, valueStart, end, KEY_SEED);
+            }
+            i = end + 1;
+        }
+        return 0L;
+    }
+
+    @Override
+    protected void onSnapshotRebuilt(UpstreamSnapshot normal, UpstreamSnapshot canary) {
+        if (normalTable == null) {
+            // 父类构造器中的首次构建，此时还没有请求，直接同步填表
+            normalTable = rebuildIfChanged(null, normal);
+            canaryTable = rebuildIfChanged(null, canary);
+            return;
+        }
+        // 有效权重的调整也会重建快照，节点集合未变化时无需重建查找表
+        if (Arrays.equals(normalTable.upstreams, normal.upstreams())
+                && Arrays.equals(canaryTable.upstreams, canary.upstreams())) {
+            return;
+        }
+        // 快照重建可能发生在请求线程上，填表放到调度线程，多次变化合并为一次重建
+        if (!tableRebuildPending.compareAndSet(false, true)) {
+            return;
+        }
+        scheduler.execute(() -> {
+            tableRebuildPending.set(false);
+            normalTable = rebuildIfChanged(normalTable, getNormalSnapshot());
+            canaryTable = rebuildIfChanged(canaryTable, getCanarySnapshot());
+        });
+    }
+
+    private MaglevTable rebuildIfChanged(MaglevTable current, UpstreamSnapshot snapshot) {
+        Upstream[] upstreams = snapshot.upstreams();
+        if (current != null && Arrays.equals(current.upstreams, upstreams)) {
+            return current;
+        }
+        if (upstreams.length == 0) {
+            return EMPTY_TABLE;
+        }
+        log.debug("Rebuilding maglev table for {} upstreams", upstreams.length);
+        return new MaglevTable(upstreams, populate(upstreams));
+    }
+
+    /**
+     * 加权 Maglev 填表：每轮按 weight / maxWeight 为节点累积额度，额度满 1 时按其排列占据下一个空槽
+     */
+    private static int[] populate(Upstream[] upstreams) {
+        int n = upstreams.length;
+        long[] offset = new long[n];
+        long[] skip = new long[n];
+        long[] next = new long[n];
+        double[] credit = new double[n];
+        double[] share = new double[n];
+        double maxWeight = 0.0d;
+        for (Upstream upstream : upstreams) {
+            maxWeight = Math.max(maxWeight, upstream.getWeight());
+        }
+        for (int i = 0; i < n; i++) {
+            String url = upstreams[i].getUrl();
+            offset[i] = Long.remainderUnsigned(HashUtils.hash(url, OFFSET_SEED), TABLE_SIZE);
+            skip[i] = Long.remainderUnsigned(HashUtils.hash(url, SKIP_SEED), TABLE_SIZE - 1) + 1;
+            share[i] = upstreams[i].getWeight() / maxWeight;
+        }
+
+        int[] entries = new int[TABLE_SIZE];
+        Arrays.fill(entries, -1);
+        int filled = 0;
+        while (true) {
+            for (int i = 0; i < n; i++) {
+                credit[i] += share[i];
+                if (credit[i] < 1.0d) {
+                    continue;
+                }
+                credit[i] -= 1.0d;
+                int slot = (int) ((offset[i] + next[i] * skip[i]) % TABLE_SIZE);
+                while (entries[slot] >= 0) {
+                    next[i]++;
+                    slot = (int) ((offset[i] + next[i] * skip[i]) % TABLE_SIZE);
+                }
+                entries[slot] = i;
+                next[i]++;
+                if (++filled == TABLE_SIZE) {
+                    return entries;
+                }
+            }
+        }
+    }
+
+    private static int nextPrime(int value) {
+        int candidate = Math.max(value, 3);
+        while (!isPrime(candidate)) {
+            candidate++;
+        }
+        return candidate;
+    }
+
+    private static boolean isPrime(int value) {
+        if (value % 2 == 0) {
+            return value == 2;
+        }
+        for (int i = 3; (long) i * i <= value; i += 2) {
+            if (value % i == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class MaglevTable {
+
+        private final Upstream[] upstreams;
+
+        private final int[] entries;
+
+        private MaglevTable(Upstream[] upstreams, int[] entries) {
+            this.upstreams = upstreams;
+            this.entries = entries;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.yonagi.ocean.core.loadbalance.impl;
+
+import com.yonagi.ocean.core.loadbalance.AbstractLoadBalancer;
+import com.yonagi.ocean.core.loadbalance.UpstreamSnapshot;
+import com.yonagi.ocean.core.loadbalance.config.LoadBalancerConfig;
+import com.yonagi.ocean.core.loadbalance.config.Upstream;
+import com.yonagi.ocean.core.protocol.HttpRequest;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 选择当前处理中请求数最少的节点，请求数相同时从随机位置开始扫描以避免总是命中第一个节点
+ * @date 2025/11/16 10:30
+ */
+public class LeastRequestsLoadBalancer extends AbstractLoadBalancer {
+
+    public LeastRequestsLoadBalancer(LoadBalancerConfig config) {
+        super(config);
+    }
+
+    @Override
+    public Upstream choose(HttpRequest request) {
+        UpstreamSnapshot snapshot = getTargetSnapshot(request);
+        int size = snapshot.size();
+        if (size == 0) {
+            return null;
+        }
+        if (size == 1) {
+            return snapshot.get(0);
+        }
+
+        int offset = ThreadLocalRandom.current().nextInt(size);
+        Upstream best = null;
+        long bestInFlight = Long.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            Upstream candidate = snapshot.get((offset + i) % size);
+            long inFlight = candidate.getInFlight();
+            if (inFlight < bestInFlight) {
+                best = candidate;
+                bestInFlight = inFlight;
+            }
+        }
+        return best;
+    }
+}
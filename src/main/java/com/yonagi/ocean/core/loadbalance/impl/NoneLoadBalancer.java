@@ -1,12 +1,11 @@
 package com.yonagi.ocean.core.loadbalance.impl;
 
 import com.yonagi.ocean.core.loadbalance.AbstractLoadBalancer;
+import com.yonagi.ocean.core.loadbalance.UpstreamSnapshot;
 import com.yonagi.ocean.core.loadbalance.config.LoadBalancerConfig;
 import com.yonagi.ocean.core.loadbalance.config.Upstream;
 import com.yonagi.ocean.core.protocol.HttpRequest;
 
-import java.util.List;
-
 /**
  * @author Yonagi
  * @version 1.0
@@ -22,10 +21,10 @@ public class NoneLoadBalancer extends AbstractLoadBalancer {
 
     @Override
     public Upstream choose(HttpRequest request) {
-        List<Upstream> healthyUpstreams = selectHealthyUpstreams(this.config.getUpstreams());
-        if (healthyUpstreams.isEmpty()) {
+        UpstreamSnapshot snapshot = getNormalSnapshot();
+        if (snapshot.isEmpty()) {
             return null;
         }
-        return healthyUpstreams.getFirst();
+        return snapshot.get(0);
     }
 }
@@ -0,0 +1,51 @@
+package com.yonagi.ocean.core.loadbalance.impl;
+
+import com.yonagi.ocean.core.loadbalance.AbstractLoadBalancer;
+import com.yonagi.ocean.core.loadbalance.UpstreamSnapshot;
+import com.yonagi.ocean.core.loadbalance.config.LoadBalancerConfig;
+import com.yonagi.ocean.core.loadbalance.config.Upstream;
+import com.yonagi.ocean.core.protocol.HttpRequest;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description Power of two choices：随机取两个健康节点，选择 Peak-EWMA 延迟 × (处理中请求数 + 1) 更小的一个
+ * @date 2025/11/16 10:45
+ */
+public class P2CPeakEwmaLoadBalancer extends AbstractLoadBalancer {
+
+    public P2CPeakEwmaLoadBalancer(LoadBalancerConfig config) {
+        super(config);
+    }
+
+    @Override
+    public Upstream choose(HttpRequest request) {
+        UpstreamSnapshot snapshot = getTargetSnapshot(request);
+        int size = snapshot.size();
+        if (size == 0) {
+            return null;
+        }
+        if (size == 1) {
+            return snapshot.get(0);
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        Upstream a = snapshot.get(first);
+        Upstream b = snapshot.get(second);
+        return score(a) <= score(b) ? a : b;
+    }
+
+    private static double score(Upstream upstream) {
+        // 尚无延迟样本的节点以 1ns 计算，使其按处理中请求数参与比较
+        double latency = Math.max(1.0d, upstream.getPeakEwma().get());
+        return latency * (upstream.getInFlight() + 1);
+    }
+}
@@ -1,15 +1,12 @@
 package com.yonagi.ocean.core.loadbalance.impl;
 
 import com.yonagi.ocean.core.loadbalance.AbstractLoadBalancer;
-import com.yonagi.ocean.core.loadbalance.LoadBalancer;
+import com.yonagi.ocean.core.loadbalance.UpstreamSnapshot;
 import com.yonagi.ocean.core.loadbalance.config.LoadBalancerConfig;
 import com.yonagi.ocean.core.loadbalance.config.Upstream;
 import com.yonagi.ocean.core.protocol.HttpRequest;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
-import java.util.List;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * @author Yonagi
@@ -20,20 +17,16 @@ import java.util.Random;
  */
 public class RandomLoadBalancer extends AbstractLoadBalancer {
 
-    private final Random random = new Random();
-
     public RandomLoadBalancer(LoadBalancerConfig config) {
         super(config);
     }
 
     @Override
     public Upstream choose(HttpRequest request) {
-        List<Upstream> healthyUpstreams = selectHealthyUpstreams(getTargetUpstreams(request));
-        if (healthyUpstreams.isEmpty()) {
+        UpstreamSnapshot snapshot = getTargetSnapshot(request);
+        if (snapshot.isEmpty()) {
             return null;
         }
-
-        int index = random.nextInt(healthyUpstreams.size());
-        return healthyUpstreams.get(index);
+        return snapshot.get(ThreadLocalRandom.current().nextInt(snapshot.size()));
     }
 }
@@ -1,20 +1,12 @@
 package com.yonagi.ocean.core.loadbalance.impl;
 
 import com.yonagi.ocean.core.loadbalance.AbstractLoadBalancer;
-import com.yonagi.ocean.core.loadbalance.LoadBalancer;
+import com.yonagi.ocean.core.loadbalance.UpstreamSnapshot;
 import com.yonagi.ocean.core.loadbalance.config.LoadBalancerConfig;
 import com.yonagi.ocean.core.loadbalance.config.Upstream;
-import com.yonagi.ocean.core.loadbalance.config.enums.HealthCheckMode;
 import com.yonagi.ocean.core.protocol.HttpRequest;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
-import java.util.List;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
 
 /**
  * @author Yonagi
@@ -33,15 +25,11 @@ public class RoundRobinLoadBalancer extends AbstractLoadBalancer {
 
     @Override
     public Upstream choose(HttpRequest request) {
-        List<Upstream> healthyUpstreams = selectHealthyUpstreams(getTargetUpstreams(request));
-        if (healthyUpstreams.isEmpty()) {
+        UpstreamSnapshot snapshot = getTargetSnapshot(request);
+        if (snapshot.isEmpty()) {
             return null;
         }
-
-        int index = counter.getAndIncrement() % healthyUpstreams.size();
-        if (counter.get() > 1000000) {
-            counter.set(0);
-        }
-        return healthyUpstreams.get(index);
+        // 计数器溢出为负数后 floorMod 仍能得到合法下标
+        return snapshot.get(Math.floorMod(counter.getAndIncrement(), snapshot.size()));
     }
 }
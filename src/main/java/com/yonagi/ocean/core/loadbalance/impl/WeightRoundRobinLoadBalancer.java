@@ -1,37 +1,35 @@
 package com.yonagi.ocean.core.loadbalance.impl;
 
 import com.yonagi.ocean.core.loadbalance.AbstractLoadBalancer;
+import com.yonagi.ocean.core.loadbalance.UpstreamSnapshot;
 import com.yonagi.ocean.core.loadbalance.config.LoadBalancerConfig;
 import com.yonagi.ocean.core.loadbalance.config.Upstream;
 import com.yonagi.ocean.core.protocol.HttpRequest;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * @author Yonagi
  * @version 1.0
  * @program Ocean
- * @description
+ * @description 平滑加权轮询，选择序列在快照重建时预先生成，运行时只有一次原子自增
  * @date 2025/11/11 17:41
  */
 public class WeightRoundRobinLoadBalancer extends AbstractLoadBalancer {
 
+    private final AtomicInteger counter = new AtomicInteger(0);
+
     public WeightRoundRobinLoadBalancer(LoadBalancerConfig config) {
         super(config);
     }
 
     @Override
     public Upstream choose(HttpRequest request) {
-        double total = 0.0d;
-        Upstream selected = null;
-        for (Upstream upstream : selectHealthyUpstreams(getTargetUpstreams(request))) {
-            upstream.getCurrentWeight().addAndGet(upstream.getEffectiveWeight().get());
-            total += upstream.getEffectiveWeight().get();
-            if (selected == null || upstream.getCurrentWeight().get() > selected.getCurrentWeight().get()) {
-                selected = upstream;
-            }
-        }
-        if (selected != null) {
-            selected.getCurrentWeight().addAndGet(-total);
+        UpstreamSnapshot snapshot = getTargetSnapshot(request);
+        int[] sequence = snapshot.smoothWrrSequence();
+        if (sequence.length == 0) {
+            return null;
         }
-        return selected;
+        return snapshot.get(sequence[Math.floorMod(counter.getAndIncrement(), sequence.length)]);
     }
 }
@@ -0,0 +1,46 @@
+package com.yonagi.ocean.core.loadbalance.stats;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description Peak-sensitive exponentially weighted moving average of upstream RTT.
+ * A sample above the current value replaces it immediately, lower samples are blended in
+ * with a weight that decays by the time elapsed since the previous observation.
+ * @date 2025/11/16 10:12
+ */
+public class PeakEwma {
+
+    private final double decayNanos;
+
+    private long stamp = System.nanoTime();
+
+    private double cost;
+
+    public PeakEwma(long decayMillis) {
+        this.decayNanos = Math.max(1L, decayMillis) * 1_000_000.0d;
+    }
+
+    public synchronized void observe(long rttNanos) {
+        long now = System.nanoTime();
+        double rtt = Math.max(0L, rttNanos);
+        if (rtt > cost) {
+            cost = rtt;
+        } else {
+            double w = Math.exp(-Math.max(0L, now - stamp) / decayNanos);
+            cost = cost * w + rtt * (1.0d - w);
+        }
+        stamp = now;
+    }
+
+    /**
+     * 返回当前的 EWMA 值（纳秒），读取时同样按照距离上次观测的时间衰减
+     */
+    public synchronized double get() {
+        long now = System.nanoTime();
+        double w = Math.exp(-Math.max(0L, now - stamp) / decayNanos);
+        cost = cost * w;
+        stamp = now;
+        return cost;
+    }
+}
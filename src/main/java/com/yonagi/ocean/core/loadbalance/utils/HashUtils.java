@@ -0,0 +1,49 @@
+package com.yonagi.ocean.core.loadbalance.utils;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 直接在字符区间上计算的 64 位哈希，避免在选择节点时创建子串
+ * @date 2025/11/16 14:20
+ */
+public class HashUtils {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    public static long hash(CharSequence value, long seed) {
+        return hash(value, 0, value.length(), seed);
+    }
+
+    public static long hash(CharSequence value, int from, int to, long seed) {
+        long h = FNV_OFFSET_BASIS ^ seed;
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            h ^= (c & 0xFF);
+            h *= FNV_PRIME;
+            h ^= (c >>> 8);
+            h *= FNV_PRIME;
+        }
+        return mix(h);
+    }
+
+    /**
+     * 128 位地址的哈希，供没有配置哈希键时按客户端地址分配节点
+     */
+    public static long hash(long high, long low, long seed) {
+        return mix(mix(high ^ seed) ^ low);
+    }
+
+    /**
+     * MurmurHash3 fmix64，打散 FNV 在低位上的聚集
+     */
+    public static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -1,5 +1,7 @@
 package com.yonagi.ocean.core.protocol;
 
+import com.yonagi.ocean.core.address.ClientAddress;
+
 import java.util.Map;
 
 /**
@@ -13,6 +15,8 @@ public class Attribute {
 
     private String clientIp;
 
+    private ClientAddress clientAddress;
+
     private Boolean isSsl;
 
     private Map<String, String> corsResponseHeaders;
@@ -31,6 +35,8 @@ public class Attribute {
 
     private String sessionId;
 
+    private Map<String, String> proxyRequestHeaders;
+
     public String getClientIp() {
         return clientIp;
     }
@@ -39,6 +45,14 @@ public class Attribute {
         this.clientIp = clientIp;
     }
 
+    public ClientAddress getClientAddress() {
+        return clientAddress;
+    }
+
+    public void setClientAddress(ClientAddress clientAddress) {
+        this.clientAddress = clientAddress;
+    }
+
     public Boolean getSsl() {
         return isSsl;
     }
@@ -110,4 +124,12 @@ public class Attribute {
     public void setSessionId(String sessionId) {
         this.sessionId = sessionId;
     }
+
+    public Map<String, String> getProxyRequestHeaders() {
+        return proxyRequestHeaders;
+    }
+
+    public void setProxyRequestHeaders(Map<String, String> proxyRequestHeaders) {
+        this.proxyRequestHeaders = proxyRequestHeaders;
+    }
 }
@@ -25,4 +25,14 @@ public class RateLimitParams {
     public double getRate() {
         return rate;
     }
+
+    /**
+     * 从空桶回填到满桶所需的纳秒数
+     */
+    public long getRefillNanos() {
+        if (rate <= 0) {
+            return Long.MAX_VALUE;
+        }
+        return (long) Math.min(Long.MAX_VALUE / 2.0d, Math.ceil(capacity / rate * 1_000_000_000.0d));
+    }
 }
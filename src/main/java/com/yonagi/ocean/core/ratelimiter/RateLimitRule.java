@@ -0,0 +1,70 @@
+package com.yonagi.ocean.core.ratelimiter;
+
+import com.yonagi.ocean.core.ratelimiter.algorithm.RateLimiter;
+import com.yonagi.ocean.core.ratelimiter.config.RateLimitConfig;
+import com.yonagi.ocean.core.ratelimiter.config.enums.RateLimitType;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 编译后的限流规则，直接持有自己的限流器：GLOBAL_URI 是规则级别的单个限流器，
+ * IP_URI 是按客户端 IP 区分的存储，IP_GLOBAL 由 RateLimiterManager 统一持有。
+ * 配置刷新时内容相同的规则会复用这些限流器，桶的状态不会因为刷新而重置
+ * @date 2025/11/22 18:00
+ */
+public final class RateLimitRule {
+
+    private final int order;
+
+    private final RateLimitConfig config;
+
+    private final RateLimitType[] scopes;
+
+    private final RateLimiter globalLimiter;
+
+    private final RateLimiterStore ipLimiters;
+
+    RateLimitRule(int order, RateLimitConfig config, RateLimiter globalLimiter, RateLimiterStore ipLimiters) {
+        this.order = order;
+        this.config = config;
+        this.scopes = config.getScopes() != null ? config.getScopes().toArray(new RateLimitType[0]) : new RateLimitType[0];
+        this.globalLimiter = globalLimiter;
+        this.ipLimiters = ipLimiters;
+    }
+
+    RateLimitRule withOrder(int order) {
+        return order == this.order ? this : new RateLimitRule(order, config, globalLimiter, ipLimiters);
+    }
+
+    /**
+     * 规则在配置中的位置，同一请求命中的多条规则按它排序
+     */
+    public int getOrder() {
+        return order;
+    }
+
+    public RateLimitConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * 返回内部数组，调用方不得修改
+     */
+    public RateLimitType[] getScopes() {
+        return scopes;
+    }
+
+    RateLimiter getGlobalLimiter() {
+        return globalLimiter;
+    }
+
+    RateLimiterStore getIpLimiters() {
+        return ipLimiters;
+    }
+
+    @Override
+    public String toString() {
+        return config.getMethod() + " " + config.getPath();
+    }
+}
@@ -0,0 +1,218 @@
+package com.yonagi.ocean.core.ratelimiter;
+
+import com.yonagi.ocean.core.protocol.enums.HttpMethod;
+import com.yonagi.ocean.core.reverseproxy.PathMatcher;
+import com.yonagi.ocean.core.reverseproxy.PathPattern;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 限流规则在刷新时编译成的不可变索引，每个请求方法一张表：
+ * 精确路径直接查哈希表，以 * 结尾的前缀规则放在按字符组织的前缀树中，path 为空或 * 的规则对所有路径生效，
+ * 其余含通配符的规则（如 /img/*.png、/v?/users）编译为 PathPattern 逐条匹配。
+ * 每个节点和每个精确路径都预先合并好全部命中规则（按配置顺序），没有通配规则命中时只返回共享数组，不产生新对象
+ * @date 2025/11/22 18:20
+ */
+public final class RateLimitRuleIndex {
+
+    private static final HttpMethod[] METHODS = HttpMethod.values();
+
+    public static final RateLimitRule[] NO_RULES = new RateLimitRule[0];
+
+    public static final RateLimitRuleIndex EMPTY = compile(List.of());
+
+    private final MethodTable[] tables;
+
+    private final RateLimitRule[] rules;
+
+    private RateLimitRuleIndex(MethodTable[] tables, RateLimitRule[] rules) {
+        this.tables = tables;
+        this.rules = rules;
+    }
+
+    /**
+     * rules 需已按配置顺序排列，未启用的规则会被忽略
+     */
+    public static RateLimitRuleIndex compile(List<RateLimitRule> rules) {
+        List<RateLimitRule> enabled = new ArrayList<>();
+        for (RateLimitRule rule : rules) {
+            if (rule.getConfig().isEnabled()) {
+                enabled.add(rule);
+            }
+        }
+        MethodTable[] tables = new MethodTable[METHODS.length];
+        for (HttpMethod method : METHODS) {
+            if (method == HttpMethod.ALL) {
+                continue;
+            }
+            List<RateLimitRule> forMethod = new ArrayList<>();
+            for (RateLimitRule rule : enabled) {
+                HttpMethod ruleMethod = rule.getConfig().getMethod();
+                if (ruleMethod == null || ruleMethod == HttpMethod.ALL || ruleMethod == method) {
+                    forMethod.add(rule);
+                }
+            }
+            tables[method.ordinal()] = MethodTable.build(forMethod);
+        }
+        return new RateLimitRuleIndex(tables, enabled.toArray(new RateLimitRule[0]));
+    }
+
+    /**
+     * 返回命中的规则（按配置顺序），没有命中时返回 NO_RULES；返回的数组是共享的，调用方不得修改
+     */
+    public RateLimitRule[] match(HttpMethod method, String uri) {
+        if (method == null || uri == null) {
+            return NO_RULES;
+        }
+        MethodTable table = tables[method.ordinal()];
+        return table != null ? table.match(uri) : NO_RULES;
+    }
+
+    public RateLimitRule[] getRules() {
+        return rules;
+    }
+
+    private static final class MethodTable {
+
+        private final Map<String, RateLimitRule[]> exact;
+
+        private final PrefixNode root;
+
+        private final PathPattern[] patterns;
+
+        private final RateLimitRule[] patternRules;
+
+        private MethodTable(Map<String, RateLimitRule[]> exact, PrefixNode root, PathPattern[] patterns, RateLimitRule[] patternRules) {
+            this.exact = exact;
+            this.root = root;
+            this.patterns = patterns;
+            this.patternRules = patternRules;
+        }
+
+        private static MethodTable build(List<RateLimitRule> rules) {
+            List<RateLimitRule> matchAll = new ArrayList<>();
+            Map<String, List<RateLimitRule>> exactRules = new HashMap<>();
+            PrefixBuilder rootBuilder = new PrefixBuilder();
+            List<PathPattern> patterns = new ArrayList<>();
+            List<RateLimitRule> patternRules = new ArrayList<>();
+            for (RateLimitRule rule : rules) {
+                String path = rule.getConfig().getPath();
+                if (path == null || "*".equals(path)) {
+                    matchAll.add(rule);
+                } else if (!PathMatcher.isPrefixPattern(path) && PathMatcher.isPattern(path)) {
+                    patterns.add(PathMatcher.compile(path));
+                    patternRules.add(rule);
+                } else if (path.endsWith("*")) {
+                    rootBuilder.descend(path, path.length() - 1).rules.add(rule);
+                } else {
+                    exactRules.computeIfAbsent(path, k -> new ArrayList<>()).add(rule);
+                }
+            }
+            rootBuilder.rules.addAll(matchAll);
+            PrefixNode root = rootBuilder.build(NO_RULES);
+
+            Map<String, RateLimitRule[]> exact = new HashMap<>();
+            for (Map.Entry<String, List<RateLimitRule>> entry : exactRules.entrySet()) {
+                // 精确路径同样会命中沿途的前缀规则
+                RateLimitRule[] inherited = root.lookup(entry.getKey());
+                exact.put(entry.getKey(), merge(inherited, entry.getValue()));
+            }
+            return new MethodTable(exact, root, patterns.toArray(new PathPattern[0]), patternRules.toArray(new RateLimitRule[0]));
+        }
+
+        private RateLimitRule[] match(String uri) {
+            RateLimitRule[] matched = exact.get(uri);
+            if (matched == null) {
+                matched = root.lookup(uri);
+            }
+            if (patterns.length == 0) {
+                return matched;
+            }
+            List<RateLimitRule> hits = null;
+            for (int i = 0; i < patterns.length; i++) {
+                if (patterns[i].matches(uri)) {
+                    if (hits == null) {
+                        hits = new ArrayList<>();
+                    }
+                    hits.add(patternRules[i]);
+                }
+            }
+            return hits == null ? matched : merge(matched, hits);
+        }
+    }
+
+    private static final class PrefixNode {
+
+        private final char[] keys;
+
+        private final PrefixNode[] children;
+
+        // 根到当前节点路径上全部前缀规则（含 match-all）的合并结果
+        private final RateLimitRule[] matched;
+
+        private PrefixNode(char[] keys, PrefixNode[] children, RateLimitRule[] matched) {
+            this.keys = keys;
+            this.children = children;
+            this.matched = matched;
+        }
+
+        private RateLimitRule[] lookup(String uri) {
+            PrefixNode node = this;
+            RateLimitRule[] result = matched;
+            for (int i = 0; i < uri.length(); i++) {
+                int index = Arrays.binarySearch(node.keys, uri.charAt(i));
+                if (index < 0) {
+                    break;
+                }
+                node = node.children[index];
+                result = node.matched;
+            }
+            return result;
+        }
+    }
+
+    private static final class PrefixBuilder {
+
+        private final TreeMap<Character, PrefixBuilder> children = new TreeMap<>();
+
+        private final List<RateLimitRule> rules = new ArrayList<>();
+
+        private PrefixBuilder descend(String path, int length) {
+            PrefixBuilder node = this;
+            for (int i = 0; i < length; i++) {
+                node = node.children.computeIfAbsent(path.charAt(i), k -> new PrefixBuilder());
+            }
+            return node;
+        }
+
+        private PrefixNode build(RateLimitRule[] inherited) {
+            RateLimitRule[] matched = rules.isEmpty() ? inherited : merge(inherited, rules);
+            char[] keys = new char[children.size()];
+            PrefixNode[] nodes = new PrefixNode[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, PrefixBuilder> entry : children.entrySet()) {
+                keys[i] = entry.getKey();
+                nodes[i] = entry.getValue().build(matched);
+                i++;
+            }
+            return new PrefixNode(keys, nodes, matched);
+        }
+    }
+
+    private static RateLimitRule[] merge(RateLimitRule[] inherited, List<RateLimitRule> own) {
+        List<RateLimitRule> merged = new ArrayList<>(inherited.length + own.size());
+        merged.addAll(Arrays.asList(inherited));
+        merged.addAll(own);
+        merged.sort(Comparator.comparingInt(RateLimitRule::getOrder));
+        return merged.toArray(new RateLimitRule[0]);
+    }
+}
@@ -1,17 +1,12 @@
 package com.yonagi.ocean.core.ratelimiter;
 
-import com.yonagi.ocean.core.ratelimiter.config.RateLimitConfig;
+import com.yonagi.ocean.core.address.ClientAddress;
 import com.yonagi.ocean.core.ratelimiter.config.enums.RateLimitType;
 import com.yonagi.ocean.core.protocol.HttpRequest;
-import com.yonagi.ocean.core.protocol.enums.HttpMethod;
 import com.yonagi.ocean.core.ratelimiter.algorithm.RateLimiter;
-import com.yonagi.ocean.core.ratelimiter.utils.IpExtractor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * @author Yonagi
  * @version 1.0
@@ -23,8 +18,6 @@ public class RateLimiterChecker {
 
     private final RateLimiterManager manager;
 
-    private final IpExtractor ipExtractor = new IpExtractor();
-
     private static final Logger log = LoggerFactory.getLogger(RateLimiterChecker.class);
 
     public RateLimiterChecker(RateLimiterManager manager) {
@@ -32,69 +25,24 @@ public class RateLimiterChecker {
     }
 
     public boolean check(HttpRequest request) {
-        String uri = request.getUri();
-        HttpMethod method = request.getMethod();
-        String clientIp = ipExtractor.getClientIp(request);
-
-        List<RateLimitConfig> matchedConfigs = findMatchingConfigs(method, uri);
-        for (RateLimitConfig config : matchedConfigs) {
-            for (RateLimitType type : config.getScopes()) {
-                String key = buildRateLimitKey(method, uri, clientIp, type);
-
-                RateLimiter limiter = manager.getRateLimiter(key, type);
+        RateLimitRule[] rules = manager.getRuleIndex().match(request.getMethod(), request.getUri());
+        if (rules.length == 0) {
+            return true;
+        }
+        ClientAddress clientAddress = request.getAttribute().getClientAddress();
+        if (clientAddress == null) {
+            clientAddress = ClientAddress.UNKNOWN;
+        }
+        for (RateLimitRule rule : rules) {
+            for (RateLimitType type : rule.getScopes()) {
+                RateLimiter limiter = manager.getRateLimiter(rule, type, clientAddress);
                 if (!limiter.tryAcquire()) {
                     log.warn("Request {} {} from IP {} blocker by {} policy",
-                            method, uri, clientIp, type.name());
+                            request.getMethod(), request.getUri(), clientAddress, type.name());
                     return false;
                 }
             }
         }
         return true;
     }
-
-    private String buildRateLimitKey(HttpMethod method, String uri, String clientIp, RateLimitType type) {
-        final String SEPARATOR = ":";
-
-        if (type == RateLimitType.GLOBAL_URI) {
-            return method.name() + SEPARATOR + uri;
-        } else if (type == RateLimitType.IP_URI) {
-            return clientIp + SEPARATOR + method.name() + SEPARATOR + uri;
-        } else if (type == RateLimitType.IP_GLOBAL) {
-            return clientIp + SEPARATOR + "GLOBAL";
-        } else {
-            return "DEFAULT" + SEPARATOR + method.name() + SEPARATOR + uri;
-        }
-    }
-
-    private List<RateLimitConfig> findMatchingConfigs(HttpMethod method, String uri) {
-        List<RateLimitConfig> allConfigs = manager.getConfigs();
-        List<RateLimitConfig> matched = new ArrayList<>();
-
-        for (RateLimitConfig config : allConfigs) {
-            if (!config.isEnabled()) {
-                continue;
-            }
-            boolean methodMatched = config.getMethod() == null
-                    || config.getMethod() == method
-                    || config.getMethod() == HttpMethod.ALL;
-            boolean uriMatched = isUriMatch(config.getPath(), uri);
-
-            if (methodMatched && uriMatched) {
-                matched.add(config);
-            }
-        }
-        return matched;
-    }
-
-    private boolean isUriMatch(String path, String uri) {
-        if (path == null || "*".equals(path)) {
-            return true;
-        }
-        if (path.endsWith("*")) {
-            String prefix = path.substring(0, path.length() - 1);
-            return uri.startsWith(prefix);
-        } else {
-            return path.equals(uri);
-        }
-    }
 }
@@ -1,20 +1,30 @@
 package com.yonagi.ocean.core.ratelimiter;
 
+import com.yonagi.ocean.core.address.ClientAddress;
 import com.yonagi.ocean.core.ratelimiter.config.RateLimitConfig;
+import com.yonagi.ocean.core.ratelimiter.config.enums.RateLimitAlgorithm;
 import com.yonagi.ocean.core.ratelimiter.config.enums.RateLimitType;
 import com.yonagi.ocean.core.ratelimiter.config.source.ConfigManager;
 import com.yonagi.ocean.core.ratelimiter.config.source.ConfigSource;
 import com.yonagi.ocean.core.ratelimiter.algorithm.AllwaysAllowRateLimiter;
+import com.yonagi.ocean.core.ratelimiter.algorithm.GcraRateLimiter;
 import com.yonagi.ocean.core.ratelimiter.algorithm.RateLimiter;
+import com.yonagi.ocean.core.ratelimiter.algorithm.SlidingLogRateLimiter;
+import com.yonagi.ocean.core.ratelimiter.algorithm.SlidingWindowRateLimiter;
 import com.yonagi.ocean.core.ratelimiter.algorithm.TokenBucket;
+import com.yonagi.ocean.core.ratelimiter.cluster.QuotaLeaser;
 import com.yonagi.ocean.utils.LocalConfigLoader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @author Yonagi
@@ -27,16 +37,46 @@ public class RateLimiterManager {
 
     private static volatile RateLimiterManager INSTANCE;
 
-    private final ConcurrentHashMap<String, RateLimiter> limiters = new ConcurrentHashMap<>();
+    private static final RateLimiter ALWAYS_ALLOW = new AllwaysAllowRateLimiter();
+
+    // 限流器本身之外，缓存节点、键和条目对象大约占用的字节数
+    private static final int STORE_ENTRY_OVERHEAD_BYTES = 128;
+
+    private final long storeMaxSize = Long.parseLong(LocalConfigLoader.getProperty("server.rate_limit.store.max_size", "100000"));
+
+    private final long storeMaxBytes = Long.parseLong(LocalConfigLoader.getProperty("server.rate_limit.store.max_bytes", "67108864"));
 
     private final Map<RateLimitType, RateLimitParams> limitParams;
 
+    private final RateLimitAlgorithm algorithm;
+
+    // IP_GLOBAL 与规则无关，所有规则共享同一个按 IP 区分的存储
+    private final RateLimiterStore ipGlobalLimiters;
+
     private List<RateLimitConfig> rateLimitConfigs;
 
+    private volatile RateLimitRuleIndex ruleIndex = RateLimitRuleIndex.EMPTY;
+
+    // 规则编号只用于区分各规则的指标，同一方法和路径可能配置多条规则
+    private final AtomicLong ruleIds = new AtomicLong(0);
+
     private static final Logger log = LoggerFactory.getLogger(RateLimiterManager.class);
 
     public RateLimiterManager() {
         this.limitParams = loadLimitParams();
+        String algorithmName = LocalConfigLoader.getProperty("server.rate_limit.algorithm", "TOKEN_BUCKET");
+        RateLimitAlgorithm configured = RateLimitAlgorithm.getRateLimitAlgorithm(algorithmName);
+        if (configured == null) {
+            log.warn("Unknown rate limit algorithm {}, falling back to TOKEN_BUCKET", algorithmName);
+            configured = RateLimitAlgorithm.TOKEN_BUCKET;
+        }
+        this.algorithm = configured;
+        RateLimitParams ipGlobalParams = limitParams.get(RateLimitType.IP_GLOBAL);
+        this.ipGlobalLimiters = ipGlobalParams != null
+                ? new RateLimiterStore("ip_global", storeMaxSize, storeMaxBytes,
+                        limiterBytes(algorithm, ipGlobalParams), idleNanos(algorithm, ipGlobalParams),
+                        () -> createLimiter(algorithm, ipGlobalParams))
+                : null;
     }
 
     public static RateLimiterManager getInstance() {
@@ -47,27 +87,110 @@ public class RateLimiterManager {
         INSTANCE = instance;
     }
 
-    public void preloadGlobalLimiter() {
-        RateLimitParams params = limitParams.get(RateLimitType.GLOBAL_URI);
-        if (params == null) {
-            return;
+    public RateLimitRuleIndex getRuleIndex() {
+        return ruleIndex;
+    }
+
+    /**
+     * 返回规则在某个作用域下对应的限流器，查找过程不产生新对象
+     */
+    public RateLimiter getRateLimiter(RateLimitRule rule, RateLimitType type, ClientAddress clientAddress) {
+        RateLimiter limiter = switch (type) {
+            case GLOBAL_URI -> rule.getGlobalLimiter();
+            case IP_URI -> rule.getIpLimiters() != null ? rule.getIpLimiters().getOrCreate(clientAddress) : null;
+            case IP_GLOBAL -> ipGlobalLimiters != null ? ipGlobalLimiters.getOrCreate(clientAddress) : null;
+        };
+        return limiter != null ? limiter : ALWAYS_ALLOW;
+    }
+
+    /**
+     * 编译规则索引；与上一版内容相同的规则沿用原有的限流器，不再使用的规则注销其指标
+     */
+    private void rebuildRuleIndex(List<RateLimitConfig> configs) {
+        RateLimitRule[] oldRules = ruleIndex.getRules();
+        Map<RateLimitConfig, RateLimitRule> previous = new HashMap<>();
+        for (RateLimitRule rule : oldRules) {
+            previous.putIfAbsent(rule.getConfig(), rule);
         }
-        for (RateLimitConfig config : rateLimitConfigs) {
-            if (config.isEnabled() && config.getScopes().contains(RateLimitType.GLOBAL_URI)) {
-                String globalKey = config.getMethod().name() + ":" + config.getPath();
-                limiters.putIfAbsent(globalKey,
-                        new TokenBucket(params.getCapacity(), params.getRate())
-                );
+        Set<RateLimiterStore> retained = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<RateLimitRule> rules = new ArrayList<>();
+        if (configs != null) {
+            for (int i = 0; i < configs.size(); i++) {
+                RateLimitConfig config = configs.get(i);
+                if (config == null) {
+                    continue;
+                }
+                RateLimitRule existing = previous.get(config);
+                RateLimitRule rule = existing != null ? existing.withOrder(i) : createRule(i, config);
+                if (rule.getIpLimiters() != null) {
+                    retained.add(rule.getIpLimiters());
+                }
+                rules.add(rule);
             }
         }
+        this.ruleIndex = RateLimitRuleIndex.compile(rules);
+        for (RateLimitRule rule : oldRules) {
+            RateLimiterStore store = rule.getIpLimiters();
+            if (store != null && retained.add(store)) {
+                store.close();
+            }
+        }
+    }
+
+    private RateLimitRule createRule(int order, RateLimitConfig config) {
+        List<RateLimitType> scopes = config.getScopes() != null ? config.getScopes() : List.of();
+        RateLimitAlgorithm ruleAlgorithm = config.getAlgorithm() != null ? config.getAlgorithm() : algorithm;
+        RateLimiter globalLimiter = null;
+        RateLimitParams globalParams = limitParams.get(RateLimitType.GLOBAL_URI);
+        if (scopes.contains(RateLimitType.GLOBAL_URI) && globalParams != null) {
+            if (QuotaLeaser.isEnabled()) {
+                // 集群模式下 GLOBAL_URI 的额度由所有节点共享，规则算法只用于降级时的本地限流器
+                QuotaLeaser leaser = QuotaLeaser.getInstance();
+                globalLimiter = leaser.newLimiter("global_uri " + config.getMethod() + " " + config.getPath(), globalParams,
+                        createLimiter(ruleAlgorithm, leaser.fallbackParams(globalParams)));
+            } else {
+                globalLimiter = createLimiter(ruleAlgorithm, globalParams);
+            }
+        }
+        RateLimiterStore ipLimiters = null;
+        RateLimitParams ipParams = limitParams.get(RateLimitType.IP_URI);
+        if (scopes.contains(RateLimitType.IP_URI) && ipParams != null) {
+            ipLimiters = new RateLimiterStore("ip_uri#" + ruleIds.incrementAndGet() + " " + config.getMethod() + " " + config.getPath(),
+                    storeMaxSize, storeMaxBytes, limiterBytes(ruleAlgorithm, ipParams), idleNanos(ruleAlgorithm, ipParams),
+                    () -> createLimiter(ruleAlgorithm, ipParams));
+        }
+        return new RateLimitRule(order, config, globalLimiter, ipLimiters);
+    }
+
+    /**
+     * 滑动窗口类算法的窗口长度取 capacity / rate，即 capacity 个请求每 capacity / rate 秒，与令牌桶的长期速率一致
+     */
+    private static RateLimiter createLimiter(RateLimitAlgorithm algorithm, RateLimitParams params) {
+        return switch (algorithm) {
+            case GCRA -> new GcraRateLimiter(params.getCapacity(), params.getRate());
+            case TOKEN_BUCKET -> new TokenBucket(params.getCapacity(), params.getRate());
+            case SLIDING_WINDOW -> new SlidingWindowRateLimiter(params.getCapacity(), params.getRefillNanos());
+            case SLIDING_LOG -> new SlidingLogRateLimiter(params.getCapacity(), params.getRefillNanos());
+        };
+    }
+
+    /**
+     * 估算存储中一个限流器占用的字节数：滑动日志为每个许可保存一个 long，其余算法只有几个计数字段
+     */
+    private static int limiterBytes(RateLimitAlgorithm algorithm, RateLimitParams params) {
+        long bytes = algorithm == RateLimitAlgorithm.SLIDING_LOG ? 64L + 8L * params.getCapacity() : 64L;
+        return (int) Math.min(Integer.MAX_VALUE, STORE_ENTRY_OVERHEAD_BYTES + bytes);
     }
 
-    public RateLimiter getRateLimiter(String key, RateLimitType type) {
-        RateLimitParams params = limitParams.get(type);
-        if (params == null) {
-            return new AllwaysAllowRateLimiter();
+    /**
+     * 限流器空闲多久之后必然回到初始状态：滑动窗口计数器还要等上一个窗口完全滑出，因此是两个窗口
+     */
+    private static long idleNanos(RateLimitAlgorithm algorithm, RateLimitParams params) {
+        long refillNanos = params.getRefillNanos();
+        if (algorithm == RateLimitAlgorithm.SLIDING_WINDOW) {
+            return refillNanos > Long.MAX_VALUE / 2 ? Long.MAX_VALUE : refillNanos * 2;
         }
-        return limiters.computeIfAbsent(key, k -> new TokenBucket(params.getCapacity(), params.getRate()));
+        return refillNanos;
     }
 
     public List<RateLimitConfig> getConfigs() {
@@ -101,6 +224,7 @@ public class RateLimiterManager {
             }
             configManager.getCurrentConfigSnapshot().set(newConfigs);
             this.rateLimitConfigs = newConfigs;
+            rebuildRuleIndex(newConfigs);
             log.info("Rate limiting rules refreshed - Total rules: {}", rateLimitConfigs.size());
         } catch (Exception e) {
             log.error("Failed to refresh rate limiting rules: {}", e.getMessage(), e);
@@ -110,6 +234,7 @@ public class RateLimiterManager {
     public void initializeRateLimiter(ConfigSource configSource) {
         try {
             this.rateLimitConfigs = configSource.load();
+            rebuildRuleIndex(rateLimitConfigs);
             log.info("Rate limiting rules initialized - Total rules: {}", rateLimitConfigs.size());
         } catch (Exception e) {
             log.error("Failed to initialize rate limiting rules: {}", e.getMessage(), e);
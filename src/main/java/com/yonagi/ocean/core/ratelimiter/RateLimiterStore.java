@@ -0,0 +1,148 @@
+package com.yonagi.ocean.core.ratelimiter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.yonagi.ocean.admin.metrics.MetricsRegistry;
+import com.yonagi.ocean.core.address.ClientAddress;
+import com.yonagi.ocean.core.ratelimiter.algorithm.RateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 有界、会过期的限流器存储，替代无界的 ConcurrentHashMap。
+ * 每个限流器在最后一次访问后空闲 idleNanos 即过期，该时长由限流算法决定（令牌桶为完整回填时间 capacity / rate），
+ * 保证过期时限流器已回到初始状态，丢弃后重建语义不变；
+ * 条目总数超过 max_size，或按每个限流器估算的内存超过 max_bytes 时，按 Caffeine 的淘汰策略移除冷门条目，被移除的桶重建时是满的。
+ * 一个存储只服务一种限流参数和算法，创建函数在构造时确定，查找路径上不产生新对象。
+ * 指标按 name 区分，name 必须唯一；存储不再使用时调用 close 移除它的指标
+ * @date 2025/11/22 17:00
+ */
+public class RateLimiterStore {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimiterStore.class);
+
+    private final Cache<ClientAddress, Entry> limiters;
+
+    private final Counter createdCounter;
+
+    private final Counter expiredCounter;
+
+    private final Counter sizeEvictedCounter;
+
+    private final Gauge sizeGauge;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Function<ClientAddress, Entry> loader;
+
+    /**
+     * @param entryBytes 一个限流器连同缓存条目估算占用的字节数，同一存储中的限流器大小相同
+     */
+    public RateLimiterStore(String name, long maxSize, long maxBytes, int entryBytes, long idleNanos, Supplier<RateLimiter> factory) {
+        this.meterRegistry = MetricsRegistry.currentMeterRegistry();
+        this.createdCounter = Counter.builder("rate_limit.limiters.created.total")
+                .description("Counts rate limiters created for new keys")
+                .tag("store", name)
+                .register(meterRegistry);
+        this.expiredCounter = Counter.builder("rate_limit.limiters.evicted.total")
+                .description("Counts rate limiters dropped from the limiter store")
+                .tags("store", name, "cause", "expired")
+                .register(meterRegistry);
+        this.sizeEvictedCounter = Counter.builder("rate_limit.limiters.evicted.total")
+                .description("Counts rate limiters dropped from the limiter store")
+                .tags("store", name, "cause", "size")
+                .register(meterRegistry);
+        this.loader = key -> {
+            createdCounter.increment();
+            return new Entry(factory.get(), idleNanos, entryBytes);
+        };
+        long entries = Math.max(1L, maxSize);
+        long sizeBytes = entries > Long.MAX_VALUE / entryBytes ? Long.MAX_VALUE : entries * entryBytes;
+        long maxWeight = Math.max(entryBytes, Math.min(maxBytes, sizeBytes));
+        if (maxWeight < sizeBytes) {
+            log.warn("Limiter store {} holds at most {} limiters of {} bytes within server.rate_limit.store.max_bytes",
+                    name, maxWeight / entryBytes, entryBytes);
+        }
+        this.limiters = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((ClientAddress key, Entry entry) -> entry.bytes)
+                .expireAfter(new Expiry<ClientAddress, Entry>() {
+                    @Override
+                    public long expireAfterCreate(ClientAddress key, Entry entry, long currentTime) {
+                        return entry.idleNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(ClientAddress key, Entry entry, long currentTime, long currentDuration) {
+                        return entry.idleNanos;
+                    }
+
+                    @Override
+                    public long expireAfterRead(ClientAddress key, Entry entry, long currentTime, long currentDuration) {
+                        return entry.idleNanos;
+                    }
+                })
+                .evictionListener((ClientAddress key, Entry entry, RemovalCause cause) -> {
+                    if (cause == RemovalCause.EXPIRED) {
+                        expiredCounter.increment();
+                    } else if (cause == RemovalCause.SIZE) {
+                        sizeEvictedCounter.increment();
+                    }
+                })
+                .build();
+        this.sizeGauge = Gauge.builder("rate_limit.limiters.size", limiters, Cache::estimatedSize)
+                .description("Estimated number of rate limiters held in memory")
+                .tag("store", name)
+                .register(meterRegistry);
+    }
+
+    public RateLimiter getOrCreate(ClientAddress key) {
+        return limiters.get(key, loader).limiter;
+    }
+
+    public long size() {
+        return limiters.estimatedSize();
+    }
+
+    public void clear() {
+        limiters.invalidateAll();
+    }
+
+    /**
+     * 规则被删除或修改后调用，清空限流器并注销指标
+     */
+    public void close() {
+        meterRegistry.remove(createdCounter);
+        meterRegistry.remove(expiredCounter);
+        meterRegistry.remove(sizeEvictedCounter);
+        meterRegistry.remove(sizeGauge);
+        limiters.invalidateAll();
+    }
+
+    private static final class Entry {
+
+        private final RateLimiter limiter;
+
+        // 空闲超过该时长后限流器已回到初始状态，可以安全丢弃
+        private final long idleNanos;
+
+        private final int bytes;
+
+        private Entry(RateLimiter limiter, long idleNanos, int bytes) {
+            this.limiter = limiter;
+            this.idleNanos = idleNanos;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -13,4 +13,9 @@ public class AllwaysAllowRateLimiter implements RateLimiter {
     public boolean tryAcquire() {
         return true;
     }
+
+    @Override
+    public boolean tryAcquire(int permits) {
+        return true;
+    }
 }
@@ -0,0 +1,62 @@
+package com.yonagi.ocean.core.ratelimiter.algorithm;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description GCRA（Generic Cell Rate Algorithm）限流。只维护一个理论到达时间 TAT：
+ * 请求到达时 TAT 超前当前时间不超过突发容忍度 tau 即放行，并把 TAT 推后 permits 个发射间隔。
+ * 与令牌桶的长期速率相同，但放行在时间上更均匀，状态同样只有一个 AtomicLong，通过 CAS 更新
+ * @date 2025/11/22 16:00
+ */
+public class GcraRateLimiter implements RateLimiter {
+
+    private final long burst;
+
+    // 发射间隔取整到整数纳秒，容忍度与单次增量都是它的整数倍，保证 burst 个请求一定能放行
+    private final long emissionIntervalNanos;
+
+    // 突发容忍度：允许 TAT 超前当前时间的最大值，等于 burst 个请求的发射间隔
+    private final long toleranceNanos;
+
+    private final AtomicLong theoreticalArrivalNanos;
+
+    public GcraRateLimiter(long burst, double ratePerSecond) {
+        if (burst <= 0 || ratePerSecond <= 0) {
+            throw new IllegalArgumentException("Burst and rate of GCRA limiter must be positive");
+        }
+        this.burst = burst;
+        this.emissionIntervalNanos = Math.max(1L, (long) Math.ceil(1_000_000_000.0d / ratePerSecond));
+        this.toleranceNanos = TokenBucket.scale(burst, emissionIntervalNanos);
+        this.theoreticalArrivalNanos = new AtomicLong(System.nanoTime());
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        return tryAcquire(1);
+    }
+
+    @Override
+    public boolean tryAcquire(int permits) {
+        if (permits <= 0) {
+            return true;
+        }
+        if (permits > burst) {
+            return false;
+        }
+        long increment = TokenBucket.scale(permits, emissionIntervalNanos);
+        long now = System.nanoTime();
+        while (true) {
+            long tat = theoreticalArrivalNanos.get();
+            long next = (tat - now > 0 ? tat : now) + increment;
+            if (next - now > toleranceNanos) {
+                return false;
+            }
+            if (theoreticalArrivalNanos.compareAndSet(tat, next)) {
+                return true;
+            }
+        }
+    }
+}
@@ -10,4 +10,15 @@ package com.yonagi.ocean.core.ratelimiter.algorithm;
 public interface RateLimiter {
 
     boolean tryAcquire();
+
+    /**
+     * 一次性申请多个许可，要么全部获得，要么一个都不扣减。
+     * 默认实现只支持单个许可，支持批量申请的算法需要覆盖
+     */
+    default boolean tryAcquire(int permits) {
+        if (permits <= 0) {
+            return true;
+        }
+        return permits == 1 && tryAcquire();
+    }
 }
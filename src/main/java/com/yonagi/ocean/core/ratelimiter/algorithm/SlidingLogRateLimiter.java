@@ -0,0 +1,60 @@
+package com.yonagi.ocean.core.ratelimiter.algorithm;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 精确的滑动日志限流：记录最近 limit 次放行的时间戳，环形数组中下一个要覆盖的槽位就是其中最早的一次，
+ * 它距今不足 window 时拒绝。结果没有插值误差，但每个 key 占用 limit 个 long，适合限额较小的敏感接口。
+ * 先 CAS 写槽位再推进游标，写槽位失败的线程会帮忙推进游标，不需要加锁；只支持单个许可
+ * @date 2025/11/22 19:20
+ */
+public class SlidingLogRateLimiter implements RateLimiter {
+
+    private final int limit;
+
+    private final long windowNanos;
+
+    private final long originNanos;
+
+    // 槽位中保存相对 originNanos 的时间戳加 1，0 表示尚未使用
+    private final AtomicLongArray timestamps;
+
+    // 已放行的请求总数，对 limit 取模即下一个要写入的槽位
+    private final AtomicLong cursor = new AtomicLong(0);
+
+    public SlidingLogRateLimiter(int limit, long windowNanos) {
+        if (limit <= 0 || windowNanos <= 0) {
+            throw new IllegalArgumentException("Limit and window of sliding log limiter must be positive");
+        }
+        this.limit = limit;
+        this.windowNanos = windowNanos;
+        this.originNanos = System.nanoTime();
+        this.timestamps = new AtomicLongArray(limit);
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        long now = System.nanoTime() - originNanos + 1;
+        while (true) {
+            long sequence = cursor.get();
+            int slot = (int) (sequence % limit);
+            long oldest = timestamps.get(slot);
+            if (cursor.get() != sequence) {
+                continue;
+            }
+            if (oldest != 0 && now - oldest < windowNanos) {
+                return false;
+            }
+            if (timestamps.compareAndSet(slot, oldest, now)) {
+                cursor.compareAndSet(sequence, sequence + 1);
+                return true;
+            }
+            // 槽位已被同一序号的其他线程写入，帮它推进游标后重试
+            cursor.compareAndSet(sequence, sequence + 1);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.yonagi.ocean.core.ratelimiter.algorithm;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 滑动窗口计数器限流：任意长度为 window 的滚动区间内最多放行 limit 个请求。
+ * 只保存当前与上一个固定窗口的计数，按上一窗口与滚动区间的重叠比例插值估算区间内的请求数，每个 key 只占两个计数器。
+ * 窗口切换时通过 CAS 替换窗口对象，新窗口直接引用上一窗口的计数器，切换瞬间仍在旧窗口上计数的请求不会丢失
+ * @date 2025/11/22 19:00
+ */
+public class SlidingWindowRateLimiter implements RateLimiter {
+
+    private static final AtomicLong EMPTY_COUNT = new AtomicLong(0);
+
+    private final long limit;
+
+    private final long windowNanos;
+
+    // 窗口编号的起点，避免 nanoTime 为负时取模出错
+    private final long originNanos;
+
+    private final AtomicReference<Window> current;
+
+    public SlidingWindowRateLimiter(long limit, long windowNanos) {
+        if (limit <= 0 || windowNanos <= 0) {
+            throw new IllegalArgumentException("Limit and window of sliding window limiter must be positive");
+        }
+        this.limit = limit;
+        this.windowNanos = windowNanos;
+        this.originNanos = System.nanoTime();
+        this.current = new AtomicReference<>(new Window(0, EMPTY_COUNT));
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        return tryAcquire(1);
+    }
+
+    @Override
+    public boolean tryAcquire(int permits) {
+        if (permits <= 0) {
+            return true;
+        }
+        if (permits > limit) {
+            return false;
+        }
+        long elapsed = System.nanoTime() - originNanos;
+        long index = elapsed / windowNanos;
+        Window window = windowFor(index);
+        // 上一窗口仍落在滚动区间内的比例
+        double previousWeight = 1.0d - (double) (elapsed - index * windowNanos) / windowNanos;
+        double previous = window.previousCount.get() * previousWeight;
+        while (true) {
+            long count = window.count.get();
+            if (previous + count + permits > limit) {
+                return false;
+            }
+            if (window.count.compareAndSet(count, count + permits)) {
+                return true;
+            }
+        }
+    }
+
+    private Window windowFor(long index) {
+        while (true) {
+            Window window = current.get();
+            if (window.index >= index) {
+                return window;
+            }
+            AtomicLong previousCount = window.index == index - 1 ? window.count : EMPTY_COUNT;
+            Window next = new Window(index, previousCount);
+            if (current.compareAndSet(window, next)) {
+                return next;
+            }
+        }
+    }
+
+    private static final class Window {
+
+        private final long index;
+
+        private final AtomicLong count = new AtomicLong(0);
+
+        // 只引用上一窗口的计数器而不是窗口对象，不会形成链
+        private final AtomicLong previousCount;
+
+        private Window(long index, AtomicLong previousCount) {
+            this.index = index;
+            this.previousCount = previousCount;
+        }
+    }
+}
@@ -1,12 +1,14 @@
 package com.yonagi.ocean.core.ratelimiter.algorithm;
 
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @author Yonagi
  * @version 1.0
  * @program Ocean
- * @description
+ * @description 无锁令牌桶。状态压缩为一个 AtomicLong：桶中令牌恰好为 0 的虚拟时刻（System.nanoTime 时间轴），
+ * 当前令牌数 = min(capacity, (now - emptyAt) / nanosPerToken)。申请许可就是把该时刻向后推移，
+ * 推移后不晚于 now 即成功，用 CAS 循环提交，不需要加锁，也不受系统时钟回拨影响
  * @date 2025/10/10 09:53
  */
 public class TokenBucket implements RateLimiter {
@@ -15,42 +17,66 @@ public class TokenBucket implements RateLimiter {
 
     private final double ratePerSecond;
 
-    private final ReentrantLock lock = new ReentrantLock();
+    // 每个令牌的生成间隔向上取整到整数纳秒，申请成本与桶满跨度都是它的整数倍，
+    // 分别取整时桶满跨度可能小于 capacity 个令牌的成本，导致永远无法放行
+    private final long nanosPerToken;
 
-    private double tokens;
-    private long lastRefillTimestamp;
+    // 桶满状态对应的时间跨度
+    private final long fullBucketNanos;
+
+    private final AtomicLong emptyAtNanos;
 
     public TokenBucket(long capacity, double ratePerSecond) {
+        if (capacity <= 0 || ratePerSecond <= 0) {
+            throw new IllegalArgumentException("Capacity and rate of token bucket must be positive");
+        }
         this.capacity = capacity;
         this.ratePerSecond = ratePerSecond;
-        this.tokens = capacity;
-        this.lastRefillTimestamp = System.currentTimeMillis();
+        this.nanosPerToken = Math.max(1L, (long) Math.ceil(1_000_000_000.0d / ratePerSecond));
+        this.fullBucketNanos = scale(capacity, nanosPerToken);
+        // 初始时桶是满的
+        this.emptyAtNanos = new AtomicLong(System.nanoTime() - fullBucketNanos);
     }
 
     @Override
     public boolean tryAcquire() {
-        lock.lock();
-        try {
-            refill();
-            if (tokens >= 1) {
-                tokens -= 1.0;
-                return true;
-            } else {
+        return tryAcquire(1);
+    }
+
+    @Override
+    public boolean tryAcquire(int permits) {
+        if (permits <= 0) {
+            return true;
+        }
+        if (permits > capacity) {
+            return false;
+        }
+        long cost = scale(permits, nanosPerToken);
+        long now = System.nanoTime();
+        while (true) {
+            long emptyAt = emptyAtNanos.get();
+            // 超出容量的部分不累积
+            long base = Math.max(emptyAt, now - fullBucketNanos);
+            long next = base + cost;
+            if (next - now > 0) {
                 return false;
             }
-        } finally {
-            lock.unlock();
+            if (emptyAtNanos.compareAndSet(emptyAt, next)) {
+                return true;
+            }
         }
     }
 
-    private void refill() {
-        long now = System.currentTimeMillis();
-        long timeElapsed = now - lastRefillTimestamp;
-        if (timeElapsed <= 0) {
-            return;
-        }
-        double tokensToAdd = (timeElapsed / 1000.0) * ratePerSecond;
-        tokens = Math.min(capacity, tokensToAdd + tokens);
-        lastRefillTimestamp = now;
+    static long scale(long count, long unitNanos) {
+        long max = Long.MAX_VALUE / 4;
+        return count > max / unitNanos ? max : count * unitNanos;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public double getRatePerSecond() {
+        return ratePerSecond;
     }
 }
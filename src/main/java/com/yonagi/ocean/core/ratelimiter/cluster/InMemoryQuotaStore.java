@@ -0,0 +1,92 @@
+package com.yonagi.ocean.core.ratelimiter.cluster;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.yonagi.ocean.core.ratelimiter.RateLimitParams;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 进程内的配额存储，单节点部署和 QuotaServer 都使用它。
+ * 每个 key 一个令牌桶，空闲超过完整回填时间后过期（此时桶已满，重建语义不变）；同一 key 的参数变化时桶会被重建
+ * @date 2025/11/23 09:40
+ */
+public class InMemoryQuotaStore implements QuotaStore {
+
+    private final Cache<String, Bucket> buckets;
+
+    public InMemoryQuotaStore() {
+        this(100_000L);
+    }
+
+    public InMemoryQuotaStore(long maxSize) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(Math.max(1L, maxSize))
+                .expireAfter(new Expiry<String, Bucket>() {
+                    @Override
+                    public long expireAfterCreate(String key, Bucket bucket, long currentTime) {
+                        return bucket.refillNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Bucket bucket, long currentTime, long currentDuration) {
+                        return bucket.refillNanos;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Bucket bucket, long currentTime, long currentDuration) {
+                        return bucket.refillNanos;
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public long acquire(String key, long requested, RateLimitParams params) {
+        if (requested <= 0) {
+            return 0;
+        }
+        Bucket bucket = buckets.get(key, k -> new Bucket(params));
+        if (!bucket.matches(params)) {
+            bucket = buckets.asMap().compute(key, (k, existing) ->
+                    existing != null && existing.matches(params) ? existing : new Bucket(params));
+        }
+        return bucket.grant(requested);
+    }
+
+    private static final class Bucket {
+
+        private final int capacity;
+
+        private final double rate;
+
+        private final long refillNanos;
+
+        private double tokens;
+
+        private long lastRefillNanos;
+
+        private Bucket(RateLimitParams params) {
+            this.capacity = params.getCapacity();
+            this.rate = params.getRate();
+            this.refillNanos = params.getRefillNanos();
+            this.tokens = capacity;
+            this.lastRefillNanos = System.nanoTime();
+        }
+
+        private boolean matches(RateLimitParams params) {
+            return capacity == params.getCapacity() && Double.compare(rate, params.getRate()) == 0;
+        }
+
+        private synchronized long grant(long requested) {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * rate / 1_000_000_000.0d);
+            lastRefillNanos = now;
+            long granted = Math.min(requested, (long) tokens);
+            tokens -= granted;
+            return granted;
+        }
+    }
+}
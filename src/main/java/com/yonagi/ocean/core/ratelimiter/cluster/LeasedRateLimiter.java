@@ -0,0 +1,128 @@
+package com.yonagi.ocean.core.ratelimiter.cluster;
+
+import com.yonagi.ocean.core.ratelimiter.RateLimitParams;
+import com.yonagi.ocean.core.ratelimiter.algorithm.RateLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 从集群配额存储租借令牌的限流器。请求线程只对本地令牌做 CAS 扣减，
+ * 剩余令牌降到阈值以下时在后台补租到一个批次，批次大小为 lease_window_millis 内的全局速率；
+ * 全局配额耗尽时按单个令牌的发放间隔退避。尚未租借成功或存储不可达时降级到按节点均分参数的本地限流器，
+ * 每隔 retry_millis 重试一次，恢复后自动切回租借模式
+ * @date 2025/11/23 10:40
+ */
+public class LeasedRateLimiter implements RateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(LeasedRateLimiter.class);
+
+    private final QuotaLeaser leaser;
+
+    private final String key;
+
+    private final RateLimitParams params;
+
+    private final long batch;
+
+    private final long refillThreshold;
+
+    private final RateLimiter fallback;
+
+    // 单个令牌的发放间隔，全局配额耗尽后按它退避，最长不超过一个租借窗口
+    private final long exhaustedBackoffNanos;
+
+    private final AtomicLong tokens = new AtomicLong(0);
+
+    private final AtomicBoolean leasing = new AtomicBoolean(false);
+
+    private volatile long nextLeaseAtNanos = System.nanoTime();
+
+    // 最近一次租借是否成功（含全局配额耗尽），为 false 时使用 fallback
+    private volatile boolean connected;
+
+    LeasedRateLimiter(QuotaLeaser leaser, String key, RateLimitParams params, long batch, long refillThreshold, RateLimiter fallback) {
+        this.leaser = leaser;
+        this.key = key;
+        this.params = params;
+        this.batch = batch;
+        this.refillThreshold = refillThreshold;
+        this.fallback = fallback;
+        long tokenNanos = (long) Math.ceil(1_000_000_000.0d / params.getRate());
+        this.exhaustedBackoffNanos = Math.max(1_000_000L, Math.min(leaser.getLeaseWindowNanos(), tokenNanos));
+        maybeLease(0);
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        return tryAcquire(1);
+    }
+
+    @Override
+    public boolean tryAcquire(int permits) {
+        if (permits <= 0) {
+            return true;
+        }
+        if (!connected) {
+            maybeLease(0);
+            return fallback.tryAcquire(permits);
+        }
+        while (true) {
+            long available = tokens.get();
+            if (available < permits) {
+                maybeLease(available);
+                return false;
+            }
+            if (tokens.compareAndSet(available, available - permits)) {
+                maybeLease(available - permits);
+                return true;
+            }
+        }
+    }
+
+    private void maybeLease(long remaining) {
+        if (remaining > refillThreshold || System.nanoTime() - nextLeaseAtNanos < 0) {
+            return;
+        }
+        if (leasing.compareAndSet(false, true) && !leaser.trySubmit(this::lease)) {
+            leasing.set(false);
+        }
+    }
+
+    private void lease() {
+        try {
+            long requested = Math.max(1L, batch - tokens.get());
+            long granted;
+            try {
+                granted = leaser.getStore().acquire(key, requested, params);
+            } catch (IOException | RuntimeException e) {
+                leaser.onLeaseFailed();
+                nextLeaseAtNanos = System.nanoTime() + leaser.getRetryNanos();
+                if (connected) {
+                    connected = false;
+                    log.warn("Quota store is unreachable for {}, falling back to per-node limits: {}", key, e.getMessage());
+                } else {
+                    log.debug("Quota store is still unreachable for {}: {}", key, e.getMessage());
+                }
+                return;
+            }
+            leaser.onLease(requested, granted);
+            if (granted > 0) {
+                tokens.addAndGet(granted);
+            }
+            nextLeaseAtNanos = granted < requested ? System.nanoTime() + exhaustedBackoffNanos : System.nanoTime();
+            if (!connected) {
+                connected = true;
+                log.info("Leasing cluster quota for {} ({} tokens per lease)", key, batch);
+            }
+        } finally {
+            leasing.set(false);
+        }
+    }
+}
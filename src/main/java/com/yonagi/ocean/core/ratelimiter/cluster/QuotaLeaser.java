@@ -0,0 +1,186 @@
+package com.yonagi.ocean.core.ratelimiter.cluster;
+
+import com.yonagi.ocean.admin.metrics.MetricsRegistry;
+import com.yonagi.ocean.core.ratelimiter.RateLimitParams;
+import com.yonagi.ocean.core.ratelimiter.algorithm.RateLimiter;
+import com.yonagi.ocean.utils.LocalConfigLoader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 集群限流的租借端：持有配额存储和所有 LeasedRateLimiter 共享的租借线程池。
+ * 本地令牌低于阈值时限流器把租借任务提交到这里，请求线程从不等待存储；线程池队列满时本次租借被丢弃，稍后再试
+ * @date 2025/11/23 10:20
+ */
+public class QuotaLeaser {
+
+    private static final Logger log = LoggerFactory.getLogger(QuotaLeaser.class);
+
+    private static final boolean ENABLED = Boolean.parseBoolean(LocalConfigLoader.getProperty("server.rate_limit.cluster.enabled", "false"));
+
+    private static volatile QuotaLeaser INSTANCE;
+
+    private final QuotaStore store;
+
+    private final ThreadPoolExecutor executor;
+
+    private final long leaseWindowMillis;
+
+    private final double refillThreshold;
+
+    private final long retryNanos;
+
+    private final int fallbackNodes;
+
+    private final Counter grantedCounter;
+
+    private final Counter exhaustedCounter;
+
+    private final Counter failedCounter;
+
+    private final Counter droppedCounter;
+
+    private final Counter tokensCounter;
+
+    private QuotaLeaser(QuotaStore store) {
+        this.store = store;
+        this.leaseWindowMillis = Math.max(1L, Long.parseLong(LocalConfigLoader.getProperty("server.rate_limit.cluster.lease_window_millis", "1000")));
+        this.refillThreshold = Math.min(1.0d, Math.max(0.0d, Double.parseDouble(LocalConfigLoader.getProperty("server.rate_limit.cluster.refill_threshold", "0.5"))));
+        this.retryNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1L, Long.parseLong(LocalConfigLoader.getProperty("server.rate_limit.cluster.retry_millis", "2000"))));
+        this.fallbackNodes = Math.max(1, Integer.parseInt(LocalConfigLoader.getProperty("server.rate_limit.cluster.fallback_nodes", "1")));
+        int threads = Math.max(1, Integer.parseInt(LocalConfigLoader.getProperty("server.rate_limit.cluster.lease_threads", "2")));
+        int queueSize = Math.max(1, Integer.parseInt(LocalConfigLoader.getProperty("server.rate_limit.cluster.lease_queue_size", "1024")));
+        AtomicInteger threadIndex = new AtomicInteger(0);
+        this.executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                60L,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                r -> {
+                    Thread t = new Thread(r, "RateLimit-Lease-" + threadIndex.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.executor.allowCoreThreadTimeOut(true);
+        MeterRegistry meterRegistry = MetricsRegistry.currentMeterRegistry();
+        this.grantedCounter = leaseCounter(meterRegistry, "granted");
+        this.exhaustedCounter = leaseCounter(meterRegistry, "exhausted");
+        this.failedCounter = leaseCounter(meterRegistry, "failed");
+        this.droppedCounter = leaseCounter(meterRegistry, "dropped");
+        this.tokensCounter = Counter.builder("rate_limit.cluster.tokens.leased.total")
+                .description("Tokens leased from the cluster quota store")
+                .register(meterRegistry);
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    public static QuotaLeaser getInstance() {
+        if (INSTANCE == null) {
+            synchronized (QuotaLeaser.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new QuotaLeaser(createStore());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    private static QuotaStore createStore() {
+        String type = LocalConfigLoader.getProperty("server.rate_limit.cluster.store", "memory").trim();
+        if ("memory".equalsIgnoreCase(type)) {
+            return new InMemoryQuotaStore();
+        }
+        if ("tcp".equalsIgnoreCase(type)) {
+            return new TcpQuotaStore();
+        }
+        try {
+            return (QuotaStore) Class.forName(type).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            log.error("Failed to create quota store {}, falling back to the in-memory store: {}", type, e.getMessage());
+            return new InMemoryQuotaStore();
+        }
+    }
+
+    /**
+     * key 需在集群内唯一且各节点一致；fallback 是存储不可达时使用的单节点限流器
+     */
+    public RateLimiter newLimiter(String key, RateLimitParams params, RateLimiter fallback) {
+        long batch = (long) Math.ceil(params.getRate() * leaseWindowMillis / 1000.0d);
+        batch = Math.max(1L, Math.min(params.getCapacity(), batch));
+        return new LeasedRateLimiter(this, key, params, batch, (long) (batch * refillThreshold), fallback);
+    }
+
+    /**
+     * 降级为单节点限流时每个节点分到的参数：容量与速率按 fallback_nodes 均分
+     */
+    public RateLimitParams fallbackParams(RateLimitParams params) {
+        if (fallbackNodes == 1) {
+            return params;
+        }
+        return new RateLimitParams(Math.max(1, params.getCapacity() / fallbackNodes), params.getRate() / fallbackNodes);
+    }
+
+    boolean trySubmit(Runnable task) {
+        try {
+            executor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            droppedCounter.increment();
+            return false;
+        }
+    }
+
+    QuotaStore getStore() {
+        return store;
+    }
+
+    long getRetryNanos() {
+        return retryNanos;
+    }
+
+    long getLeaseWindowNanos() {
+        return TimeUnit.MILLISECONDS.toNanos(leaseWindowMillis);
+    }
+
+    void onLease(long requested, long granted) {
+        tokensCounter.increment(granted);
+        if (granted < requested) {
+            exhaustedCounter.increment();
+        } else {
+            grantedCounter.increment();
+        }
+    }
+
+    void onLeaseFailed() {
+        failedCounter.increment();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+        store.close();
+        log.info("Rate limit quota leaser stopped.");
+    }
+
+    private static Counter leaseCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("rate_limit.cluster.lease.total")
+                .description("Counts cluster quota lease requests by result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,194 @@
+package com.yonagi.ocean.core.ratelimiter.cluster;
+
+import com.yonagi.ocean.core.ratelimiter.RateLimitParams;
+import com.yonagi.ocean.utils.LocalConfigLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 简单的 TCP 配额服务，背后是一个 InMemoryQuotaStore。
+ * 协议为逐行文本：请求 "ACQUIRE 数量 容量 速率 key"，响应 "OK 授予数量" 或 "ERR 原因"。
+ * 可以开启 server.rate_limit.cluster.server.enabled 嵌入某个 Ocean 节点中运行，也可以通过 main 方法单独启动。
+ * 默认只监听回环地址；请求行按字节有界读取，超长的行不会被读入内存，空闲超过 idle_timeout_millis 的连接会被关闭
+ * @date 2025/11/23 10:00
+ */
+public class QuotaServer {
+
+    private static final Logger log = LoggerFactory.getLogger(QuotaServer.class);
+
+    static final String COMMAND_ACQUIRE = "ACQUIRE";
+
+    static final String RESPONSE_OK = "OK";
+
+    static final String RESPONSE_ERROR = "ERR";
+
+    private static final int MAX_LINE_LENGTH = 4096;
+
+    private static final int LINE_TOO_LONG = -2;
+
+    private final String bindAddress;
+
+    private final int port;
+
+    private final int idleTimeoutMillis;
+
+    private final QuotaStore store;
+
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+
+    private volatile ServerSocket serverSocket;
+
+    private Thread acceptor;
+
+    public QuotaServer(String bindAddress, int port, int idleTimeoutMillis, QuotaStore store) {
+        this.bindAddress = bindAddress;
+        this.port = port;
+        this.idleTimeoutMillis = Math.max(0, idleTimeoutMillis);
+        this.store = store;
+    }
+
+    public static QuotaServer fromConfig(int port, QuotaStore store) {
+        String bindAddress = LocalConfigLoader.getProperty("server.rate_limit.cluster.server.bind_address", "127.0.0.1");
+        int idleTimeoutMillis = Integer.parseInt(LocalConfigLoader.getProperty("server.rate_limit.cluster.server.idle_timeout_millis", "300000"));
+        return new QuotaServer(bindAddress, port, idleTimeoutMillis, store);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0
+                ? Integer.parseInt(args[0])
+                : Integer.parseInt(LocalConfigLoader.getProperty("server.rate_limit.cluster.port", "7070"));
+        QuotaServer server = fromConfig(port, new InMemoryQuotaStore());
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop, "Quota-Server-Shutdown-Hook"));
+        server.acceptor.join();
+    }
+
+    public synchronized void start() throws IOException {
+        if (serverSocket != null) {
+            return;
+        }
+        ServerSocket socket = new ServerSocket(port, 0, InetAddress.getByName(bindAddress));
+        this.serverSocket = socket;
+        this.acceptor = new Thread(() -> acceptLoop(socket), "Quota-Server-Acceptor");
+        this.acceptor.setDaemon(true);
+        this.acceptor.start();
+        log.info("Rate limit quota server is listening on {}:{}", bindAddress, port);
+    }
+
+    public synchronized void stop() {
+        ServerSocket socket = serverSocket;
+        serverSocket = null;
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+            for (Socket connection : connections) {
+                try {
+                    connection.close();
+                } catch (IOException ignored) {
+                }
+            }
+            store.close();
+            log.info("Rate limit quota server stopped.");
+        }
+    }
+
+    private void acceptLoop(ServerSocket socket) {
+        while (!socket.isClosed()) {
+            try {
+                Socket client = socket.accept();
+                Thread.ofVirtual().name("Quota-Server-Connection").start(() -> serve(client));
+            } catch (SocketException e) {
+                // 服务已停止
+                break;
+            } catch (IOException e) {
+                log.warn("Quota server failed to accept connection: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void serve(Socket client) {
+        connections.add(client);
+        try (client) {
+            client.setTcpNoDelay(true);
+            client.setSoTimeout(idleTimeoutMillis);
+            InputStream input = new BufferedInputStream(client.getInputStream());
+            OutputStream output = client.getOutputStream();
+            byte[] line = new byte[MAX_LINE_LENGTH];
+            int length;
+            while ((length = readLine(input, line)) >= 0) {
+                output.write((handle(new String(line, 0, length, StandardCharsets.UTF_8)) + "\n").getBytes(StandardCharsets.UTF_8));
+                output.flush();
+            }
+            if (length == LINE_TOO_LONG) {
+                // 无法确定超长行在哪里结束，回复错误后直接断开
+                output.write((RESPONSE_ERROR + " line too long\n").getBytes(StandardCharsets.UTF_8));
+                output.flush();
+            }
+        } catch (SocketTimeoutException e) {
+            log.debug("Quota server connection from {} idle for {} ms, closing", client.getRemoteSocketAddress(), idleTimeoutMillis);
+        } catch (IOException e) {
+            log.debug("Quota server connection from {} closed: {}", client.getRemoteSocketAddress(), e.getMessage());
+        } finally {
+            connections.remove(client);
+        }
+    }
+
+    /**
+     * 把一行（不含行尾的 \r\n）读入 buffer 并返回长度；连接结束返回 -1，超过 buffer 长度返回 LINE_TOO_LONG
+     */
+    private static int readLine(InputStream input, byte[] buffer) throws IOException {
+        int length = 0;
+        while (true) {
+            int b = input.read();
+            if (b == -1) {
+                return length == 0 ? -1 : length;
+            }
+            if (b == '\n') {
+                return length > 0 && buffer[length - 1] == '\r' ? length - 1 : length;
+            }
+            if (length == buffer.length) {
+                return LINE_TOO_LONG;
+            }
+            buffer[length++] = (byte) b;
+        }
+    }
+
+    private String handle(String line) {
+        String[] parts = line.split(" ", 5);
+        if (parts.length != 5 || !COMMAND_ACQUIRE.equals(parts[0]) || parts[4].isEmpty()) {
+            return RESPONSE_ERROR + " malformed request";
+        }
+        try {
+            long requested = Long.parseLong(parts[1]);
+            int capacity = Integer.parseInt(parts[2]);
+            double rate = Double.parseDouble(parts[3]);
+            if (capacity <= 0 || rate <= 0 || Double.isNaN(rate) || Double.isInfinite(rate)) {
+                return RESPONSE_ERROR + " capacity and rate must be positive";
+            }
+            return RESPONSE_OK + " " + store.acquire(parts[4], requested, new RateLimitParams(capacity, rate));
+        } catch (NumberFormatException e) {
+            return RESPONSE_ERROR + " malformed number";
+        } catch (IOException | RuntimeException e) {
+            log.warn("Quota store failed to serve {}: {}", parts[4], e.getMessage());
+            return RESPONSE_ERROR + " store failure";
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.yonagi.ocean.core.ratelimiter.cluster;
+
+import com.yonagi.ocean.core.ratelimiter.RateLimitParams;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 集群共享的配额存储。每个 key 对应一个全局令牌桶（容量与速率由调用方传入），
+ * 各节点按批次从中租借令牌，请求路径只消费本地已租到的令牌。
+ * 通过 server.rate_limit.cluster.store 选择实现：memory、tcp，或带无参构造器的实现类全名
+ * @date 2025/11/23 09:30
+ */
+public interface QuotaStore extends Closeable {
+
+    /**
+     * 申请最多 requested 个令牌，返回实际授予的数量，全局配额耗尽时返回 0；存储不可达时抛出 IOException
+     */
+    long acquire(String key, long requested, RateLimitParams params) throws IOException;
+
+    @Override
+    default void close() {
+    }
+}
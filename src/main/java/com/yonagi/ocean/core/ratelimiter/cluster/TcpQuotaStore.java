@@ -0,0 +1,129 @@
+package com.yonagi.ocean.core.ratelimiter.cluster;
+
+import com.yonagi.ocean.core.ratelimiter.RateLimitParams;
+import com.yonagi.ocean.utils.LocalConfigLoader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 通过 TCP 访问 QuotaServer 的配额存储。租借只发生在后台线程，这里复用一条长连接并串行发送请求，
+ * 连接或读写失败时关闭连接并抛出 IOException，下一次申请时重新建立连接。服务端会关闭空闲连接，
+ * 复用的连接已被对端关闭时重新连接并重发一次
+ * @date 2025/11/23 09:50
+ */
+public class TcpQuotaStore implements QuotaStore {
+
+    private final String host;
+
+    private final int port;
+
+    private final int timeoutMillis;
+
+    private Socket socket;
+
+    private BufferedReader reader;
+
+    private OutputStream output;
+
+    public TcpQuotaStore() {
+        this(LocalConfigLoader.getProperty("server.rate_limit.cluster.host", "127.0.0.1"),
+                Integer.parseInt(LocalConfigLoader.getProperty("server.rate_limit.cluster.port", "7070")),
+                Integer.parseInt(LocalConfigLoader.getProperty("server.rate_limit.cluster.timeout_millis", "200")));
+    }
+
+    public TcpQuotaStore(String host, int port, int timeoutMillis) {
+        this.host = host;
+        this.port = port;
+        this.timeoutMillis = Math.max(1, timeoutMillis);
+    }
+
+    @Override
+    public synchronized long acquire(String key, long requested, RateLimitParams params) throws IOException {
+        if (key.indexOf('\n') >= 0 || key.indexOf('\r') >= 0) {
+            throw new IOException("Quota key must not contain line breaks: " + key);
+        }
+        try {
+            boolean reused = socket != null;
+            if (!reused) {
+                connect();
+            }
+            byte[] request = (QuotaServer.COMMAND_ACQUIRE + " " + requested + " " + params.getCapacity() + " "
+                    + params.getRate() + " " + key + "\n").getBytes(StandardCharsets.UTF_8);
+            String response = exchange(request, reused);
+            if (response == null && reused) {
+                // 对端在空闲时关闭了连接，请求未被处理，重连后重发
+                disconnect();
+                connect();
+                response = exchange(request, false);
+            }
+            if (response == null) {
+                throw new IOException("Quota server closed the connection");
+            }
+            if (!response.startsWith(QuotaServer.RESPONSE_OK + " ")) {
+                throw new IOException("Quota server rejected the request: " + response);
+            }
+            try {
+                return Long.parseLong(response.substring(QuotaServer.RESPONSE_OK.length() + 1).trim());
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid quota server response: " + response, e);
+            }
+        } catch (IOException e) {
+            disconnect();
+            throw e;
+        }
+    }
+
+    private String exchange(byte[] request, boolean reused) throws IOException {
+        try {
+            output.write(request);
+            output.flush();
+        } catch (IOException e) {
+            if (reused) {
+                return null;
+            }
+            throw e;
+        }
+        return reader.readLine();
+    }
+
+    private void connect() throws IOException {
+        Socket newSocket = new Socket();
+        try {
+            newSocket.setTcpNoDelay(true);
+            newSocket.connect(new InetSocketAddress(host, port), timeoutMillis);
+            newSocket.setSoTimeout(timeoutMillis);
+            this.reader = new BufferedReader(new InputStreamReader(newSocket.getInputStream(), StandardCharsets.UTF_8));
+            this.output = newSocket.getOutputStream();
+            this.socket = newSocket;
+        } catch (IOException e) {
+            newSocket.close();
+            throw e;
+        }
+    }
+
+    private void disconnect() {
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+        }
+        socket = null;
+        reader = null;
+        output = null;
+    }
+
+    @Override
+    public synchronized void close() {
+        disconnect();
+    }
+}
@@ -2,6 +2,7 @@ package com.yonagi.ocean.core.ratelimiter.config;
 
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import com.yonagi.ocean.core.ratelimiter.config.enums.RateLimitAlgorithm;
 import com.yonagi.ocean.core.ratelimiter.config.enums.RateLimitType;
 import com.yonagi.ocean.core.protocol.enums.HttpMethod;
 
@@ -26,16 +27,19 @@ public final class RateLimitConfig {
 
     private final List<RateLimitType> scopes;
 
+    private final RateLimitAlgorithm algorithm;
+
     private RateLimitConfig(Builder builder) {
         this.enabled = builder.enabled;
         this.method = builder.method;
         this.path = builder.path;
         this.scopes = builder.scopes;
+        this.algorithm = builder.algorithm;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(enabled, method, path, scopes);
+        return Objects.hash(enabled, method, path, scopes, algorithm);
     }
 
     @Override
@@ -50,7 +54,8 @@ public final class RateLimitConfig {
         return enabled == that.enabled &&
                 Objects.equals(method, that.method) &&
                 Objects.equals(path, that.path) &&
-                Objects.equals(scopes, that.scopes);
+                Objects.equals(scopes, that.scopes) &&
+                algorithm == that.algorithm;
     }
 
     public boolean isEnabled() {
@@ -69,6 +74,13 @@ public final class RateLimitConfig {
         return scopes;
     }
 
+    /**
+     * 未配置时为 null，使用 server.rate_limit.algorithm 指定的全局算法
+     */
+    public RateLimitAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -78,7 +90,8 @@ public final class RateLimitConfig {
                 .enabled(this.enabled)
                 .method(this.method)
                 .path(this.path)
-                .scopes(this.scopes);
+                .scopes(this.scopes)
+                .algorithm(this.algorithm);
     }
 
     @JsonPOJOBuilder(buildMethodName = "build", withPrefix = "")
@@ -87,6 +100,7 @@ public final class RateLimitConfig {
         private HttpMethod method;
         private String path;
         private List<RateLimitType> scopes;
+        private RateLimitAlgorithm algorithm;
 
         public Builder() {
 
@@ -112,6 +126,11 @@ public final class RateLimitConfig {
             return this;
         }
 
+        public Builder algorithm(RateLimitAlgorithm algorithm) {
+            this.algorithm = algorithm;
+            return this;
+        }
+
         public RateLimitConfig build() {
             return new RateLimitConfig(this);
         }
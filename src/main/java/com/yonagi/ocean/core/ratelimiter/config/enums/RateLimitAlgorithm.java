@@ -0,0 +1,31 @@
+package com.yonagi.ocean.core.ratelimiter.config.enums;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 限流算法
+ * @date 2025/11/22 16:10
+ */
+public enum RateLimitAlgorithm {
+    TOKEN_BUCKET,
+    GCRA,
+    SLIDING_WINDOW,
+    SLIDING_LOG;
+
+    public static RateLimitAlgorithm getRateLimitAlgorithm(String algorithm) {
+        if (algorithm == null) {
+            return null;
+        }
+        try {
+            return RateLimitAlgorithm.valueOf(algorithm.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return this.name();
+    }
+}
@@ -3,6 +3,7 @@ package com.yonagi.ocean.core.ratelimiter.config.source;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.yonagi.ocean.core.ratelimiter.config.RateLimitConfig;
+import com.yonagi.ocean.core.ratelimiter.config.enums.RateLimitAlgorithm;
 import com.yonagi.ocean.core.ratelimiter.config.enums.RateLimitType;
 import com.yonagi.ocean.core.protocol.enums.HttpMethod;
 import com.yonagi.ocean.utils.LocalConfigLoader;
@@ -63,6 +64,13 @@ public class LocalConfigSource implements ConfigSource {
                 if (dto.scopes != null && !dto.scopes.isEmpty()) {
                     builder.scopes(dto.scopes);
                 }
+                if (dto.algorithm != null && !dto.algorithm.isBlank()) {
+                    RateLimitAlgorithm algorithm = RateLimitAlgorithm.getRateLimitAlgorithm(dto.algorithm);
+                    if (algorithm == null) {
+                        log.warn("Unknown rate limit algorithm {} for {} {}, using the global algorithm", dto.algorithm, dto.method, dto.path);
+                    }
+                    builder.algorithm(algorithm);
+                }
                 RateLimitConfig config = builder.build();
                 configs.add(config);
             } catch (Exception e) {
@@ -77,10 +85,11 @@ public class LocalConfigSource implements ConfigSource {
         public String method;
         public String path;
         public List<RateLimitType> scopes;
+        public String algorithm;
 
         @Override
         public String toString() {
-            return String.format("{enabled=%s, method=%s, path=%s, scope count=%s}", enabled, method, path, scopes.size());
+            return String.format("{enabled=%s, method=%s, path=%s, scope count=%s, algorithm=%s}", enabled, method, path, scopes.size(), algorithm);
         }
     }
 
@@ -9,7 +9,9 @@ import java.net.http.HttpClient;
 import java.time.Duration;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Yonagi
@@ -27,17 +29,37 @@ public class HttpClientManager {
     private static final Map<String, java.net.http.HttpClient> clients = new ConcurrentHashMap<>();
 
     public static HttpClient getClient(URI uri) {
-        String upstreamUrl = uri.getScheme() + "://" + uri.getHost() + (uri.getPort() != -1 ? ":" + uri.getPort() : "");
-        return clients.computeIfAbsent(upstreamUrl, key -> HttpClient.newBuilder()
-                .version(HttpClient.Version.HTTP_1_1)
-                .connectTimeout(Duration.ofMillis(CONNECT_TIMEOUT_MS))
-                .followRedirects(HttpClient.Redirect.NORMAL)
-                .executor(Executors.newFixedThreadPool(32))
-                .build());
+        return clients.computeIfAbsent(clientKey(uri), key -> {
+            // 线程空闲后退出，客户端被移除后不会留下常驻线程
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(32, 32, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+            executor.allowCoreThreadTimeOut(true);
+            return HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofMillis(CONNECT_TIMEOUT_MS))
+                    .followRedirects(HttpClient.Redirect.NORMAL)
+                    .executor(executor)
+                    .build();
+        });
     }
 
+    /**
+     * 移除并关闭上游对应的客户端，进行中的请求继续完成，之后的请求会重新创建客户端
+     */
     public static void removeClient(String upstreamUrl) {
-        clients.remove(upstreamUrl);
+        String key;
+        try {
+            key = clientKey(URI.create(upstreamUrl));
+        } catch (IllegalArgumentException e) {
+            key = upstreamUrl;
+        }
+        HttpClient client = clients.remove(key);
+        if (client != null) {
+            client.shutdown();
+        }
         log.debug("Removed Http Client for upstream url: {}", upstreamUrl);
     }
+
+    private static String clientKey(URI uri) {
+        return uri.getScheme() + "://" + uri.getHost() + (uri.getPort() != -1 ? ":" + uri.getPort() : "");
+    }
 }
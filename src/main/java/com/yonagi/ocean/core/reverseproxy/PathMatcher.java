@@ -1,122 +1,53 @@
 package com.yonagi.ocean.core.reverseproxy;
 
-import java.util.Arrays;
-import java.util.Objects;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yonagi.ocean.core.reverseproxy.route.SegmentGlob;
 
 /**
  * @author Yonagi
  * @version 1.0
  * @program Ocean
- * @description
+ * @description Ant 风格的路径匹配：* 和 ? 匹配段内字符，** 匹配零个或多个段。
+ * 模式先编译为不可变的 PathPattern 再匹配，编译结果保存在有界缓存中，
+ * 需要反复匹配同一模式的调用方（路由、限流等）应直接持有 compile 的返回值。
+ * 路由和限流中只在末尾有一个 * 的路径沿用按字符前缀匹配的旧语义，由 isPrefixPattern 判断
  * @date 2025/11/09 10:18
  */
 public class PathMatcher {
 
-    private static final String PATH_SEPARATOR = "/";
-    private static final String DOUBLE_WILD_CARD = "**";
-    private static final String SINGLE_WILD_CARD = "*";
+    private static final int MAX_CACHED_PATTERNS = 1024;
 
-    public static boolean match(String pattern, String path) {
-        if (pattern == null || path == null) {
-            return false;
-        }
-        String normalizedPattern = normalizePath(pattern);
-        String normalizedPath = normalizePath(path);
-        if (Objects.equals(normalizedPattern, normalizedPath)) {
-            return true;
-        }
-
-        String[] patternSegments = normalizedPattern.split(PATH_SEPARATOR);
-        String[] pathSegments = normalizedPath.split(PATH_SEPARATOR);
-        return doMatch(patternSegments, pathSegments);
-    }
+    private static final Cache<String, PathPattern> PATTERN_CACHE = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_PATTERNS)
+            .build();
 
-    private static String normalizePath(String path) {
-        if (path == null || path.isEmpty()) {
-            return PATH_SEPARATOR;
+    public static PathPattern compile(String pattern) {
+        if (pattern == null) {
+            throw new IllegalArgumentException("Path pattern must not be null");
         }
-        path = path.replaceAll("/+", PATH_SEPARATOR);
-
-        if (!path.startsWith(PATH_SEPARATOR)) {
-            path = PATH_SEPARATOR + path;
-        }
-
-        if (path.length() > 1 && path.endsWith(PATH_SEPARATOR)) {
-            path = path.substring(0, path.length() - 1);
-        }
-        return path;
+        return PATTERN_CACHE.get(pattern, PathPattern::compile);
     }
 
-    private static boolean doMatch(String[] patternSegments, String[] pathSegments) {
-        int patIdx = 0;
-        int pathIdx = 0;
-
-        while (patIdx < patternSegments.length && pathIdx < pathSegments.length) {
-            String patternSegment = patternSegments[patIdx];
-            String pathSegment = pathSegments[pathIdx];
-
-            if (DOUBLE_WILD_CARD.equals(patternSegment)) {
-                if (patIdx == patternSegments.length - 1) {
-                    return true;
-                }
-                for (int i = pathIdx; i < pathSegments.length; i++) {
-                    if (doMatch(
-                            Arrays.copyOfRange(patternSegments, patIdx + 1, patternSegments.length),
-                            Arrays.copyOfRange(pathSegments, i, pathSegments.length))) {
-                        return true;
-                    }
-                }
-                return false;
-            } else if (isSingleWildCardMatch(patternSegment, pathSegment)) {
-                patIdx++;
-                pathIdx++;
-            } else {
-                return false;
-            }
-        }
-
-        if (patIdx == patternSegments.length && pathIdx == pathSegments.length) {
-            return true;
-        }
-
-        while (patIdx < patternSegments.length) {
-            if (DOUBLE_WILD_CARD.equals(patternSegments[patIdx])) {
-                patIdx++;
-            } else {
-                break;
-            }
-        }
-
-        return patIdx == patternSegments.length && pathIdx == pathSegments.length;
+    /**
+     * 是否含有通配符，需要编译为 PathPattern 匹配
+     */
+    public static boolean isPattern(String pattern) {
+        return pattern != null && SegmentGlob.isGlob(pattern);
     }
 
-    private static boolean isSingleWildCardMatch(String pattern, String path) {
-        if (!pattern.contains(SINGLE_WILD_CARD)) {
-            return pattern.equals(path);
-        }
-
-        int patternIndex = 0;
-        int pathIndex = 0;
+    /**
+     * 是否是只在末尾有一个 * 的前缀模式
+     */
+    public static boolean isPrefixPattern(String pattern) {
+        return pattern != null && pattern.endsWith("*")
+                && !SegmentGlob.isGlob(pattern.substring(0, pattern.length() - 1));
+    }
 
-        while (patternIndex < pattern.length() || pathIndex < path.length()) {
-            if (patternIndex < pattern.length() && pattern.charAt(patternIndex) == SINGLE_WILD_CARD.charAt(0)) {
-                int nextPatternIndex = patternIndex + 1;
-                if (nextPatternIndex == pattern.length()) {
-                    return true;
-                }
-                char nextPatternChar = pattern.charAt(nextPatternIndex);
-                while (pathIndex < path.length() && path.charAt(pathIndex) != nextPatternChar) {
-                    pathIndex++;
-                }
-                patternIndex = nextPatternIndex;
-            } else if (patternIndex < pattern.length() && pathIndex < path.length() && pattern.charAt(patternIndex) == path.charAt(pathIndex)) {
-                patternIndex++;
-                pathIndex++;
-            } else {
-                return false;
-            }
+    public static boolean match(String pattern, String path) {
+        if (pattern == null || path == null) {
+            return false;
         }
-
-        return patternIndex == pattern.length() && pathIndex == path.length();
+        return compile(pattern).matches(path);
     }
 }
@@ -0,0 +1,140 @@
+package com.yonagi.ocean.core.reverseproxy;
+
+import com.yonagi.ocean.core.reverseproxy.route.SegmentGlob;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 由 PathMatcher.compile 生成的不可变路径模式。
+ * 匹配时直接在请求路径的字符上按下标移动（连续的 / 视为一个，忽略末尾的 /），
+ * ** 与段内通配符一样使用只记录回溯位置的迭代算法，不复制数组也不创建对象
+ * @date 2025/11/21 15:00
+ */
+public final class PathPattern {
+
+    private static final String DOUBLE_WILD_CARD = "**";
+
+    private final String pattern;
+
+    // 每个段要么是字面量，要么是段内通配，要么是 **（两者都为 null）
+    private final String[] literals;
+
+    private final SegmentGlob[] globs;
+
+    private PathPattern(String pattern, String[] literals, SegmentGlob[] globs) {
+        this.pattern = pattern;
+        this.literals = literals;
+        this.globs = globs;
+    }
+
+    static PathPattern compile(String pattern) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : pattern.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            // 连续的 ** 与单个 ** 等价
+            if (DOUBLE_WILD_CARD.equals(segment) && !segments.isEmpty() && DOUBLE_WILD_CARD.equals(segments.getLast())) {
+                continue;
+            }
+            segments.add(segment);
+        }
+        String[] literals = new String[segments.size()];
+        SegmentGlob[] globs = new SegmentGlob[segments.size()];
+        for (int i = 0; i < segments.size(); i++) {
+            String segment = segments.get(i);
+            if (DOUBLE_WILD_CARD.equals(segment)) {
+                continue;
+            }
+            if (SegmentGlob.isGlob(segment)) {
+                globs[i] = SegmentGlob.compile(segment);
+            } else {
+                literals[i] = segment;
+            }
+        }
+        return new PathPattern(pattern, literals, globs);
+    }
+
+    public boolean matches(CharSequence path) {
+        if (path == null) {
+            return false;
+        }
+        int end = path.length();
+        int pos = skipSlashes(path, 0, end);
+        int seg = 0;
+        int count = literals.length;
+        // 最近一个 ** 的位置，以及它当前吞到的路径位置
+        int starSeg = -1;
+        int starPos = -1;
+        while (pos < end) {
+            int segmentEnd = segmentEnd(path, pos, end);
+            if (seg < count && isDoubleWild(seg)) {
+                starSeg = seg++;
+                starPos = pos;
+            } else if (seg < count && segmentMatches(seg, path, pos, segmentEnd)) {
+                seg++;
+                pos = skipSlashes(path, segmentEnd, end);
+            } else if (starSeg >= 0) {
+                // 回到上一个 **，让它多吞一个段
+                seg = starSeg + 1;
+                starPos = skipSlashes(path, segmentEnd(path, starPos, end), end);
+                pos = starPos;
+            } else {
+                return false;
+            }
+        }
+        while (seg < count && isDoubleWild(seg)) {
+            seg++;
+        }
+        return seg == count;
+    }
+
+    private boolean isDoubleWild(int seg) {
+        return literals[seg] == null && globs[seg] == null;
+    }
+
+    private boolean segmentMatches(int seg, CharSequence path, int from, int to) {
+        String literal = literals[seg];
+        if (literal != null) {
+            if (literal.length() != to - from) {
+                return false;
+            }
+            for (int i = 0; i < literal.length(); i++) {
+                if (literal.charAt(i) != path.charAt(from + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return globs[seg].matches(path, from, to);
+    }
+
+    private static int segmentEnd(CharSequence path, int pos, int end) {
+        int i = pos;
+        while (i < end && path.charAt(i) != '/') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipSlashes(CharSequence path, int pos, int end) {
+        int i = pos;
+        while (i < end && path.charAt(i) == '/') {
+            i++;
+        }
+        return i;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+}
@@ -5,8 +5,6 @@ import com.yonagi.ocean.core.protocol.HttpRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.List;
-
 /**
  * @author Yonagi
  * @version 1.0
@@ -25,27 +23,11 @@ public class ReverseProxyChecker {
     }
 
     public ReverseProxyConfig check(HttpRequest request) {
-        String uri = request.getUri();
-        String path = removeParamsFromUri(uri);
-        List<ReverseProxyConfig> allConfigs = manager.getSortedConfigs();
-
-        for (ReverseProxyConfig config : allConfigs) {
-            if (!config.isEnabled()) {
-                continue;
-            }
-            if (PathMatcher.match(config.getPath(), path)) {
-                log.debug("Request {} matched ReverseProxyConfig ID: {}", path, config.getId());
-                return config;
-            }
-        }
-        return null;
-    }
-
-    private String removeParamsFromUri(String uri) {
-        int paramIndex = uri.indexOf('?');
-        if (paramIndex != -1) {
-            return uri.substring(0, paramIndex);
+        // 路由表在配置刷新时编译，查找时忽略查询串，不再逐条排序和匹配
+        ReverseProxyConfig config = manager.getRouteTable().match(request.getUri());
+        if (config != null && log.isDebugEnabled()) {
+            log.debug("Request {} matched ReverseProxyConfig ID: {}", request.getUri(), config.getId());
         }
-        return uri;
+        return config;
     }
 }
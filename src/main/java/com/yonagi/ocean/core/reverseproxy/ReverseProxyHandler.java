@@ -1,12 +1,21 @@
 package com.yonagi.ocean.core.reverseproxy;
 
+import com.yonagi.ocean.admin.metrics.MetricsRegistry;
 import com.yonagi.ocean.core.ErrorPageRender;
 import com.yonagi.ocean.core.loadbalance.HealthChecker;
 import com.yonagi.ocean.core.loadbalance.LoadBalancer;
 import com.yonagi.ocean.core.loadbalance.LoadBalancerFactory;
 import com.yonagi.ocean.core.loadbalance.config.Upstream;
 import com.yonagi.ocean.core.loadbalance.config.enums.Strategy;
+import com.yonagi.ocean.core.reverseproxy.budget.RequestBudget;
+import com.yonagi.ocean.core.reverseproxy.config.HedgeConfig;
+import com.yonagi.ocean.core.reverseproxy.config.MirrorConfig;
+import com.yonagi.ocean.core.reverseproxy.config.RetryConfig;
 import com.yonagi.ocean.core.reverseproxy.config.ReverseProxyConfig;
+import com.yonagi.ocean.core.reverseproxy.hedge.LatencyTracker;
+import com.yonagi.ocean.core.reverseproxy.mirror.MirrorExecutor;
+import com.yonagi.ocean.core.reverseproxy.tunnel.TunnelRelay;
+import com.yonagi.ocean.core.reverseproxy.tunnel.UpgradeTunnel;
 import com.yonagi.ocean.core.context.HttpContext;
 import com.yonagi.ocean.core.protocol.HttpRequest;
 import com.yonagi.ocean.core.protocol.HttpResponse;
@@ -14,17 +23,36 @@ import com.yonagi.ocean.core.protocol.enums.ContentType;
 import com.yonagi.ocean.core.protocol.enums.HttpStatus;
 import com.yonagi.ocean.handler.RequestHandler;
 import com.yonagi.ocean.utils.LocalConfigLoader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.net.ConnectException;
+import java.net.SocketTimeoutException;
 import java.net.URI;
 import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpTimeoutException;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author Yonagi
@@ -41,11 +69,25 @@ public class ReverseProxyHandler implements RequestHandler {
             "te", "trailers", "transfer-encoding", "upgrade", "host", "content-length"
     );
     private static final double WEIGHT_ADJUSTMENT_FACTOR = 0.1;
+    private static final int MAX_CHOOSE_ATTEMPTS = 3;
+    private static final int LATENCY_SAMPLES = 1024;
+    private static final int MIN_LATENCY_SAMPLES = 50;
+    private static final int MAX_BUDGET_TOKENS = 10;
 
     private final ReverseProxyConfig proxyConfig;
     private final LoadBalancer loadBalancer;
     private final HealthChecker healthChecker;
-    private Upstream selectedUpstream;
+    private final LatencyTracker latencyTracker = new LatencyTracker(LATENCY_SAMPLES, MIN_LATENCY_SAMPLES);
+    private final RequestBudget hedgeBudget;
+    private final Counter hedgeSentCounter;
+    private final Counter hedgeWonCounter;
+    private final RequestBudget retryBudget;
+    private final Counter retryCounter;
+    private final Counter retryBudgetExhaustedCounter;
+    private final Counter mirrorSentCounter;
+    private final Counter mirrorDroppedCounter;
+    private final Map<String, Timer> mirrorLatencyTimers = new ConcurrentHashMap<>();
+    private final AtomicInteger mirrorCursor = new AtomicInteger(0);
 
     public ReverseProxyHandler(ReverseProxyConfig proxyConfig) {
         this.proxyConfig = proxyConfig;
@@ -55,8 +97,41 @@ public class ReverseProxyHandler implements RequestHandler {
         } else {
             this.loadBalancer = LoadBalancerFactory.createLoadBalancer(proxyConfig.getLbConfig(), Strategy.NONE);
         }
-        this.healthChecker = new HealthChecker(proxyConfig.getLbConfig());
+        this.loadBalancer.retain();
+        // 负载均衡器可能来自缓存，健康检查必须作用于它实际持有的 Upstream 实例
+        this.healthChecker = new HealthChecker(loadBalancer.getConfig());
         this.healthChecker.start();
+
+        HedgeConfig hedgeConfig = proxyConfig.getHedge();
+        this.hedgeBudget = new RequestBudget(hedgeConfig != null ? hedgeConfig.getMaxHedgePercent() : 0.0d, MAX_BUDGET_TOKENS);
+        MeterRegistry meterRegistry = MetricsRegistry.currentMeterRegistry();
+        this.hedgeSentCounter = Counter.builder("reverse_proxy.hedge.sent.total")
+                .description("Counts hedged requests sent to a second upstream")
+                .tag("route", proxyConfig.getId())
+                .register(meterRegistry);
+        this.hedgeWonCounter = Counter.builder("reverse_proxy.hedge.won.total")
+                .description("Counts hedged requests whose response arrived first")
+                .tag("route", proxyConfig.getId())
+                .register(meterRegistry);
+
+        RetryConfig retryConfig = proxyConfig.getRetry();
+        this.retryBudget = new RequestBudget(retryConfig != null ? retryConfig.getBudgetPercent() : 0.0d, MAX_BUDGET_TOKENS);
+        this.retryCounter = Counter.builder("reverse_proxy.retry.total")
+                .description("Counts upstream requests retried on another upstream")
+                .tag("route", proxyConfig.getId())
+                .register(meterRegistry);
+        this.retryBudgetExhaustedCounter = Counter.builder("reverse_proxy.retry.budget_exhausted.total")
+                .description("Counts retries skipped because the retry budget was exhausted")
+                .tag("route", proxyConfig.getId())
+                .register(meterRegistry);
+        this.mirrorSentCounter = Counter.builder("reverse_proxy.mirror.sent.total")
+                .description("Counts requests copied to a shadow upstream")
+                .tag("route", proxyConfig.getId())
+                .register(meterRegistry);
+        this.mirrorDroppedCounter = Counter.builder("reverse_proxy.mirror.dropped.total")
+                .description("Counts sampled mirror copies dropped because the mirror queue was full")
+                .tag("route", proxyConfig.getId())
+                .register(meterRegistry);
     }
 
     @Override
@@ -75,10 +150,21 @@ public class ReverseProxyHandler implements RequestHandler {
             return;
         }
 
+        if (UpgradeTunnel.isUpgradeRequest(request) && TunnelRelay.isEnabled()) {
+            tunnel(httpContext, traceId);
+            return;
+        }
+
         String configId = proxyConfig.getId();
-        URI upstreamUri;
+        hedgeBudget.onRequest();
+        retryBudget.onRequest();
+        mirror(request, traceId);
+        Upstream selectedUpstream = chooseUpstream(request, traceId, null);
+        // 重试、对冲与退避都不能超出 timeout 给出的总时限
+        long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(proxyConfig.getTimeout());
+        ProxyAttempt attempt;
         try {
-            upstreamUri = buildUpstreamUri(request, proxyConfig);
+            attempt = startAttempt(request, selectedUpstream, deadlineNanos, traceId);
         } catch (ConnectException e) {
             HttpResponse errorResponse = httpContext.getResponse().toBuilder()
                     .httpVersion(request.getHttpVersion())
@@ -97,80 +183,22 @@ public class ReverseProxyHandler implements RequestHandler {
                     .build();
             httpContext.setResponse(errorResponse);
             ErrorPageRender.render(httpContext);
-            log.error("[{}] {} Building Upstream uri meets with exception: {}", traceId, configId, e.getMessage(), e);
+            log.error("[{}] {} Building Upstream request meets with exception: {}", traceId, configId, e.getMessage(), e);
             return;
         }
 
-        log.info("[{}] {} Forwarding {} request {} to upstream: {}", traceId, configId, request.getMethod(), request.getUri(), upstreamUri);
-
-        // 在设置请求体之前记录请求体状态
-        byte[] bodyBeforeProxy = request.getBody();
-        String contentLength = request.getHeaders().get("content-length");
-        log.debug("[{}] Request body status before proxying: body={}, bodyLength={}, contentLength={}",
-                traceId, bodyBeforeProxy != null ? "exists" : "null",
-                bodyBeforeProxy != null ? bodyBeforeProxy.length : 0, contentLength);
-
+        URI upstreamUri = attempt.uri;
+        long exchangeStart = attempt.startNanos;
         try {
-            java.net.http.HttpRequest.Builder requestBuilder = java.net.http.HttpRequest.newBuilder()
-                    .uri(upstreamUri)
-                    .timeout(Duration.ofMillis(proxyConfig.getTimeout()));
-            copyRequestHeaders(request, requestBuilder, proxyConfig, traceId);
-            setRequestBody(request, requestBuilder, traceId);
-            java.net.http.HttpRequest upstreamRequest = requestBuilder.build();
-
-            // 验证构建的请求
-            log.debug("[{}] Built upstream request: method={}, URI={}", traceId, upstreamRequest.method(), upstreamRequest.uri());
-            upstreamRequest.headers().map().forEach((name, values) -> {
-                if ("content-length".equalsIgnoreCase(name)) {
-                    log.warn("[{}] WARNING: Content-Length header found in upstream request: {} = {}", traceId, name, values);
-                } else {
-                    log.debug("[{}] Upstream request header: {} = {}", traceId, name, values);
-                }
-            });
-
-            // 记录 BodyPublisher 信息（用于调试）
-            if (log.isDebugEnabled() && upstreamRequest.bodyPublisher().isPresent()) {
-                log.debug("[{}] BodyPublisher is present for upstream request", traceId);
-                int requestBodyLength = request.getBody() != null ? request.getBody().length : 0;
-                log.debug("[{}] Request body length that should be sent: {} bytes", traceId, requestBodyLength);
-            } else {
-                log.debug("[{}] No BodyPublisher for upstream request", traceId);
-            }
-
-            java.net.http.HttpResponse<byte[]> upstreamResponse;
-            try {
-                long startTime = System.currentTimeMillis();
-                HttpClient httpClient = HttpClientManager.getClient(upstreamUri);
-                upstreamResponse = httpClient.send(
-                        upstreamRequest,
-                        java.net.http.HttpResponse.BodyHandlers.ofByteArray()
-                );
-                long duration = System.currentTimeMillis() - startTime;
-                if (duration > Long.parseLong(LocalConfigLoader.getProperty("server.load_balance.slow_response_max_latency", "1500"))) {
-                    log.warn("[{}] Slow response from upstream {}: {} ms", traceId, upstreamUri, duration);
-                    decreaseUpstreamWeight();
-                }
-                log.debug("[{}] Received response from upstream: status={}, headers={}",
-                        traceId, upstreamResponse.statusCode(), upstreamResponse.headers().map().keySet());
-            } catch (java.io.IOException ioException) {
-                // 检查是否是 Content-Length 相关的错误
-                String ioErrorMessage = ioException.getMessage();
-                if (ioErrorMessage != null && ioErrorMessage.contains("content-length")) {
-                    Throwable cause = ioException.getCause();
-                    if (cause != null) {
-                        log.error("[{}] Caused by: {}", traceId, cause.getClass().getName());
-                        log.error("[{}] Cause message: {}", traceId, cause.getMessage());
-                        if (cause instanceof java.io.EOFException) {
-                            log.error("[{}] EOFException detected - connection may have been closed unexpectedly", traceId);
-                            decreaseUpstreamWeight();
-                        }
-                    }
-                }
-                throw ioException;
-            }
+            ProxyAttempt winner = awaitWithRetries(request, attempt, deadlineNanos, traceId);
+            upstreamUri = winner.uri;
+            java.net.http.HttpResponse<byte[]> upstreamResponse = winner.future.join();
+            httpContext.recordUpstreamRtt(System.nanoTime() - winner.startNanos);
+            log.debug("[{}] Received response from upstream: status={}, headers={}",
+                    traceId, upstreamResponse.statusCode(), upstreamResponse.headers().map().keySet());
             forwardResponse(httpContext, upstreamResponse);
-            increaseUpstreamWeight();
         } catch (ConnectException e) {
+            httpContext.recordUpstreamRtt(System.nanoTime() - exchangeStart);
             HttpResponse errorResponse = httpContext.getResponse().toBuilder()
                     .httpVersion(request.getHttpVersion())
                     .httpStatus(HttpStatus.SERVICE_UNAVAILABLE)
@@ -178,15 +206,9 @@ public class ReverseProxyHandler implements RequestHandler {
                     .build();
             httpContext.setResponse(errorResponse);
             ErrorPageRender.render(httpContext);
-            String message = e.getMessage();
-            log.error("[{}] {} Service Unavailable when proxying request to upstream {}: {}", traceId, configId, upstreamUri, message, e);
-            if (message != null && message.contains("Connection reset")) {
-                decreaseUpstreamWeight();
-                return;
-            }
-            loadBalancer.reportFailure(upstreamUri.toString(), System.currentTimeMillis());
-            log.debug("[{}] Request from {} reported failure to load balancer for upstream {}", traceId, request.getAttribute().getClientIp(), upstreamUri);
+            log.error("[{}] {} Service Unavailable when proxying request to upstream {}: {}", traceId, configId, upstreamUri, e.getMessage(), e);
         } catch (HttpTimeoutException e) {
+            httpContext.recordUpstreamRtt(System.nanoTime() - exchangeStart);
             HttpResponse errorResponse = httpContext.getResponse().toBuilder()
                     .httpVersion(request.getHttpVersion())
                     .httpStatus(HttpStatus.GATEWAY_TIMEOUT)
@@ -195,8 +217,8 @@ public class ReverseProxyHandler implements RequestHandler {
             httpContext.setResponse(errorResponse);
             ErrorPageRender.render(httpContext);
             log.error("[{}] {} Gateway Timeout when proxying request to upstream {}: {}", traceId, configId, upstreamUri, e.getMessage(), e);
-            decreaseUpstreamWeight();
         } catch (Exception e) {
+            httpContext.recordUpstreamRtt(System.nanoTime() - exchangeStart);
             HttpResponse errorResponse = httpContext.getResponse().toBuilder()
                     .httpVersion(request.getHttpVersion())
                     .httpStatus(HttpStatus.BAD_GATEWAY)
@@ -208,14 +230,582 @@ public class ReverseProxyHandler implements RequestHandler {
         }
     }
 
-    private URI buildUpstreamUri(HttpRequest request, ReverseProxyConfig proxyConfig) throws ConnectException {
-        String path = request.getUri();
-        selectedUpstream = loadBalancer.choose(request);
+    /**
+     * 代理 Upgrade 请求（如 WebSocket）：用原始连接向上游发送握手，上游返回 101 时把响应头原样写回客户端，
+     * 然后接管客户端连接做双向转发，直到任一端关闭或空闲超时；上游拒绝升级时按普通响应返回
+     */
+    private void tunnel(HttpContext httpContext, String traceId) {
+        HttpRequest request = httpContext.getRequest();
+        String configId = proxyConfig.getId();
+        Upstream upstream = chooseUpstream(request, traceId, null);
+        if (upstream == null) {
+            log.error("[{}] {} Service Unavailable: no healthy upstreams available for upgrade request", traceId, configId);
+            renderError(httpContext, HttpStatus.SERVICE_UNAVAILABLE);
+            return;
+        }
+        URI upstreamUri;
+        try {
+            upstreamUri = buildUpstreamUri(request, proxyConfig, upstream);
+        } catch (Exception e) {
+            upstream.getCircuitBreaker().releasePermission();
+            log.error("[{}] {} Building upgrade request meets with exception: {}", traceId, configId, e.getMessage(), e);
+            renderError(httpContext, HttpStatus.BAD_GATEWAY);
+            return;
+        }
+        log.info("[{}] {} Forwarding {} upgrade request {} to upstream: {}", traceId, configId, request.getHeaders().get("upgrade"), request.getUri(), upstreamUri);
+
+        upstream.onRequestStart();
+        long start = System.nanoTime();
+        UpgradeTunnel tunnel;
+        try {
+            tunnel = UpgradeTunnel.open(upstreamUri, upstream.getHostHeader(), request.getMethod().name(), buildRequestTarget(upstreamUri, request),
+                    request.getHeaders().get("upgrade"), buildTunnelHeaders(request, traceId),
+                    (int) Math.min(Integer.MAX_VALUE, attemptTimeoutMillis()));
+        } catch (IOException e) {
+            upstream.onRequestComplete(failurePenaltyNanos(), false);
+            HttpStatus status = e instanceof SocketTimeoutException ? HttpStatus.GATEWAY_TIMEOUT
+                    : e instanceof ConnectException ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.BAD_GATEWAY;
+            log.error("[{}] {} Upgrade handshake with upstream {} failed: {}", traceId, configId, upstreamUri, e.getMessage(), e);
+            renderError(httpContext, status);
+            return;
+        }
+        upstream.onRequestComplete(System.nanoTime() - start, tunnel.getStatusCode() < 500);
+
+        if (!tunnel.isSwitchingProtocols()) {
+            log.info("[{}] {} Upstream {} declined upgrade with status {}", traceId, configId, upstreamUri, tunnel.getStatusCode());
+            try (tunnel) {
+                forwardResponse(httpContext, tunnel.getStatusCode(), tunnel.getResponseHeaders(), tunnel.readBody());
+            } catch (IOException e) {
+                log.error("[{}] {} Failed to read upgrade response from upstream {}: {}", traceId, configId, upstreamUri, e.getMessage(), e);
+                renderError(httpContext, HttpStatus.BAD_GATEWAY);
+            }
+            return;
+        }
+
+        // 101 之后连接不再承载 HTTP，响应由这里直接写出
+        httpContext.commitResponse();
+        httpContext.setKeepalive(false);
+        try {
+            OutputStream output = httpContext.getOutput();
+            output.write(tunnel.getResponseHead());
+            output.flush();
+            TunnelRelay.getInstance().relay(configId, traceId, httpContext.getConnectionContext().getSocket(), tunnel);
+            // 连接已交给隧道的转发线程，由其在隧道结束时关闭
+            httpContext.getConnectionContext().detach();
+        } catch (IOException e) {
+            tunnel.close();
+            log.warn("[{}] {} Upgrade tunnel to upstream {} failed: {}", traceId, configId, upstreamUri, e.getMessage());
+        }
+    }
+
+    private String buildRequestTarget(URI upstreamUri, HttpRequest request) {
+        String path = upstreamUri.getRawPath();
+        StringBuilder target = new StringBuilder(path == null || path.isEmpty() ? "/" : path);
+        Map<String, String> queryParams = request.getQueryParams();
+        if (queryParams != null && !queryParams.isEmpty()) {
+            char separator = '?';
+            for (Map.Entry<String, String> entry : queryParams.entrySet()) {
+                target.append(separator).append(entry.getKey());
+                if (entry.getValue() != null && !entry.getValue().isEmpty()) {
+                    target.append('=').append(entry.getValue());
+                }
+                separator = '&';
+            }
+        }
+        return target.toString();
+    }
+
+    private Map<String, String> buildTunnelHeaders(HttpRequest request, String traceId) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        request.getHeaders().forEach((name, value) -> {
+            if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase())) {
+                headers.put(name, value);
+            } else {
+                log.debug("[{}] Filtering out hop-by-hop header: {}", traceId, name);
+            }
+        });
+        String clientIp = request.getAttribute().getClientIp();
+        if (clientIp != null) {
+            headers.put("X-Forwarded-For", clientIp);
+        }
+        proxyConfig.getAddHeaders().forEach((name, value) -> {
+            if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase())) {
+                headers.put(name, value);
+            }
+        });
+        return headers;
+    }
+
+    private void renderError(HttpContext httpContext, HttpStatus status) {
+        HttpResponse errorResponse = httpContext.getResponse().toBuilder()
+                .httpVersion(httpContext.getRequest().getHttpVersion())
+                .httpStatus(status)
+                .contentType(ContentType.TEXT_HTML)
+                .build();
+        httpContext.setResponse(errorResponse);
+        ErrorPageRender.render(httpContext);
+    }
+
+    /**
+     * 按抽样比例把请求复制一份发往影子上游。请求在当前线程构建，发送交给有界的镜像执行器，
+     * 队列满时直接丢弃，响应只记录状态码和延迟
+     */
+    private void mirror(HttpRequest request, String traceId) {
+        MirrorConfig mirrorConfig = proxyConfig.getMirror();
+        if (mirrorConfig == null || !mirrorConfig.isEnabled()) {
+            return;
+        }
+        if (mirrorConfig.getSamplePercent() < 100.0d
+                && ThreadLocalRandom.current().nextDouble(100.0d) >= mirrorConfig.getSamplePercent()) {
+            return;
+        }
+        List<String> shadows = mirrorConfig.getUpstreams();
+        String shadowBase = shadows.get(Math.floorMod(mirrorCursor.getAndIncrement(), shadows.size()));
+        java.net.http.HttpRequest shadowRequest;
+        try {
+            URI shadowUri = new URI(shadowBase.replaceAll("/+$", "") + buildTargetPath(request, proxyConfig));
+            java.net.http.HttpRequest.Builder requestBuilder = java.net.http.HttpRequest.newBuilder()
+                    .uri(shadowUri)
+                    .timeout(Duration.ofMillis(mirrorConfig.getTimeoutMillis()));
+            copyRequestHeaders(request, requestBuilder, proxyConfig, traceId);
+            setRequestBody(request, requestBuilder, traceId);
+            shadowRequest = requestBuilder.build();
+        } catch (Exception e) {
+            log.debug("[{}] Failed to build mirror request to {}: {}", traceId, shadowBase, e.getMessage());
+            mirrorDroppedCounter.increment();
+            return;
+        }
+        if (MirrorExecutor.getInstance().trySubmit(() -> sendMirror(shadowRequest, traceId))) {
+            mirrorSentCounter.increment();
+        } else {
+            mirrorDroppedCounter.increment();
+            log.debug("[{}] Mirror queue is full, dropped mirror request to {}", traceId, shadowRequest.uri());
+        }
+    }
+
+    private void sendMirror(java.net.http.HttpRequest shadowRequest, String traceId) {
+        long start = System.nanoTime();
+        String status;
+        try {
+            java.net.http.HttpResponse<Void> response = HttpClientManager.getClient(shadowRequest.uri())
+                    .send(shadowRequest, java.net.http.HttpResponse.BodyHandlers.discarding());
+            status = String.valueOf(response.statusCode());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            status = "error";
+        } catch (Exception e) {
+            log.debug("[{}] Mirror request to {} failed: {}", traceId, shadowRequest.uri(), e.getMessage());
+            status = "error";
+        }
+        mirrorLatencyTimers.computeIfAbsent(status, this::createMirrorLatencyTimer)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer createMirrorLatencyTimer(String status) {
+        return Timer.builder("reverse_proxy.mirror.latency")
+                .description("Records shadow upstream latency of mirrored requests")
+                .tags("route", proxyConfig.getId(), "status", status)
+                .publishPercentileHistogram()
+                .register(MetricsRegistry.currentMeterRegistry());
+    }
+
+    /**
+     * 在 awaitResponse 之外包一层重试：连接失败对任意方法重试，超时和指定状态码只对幂等方法重试。
+     * 每次重试前按指数退避加全抖动等待，并换到一个尚未尝试过的节点；每次尝试的超时和退避时间都不超过总时限的剩余部分，
+     * 总时限用完或没有可重试的机会时返回最后一次的结果
+     */
+    private ProxyAttempt awaitWithRetries(HttpRequest request, ProxyAttempt first, long deadlineNanos, String traceId) throws Exception {
+        RetryConfig retryConfig = proxyConfig.getRetry();
+        if (retryConfig == null || !retryConfig.isEnabled() || retryConfig.getMaxRetries() == 0) {
+            return awaitResponse(request, first, null, deadlineNanos, traceId);
+        }
+        String method = request.getMethod().name();
+        boolean idempotent = retryConfig.isMethodIdempotent(method);
+        List<Upstream> tried = new ArrayList<>(retryConfig.getMaxRetries() + 1);
+        ProxyAttempt attempt = first;
+        for (int retry = 0; ; retry++) {
+            tried.add(attempt.upstream);
+            ProxyAttempt completed;
+            try {
+                completed = awaitResponse(request, attempt, tried, deadlineNanos, traceId);
+            } catch (Exception e) {
+                if (!isRetryableFailure(e, idempotent)) {
+                    throw e;
+                }
+                ProxyAttempt next = retryAttempt(request, retryConfig, retry, tried, deadlineNanos, traceId, e.getMessage());
+                if (next == null) {
+                    throw e;
+                }
+                attempt = next;
+                continue;
+            }
+            int status = completed.future.join().statusCode();
+            if (!idempotent || !retryConfig.isRetryableStatus(status)) {
+                return completed;
+            }
+            ProxyAttempt next = retryAttempt(request, retryConfig, retry, tried, deadlineNanos, traceId, "status " + status);
+            if (next == null) {
+                return completed;
+            }
+            attempt = next;
+        }
+    }
+
+    private static boolean isRetryableFailure(Exception e, boolean idempotent) {
+        // 连接阶段失败时请求尚未到达上游，非幂等方法也可以安全重试
+        if (e instanceof HttpConnectTimeoutException || e instanceof ConnectException) {
+            return true;
+        }
+        return idempotent && e instanceof HttpTimeoutException;
+    }
+
+    /**
+     * 尝试发起第 retry + 1 次重试，次数、预算、总时限或可用节点不足时返回 null
+     */
+    private ProxyAttempt retryAttempt(HttpRequest request, RetryConfig retryConfig, int retry,
+                                      List<Upstream> tried, long deadlineNanos, String traceId, String reason) {
+        if (retry >= retryConfig.getMaxRetries()) {
+            return null;
+        }
+        if (!isBodyReplayable(request)) {
+            log.debug("[{}] Request body is not buffered, skip retrying", traceId);
+            return null;
+        }
+        if (remainingMillis(deadlineNanos) <= 0) {
+            log.debug("[{}] Proxy timeout exhausted, giving up after {}", traceId, reason);
+            return null;
+        }
+        if (!retryBudget.tryAcquire()) {
+            retryBudgetExhaustedCounter.increment();
+            log.debug("[{}] Retry budget exhausted, giving up after {}", traceId, reason);
+            return null;
+        }
+        long backoff = Math.min(backoffMillis(retryConfig, retry), remainingMillis(deadlineNanos));
+        if (backoff > 0) {
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+        if (remainingMillis(deadlineNanos) <= 0) {
+            log.debug("[{}] Proxy timeout exhausted during backoff, giving up after {}", traceId, reason);
+            return null;
+        }
+        Upstream upstream = chooseUpstream(request, traceId, tried);
+        if (upstream == null) {
+            log.debug("[{}] No other upstream available for retry after {}", traceId, reason);
+            return null;
+        }
+        try {
+            ProxyAttempt attempt = startAttempt(request, upstream, deadlineNanos, traceId);
+            retryCounter.increment();
+            log.info("[{}] {} Retrying request on upstream {} after {} (retry {}/{})",
+                    traceId, proxyConfig.getId(), attempt.uri, reason, retry + 1, retryConfig.getMaxRetries());
+            return attempt;
+        } catch (Exception e) {
+            log.warn("[{}] Failed to start retry to {}: {}", traceId, upstream.getUrl(), e.getMessage());
+            return null;
+        }
+    }
+
+    private static long backoffMillis(RetryConfig retryConfig, int retry) {
+        long base = retryConfig.getBackoffBaseMillis();
+        if (base <= 0) {
+            return 0L;
+        }
+        long cap = Math.min(retryConfig.getBackoffMaxMillis(), base << Math.min(retry, 20));
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    /**
+     * 请求体在 RequestBodyReaderProtocolHandler 中已完整读入内存，每次发送都会复制一份，
+     * 只有仍停留在原始输入流上的请求体无法重放
+     */
+    private static boolean isBodyReplayable(HttpRequest request) {
+        return request.getRawBodyInputStream() == null || request.getBody() != null;
+    }
+
+    /**
+     * 等待上游响应。开启对冲时，主请求在延迟阈值内未返回则向另一个节点发送对冲请求，先成功返回的一方胜出，另一方被取消。
+     * tried 不为空时对冲节点从中排除并加入其中，使后续重试不会再落到已尝试过的节点
+     */
+    private ProxyAttempt awaitResponse(HttpRequest request, ProxyAttempt primary, List<Upstream> tried,
+                                       long deadlineNanos, String traceId) throws Exception {
+        HedgeConfig hedgeConfig = proxyConfig.getHedge();
+        if (hedgeConfig == null || !hedgeConfig.isEnabled() || !hedgeConfig.isMethodAllowed(request.getMethod().name())) {
+            return await(primary);
+        }
+        try {
+            primary.future.get(hedgeDelayMillis(hedgeConfig), TimeUnit.MILLISECONDS);
+            return primary;
+        } catch (TimeoutException e) {
+            log.debug("[{}] Upstream {} did not respond within hedge delay", traceId, primary.uri);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+
+        if (!hedgeBudget.tryAcquire()) {
+            log.debug("[{}] Hedge budget exhausted, waiting for upstream {}", traceId, primary.uri);
+            return await(primary);
+        }
+        Upstream hedgeUpstream = chooseUpstream(request, traceId, tried != null ? tried : List.of(primary.upstream));
+        if (hedgeUpstream == null) {
+            return await(primary);
+        }
+        if (tried != null) {
+            tried.add(hedgeUpstream);
+        }
+        ProxyAttempt hedge;
+        try {
+            hedge = startAttempt(request, hedgeUpstream, deadlineNanos, traceId);
+        } catch (Exception e) {
+            log.warn("[{}] Failed to start hedged request to {}: {}", traceId, hedgeUpstream.getUrl(), e.getMessage());
+            return await(primary);
+        }
+        hedgeSentCounter.increment();
+        log.debug("[{}] Sent hedged request to upstream {}", traceId, hedge.uri);
+
+        CompletableFuture<ProxyAttempt> first = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger(0);
+        for (ProxyAttempt candidate : List.of(primary, hedge)) {
+            candidate.future.whenComplete((response, e) -> {
+                if (e == null) {
+                    first.complete(candidate);
+                } else if (failures.incrementAndGet() == 2) {
+                    first.completeExceptionally(e);
+                }
+            });
+        }
+        ProxyAttempt winner;
+        try {
+            winner = first.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+        ProxyAttempt loser = winner == primary ? hedge : primary;
+        loser.cancel();
+        if (winner == hedge) {
+            hedgeWonCounter.increment();
+        }
+        return winner;
+    }
+
+    private long hedgeDelayMillis(HedgeConfig hedgeConfig) {
+        if (hedgeConfig.isUseP95()) {
+            long p95 = latencyTracker.p95Nanos();
+            if (p95 > 0) {
+                return Math.max(1L, TimeUnit.NANOSECONDS.toMillis(p95));
+            }
+        }
+        return hedgeConfig.getDelayMillis();
+    }
+
+    private ProxyAttempt await(ProxyAttempt attempt) throws Exception {
+        try {
+            attempt.future.get();
+            return attempt;
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private static Exception unwrap(Throwable throwable) {
+        Throwable cause = throwable;
+        while ((cause instanceof ExecutionException || cause instanceof CompletionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause instanceof Exception ? (Exception) cause : new IOException(cause);
+    }
+
+    /**
+     * 构建并异步发送一次上游请求，请求结束后在 finishAttempt 中更新节点的统计信息
+     */
+    private ProxyAttempt startAttempt(HttpRequest request, Upstream upstream, long deadlineNanos, String traceId) throws Exception {
+        java.net.http.HttpRequest upstreamRequest;
+        try {
+            long timeoutMillis = Math.max(1L, Math.min(attemptTimeoutMillis(), remainingMillis(deadlineNanos)));
+            upstreamRequest = buildUpstreamRequest(request, upstream, timeoutMillis, traceId);
+        } catch (Exception e) {
+            // 请求还没有发出，归还 chooseUpstream 中获取的熔断许可
+            if (upstream != null) {
+                upstream.getCircuitBreaker().releasePermission();
+            }
+            throw e;
+        }
+        URI upstreamUri = upstreamRequest.uri();
+        HttpClient httpClient = HttpClientManager.getClient(upstreamUri);
+        upstream.onRequestStart();
+        ProxyAttempt attempt = new ProxyAttempt(upstream, upstreamUri, System.nanoTime());
+        try {
+            attempt.future = httpClient.sendAsync(upstreamRequest, java.net.http.HttpResponse.BodyHandlers.ofByteArray());
+        } catch (RuntimeException e) {
+            upstream.onRequestComplete(failurePenaltyNanos(), false);
+            throw e;
+        }
+        attempt.future.whenComplete((response, e) -> finishAttempt(attempt, response, e, traceId));
+        return attempt;
+    }
+
+    private java.net.http.HttpRequest buildUpstreamRequest(HttpRequest request, Upstream upstream, long timeoutMillis, String traceId) throws IOException {
+        URI upstreamUri = buildUpstreamUri(request, proxyConfig, upstream);
+        log.info("[{}] {} Forwarding {} request {} to upstream: {}", traceId, proxyConfig.getId(), request.getMethod(), request.getUri(), upstreamUri);
+
+        // 在设置请求体之前记录请求体状态
+        byte[] bodyBeforeProxy = request.getBody();
+        String contentLength = request.getHeaders().get("content-length");
+        log.debug("[{}] Request body status before proxying: body={}, bodyLength={}, contentLength={}",
+                traceId, bodyBeforeProxy != null ? "exists" : "null",
+                bodyBeforeProxy != null ? bodyBeforeProxy.length : 0, contentLength);
+
+        java.net.http.HttpRequest.Builder requestBuilder = java.net.http.HttpRequest.newBuilder()
+                .uri(upstreamUri)
+                .timeout(Duration.ofMillis(timeoutMillis));
+        copyRequestHeaders(request, requestBuilder, proxyConfig, traceId);
+        if (upstream.getHostHeader() != null) {
+            // 按地址展开的节点仍以原主机名访问上游
+            requestBuilder.setHeader("Host", upstream.getHostHeader());
+        }
+        setRequestBody(request, requestBuilder, traceId);
+        java.net.http.HttpRequest upstreamRequest = requestBuilder.build();
+
+        // 验证构建的请求
+        log.debug("[{}] Built upstream request: method={}, URI={}", traceId, upstreamRequest.method(), upstreamRequest.uri());
+        upstreamRequest.headers().map().forEach((name, values) -> {
+            if ("content-length".equalsIgnoreCase(name)) {
+                log.warn("[{}] WARNING: Content-Length header found in upstream request: {} = {}", traceId, name, values);
+            } else {
+                log.debug("[{}] Upstream request header: {} = {}", traceId, name, values);
+            }
+        });
+
+        // 记录 BodyPublisher 信息（用于调试）
+        if (log.isDebugEnabled() && upstreamRequest.bodyPublisher().isPresent()) {
+            log.debug("[{}] BodyPublisher is present for upstream request", traceId);
+            int requestBodyLength = request.getBody() != null ? request.getBody().length : 0;
+            log.debug("[{}] Request body length that should be sent: {} bytes", traceId, requestBodyLength);
+        } else {
+            log.debug("[{}] No BodyPublisher for upstream request", traceId);
+        }
+        return upstreamRequest;
+    }
+
+    private void finishAttempt(ProxyAttempt attempt, java.net.http.HttpResponse<byte[]> response, Throwable throwable, String traceId) {
+        Upstream upstream = attempt.upstream;
+        if (attempt.cancelled) {
+            // 被取消的对冲请求不计入节点的延迟与熔断统计
+            upstream.onRequestCancelled();
+            return;
+        }
+        long elapsedNanos = System.nanoTime() - attempt.startNanos;
+        if (throwable == null) {
+            long duration = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+            if (duration > Long.parseLong(LocalConfigLoader.getProperty("server.load_balance.slow_response_max_latency", "1500"))) {
+                log.warn("[{}] Slow response from upstream {}: {} ms", traceId, attempt.uri, duration);
+                decreaseUpstreamWeight(upstream);
+            }
+            boolean succeeded = response.statusCode() < 500;
+            if (succeeded) {
+                latencyTracker.record(elapsedNanos);
+                increaseUpstreamWeight(upstream);
+            } else {
+                decreaseUpstreamWeight(upstream);
+            }
+            upstream.onRequestComplete(elapsedNanos, succeeded);
+            return;
+        }
+
+        // 失败请求以超时时间作为惩罚延迟计入 Peak-EWMA
+        Exception cause = unwrap(throwable);
+        long rttNanos = elapsedNanos;
+        if (cause instanceof ConnectException) {
+            rttNanos = failurePenaltyNanos();
+            String message = cause.getMessage();
+            if (message != null && message.contains("Connection reset")) {
+                decreaseUpstreamWeight(upstream);
+            } else {
+                loadBalancer.reportFailure(attempt.uri.toString(), System.currentTimeMillis());
+                log.debug("[{}] Reported failure to load balancer for upstream {}", traceId, attempt.uri);
+            }
+        } else if (cause instanceof HttpTimeoutException) {
+            rttNanos = failurePenaltyNanos();
+            decreaseUpstreamWeight(upstream);
+        } else if (cause instanceof IOException) {
+            // 检查是否是 Content-Length 相关的错误
+            String ioErrorMessage = cause.getMessage();
+            if (ioErrorMessage != null && ioErrorMessage.contains("content-length")) {
+                Throwable ioCause = cause.getCause();
+                if (ioCause != null) {
+                    log.error("[{}] Caused by: {}", traceId, ioCause.getClass().getName());
+                    log.error("[{}] Cause message: {}", traceId, ioCause.getMessage());
+                    if (ioCause instanceof java.io.EOFException) {
+                        log.error("[{}] EOFException detected - connection may have been closed unexpectedly", traceId);
+                        decreaseUpstreamWeight(upstream);
+                    }
+                }
+            }
+        }
+        upstream.onRequestComplete(rttNanos, false);
+    }
+
+    /**
+     * 选中节点的熔断器处于半开状态且试探名额已用完时，排除该节点后重新选择；exclude 不为空时跳过其中的节点
+     */
+    private Upstream chooseUpstream(HttpRequest request, String traceId, Collection<Upstream> exclude) {
+        Collection<Upstream> skipped = exclude;
+        for (int attempt = 0; attempt < MAX_CHOOSE_ATTEMPTS; attempt++) {
+            Upstream upstream = loadBalancer.choose(request, skipped);
+            if (upstream == null) {
+                return null;
+            }
+            if (upstream.getCircuitBreaker().tryAcquirePermission()) {
+                return upstream;
+            }
+            log.debug("[{}] Circuit breaker of upstream {} denied the request, choosing again", traceId, upstream.getUrl());
+            List<Upstream> denied = new ArrayList<>(skipped == null ? 1 : skipped.size() + 1);
+            if (skipped != null) {
+                denied.addAll(skipped);
+            }
+            denied.add(upstream);
+            skipped = denied;
+        }
+        return null;
+    }
+
+    private long attemptTimeoutMillis() {
+        RetryConfig retryConfig = proxyConfig.getRetry();
+        if (retryConfig != null && retryConfig.isEnabled() && retryConfig.getPerTryTimeoutMillis() != null) {
+            return Math.max(1L, Math.min(retryConfig.getPerTryTimeoutMillis(), proxyConfig.getTimeout()));
+        }
+        return proxyConfig.getTimeout();
+    }
+
+    private static long remainingMillis(long deadlineNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+    }
+
+    private long failurePenaltyNanos() {
+        return Duration.ofMillis(proxyConfig.getTimeout()).toNanos();
+    }
+
+    private URI buildUpstreamUri(HttpRequest request, ReverseProxyConfig proxyConfig, Upstream selectedUpstream) throws ConnectException {
         if (selectedUpstream == null) {
             log.error("No healthy upstreams available for reverse proxy");
             throw new ConnectException("No healthy upstreams available");
         }
         String targetBase = selectedUpstream.getUrl();
+        String finalUri = targetBase.replaceAll("/+$", "") + buildTargetPath(request, proxyConfig);
+        try {
+            return new URI(finalUri);
+        } catch (Exception e) {
+            log.error("Invalid URI constructed: {}", finalUri, e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    private String buildTargetPath(HttpRequest request, ReverseProxyConfig proxyConfig) {
+        String path = request.getUri();
         String targetPath = path;
 
         if (proxyConfig.isStripPrefix()) {
@@ -226,16 +816,10 @@ public class ReverseProxyHandler implements RequestHandler {
                     targetPath = "/" + targetPath;
                 }
             } else {
-                log.warn("PathMatcher matched, but stripPrefix failed for path: {} and config path: {}", path, proxyConfig.getPath());
+                log.warn("Route matched, but stripPrefix failed for path: {} and config path: {}", path, proxyConfig.getPath());
             }
         }
-        String finalUri = targetBase.replaceAll("/+$", "") + targetPath;
-        try {
-            return new URI(finalUri);
-        } catch (Exception e) {
-            log.error("Invalid URI constructed: {}", finalUri, e);
-            throw new RuntimeException(e);
-        }
+        return targetPath;
     }
 
     private String getPrefixToStrip(String configPath) {
@@ -281,6 +865,12 @@ public class ReverseProxyHandler implements RequestHandler {
                 log.debug("[{}] Filtering out hop-by-hop header from addHeaders: {}", traceId, name);
             }
         });
+
+        // 代理层（如响应缓存的条件请求）追加的请求头，覆盖客户端的同名头部
+        Map<String, String> proxyHeaders = request.getAttribute().getProxyRequestHeaders();
+        if (proxyHeaders != null) {
+            proxyHeaders.forEach(requestBuilder::setHeader);
+        }
     }
 
     private void setRequestBody(HttpRequest request, java.net.http.HttpRequest.Builder requestBuilder, String traceId) throws IOException {
@@ -366,50 +956,81 @@ public class ReverseProxyHandler implements RequestHandler {
     }
 
     private void forwardResponse(HttpContext httpContext, java.net.http.HttpResponse<byte[]> upstreamResponse) {
-        if (upstreamResponse.statusCode() >= 400 && upstreamResponse.statusCode() < 600) {
-            log.warn("[{}] Upstream returned error status code: {}", httpContext.getTraceId(), upstreamResponse.statusCode());
+        forwardResponse(httpContext, upstreamResponse.statusCode(), upstreamResponse.headers(), upstreamResponse.body());
+    }
+
+    private void forwardResponse(HttpContext httpContext, int statusCode, HttpHeaders upstreamHeaders, byte[] body) {
+        if (statusCode >= 400 && statusCode < 600) {
+            log.warn("[{}] Upstream returned error status code: {}", httpContext.getTraceId(), statusCode);
             HttpResponse errorResponse = httpContext.getResponse().toBuilder()
                     .httpVersion(httpContext.getRequest().getHttpVersion())
-                    .httpStatus(HttpStatus.fromCode(upstreamResponse.statusCode()))
+                    .httpStatus(HttpStatus.fromCode(statusCode))
                     .contentType(ContentType.TEXT_HTML)
                     .build();
             httpContext.setResponse(errorResponse);
             ErrorPageRender.render(httpContext);
-            if (upstreamResponse.statusCode() >= 500) {
-                decreaseUpstreamWeight();
-            }
             return;
         }
         HttpResponse clientResponse = httpContext.getResponse();
         HttpResponse.Builder responseBuilder = clientResponse.toBuilder()
                 .httpVersion(clientResponse.getHttpVersion())
-                .httpStatus(HttpStatus.fromCode(upstreamResponse.statusCode()))
-                .body(upstreamResponse.body());
-        upstreamResponse.headers().map().forEach((name, values) -> {
+                .httpStatus(HttpStatus.fromCode(statusCode))
+                .body(body);
+        // Builder.headers 会整体替换头部，需要先汇总所有上游头部
+        Map<String, String> headers = new HashMap<>();
+        upstreamHeaders.map().forEach((name, values) -> {
             if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase())) {
                 if (values != null && values.size() == 1) {
-                    responseBuilder.headers(Map.of(name, values.getFirst()));
+                    headers.put(name, values.getFirst());
                 } else if (values != null && values.size() > 1) {
-                    responseBuilder.headers(Map.of(name, String.join(";", values)));
+                    headers.put(name, String.join(";", values));
                 }
             }
         });
+        responseBuilder.headers(headers);
         httpContext.setResponse(responseBuilder.build());
     }
 
-    private void increaseUpstreamWeight() {
+    private void increaseUpstreamWeight(Upstream selectedUpstream) {
         if (selectedUpstream != null) {
-            selectedUpstream.setEffectiveWeight(Math.min(selectedUpstream.getWeight(), selectedUpstream.getEffectiveWeight().get() + ReverseProxyHandler.WEIGHT_ADJUSTMENT_FACTOR));
+            selectedUpstream.setEffectiveWeight(Math.min(selectedUpstream.getMaxEffectiveWeight(), selectedUpstream.getEffectiveWeight().get() + ReverseProxyHandler.WEIGHT_ADJUSTMENT_FACTOR));
         }
     }
 
-    private void decreaseUpstreamWeight() {
+    private void decreaseUpstreamWeight(Upstream selectedUpstream) {
         if (selectedUpstream != null) {
             selectedUpstream.setEffectiveWeight(Math.max(0.0, selectedUpstream.getEffectiveWeight().get() - ReverseProxyHandler.WEIGHT_ADJUSTMENT_FACTOR));
         }
     }
 
+    private static final class ProxyAttempt {
+
+        private final Upstream upstream;
+
+        private final URI uri;
+
+        private final long startNanos;
+
+        private CompletableFuture<java.net.http.HttpResponse<byte[]>> future;
+
+        private volatile boolean cancelled = false;
+
+        private ProxyAttempt(Upstream upstream, URI uri, long startNanos) {
+            this.upstream = upstream;
+            this.uri = uri;
+            this.startNanos = startNanos;
+        }
+
+        private void cancel() {
+            if (!future.isDone()) {
+                cancelled = true;
+                future.cancel(true);
+            }
+        }
+    }
+
     public void shutdown() {
         healthChecker.stop();
+        loadBalancer.release();
     }
 }
\ No newline at end of file
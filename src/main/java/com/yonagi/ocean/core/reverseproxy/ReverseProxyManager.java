@@ -1,12 +1,17 @@
 package com.yonagi.ocean.core.reverseproxy;
 
+import com.yonagi.ocean.core.bulkhead.BulkheadRegistry;
+import com.yonagi.ocean.core.bulkhead.config.BulkheadConfig;
 import com.yonagi.ocean.core.loadbalance.config.Upstream;
+import com.yonagi.ocean.core.reverseproxy.cache.ProxyResponseCache;
 import com.yonagi.ocean.core.reverseproxy.config.ReverseProxyConfig;
 import com.yonagi.ocean.core.reverseproxy.config.source.ConfigManager;
+import com.yonagi.ocean.core.reverseproxy.route.ProxyRouteTable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.URI;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -28,6 +33,8 @@ public class ReverseProxyManager {
 
     private List<ReverseProxyConfig> reverseProxyConfigs;
 
+    private volatile ProxyRouteTable routeTable = ProxyRouteTable.EMPTY;
+
     private final Map<String, ReverseProxyHandler> handlerCache = new ConcurrentHashMap<>();
 
     private final AtomicLong versionCenter = new AtomicLong(0);
@@ -55,6 +62,7 @@ public class ReverseProxyManager {
             configManager.getCurrentConfigSnapshot().set(newConfigs);
             oldConfigs = reverseProxyConfigs;
             this.reverseProxyConfigs = newConfigs;
+            this.routeTable = ProxyRouteTable.compile(newConfigs);
 
             long newVersion = this.versionCenter.incrementAndGet();
             newConfigs.forEach(config -> {
@@ -76,7 +84,10 @@ public class ReverseProxyManager {
                 HttpClientManager.getClient(URI.create(addedUrl));
             }
 
-            this.handlerCache.clear();
+            shutdownHandlers();
+            reconcileBulkheads(newConfigs);
+            // 规则变化后同一 id 可能指向不同的上游，缓存的响应不再可靠
+            ProxyResponseCache.getInstance().invalidateAll();
             log.info("Reverse Proxy rules refreshed - Total rules: {}", reverseProxyConfigs.size());
         } catch (Exception e) {
             log.error("Failed to refresh Reverse Proxy rules: {}", e.getMessage(), e);
@@ -93,6 +104,10 @@ public class ReverseProxyManager {
                 .toList();
     }
 
+    public ProxyRouteTable getRouteTable() {
+        return routeTable;
+    }
+
     public ReverseProxyHandler getOrCreateHandler(ReverseProxyConfig config) {
         String key = config.getId();
         return handlerCache.computeIfAbsent(key, k -> new ReverseProxyHandler(config));
@@ -109,8 +124,27 @@ public class ReverseProxyManager {
                 .collect(java.util.stream.Collectors.toSet());
     }
 
+    private static void reconcileBulkheads(List<ReverseProxyConfig> configs) {
+        Map<String, BulkheadConfig> declared = new HashMap<>();
+        for (ReverseProxyConfig config : configs) {
+            BulkheadConfig bulkheadConfig = config.getBulkhead();
+            if (Boolean.TRUE.equals(config.isEnabled()) && bulkheadConfig != null && bulkheadConfig.isEnabled()) {
+                declared.put(BulkheadRegistry.proxyName(config.getId()), bulkheadConfig);
+            }
+        }
+        BulkheadRegistry.getInstance().reconcile(BulkheadRegistry.SOURCE_PROXY, declared);
+    }
+
     public void shutdownAll() {
-        handlerCache.forEach((k, v) -> v.shutdown());
-        handlerCache.clear();
+        shutdownHandlers();
+    }
+
+    private void shutdownHandlers() {
+        for (String key : handlerCache.keySet()) {
+            ReverseProxyHandler handler = handlerCache.remove(key);
+            if (handler != null) {
+                handler.shutdown();
+            }
+        }
     }
 }
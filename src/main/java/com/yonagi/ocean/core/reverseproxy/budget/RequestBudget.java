@@ -0,0 +1,56 @@
+package com.yonagi.ocean.core.reverseproxy.budget;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 按请求量计提的令牌预算：每个请求存入 ratioPercent% 个令牌，额外请求（对冲、重试）需消耗一个完整令牌，
+ * 从而把额外流量限制在正常流量的固定比例内
+ * @date 2025/11/19 09:30
+ */
+public class RequestBudget {
+
+    private static final long TOKEN = 1000L;
+
+    private final long depositPerRequest;
+
+    private final long maxTokens;
+
+    private final AtomicLong tokens;
+
+    public RequestBudget(double ratioPercent, int maxTokens) {
+        this.depositPerRequest = Math.max(0L, Math.round(ratioPercent * TOKEN / 100.0d));
+        this.maxTokens = Math.max(1, maxTokens) * TOKEN;
+        this.tokens = new AtomicLong(this.maxTokens);
+    }
+
+    public void onRequest() {
+        if (depositPerRequest == 0L) {
+            return;
+        }
+        long current;
+        do {
+            current = tokens.get();
+            if (current >= maxTokens) {
+                return;
+            }
+        } while (!tokens.compareAndSet(current, Math.min(maxTokens, current + depositPerRequest)));
+    }
+
+    public boolean tryAcquire() {
+        long current;
+        do {
+            current = tokens.get();
+            if (current < TOKEN) {
+                return false;
+            }
+        } while (!tokens.compareAndSet(current, current - TOKEN));
+        return true;
+    }
+
+    public double getAvailableTokens() {
+        return tokens.get() / (double) TOKEN;
+    }
+}
@@ -0,0 +1,128 @@
+package com.yonagi.ocean.core.reverseproxy.cache;
+
+import java.util.Locale;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 解析后的 Cache-Control 指令，只保留共享缓存关心的部分，数值指令缺省为 -1
+ * @date 2025/11/20 14:00
+ */
+public final class CacheControl {
+
+    public static final CacheControl EMPTY = new CacheControl();
+
+    private boolean noStore;
+
+    private boolean noCache;
+
+    private boolean privateResponse;
+
+    private boolean publicResponse;
+
+    private boolean mustRevalidate;
+
+    private long maxAgeSeconds = -1L;
+
+    private long sMaxAgeSeconds = -1L;
+
+    private long staleWhileRevalidateSeconds = -1L;
+
+    private long staleIfErrorSeconds = -1L;
+
+    private CacheControl() {
+    }
+
+    public static CacheControl parse(String value) {
+        if (value == null || value.isBlank()) {
+            return EMPTY;
+        }
+        CacheControl cc = new CacheControl();
+        for (String part : value.split(",")) {
+            String directive = part.trim();
+            if (directive.isEmpty()) {
+                continue;
+            }
+            String name = directive;
+            String argument = null;
+            int eq = directive.indexOf('=');
+            if (eq > 0) {
+                name = directive.substring(0, eq).trim();
+                argument = directive.substring(eq + 1).trim();
+                if (argument.length() >= 2 && argument.startsWith("\"") && argument.endsWith("\"")) {
+                    argument = argument.substring(1, argument.length() - 1);
+                }
+            }
+            switch (name.toLowerCase(Locale.ROOT)) {
+                case "no-store" -> cc.noStore = true;
+                // no-cache="field" 形式同样按整体 no-cache 处理
+                case "no-cache" -> cc.noCache = true;
+                case "private" -> cc.privateResponse = true;
+                case "public" -> cc.publicResponse = true;
+                case "must-revalidate", "proxy-revalidate" -> cc.mustRevalidate = true;
+                case "max-age" -> cc.maxAgeSeconds = parseSeconds(argument);
+                case "s-maxage" -> cc.sMaxAgeSeconds = parseSeconds(argument);
+                case "stale-while-revalidate" -> cc.staleWhileRevalidateSeconds = parseSeconds(argument);
+                case "stale-if-error" -> cc.staleIfErrorSeconds = parseSeconds(argument);
+                default -> {
+                }
+            }
+        }
+        return cc;
+    }
+
+    private static long parseSeconds(String argument) {
+        if (argument == null) {
+            return -1L;
+        }
+        try {
+            return Math.max(0L, Long.parseLong(argument));
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    public boolean isNoStore() {
+        return noStore;
+    }
+
+    public boolean isNoCache() {
+        return noCache;
+    }
+
+    public boolean isPrivate() {
+        return privateResponse;
+    }
+
+    public boolean isPublic() {
+        return publicResponse;
+    }
+
+    public boolean isMustRevalidate() {
+        return mustRevalidate;
+    }
+
+    public long getMaxAgeSeconds() {
+        return maxAgeSeconds;
+    }
+
+    public long getSMaxAgeSeconds() {
+        return sMaxAgeSeconds;
+    }
+
+    public long getStaleWhileRevalidateSeconds() {
+        return staleWhileRevalidateSeconds;
+    }
+
+    public long getStaleIfErrorSeconds() {
+        return staleIfErrorSeconds;
+    }
+
+    /**
+     * 共享缓存的新鲜期：s-maxage 优先于 max-age，都没有时返回 -1
+     */
+    public long sharedMaxAgeSeconds() {
+        return sMaxAgeSeconds >= 0 ? sMaxAgeSeconds : maxAgeSeconds;
+    }
+}
@@ -0,0 +1,238 @@
+package com.yonagi.ocean.core.reverseproxy.cache;
+
+import com.yonagi.ocean.core.protocol.HttpResponse;
+import com.yonagi.ocean.core.protocol.enums.ContentType;
+import com.yonagi.ocean.core.protocol.enums.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 缓存中的一条上游响应。新鲜期、校验器和 Vary 字段在写入时从响应头解析一次，之后只读
+ * @date 2025/11/20 14:20
+ */
+public final class CachedResponse {
+
+    // 键、对象头等固定开销的估算值
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+
+    private final HttpStatus status;
+
+    private final ContentType contentType;
+
+    private final Map<String, String> headers;
+
+    private final byte[] body;
+
+    private final long storedAtMillis;
+
+    private final long initialAgeMillis;
+
+    private final long freshnessMillis;
+
+    private final long staleWhileRevalidateMillis;
+
+    private final long staleIfErrorMillis;
+
+    private final CacheControl cacheControl;
+
+    private final String etag;
+
+    private final String lastModified;
+
+    private final List<String> vary;
+
+    private CachedResponse(HttpStatus status, ContentType contentType, Map<String, String> headers, byte[] body,
+                           long storedAtMillis, long initialAgeMillis) {
+        this.status = status;
+        this.contentType = contentType;
+        this.headers = Collections.unmodifiableMap(headers);
+        this.body = body;
+        this.storedAtMillis = storedAtMillis;
+        this.cacheControl = CacheControl.parse(header(headers, "Cache-Control"));
+        this.initialAgeMillis = initialAgeMillis;
+        long maxAge = cacheControl.sharedMaxAgeSeconds();
+        this.freshnessMillis = cacheControl.isNoCache() || maxAge < 0 ? 0L : maxAge * 1000L;
+        // must-revalidate 禁止在过期后继续使用旧响应
+        boolean mayServeStale = !cacheControl.isMustRevalidate() && !cacheControl.isNoCache();
+        this.staleWhileRevalidateMillis = mayServeStale ? Math.max(0L, cacheControl.getStaleWhileRevalidateSeconds()) * 1000L : 0L;
+        this.staleIfErrorMillis = mayServeStale ? Math.max(0L, cacheControl.getStaleIfErrorSeconds()) * 1000L : 0L;
+        this.etag = header(headers, "ETag");
+        this.lastModified = header(headers, "Last-Modified");
+        this.vary = parseVary(header(headers, "Vary"));
+    }
+
+    public static CachedResponse from(HttpResponse response, long nowMillis) {
+        Map<String, String> headers = response.getHeaders() != null ? new HashMap<>(response.getHeaders()) : new HashMap<>();
+        // 上游给出的 Age 计入初始年龄，返回时由缓存重新计算 Age
+        long initialAge = parseAgeMillis(header(headers, "Age"));
+        headers.keySet().removeIf(name -> name.equalsIgnoreCase("Age"));
+        return new CachedResponse(response.getHttpStatus(), response.getContentType(), headers,
+                response.getBody() != null ? response.getBody() : new byte[0], nowMillis, initialAge);
+    }
+
+    /**
+     * 上游以 304 确认缓存仍然有效时，用新的响应头覆盖旧的同名头部并重新开始计算新鲜期
+     */
+    public CachedResponse revalidated(Map<String, String> notModifiedHeaders, long nowMillis) {
+        Map<String, String> merged = new HashMap<>(headers);
+        if (notModifiedHeaders != null) {
+            notModifiedHeaders.forEach((name, value) -> {
+                if (name.equalsIgnoreCase("Content-Length") || name.equalsIgnoreCase("Content-Type")) {
+                    return;
+                }
+                merged.keySet().removeIf(existing -> existing.equalsIgnoreCase(name));
+                merged.put(name, value);
+            });
+        }
+        long initialAge = parseAgeMillis(header(merged, "Age"));
+        merged.keySet().removeIf(name -> name.equalsIgnoreCase("Age"));
+        return new CachedResponse(status, contentType, merged, body, nowMillis, initialAge);
+    }
+
+    public static String header(Map<String, String> headers, String name) {
+        if (headers == null) {
+            return null;
+        }
+        String value = headers.get(name);
+        if (value != null) {
+            return value;
+        }
+        for (Map.Entry<String, String> entry : headers.entrySet()) {
+            if (name.equalsIgnoreCase(entry.getKey())) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    static List<String> parseVary(String value) {
+        if (value == null || value.isBlank()) {
+            return List.of();
+        }
+        List<String> names = new ArrayList<>();
+        for (String part : value.split(",")) {
+            String name = part.trim().toLowerCase(Locale.ROOT);
+            if (!name.isEmpty()) {
+                names.add(name);
+            }
+        }
+        return List.copyOf(names);
+    }
+
+    private static long parseAgeMillis(String value) {
+        if (value == null) {
+            return 0L;
+        }
+        try {
+            return Math.max(0L, Long.parseLong(value.trim())) * 1000L;
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    public long currentAgeMillis(long nowMillis) {
+        return initialAgeMillis + Math.max(0L, nowMillis - storedAtMillis);
+    }
+
+    public boolean isFresh(long nowMillis) {
+        return currentAgeMillis(nowMillis) < freshnessMillis;
+    }
+
+    /**
+     * 剩余新鲜时间，已过期时为 0
+     */
+    public long remainingFreshMillis(long nowMillis) {
+        return Math.max(0L, freshnessMillis - currentAgeMillis(nowMillis));
+    }
+
+    /**
+     * 已过期但仍处于 stale-while-revalidate 窗口内，可以先返回旧响应再后台刷新
+     */
+    public boolean isWithinStaleWhileRevalidate(long nowMillis) {
+        return currentAgeMillis(nowMillis) < freshnessMillis + staleWhileRevalidateMillis;
+    }
+
+    /**
+     * 处于 stale-if-error 窗口内，上游失败时可以用旧响应代替错误
+     */
+    public boolean isWithinStaleIfError(long nowMillis) {
+        return currentAgeMillis(nowMillis) < freshnessMillis + staleIfErrorMillis;
+    }
+
+    /**
+     * 过期后仍可能被使用的最长时间
+     */
+    public long staleWindowMillis() {
+        return Math.max(staleWhileRevalidateMillis, staleIfErrorMillis);
+    }
+
+    public long getFreshnessMillis() {
+        return freshnessMillis;
+    }
+
+    public boolean hasValidators() {
+        return etag != null || lastModified != null;
+    }
+
+    /**
+     * 向上游发起条件请求时携带的校验头
+     */
+    public Map<String, String> conditionalHeaders() {
+        Map<String, String> conditional = new HashMap<>(2);
+        if (etag != null) {
+            conditional.put("If-None-Match", etag);
+        }
+        if (lastModified != null) {
+            conditional.put("If-Modified-Since", lastModified);
+        }
+        return conditional;
+    }
+
+    public int weight() {
+        long size = ENTRY_OVERHEAD_BYTES + body.length;
+        for (Map.Entry<String, String> entry : headers.entrySet()) {
+            size += entry.getKey().length() + (entry.getValue() != null ? entry.getValue().length() : 0);
+        }
+        return (int) Math.min(Integer.MAX_VALUE, size);
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    public ContentType getContentType() {
+        return contentType;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public CacheControl getCacheControl() {
+        return cacheControl;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    public List<String> getVary() {
+        return vary;
+    }
+}
@@ -0,0 +1,461 @@
+package com.yonagi.ocean.core.reverseproxy.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.yonagi.ocean.admin.metrics.MetricsRegistry;
+import com.yonagi.ocean.core.context.HttpContext;
+import com.yonagi.ocean.core.protocol.HttpRequest;
+import com.yonagi.ocean.core.protocol.HttpResponse;
+import com.yonagi.ocean.core.protocol.enums.ContentType;
+import com.yonagi.ocean.core.protocol.enums.HttpStatus;
+import com.yonagi.ocean.core.reverseproxy.ReverseProxyHandler;
+import com.yonagi.ocean.core.reverseproxy.config.ReverseProxyConfig;
+import com.yonagi.ocean.core.reverseproxy.tunnel.UpgradeTunnel;
+import com.yonagi.ocean.utils.LocalConfigLoader;
+import io.micrometer.core.instrument.Counter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 所有反向代理规则共享的 GET 响应缓存。
+ * 缓存键由规则 id、方法和规范化后的 URI 组成，上游声明了 Vary 时再拼接对应的请求头；
+ * 按 s-maxage / max-age 判断新鲜度，过期但带有 ETag / Last-Modified 的条目会向上游发起条件请求重新验证；
+ * 按内存占用淘汰，命中时不会经过负载均衡器。
+ * 上游声明了 stale-while-revalidate 时，窗口内先返回旧响应，同一个键只会有一个后台刷新任务；
+ * 声明了 stale-if-error 时，上游返回 5xx（包括没有可用节点时的 503）会改为返回旧响应。
+ * 未命中时同一键上的并发请求由 RequestCoalescer 合并为一次上游请求
+ * @date 2025/11/20 14:40
+ */
+public class ProxyResponseCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ProxyResponseCache.class);
+
+    private static final ProxyResponseCache INSTANCE = new ProxyResponseCache();
+
+    private static final String REQUEST_COUNTER_NAME = "reverse_proxy.cache.requests";
+
+    private static final Set<Integer> CACHEABLE_STATUS = Set.of(200, 203, 204, 300, 301, 308);
+
+    private static final int MAX_VARY_RESOURCES = 10_000;
+
+    private final boolean enabled;
+
+    private final long maxObjectBytes;
+
+    private final long staleRetentionMillis;
+
+    private final Cache<String, CachedResponse> responses;
+
+    // 资源键 -> 上游声明的 Vary 请求头
+    private final Cache<String, List<String>> varyByResource;
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    // 正在后台刷新的缓存键
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    private final ThreadPoolExecutor refreshExecutor;
+
+    // 关闭请求合并时为 null
+    private final RequestCoalescer coalescer;
+
+    private ProxyResponseCache() {
+        this.enabled = Boolean.parseBoolean(LocalConfigLoader.getProperty("server.reverse_proxy.cache.enabled", "false"));
+        long maxMemoryMb = Math.max(1L, Long.parseLong(LocalConfigLoader.getProperty("server.reverse_proxy.cache.max_memory_mb", "64")));
+        this.maxObjectBytes = Math.max(1L, Long.parseLong(LocalConfigLoader.getProperty("server.reverse_proxy.cache.max_object_kb", "1024"))) * 1024L;
+        this.staleRetentionMillis = Math.max(0L, Long.parseLong(LocalConfigLoader.getProperty("server.reverse_proxy.cache.stale_retention_millis", "60000")));
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maxMemoryMb * 1024L * 1024L)
+                .weigher((String key, CachedResponse value) -> value.weight())
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse value, long currentTime) {
+                        return lifetimeNanos(value);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResponse value, long currentTime, long currentDuration) {
+                        return lifetimeNanos(value);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedResponse value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        int refreshThreads = Math.max(1, Integer.parseInt(LocalConfigLoader.getProperty("server.reverse_proxy.cache.refresh_threads", "2")));
+        int refreshQueueSize = Math.max(1, Integer.parseInt(LocalConfigLoader.getProperty("server.reverse_proxy.cache.refresh_queue_size", "64")));
+        AtomicInteger threadIndex = new AtomicInteger(0);
+        this.refreshExecutor = new ThreadPoolExecutor(
+                refreshThreads,
+                refreshThreads,
+                60L,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(refreshQueueSize),
+                r -> {
+                    Thread t = new Thread(r, "ProxyCache-Refresh-" + threadIndex.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.refreshExecutor.allowCoreThreadTimeOut(true);
+        this.varyByResource = Caffeine.newBuilder()
+                .maximumSize(MAX_VARY_RESOURCES)
+                .expireAfterAccess(1, TimeUnit.HOURS)
+                .build();
+        boolean coalescing = Boolean.parseBoolean(LocalConfigLoader.getProperty("server.reverse_proxy.cache.coalescing.enabled", "true"));
+        this.coalescer = coalescing ? new RequestCoalescer(
+                Math.max(1, Integer.parseInt(LocalConfigLoader.getProperty("server.reverse_proxy.cache.coalescing.max_waiters", "100"))),
+                Math.max(1L, Long.parseLong(LocalConfigLoader.getProperty("server.reverse_proxy.cache.coalescing.timeout_millis", "5000")))) : null;
+        if (enabled) {
+            log.info("Reverse proxy response cache enabled, max memory {} MB, max object {} KB", maxMemoryMb, maxObjectBytes / 1024L);
+        }
+    }
+
+    public static ProxyResponseCache getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 新鲜期结束后，条目保留到 stale 窗口结束；带校验器的条目至少再保留 stale_retention_millis 用于条件请求
+     */
+    private long lifetimeNanos(CachedResponse value) {
+        long staleMillis = value.staleWindowMillis();
+        if (value.hasValidators()) {
+            staleMillis = Math.max(staleMillis, staleRetentionMillis);
+        }
+        long millis = value.getFreshnessMillis() - value.currentAgeMillis(System.currentTimeMillis()) + staleMillis;
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(1L, millis));
+    }
+
+    public void handle(HttpContext httpContext, ReverseProxyConfig proxyConfig, ReverseProxyHandler handler) throws IOException {
+        HttpRequest request = httpContext.getRequest();
+        if (!isCacheableRequest(request)) {
+            handler.handle(httpContext);
+            return;
+        }
+        String resourceKey = resourceKey(proxyConfig, request);
+        boolean forceRevalidate = CacheControl.parse(request.getHeaders().get("cache-control")).isNoCache();
+        long now = System.currentTimeMillis();
+        CachedResponse cached = lookup(resourceKey, request);
+        if (cached != null && !forceRevalidate) {
+            if (cached.isFresh(now)) {
+                count(proxyConfig, "hit");
+                log.debug("[{}] Proxy cache hit for {}", httpContext.getTraceId(), resourceKey);
+                serve(httpContext, cached, now);
+                return;
+            }
+            if (cached.isWithinStaleWhileRevalidate(now)) {
+                count(proxyConfig, "stale");
+                serve(httpContext, cached, now);
+                scheduleRefresh(httpContext, handler, resourceKey, cached);
+                return;
+            }
+        }
+
+        if (coalescer == null) {
+            fetch(httpContext, proxyConfig, handler, resourceKey, cached);
+            return;
+        }
+        String flightKey = lookupKey(resourceKey, request);
+        RequestCoalescer.Flight flight = coalescer.lead(flightKey, request);
+        if (flight == null) {
+            CachedResponse shared = coalescer.follow(flightKey, request);
+            if (shared != null) {
+                count(proxyConfig, "collapsed");
+                serve(httpContext, shared, System.currentTimeMillis());
+                return;
+            }
+            // 无法复用时独立访问上游，不再作为 leader
+            fetch(httpContext, proxyConfig, handler, resourceKey, cached);
+            return;
+        }
+        CachedResponse shareable = null;
+        try {
+            shareable = fetch(httpContext, proxyConfig, handler, resourceKey, cached);
+        } finally {
+            coalescer.complete(flightKey, flight, shareable);
+        }
+    }
+
+    /**
+     * 访问上游（有旧条目时带上条件请求头），并根据结果更新缓存、处理 304 与 stale-if-error。
+     * 返回可以交给合并等待者的新鲜条目：只有会被写入缓存的上游响应才能共享，本地生成的错误页和过期条目都不共享
+     */
+    private CachedResponse fetch(HttpContext httpContext, ReverseProxyConfig proxyConfig, ReverseProxyHandler handler,
+                       String resourceKey, CachedResponse cached) throws IOException {
+        HttpRequest request = httpContext.getRequest();
+        Map<String, String> conditional = cached != null && cached.hasValidators() ? cached.conditionalHeaders() : null;
+        request.getAttribute().setProxyRequestHeaders(conditional);
+        try {
+            handler.handle(httpContext);
+        } finally {
+            request.getAttribute().setProxyRequestHeaders(null);
+        }
+
+        HttpResponse response = httpContext.getResponse();
+        long now = System.currentTimeMillis();
+        CachedResponse revalidated = revalidate(resourceKey, request, cached, response, now);
+        if (revalidated != null) {
+            count(proxyConfig, "revalidated");
+            log.debug("[{}] Proxy cache entry revalidated for {}", httpContext.getTraceId(), resourceKey);
+            serve(httpContext, revalidated, now);
+            return revalidated.isFresh(now) ? revalidated : null;
+        }
+        if (cached != null && isServerError(response) && cached.isWithinStaleIfError(now)) {
+            count(proxyConfig, "stale_if_error");
+            log.warn("[{}] Upstream failed with {}, serving stale response for {}",
+                    httpContext.getTraceId(), response.getHttpStatus().getCode(), resourceKey);
+            serve(httpContext, cached, now);
+            return null;
+        }
+        count(proxyConfig, "miss");
+        CachedResponse stored = storeIfStorable(resourceKey, request, response, now);
+        return stored != null && stored.isFresh(now) ? stored : null;
+    }
+
+    /**
+     * 根据上游响应更新缓存。上游以 304 确认旧条目有效时返回刷新后的条目，其余情况返回 null
+     */
+    private CachedResponse update(String resourceKey, HttpRequest request, CachedResponse cached, HttpResponse response, long now) {
+        CachedResponse refreshed = revalidate(resourceKey, request, cached, response, now);
+        if (refreshed != null) {
+            return refreshed;
+        }
+        storeIfStorable(resourceKey, request, response, now);
+        return null;
+    }
+
+    private CachedResponse revalidate(String resourceKey, HttpRequest request, CachedResponse cached, HttpResponse response, long now) {
+        if (cached != null && cached.hasValidators() && response.getHttpStatus() == HttpStatus.NOT_MODIFIED) {
+            CachedResponse refreshed = cached.revalidated(response.getHeaders(), now);
+            store(resourceKey, request, refreshed);
+            return refreshed;
+        }
+        return null;
+    }
+
+    private CachedResponse storeIfStorable(String resourceKey, HttpRequest request, HttpResponse response, long now) {
+        CachedResponse entry = toStorable(response, now);
+        if (entry != null) {
+            store(resourceKey, request, entry);
+        }
+        return entry;
+    }
+
+    private static boolean isServerError(HttpResponse response) {
+        return response.getHttpStatus() != null && response.getHttpStatus().getCode() >= 500;
+    }
+
+    /**
+     * 在后台用请求的副本向上游刷新缓存，响应写入空输出流，不影响当前客户端
+     */
+    private void scheduleRefresh(HttpContext httpContext, ReverseProxyHandler handler, String resourceKey, CachedResponse cached) {
+        if (!refreshing.add(resourceKey)) {
+            return;
+        }
+        HttpRequest origin = httpContext.getRequest();
+        HttpRequest request = origin.toBuilder()
+                .headers(new HashMap<>(origin.getHeaders()))
+                .build();
+        request.getAttribute().setClientIp(origin.getAttribute().getClientIp());
+        request.getAttribute().setClientAddress(origin.getAttribute().getClientAddress());
+        request.getAttribute().setSsl(origin.getAttribute().getSsl());
+        request.getAttribute().setSessionId(origin.getAttribute().getSessionId());
+        request.getAttribute().setProxyRequestHeaders(cached.hasValidators() ? cached.conditionalHeaders() : null);
+        HttpResponse initialResponse = new HttpResponse.Builder()
+                .httpVersion(request.getHttpVersion())
+                .httpStatus(HttpStatus.OK)
+                .contentType(ContentType.TEXT_PLAIN)
+                .build();
+        HttpContext refreshContext = new HttpContext(request, initialResponse, OutputStream.nullOutputStream(),
+                false, httpContext.getConnectionContext());
+        refreshContext.setTraceId(httpContext.getTraceId());
+        refreshContext.setSessionId(httpContext.getSessionId());
+        try {
+            refreshExecutor.execute(() -> refresh(refreshContext, handler, resourceKey, cached));
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(resourceKey);
+            log.debug("[{}] Proxy cache refresh queue is full, skip refreshing {}", httpContext.getTraceId(), resourceKey);
+        }
+    }
+
+    private void refresh(HttpContext refreshContext, ReverseProxyHandler handler, String resourceKey, CachedResponse cached) {
+        try {
+            handler.handle(refreshContext);
+            update(resourceKey, refreshContext.getRequest(), cached, refreshContext.getResponse(), System.currentTimeMillis());
+            log.debug("[{}] Proxy cache entry refreshed in background for {}", refreshContext.getTraceId(), resourceKey);
+        } catch (Exception e) {
+            log.warn("[{}] Background refresh of {} failed: {}", refreshContext.getTraceId(), resourceKey, e.getMessage());
+        } finally {
+            refreshing.remove(resourceKey);
+        }
+    }
+
+    private boolean isCacheableRequest(HttpRequest request) {
+        if (!"GET".equals(request.getMethod().name())) {
+            return false;
+        }
+        // Upgrade 请求会接管连接，既不能缓存也不能合并
+        if (UpgradeTunnel.isUpgradeRequest(request)) {
+            return false;
+        }
+        Map<String, String> headers = request.getHeaders();
+        // 共享缓存不保存携带凭据的请求的响应
+        if (headers.containsKey("authorization")) {
+            return false;
+        }
+        return !CacheControl.parse(headers.get("cache-control")).isNoStore();
+    }
+
+    private CachedResponse toStorable(HttpResponse response, long now) {
+        if (response.getHttpStatus() == null || !CACHEABLE_STATUS.contains(response.getHttpStatus().getCode())) {
+            return null;
+        }
+        Map<String, String> headers = response.getHeaders();
+        if (CachedResponse.header(headers, "Set-Cookie") != null) {
+            return null;
+        }
+        CacheControl cc = CacheControl.parse(CachedResponse.header(headers, "Cache-Control"));
+        if (cc.isNoStore() || cc.isPrivate()) {
+            return null;
+        }
+        // 只缓存上游明确声明了缓存策略的响应，不做启发式缓存
+        if (cc.sharedMaxAgeSeconds() < 0 && !cc.isNoCache()) {
+            return null;
+        }
+        if (response.getBody() != null && response.getBody().length > maxObjectBytes) {
+            return null;
+        }
+        CachedResponse entry = CachedResponse.from(response, now);
+        if (entry.getVary().contains("*")) {
+            return null;
+        }
+        if (!entry.isFresh(now) && !entry.hasValidators() && entry.staleWindowMillis() == 0L) {
+            return null;
+        }
+        return entry;
+    }
+
+    private CachedResponse lookup(String resourceKey, HttpRequest request) {
+        return responses.getIfPresent(lookupKey(resourceKey, request));
+    }
+
+    private String lookupKey(String resourceKey, HttpRequest request) {
+        List<String> vary = varyByResource.getIfPresent(resourceKey);
+        return vary == null ? resourceKey : variantKey(resourceKey, vary, request);
+    }
+
+    private void store(String resourceKey, HttpRequest request, CachedResponse entry) {
+        List<String> vary = entry.getVary();
+        if (vary.isEmpty()) {
+            varyByResource.invalidate(resourceKey);
+            responses.put(resourceKey, entry);
+        } else {
+            varyByResource.put(resourceKey, vary);
+            responses.put(variantKey(resourceKey, vary, request), entry);
+        }
+    }
+
+    private static String resourceKey(ReverseProxyConfig proxyConfig, HttpRequest request) {
+        StringBuilder key = new StringBuilder(64)
+                .append(proxyConfig.getId()).append(' ')
+                .append(request.getMethod().name()).append(' ')
+                .append(request.getUri());
+        Map<String, String> queryParams = request.getQueryParams();
+        if (queryParams != null && !queryParams.isEmpty()) {
+            // 查询参数按名称排序，使参数顺序不同的同一资源共享缓存
+            char separator = '?';
+            for (Map.Entry<String, String> param : new TreeMap<>(queryParams).entrySet()) {
+                key.append(separator).append(param.getKey()).append('=').append(param.getValue());
+                separator = '&';
+            }
+        }
+        return key.toString();
+    }
+
+    private static String variantKey(String resourceKey, List<String> vary, HttpRequest request) {
+        StringBuilder key = new StringBuilder(resourceKey);
+        for (String name : vary) {
+            String value = request.getHeaders().get(name);
+            key.append('\n').append(name).append('=').append(value != null ? value.trim() : "");
+        }
+        return key.toString();
+    }
+
+    private void serve(HttpContext httpContext, CachedResponse entry, long now) {
+        HttpRequest request = httpContext.getRequest();
+        Map<String, String> headers = new HashMap<>(entry.getHeaders());
+        headers.put("Age", String.valueOf(entry.currentAgeMillis(now) / 1000L));
+        boolean notModified = matchesClientValidator(request, entry);
+        HttpResponse response = httpContext.getResponse().toBuilder()
+                .httpVersion(request.getHttpVersion())
+                .httpStatus(notModified ? HttpStatus.NOT_MODIFIED : entry.getStatus())
+                .contentType(entry.getContentType())
+                .headers(headers)
+                .body(notModified ? null : entry.getBody())
+                .build();
+        httpContext.setResponse(response);
+    }
+
+    private static boolean matchesClientValidator(HttpRequest request, CachedResponse entry) {
+        String ifNoneMatch = request.getHeaders().get("if-none-match");
+        if (ifNoneMatch == null || entry.getEtag() == null) {
+            return false;
+        }
+        String etag = stripWeak(entry.getEtag());
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if ("*".equals(tag) || stripWeak(tag).equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private void count(ReverseProxyConfig proxyConfig, String result) {
+        String route = proxyConfig.getId();
+        counters.computeIfAbsent(route + '|' + result, k -> Counter.builder(REQUEST_COUNTER_NAME)
+                .description("Counts proxied GET requests by response cache result")
+                .tags("route", route, "result", result)
+                .register(MetricsRegistry.currentMeterRegistry()))
+                .increment();
+    }
+
+    public void invalidateAll() {
+        responses.invalidateAll();
+        varyByResource.invalidateAll();
+    }
+
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,108 @@
+package com.yonagi.ocean.core.reverseproxy.cache;
+
+import com.yonagi.ocean.core.protocol.HttpRequest;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 合并同一缓存键上并发的上游请求：第一个请求成为 leader 访问上游，其余请求等待并复用 leader 得到的缓存条目。
+ * leader 只交出会被写入共享缓存的新鲜条目（可缓存状态码、明确的共享新鲜期、无 Set-Cookie/private/no-store），
+ * 本地生成的错误页等其余响应一律不共享。等待者超过上限、等待超时、leader 没有可共享的条目、Vary 取值不同，
+ * 或请求携带 Cookie 而响应没有用 public/s-maxage 明确声明可共享时，等待者各自访问上游
+ * @date 2025/11/20 17:10
+ */
+public class RequestCoalescer {
+
+    private final int maxWaiters;
+
+    private final long timeoutMillis;
+
+    private final Map<String, Flight> flights = new ConcurrentHashMap<>();
+
+    public RequestCoalescer(int maxWaiters, long timeoutMillis) {
+        this.maxWaiters = maxWaiters;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * 尝试成为该键的 leader，已有进行中的请求时返回 null
+     */
+    public Flight lead(String key, HttpRequest request) {
+        Flight flight = new Flight(request);
+        return flights.putIfAbsent(key, flight) == null ? flight : null;
+    }
+
+    /**
+     * 等待进行中的请求并返回可以共享的缓存条目，无法复用时返回 null
+     */
+    public CachedResponse follow(String key, HttpRequest request) {
+        Flight flight = flights.get(key);
+        if (flight == null) {
+            return null;
+        }
+        if (flight.waiters.incrementAndGet() > maxWaiters) {
+            flight.waiters.decrementAndGet();
+            return null;
+        }
+        CachedResponse entry;
+        try {
+            entry = flight.result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            return null;
+        } finally {
+            flight.waiters.decrementAndGet();
+        }
+        return isShareable(entry, flight.leaderRequest, request) ? entry : null;
+    }
+
+    /**
+     * leader 结束后调用，entry 为 null 表示 leader 失败或没有可以共享的条目
+     */
+    public void complete(String key, Flight flight, CachedResponse entry) {
+        flights.remove(key, flight);
+        flight.result.complete(entry);
+    }
+
+    private static boolean isShareable(CachedResponse entry, HttpRequest leader, HttpRequest follower) {
+        if (entry == null) {
+            return false;
+        }
+        CacheControl cc = CacheControl.parse(CachedResponse.header(entry.getHeaders(), "Cache-Control"));
+        // 携带 Cookie 的请求可能得到按用户生成的页面，只有上游明确允许共享缓存时才复用
+        if ((leader.getHeaders().containsKey("cookie") || follower.getHeaders().containsKey("cookie"))
+                && !cc.isPublic() && cc.sharedMaxAgeSeconds() < 0) {
+            return false;
+        }
+        // 键中的 Vary 取值可能还未学习到，以 leader 响应实际声明的 Vary 为准再比较一次
+        for (String name : entry.getVary()) {
+            if ("*".equals(name) || !Objects.equals(leader.getHeaders().get(name), follower.getHeaders().get(name))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static final class Flight {
+
+        private final HttpRequest leaderRequest;
+
+        private final CompletableFuture<CachedResponse> result = new CompletableFuture<>();
+
+        private final AtomicInteger waiters = new AtomicInteger(0);
+
+        private Flight(HttpRequest leaderRequest) {
+            this.leaderRequest = leaderRequest;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.yonagi.ocean.core.reverseproxy.config;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 对冲请求配置：请求在 delayMillis（或观测到的 p95）内未返回时，向另一个节点发送同样的请求。
+ * 对冲会让同一请求在上游执行两次，除非显式开启 allowNonIdempotent，methods 中的非幂等方法会被忽略
+ * @date 2025/11/19 10:00
+ */
+public final class HedgeConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(HedgeConfig.class);
+
+    private static final List<String> DEFAULT_METHODS = List.of("GET", "HEAD", "OPTIONS");
+
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "OPTIONS", "PUT", "DELETE", "TRACE");
+
+    private final Boolean enabled;
+
+    private final Long delayMillis;
+
+    private final Boolean useP95;
+
+    private final Double maxHedgePercent;
+
+    private final List<String> methods;
+
+    private final Boolean allowNonIdempotent;
+
+    // 运行时状态：大写的方法名集合
+    private final transient Set<String> methodSet;
+
+    @JsonCreator
+    public HedgeConfig(@JsonProperty("enabled") Boolean enabled,
+                       @JsonProperty("delayMillis") Long delayMillis,
+                       @JsonProperty("useP95") Boolean useP95,
+                       @JsonProperty("maxHedgePercent") Double maxHedgePercent,
+                       @JsonProperty("methods") List<String> methods,
+                       @JsonProperty("allowNonIdempotent") Boolean allowNonIdempotent) {
+        this.enabled = enabled != null && enabled;
+        this.delayMillis = delayMillis != null ? delayMillis : 100L;
+        this.useP95 = useP95 != null && useP95;
+        this.maxHedgePercent = maxHedgePercent != null ? maxHedgePercent : 10.0d;
+        this.methods = methods != null && !methods.isEmpty() ? List.copyOf(methods) : DEFAULT_METHODS;
+        this.allowNonIdempotent = allowNonIdempotent != null && allowNonIdempotent;
+        this.methodSet = this.methods.stream()
+                .map(m -> m.toUpperCase(Locale.ROOT))
+                .filter(m -> {
+                    if (this.allowNonIdempotent || IDEMPOTENT_METHODS.contains(m)) {
+                        return true;
+                    }
+                    log.warn("Hedging is not allowed for non-idempotent method {} unless allowNonIdempotent is set, ignoring it", m);
+                    return false;
+                })
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(enabled, delayMillis, useP95, maxHedgePercent, methods, allowNonIdempotent);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (obj == null || obj.getClass() != getClass()) {
+            return false;
+        }
+        HedgeConfig that = (HedgeConfig) obj;
+        return Objects.equals(enabled, that.enabled) &&
+                Objects.equals(delayMillis, that.delayMillis) &&
+                Objects.equals(useP95, that.useP95) &&
+                Objects.equals(maxHedgePercent, that.maxHedgePercent) &&
+                Objects.equals(methods, that.methods) &&
+                Objects.equals(allowNonIdempotent, that.allowNonIdempotent);
+    }
+
+    public Boolean isEnabled() {
+        return enabled;
+    }
+
+    public Long getDelayMillis() {
+        return delayMillis;
+    }
+
+    public Boolean isUseP95() {
+        return useP95;
+    }
+
+    public Double getMaxHedgePercent() {
+        return maxHedgePercent;
+    }
+
+    public List<String> getMethods() {
+        return methods;
+    }
+
+    public Boolean isAllowNonIdempotent() {
+        return allowNonIdempotent;
+    }
+
+    public boolean isMethodAllowed(String method) {
+        return methodSet.contains(method);
+    }
+}
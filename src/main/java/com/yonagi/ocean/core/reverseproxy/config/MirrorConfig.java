@@ -0,0 +1,72 @@
+package com.yonagi.ocean.core.reverseproxy.config;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 流量镜像配置：按 samplePercent 抽样复制请求到影子上游，响应被丢弃，不影响主请求
+ * @date 2025/11/21 17:00
+ */
+public final class MirrorConfig {
+
+    private final Boolean enabled;
+
+    private final List<String> upstreams;
+
+    private final Double samplePercent;
+
+    private final Long timeoutMillis;
+
+    @JsonCreator
+    public MirrorConfig(@JsonProperty("enabled") Boolean enabled,
+                        @JsonProperty("upstreams") List<String> upstreams,
+                        @JsonProperty("samplePercent") Double samplePercent,
+                        @JsonProperty("timeoutMillis") Long timeoutMillis) {
+        this.upstreams = upstreams != null ? List.copyOf(upstreams) : List.of();
+        this.enabled = enabled != null && enabled && !this.upstreams.isEmpty();
+        this.samplePercent = samplePercent != null ? Math.min(100.0d, Math.max(0.0d, samplePercent)) : 100.0d;
+        this.timeoutMillis = timeoutMillis != null ? Math.max(1L, timeoutMillis) : 1000L;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(enabled, upstreams, samplePercent, timeoutMillis);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (obj == null || obj.getClass() != getClass()) {
+            return false;
+        }
+        MirrorConfig that = (MirrorConfig) obj;
+        return Objects.equals(enabled, that.enabled) &&
+                Objects.equals(upstreams, that.upstreams) &&
+                Objects.equals(samplePercent, that.samplePercent) &&
+                Objects.equals(timeoutMillis, that.timeoutMillis);
+    }
+
+    public Boolean isEnabled() {
+        return enabled;
+    }
+
+    public List<String> getUpstreams() {
+        return upstreams;
+    }
+
+    public Double getSamplePercent() {
+        return samplePercent;
+    }
+
+    public Long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+}
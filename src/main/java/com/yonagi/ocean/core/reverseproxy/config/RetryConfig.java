@@ -0,0 +1,133 @@
+package com.yonagi.ocean.core.reverseproxy.config;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 重试配置：连接失败对任意方法重试，超时与 retryOnStatus 中的状态码只对幂等方法重试；
+ * 每次重试换一个未尝试过的节点，重试次数受 budgetPercent 比例的重试预算限制
+ * @date 2025/11/20 09:30
+ */
+public final class RetryConfig {
+
+    private static final List<String> DEFAULT_METHODS = List.of("GET", "HEAD", "OPTIONS", "PUT", "DELETE");
+
+    private static final List<Integer> DEFAULT_RETRY_ON_STATUS = List.of(502, 503, 504);
+
+    private final Boolean enabled;
+
+    private final Integer maxRetries;
+
+    private final List<Integer> retryOnStatus;
+
+    private final List<String> methods;
+
+    private final Long perTryTimeoutMillis;
+
+    private final Long backoffBaseMillis;
+
+    private final Long backoffMaxMillis;
+
+    private final Double budgetPercent;
+
+    // 运行时状态：大写的方法名集合与状态码集合
+    private final transient Set<String> methodSet;
+
+    private final transient Set<Integer> statusSet;
+
+    @JsonCreator
+    public RetryConfig(@JsonProperty("enabled") Boolean enabled,
+                       @JsonProperty("maxRetries") Integer maxRetries,
+                       @JsonProperty("retryOnStatus") List<Integer> retryOnStatus,
+                       @JsonProperty("methods") List<String> methods,
+                       @JsonProperty("perTryTimeoutMillis") Long perTryTimeoutMillis,
+                       @JsonProperty("backoffBaseMillis") Long backoffBaseMillis,
+                       @JsonProperty("backoffMaxMillis") Long backoffMaxMillis,
+                       @JsonProperty("budgetPercent") Double budgetPercent) {
+        this.enabled = enabled != null && enabled;
+        this.maxRetries = maxRetries != null ? Math.max(0, maxRetries) : 2;
+        this.retryOnStatus = retryOnStatus != null ? List.copyOf(retryOnStatus) : DEFAULT_RETRY_ON_STATUS;
+        this.methods = methods != null && !methods.isEmpty() ? List.copyOf(methods) : DEFAULT_METHODS;
+        this.perTryTimeoutMillis = perTryTimeoutMillis;
+        this.backoffBaseMillis = backoffBaseMillis != null ? Math.max(0L, backoffBaseMillis) : 25L;
+        this.backoffMaxMillis = backoffMaxMillis != null ? Math.max(this.backoffBaseMillis, backoffMaxMillis) : Math.max(this.backoffBaseMillis, 250L);
+        this.budgetPercent = budgetPercent != null ? budgetPercent : 20.0d;
+        this.methodSet = this.methods.stream()
+                .map(m -> m.toUpperCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+        this.statusSet = Set.copyOf(this.retryOnStatus);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(enabled, maxRetries, retryOnStatus, methods, perTryTimeoutMillis, backoffBaseMillis, backoffMaxMillis, budgetPercent);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (obj == null || obj.getClass() != getClass()) {
+            return false;
+        }
+        RetryConfig that = (RetryConfig) obj;
+        return Objects.equals(enabled, that.enabled) &&
+                Objects.equals(maxRetries, that.maxRetries) &&
+                Objects.equals(retryOnStatus, that.retryOnStatus) &&
+                Objects.equals(methods, that.methods) &&
+                Objects.equals(perTryTimeoutMillis, that.perTryTimeoutMillis) &&
+                Objects.equals(backoffBaseMillis, that.backoffBaseMillis) &&
+                Objects.equals(backoffMaxMillis, that.backoffMaxMillis) &&
+                Objects.equals(budgetPercent, that.budgetPercent);
+    }
+
+    public Boolean isEnabled() {
+        return enabled;
+    }
+
+    public Integer getMaxRetries() {
+        return maxRetries;
+    }
+
+    public List<Integer> getRetryOnStatus() {
+        return retryOnStatus;
+    }
+
+    public List<String> getMethods() {
+        return methods;
+    }
+
+    public Long getPerTryTimeoutMillis() {
+        return perTryTimeoutMillis;
+    }
+
+    public Long getBackoffBaseMillis() {
+        return backoffBaseMillis;
+    }
+
+    public Long getBackoffMaxMillis() {
+        return backoffMaxMillis;
+    }
+
+    public Double getBudgetPercent() {
+        return budgetPercent;
+    }
+
+    public boolean isMethodIdempotent(String method) {
+        return methodSet.contains(method);
+    }
+
+    public boolean isRetryableStatus(int status) {
+        return statusSet.contains(status);
+    }
+}
@@ -2,6 +2,8 @@ package com.yonagi.ocean.core.reverseproxy.config;
 
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import com.yonagi.ocean.core.bulkhead.config.BulkheadConfig;
+import com.yonagi.ocean.core.admission.enums.RequestPriority;
 import com.yonagi.ocean.core.loadbalance.config.LoadBalancerConfig;
 
 import java.util.Map;
@@ -31,6 +33,16 @@ public final class ReverseProxyConfig {
 
     private final Map<String, String> addHeaders;
 
+    private final HedgeConfig hedge;
+
+    private final RetryConfig retry;
+
+    private final MirrorConfig mirror;
+
+    private final RequestPriority priority;
+
+    private final BulkheadConfig bulkhead;
+
     private ReverseProxyConfig(Builder builder) {
         this.enabled = builder.enabled;
         this.id = builder.id;
@@ -39,11 +51,16 @@ public final class ReverseProxyConfig {
         this.lbConfig = builder.lbConfig;
         this.timeout = builder.timeout;
         this.addHeaders = builder.addHeaders;
+        this.hedge = builder.hedge;
+        this.retry = builder.retry;
+        this.mirror = builder.mirror;
+        this.priority = builder.priority;
+        this.bulkhead = builder.bulkhead;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(enabled, id, path, stripPrefix, timeout, lbConfig, addHeaders);
+        return Objects.hash(enabled, id, path, stripPrefix, timeout, lbConfig, addHeaders, hedge, retry, mirror, priority, bulkhead);
     }
 
     @Override
@@ -61,7 +78,12 @@ public final class ReverseProxyConfig {
                 Objects.equals(stripPrefix, that.stripPrefix) &&
                 Objects.equals(timeout, that.timeout) &&
                 Objects.equals(lbConfig, that.lbConfig) &&
-                Objects.equals(addHeaders, that.addHeaders);
+                Objects.equals(addHeaders, that.addHeaders) &&
+                Objects.equals(hedge, that.hedge) &&
+                Objects.equals(retry, that.retry) &&
+                Objects.equals(mirror, that.mirror) &&
+                Objects.equals(priority, that.priority) &&
+                Objects.equals(bulkhead, that.bulkhead);
     }
 
     public Boolean isEnabled() {
@@ -92,6 +114,26 @@ public final class ReverseProxyConfig {
         return addHeaders;
     }
 
+    public HedgeConfig getHedge() {
+        return hedge;
+    }
+
+    public RetryConfig getRetry() {
+        return retry;
+    }
+
+    public MirrorConfig getMirror() {
+        return mirror;
+    }
+
+    public RequestPriority getPriority() {
+        return priority;
+    }
+
+    public BulkheadConfig getBulkhead() {
+        return bulkhead;
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -104,7 +146,12 @@ public final class ReverseProxyConfig {
                 .stripPrefix(this.stripPrefix)
                 .lbConfig(this.lbConfig)
                 .timeout(this.timeout)
-                .addHeaders(this.addHeaders);
+                .addHeaders(this.addHeaders)
+                .hedge(this.hedge)
+                .retry(this.retry)
+                .mirror(this.mirror)
+                .priority(this.priority)
+                .bulkhead(this.bulkhead);
     }
 
     @JsonPOJOBuilder(withPrefix = "")
@@ -116,6 +163,11 @@ public final class ReverseProxyConfig {
         private LoadBalancerConfig lbConfig;
         private Integer timeout;
         private Map<String, String> addHeaders;
+        private HedgeConfig hedge;
+        private RetryConfig retry;
+        private MirrorConfig mirror;
+        private RequestPriority priority;
+        private BulkheadConfig bulkhead;
 
         public Builder enabled(Boolean enabled) {
             this.enabled = enabled;
@@ -152,6 +204,31 @@ public final class ReverseProxyConfig {
             return this;
         }
 
+        public Builder hedge(HedgeConfig hedge) {
+            this.hedge = hedge;
+            return this;
+        }
+
+        public Builder retry(RetryConfig retry) {
+            this.retry = retry;
+            return this;
+        }
+
+        public Builder mirror(MirrorConfig mirror) {
+            this.mirror = mirror;
+            return this;
+        }
+
+        public Builder priority(RequestPriority priority) {
+            this.priority = priority;
+            return this;
+        }
+
+        public Builder bulkhead(BulkheadConfig bulkhead) {
+            this.bulkhead = bulkhead;
+            return this;
+        }
+
         public ReverseProxyConfig build() {
             return new ReverseProxyConfig(this);
         }
@@ -2,7 +2,12 @@ package com.yonagi.ocean.core.reverseproxy.config.source;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yonagi.ocean.core.bulkhead.config.BulkheadConfig;
+import com.yonagi.ocean.core.admission.enums.RequestPriority;
 import com.yonagi.ocean.core.loadbalance.config.LoadBalancerConfig;
+import com.yonagi.ocean.core.reverseproxy.config.HedgeConfig;
+import com.yonagi.ocean.core.reverseproxy.config.MirrorConfig;
+import com.yonagi.ocean.core.reverseproxy.config.RetryConfig;
 import com.yonagi.ocean.core.reverseproxy.config.ReverseProxyConfig;
 import com.yonagi.ocean.utils.LocalConfigLoader;
 import org.slf4j.Logger;
@@ -62,6 +67,11 @@ public class LocalConfigSource implements ConfigSource {
                         .lbConfig(dto.lbConfig)
                         .timeout(dto.timeout)
                         .addHeaders(dto.addHeaders)
+                        .hedge(dto.hedge)
+                        .retry(dto.retry)
+                        .mirror(dto.mirror)
+                        .priority(parsePriority(dto))
+                        .bulkhead(dto.bulkhead)
                         .build();
                 configs.add(config);
             } catch (Exception e) {
@@ -72,6 +82,17 @@ public class LocalConfigSource implements ConfigSource {
         return configs;
     }
 
+    private static RequestPriority parsePriority(ReverseProxyConfigDto dto) {
+        if (dto.priority == null) {
+            return null;
+        }
+        RequestPriority priority = RequestPriority.getRequestPriority(dto.priority);
+        if (priority == null) {
+            log.warn("Unknown priority {} for reverse proxy {}, using default", dto.priority, dto.id);
+        }
+        return priority;
+    }
+
     private static class ReverseProxyConfigDto {
         public boolean enabled;
         public String id;
@@ -80,6 +101,11 @@ public class LocalConfigSource implements ConfigSource {
         public LoadBalancerConfig lbConfig;
         public Integer timeout;
         public Map<String, String> addHeaders;
+        public HedgeConfig hedge;
+        public RetryConfig retry;
+        public MirrorConfig mirror;
+        public String priority;
+        public BulkheadConfig bulkhead;
     }
 
     @Override
@@ -0,0 +1,60 @@
+package com.yonagi.ocean.core.reverseproxy.hedge;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 记录最近 N 次上游响应耗时的环形缓冲区，分位数按秒缓存，避免每个请求都排序
+ * @date 2025/11/19 09:45
+ */
+public class LatencyTracker {
+
+    private static final long REFRESH_INTERVAL_NANOS = 1_000_000_000L;
+
+    private final AtomicLongArray samples;
+
+    private final AtomicInteger cursor = new AtomicInteger(0);
+
+    private final int minSamples;
+
+    private volatile long cachedAtNanos = 0L;
+
+    private volatile long cachedP95Nanos = -1L;
+
+    public LatencyTracker(int capacity, int minSamples) {
+        this.samples = new AtomicLongArray(capacity);
+        this.minSamples = minSamples;
+    }
+
+    public void record(long nanos) {
+        int index = Math.floorMod(cursor.getAndIncrement(), samples.length());
+        samples.set(index, nanos);
+    }
+
+    /**
+     * 返回最近样本的 p95（纳秒），样本不足时返回 -1
+     */
+    public long p95Nanos() {
+        long now = System.nanoTime();
+        if (now - cachedAtNanos < REFRESH_INTERVAL_NANOS && cachedAtNanos != 0L) {
+            return cachedP95Nanos;
+        }
+        int count = Math.min(cursor.get() < 0 ? samples.length() : cursor.get(), samples.length());
+        long p95 = -1L;
+        if (count >= minSamples) {
+            long[] copy = new long[count];
+            for (int i = 0; i < count; i++) {
+                copy[i] = samples.get(i);
+            }
+            Arrays.sort(copy);
+            p95 = copy[Math.min(count - 1, (int) Math.ceil(count * 0.95d) - 1)];
+        }
+        cachedP95Nanos = p95;
+        cachedAtNanos = now;
+        return p95;
+    }
+}
@@ -0,0 +1,69 @@
+package com.yonagi.ocean.core.reverseproxy.mirror;
+
+import com.yonagi.ocean.utils.LocalConfigLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 所有反向代理规则共享的镜像请求执行器。
+ * 线程数限制同时发往影子上游的请求数，队列满时直接丢弃镜像请求，调用方永远不会被阻塞
+ * @date 2025/11/21 17:20
+ */
+public class MirrorExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(MirrorExecutor.class);
+
+    private static final MirrorExecutor INSTANCE = new MirrorExecutor();
+
+    private final ThreadPoolExecutor executor;
+
+    private MirrorExecutor() {
+        int threads = Math.max(1, Integer.parseInt(LocalConfigLoader.getProperty("server.reverse_proxy.mirror.threads", "4")));
+        int queueSize = Math.max(1, Integer.parseInt(LocalConfigLoader.getProperty("server.reverse_proxy.mirror.queue_size", "256")));
+        AtomicInteger threadIndex = new AtomicInteger(0);
+        this.executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                60L,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                r -> {
+                    Thread t = new Thread(r, "ReverseProxy-Mirror-" + threadIndex.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public static MirrorExecutor getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 提交镜像任务，队列已满或执行器已关闭时返回 false
+     */
+    public boolean trySubmit(Runnable task) {
+        try {
+            executor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+        log.info("Reverse proxy mirror executor stopped.");
+    }
+}
@@ -0,0 +1,258 @@
+package com.yonagi.ocean.core.reverseproxy.route;
+
+import com.yonagi.ocean.core.reverseproxy.config.ReverseProxyConfig;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 反向代理规则在配置刷新时编译成的不可变路径段前缀树。
+ * 字面量段通过按字符区间计算哈希的开放寻址表查找，含 * / ? 的段使用 SegmentGlob，** 匹配零个或多个段；
+ * 优先级与原先的排序规则一致：路径模式越长优先级越高，长度相同按配置顺序。
+ * 查找时直接在请求 URI 上按下标移动，不做规范化复制，并按子树的最高优先级剪枝
+ * @date 2025/11/21 10:30
+ */
+public final class ProxyRouteTable {
+
+    public static final ProxyRouteTable EMPTY = compile(List.of());
+
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+
+    private static final String DOUBLE_WILD_CARD = "**";
+
+    private final Node root;
+
+    // 按优先级排序后的规则，下标即优先级（越小越高）
+    private final ReverseProxyConfig[] rules;
+
+    private ProxyRouteTable(Node root, ReverseProxyConfig[] rules) {
+        this.root = root;
+        this.rules = rules;
+    }
+
+    public static ProxyRouteTable compile(List<ReverseProxyConfig> configs) {
+        List<ReverseProxyConfig> enabled = new ArrayList<>();
+        if (configs != null) {
+            for (ReverseProxyConfig config : configs) {
+                if (config != null && Boolean.TRUE.equals(config.isEnabled()) && config.getPath() != null) {
+                    enabled.add(config);
+                }
+            }
+        }
+        // List.sort 是稳定排序，长度相同的规则保持配置顺序
+        enabled.sort(Comparator.comparingInt((ReverseProxyConfig c) -> c.getPath().length()).reversed());
+
+        NodeBuilder rootBuilder = new NodeBuilder();
+        for (int rank = 0; rank < enabled.size(); rank++) {
+            NodeBuilder node = rootBuilder;
+            for (String segment : enabled.get(rank).getPath().split("/")) {
+                if (segment.isEmpty()) {
+                    continue;
+                }
+                node = node.child(segment);
+            }
+            node.terminalRank = Math.min(node.terminalRank, rank);
+        }
+        return new ProxyRouteTable(rootBuilder.build(), enabled.toArray(new ReverseProxyConfig[0]));
+    }
+
+    /**
+     * 返回与请求 URI 匹配且优先级最高的规则，URI 中的查询串会被忽略
+     */
+    public ReverseProxyConfig match(String uri) {
+        if (uri == null || rules.length == 0) {
+            return null;
+        }
+        int end = uri.indexOf('?');
+        if (end < 0) {
+            end = uri.length();
+        }
+        int best = search(root, uri, skipSlashes(uri, 0, end), end, NO_MATCH);
+        return best == NO_MATCH ? null : rules[best];
+    }
+
+    public int size() {
+        return rules.length;
+    }
+
+    private static int search(Node node, String path, int pos, int end, int best) {
+        if (node.minRank >= best) {
+            return best;
+        }
+        if (pos >= end) {
+            best = Math.min(best, node.terminalRank);
+            if (node.doubleWild != null) {
+                best = search(node.doubleWild, path, pos, end, best);
+            }
+            return best;
+        }
+        int segmentEnd = segmentEnd(path, pos, end);
+        int next = skipSlashes(path, segmentEnd, end);
+
+        Node literal = node.literals.get(path, pos, segmentEnd);
+        if (literal != null) {
+            best = search(literal, path, next, end, best);
+        }
+        for (int i = 0; i < node.globs.length; i++) {
+            if (node.globs[i].matches(path, pos, segmentEnd)) {
+                best = search(node.globChildren[i], path, next, end, best);
+            }
+        }
+        if (node.doubleWild != null) {
+            // ** 依次尝试吞掉 0 到全部剩余的段
+            int p = pos;
+            while (true) {
+                best = search(node.doubleWild, path, p, end, best);
+                if (p >= end) {
+                    break;
+                }
+                p = skipSlashes(path, segmentEnd(path, p, end), end);
+            }
+        }
+        return best;
+    }
+
+    private static int segmentEnd(String path, int pos, int end) {
+        int i = pos;
+        while (i < end && path.charAt(i) != '/') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipSlashes(String path, int pos, int end) {
+        int i = pos;
+        while (i < end && path.charAt(i) == '/') {
+            i++;
+        }
+        return i;
+    }
+
+    private static final class Node {
+
+        private final int terminalRank;
+
+        // 子树（含自身）中的最高优先级
+        private final int minRank;
+
+        private final SegmentMap literals;
+
+        private final SegmentGlob[] globs;
+
+        private final Node[] globChildren;
+
+        private final Node doubleWild;
+
+        private Node(int terminalRank, int minRank, SegmentMap literals, SegmentGlob[] globs, Node[] globChildren, Node doubleWild) {
+            this.terminalRank = terminalRank;
+            this.minRank = minRank;
+            this.literals = literals;
+            this.globs = globs;
+            this.globChildren = globChildren;
+            this.doubleWild = doubleWild;
+        }
+    }
+
+    private static final class NodeBuilder {
+
+        private int terminalRank = NO_MATCH;
+
+        private final Map<String, NodeBuilder> literals = new HashMap<>();
+
+        private final Map<String, NodeBuilder> globs = new HashMap<>();
+
+        private NodeBuilder doubleWild;
+
+        private NodeBuilder child(String segment) {
+            if (DOUBLE_WILD_CARD.equals(segment)) {
+                if (doubleWild == null) {
+                    doubleWild = new NodeBuilder();
+                }
+                return doubleWild;
+            }
+            Map<String, NodeBuilder> target = SegmentGlob.isGlob(segment) ? globs : literals;
+            return target.computeIfAbsent(segment, k -> new NodeBuilder());
+        }
+
+        private Node build() {
+            int minRank = terminalRank;
+            String[] literalKeys = new String[literals.size()];
+            Node[] literalNodes = new Node[literals.size()];
+            int i = 0;
+            for (Map.Entry<String, NodeBuilder> entry : literals.entrySet()) {
+                literalKeys[i] = entry.getKey();
+                literalNodes[i] = entry.getValue().build();
+                minRank = Math.min(minRank, literalNodes[i].minRank);
+                i++;
+            }
+            SegmentGlob[] globPatterns = new SegmentGlob[globs.size()];
+            Node[] globNodes = new Node[globs.size()];
+            i = 0;
+            for (Map.Entry<String, NodeBuilder> entry : globs.entrySet()) {
+                globPatterns[i] = SegmentGlob.compile(entry.getKey());
+                globNodes[i] = entry.getValue().build();
+                minRank = Math.min(minRank, globNodes[i].minRank);
+                i++;
+            }
+            Node doubleWildNode = doubleWild != null ? doubleWild.build() : null;
+            if (doubleWildNode != null) {
+                minRank = Math.min(minRank, doubleWildNode.minRank);
+            }
+            return new Node(terminalRank, minRank, new SegmentMap(literalKeys, literalNodes), globPatterns, globNodes, doubleWildNode);
+        }
+    }
+
+    /**
+     * 字面量段的开放寻址哈希表，哈希算法与 String.hashCode 相同，查找时直接对字符区间计算，避免截取子串
+     */
+    private static final class SegmentMap {
+
+        private final String[] keys;
+
+        private final Node[] values;
+
+        private final int mask;
+
+        private SegmentMap(String[] keys, Node[] nodes) {
+            int capacity = Integer.highestOneBit(Math.max(2, keys.length * 2 - 1)) << 1;
+            this.keys = new String[capacity];
+            this.values = new Node[capacity];
+            this.mask = capacity - 1;
+            for (int i = 0; i < keys.length; i++) {
+                int slot = spread(keys[i].hashCode()) & mask;
+                while (this.keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                this.keys[slot] = keys[i];
+                this.values[slot] = nodes[i];
+            }
+        }
+
+        private Node get(String text, int from, int to) {
+            int h = 0;
+            for (int i = from; i < to; i++) {
+                h = 31 * h + text.charAt(i);
+            }
+            int length = to - from;
+            int slot = spread(h) & mask;
+            String key;
+            while ((key = keys[slot]) != null) {
+                if (key.length() == length && key.regionMatches(0, text, from, length)) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        private static int spread(int h) {
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.yonagi.ocean.core.reverseproxy.route;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 单个路径段内的通配模式，* 匹配段内任意个字符，? 匹配段内一个字符。
+ * 直接在原始字符串的 [from, to) 区间上匹配，星号回溯只记录位置，不产生任何对象
+ * @date 2025/11/21 10:05
+ */
+public final class SegmentGlob {
+
+    private final char[] pattern;
+
+    private SegmentGlob(String pattern) {
+        this.pattern = pattern.toCharArray();
+    }
+
+    public static SegmentGlob compile(String segment) {
+        return new SegmentGlob(segment);
+    }
+
+    public static boolean isGlob(String segment) {
+        return segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0;
+    }
+
+    public boolean matches(CharSequence text, int from, int to) {
+        int p = 0;
+        int t = from;
+        int starP = -1;
+        int starT = -1;
+        while (t < to) {
+            if (p < pattern.length && (pattern[p] == '?' || pattern[p] == text.charAt(t))) {
+                p++;
+                t++;
+            } else if (p < pattern.length && pattern[p] == '*') {
+                starP = p++;
+                starT = t;
+            } else if (starP >= 0) {
+                // 回到上一个星号，让它多吞一个字符
+                p = starP + 1;
+                t = ++starT;
+            } else {
+                return false;
+            }
+        }
+        while (p < pattern.length && pattern[p] == '*') {
+            p++;
+        }
+        return p == pattern.length;
+    }
+
+    @Override
+    public String toString() {
+        return new String(pattern);
+    }
+}
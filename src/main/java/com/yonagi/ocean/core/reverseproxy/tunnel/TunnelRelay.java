@@ -0,0 +1,198 @@
+package com.yonagi.ocean.core.reverseproxy.tunnel;
+
+import com.yonagi.ocean.admin.metrics.MetricsRegistry;
+import com.yonagi.ocean.utils.LocalConfigLoader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 101 握手之后在客户端连接与上游连接之间双向转发字节。
+ * 两个方向各自在虚拟线程中运行，不占用工作线程；缓冲区来自有界池，可重复使用。
+ * 两个方向共享最后活动时间，都空闲超过 idle_timeout_millis 时关闭隧道，任一方向结束时两端连接一起关闭
+ * @date 2025/11/22 10:10
+ */
+public final class TunnelRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(TunnelRelay.class);
+
+    private static final TunnelRelay INSTANCE = new TunnelRelay();
+
+    private final int bufferSize;
+
+    private final int idleTimeoutMillis;
+
+    private final BlockingQueue<byte[]> bufferPool;
+
+    private final AtomicInteger activeTunnels = new AtomicInteger(0);
+
+    private final AtomicLong tunnelIndex = new AtomicLong(0);
+
+    // 按路由缓存的上行、下行字节计数器
+    private final Map<String, Counter[]> byteCounters = new ConcurrentHashMap<>();
+
+    private TunnelRelay() {
+        this.bufferSize = Math.max(1, Integer.parseInt(LocalConfigLoader.getProperty("server.reverse_proxy.tunnel.buffer_size_kb", "32"))) * 1024;
+        this.idleTimeoutMillis = Math.max(1, Integer.parseInt(LocalConfigLoader.getProperty("server.reverse_proxy.tunnel.idle_timeout_millis", "300000")));
+        int maxPooledBuffers = Math.max(1, Integer.parseInt(LocalConfigLoader.getProperty("server.reverse_proxy.tunnel.max_pooled_buffers", "256")));
+        this.bufferPool = new ArrayBlockingQueue<>(maxPooledBuffers);
+        Gauge.builder("reverse_proxy.tunnel.active", activeTunnels, AtomicInteger::get)
+                .description("Number of open upgrade tunnels")
+                .register(MetricsRegistry.currentMeterRegistry());
+    }
+
+    public static TunnelRelay getInstance() {
+        return INSTANCE;
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(LocalConfigLoader.getProperty("server.reverse_proxy.tunnel.enabled", "true"));
+    }
+
+    /**
+     * 把双向转发交给两个虚拟线程后立即返回，调用方的工作线程不再被隧道占用。
+     * 两个方向都结束后关闭两端连接并记录字节数
+     */
+    public void relay(String routeId, String traceId, Socket client, UpgradeTunnel upstream) throws IOException {
+        client.setSoTimeout(idleTimeoutMillis);
+        upstream.getSocket().setSoTimeout(idleTimeoutMillis);
+        Session session = new Session(routeId, traceId, client, upstream,
+                new Pump(client.getInputStream(), upstream.getOutput()),
+                new Pump(upstream.getInput(), client.getOutputStream()));
+        activeTunnels.incrementAndGet();
+        String threadName = "ReverseProxy-Tunnel-" + tunnelIndex.incrementAndGet();
+        Thread.ofVirtual().name(threadName + "-up").start(() -> pump(session, session.upstreamPump));
+        Thread.ofVirtual().name(threadName + "-down").start(() -> pump(session, session.downstreamPump));
+    }
+
+    private void pump(Session session, Pump pump) {
+        byte[] buffer = acquireBuffer();
+        try {
+            while (true) {
+                int read;
+                try {
+                    read = pump.input.read(buffer);
+                } catch (SocketTimeoutException e) {
+                    // 另一方向仍有数据往来时继续等待
+                    if (System.currentTimeMillis() - session.lastActivity.get() >= idleTimeoutMillis) {
+                        log.debug("[{}] Upgrade tunnel idle for {} ms, closing", session.traceId, idleTimeoutMillis);
+                        break;
+                    }
+                    continue;
+                }
+                if (read == -1) {
+                    break;
+                }
+                pump.output.write(buffer, 0, read);
+                pump.output.flush();
+                pump.bytes += read;
+                session.lastActivity.set(System.currentTimeMillis());
+            }
+        } catch (IOException e) {
+            log.debug("[{}] Upgrade tunnel stream ended: {}", session.traceId, e.getMessage());
+        } finally {
+            releaseBuffer(buffer);
+            // 关闭两端，阻塞在另一方向 read 上的线程会随之退出
+            UpgradeTunnel.closeQuietly(session.client);
+            session.upstream.close();
+            if (session.remainingPumps.decrementAndGet() == 0) {
+                finish(session);
+            }
+        }
+    }
+
+    private void finish(Session session) {
+        activeTunnels.decrementAndGet();
+        Counter[] counters = byteCounters.computeIfAbsent(session.routeId, this::createByteCounters);
+        counters[0].increment(session.upstreamPump.bytes);
+        counters[1].increment(session.downstreamPump.bytes);
+        log.info("[{}] {} Upgrade tunnel closed after {} ms: {} bytes upstream, {} bytes downstream",
+                session.traceId, session.routeId, (System.nanoTime() - session.startNanos) / 1_000_000,
+                session.upstreamPump.bytes, session.downstreamPump.bytes);
+    }
+
+    private Counter[] createByteCounters(String routeId) {
+        MeterRegistry meterRegistry = MetricsRegistry.currentMeterRegistry();
+        return new Counter[] {
+                Counter.builder("reverse_proxy.tunnel.bytes")
+                        .description("Bytes relayed through upgrade tunnels")
+                        .tags("route", routeId, "direction", "upstream")
+                        .register(meterRegistry),
+                Counter.builder("reverse_proxy.tunnel.bytes")
+                        .description("Bytes relayed through upgrade tunnels")
+                        .tags("route", routeId, "direction", "downstream")
+                        .register(meterRegistry)
+        };
+    }
+
+    private byte[] acquireBuffer() {
+        byte[] buffer = bufferPool.poll();
+        return buffer != null ? buffer : new byte[bufferSize];
+    }
+
+    private void releaseBuffer(byte[] buffer) {
+        bufferPool.offer(buffer);
+    }
+
+    private static final class Pump {
+
+        private final InputStream input;
+
+        private final OutputStream output;
+
+        // 只由执行该方向的线程写入，两个方向都结束后读取
+        private long bytes;
+
+        private Pump(InputStream input, OutputStream output) {
+            this.input = input;
+            this.output = output;
+        }
+    }
+
+    private static final class Session {
+
+        private final String routeId;
+
+        private final String traceId;
+
+        private final Socket client;
+
+        private final UpgradeTunnel upstream;
+
+        private final Pump upstreamPump;
+
+        private final Pump downstreamPump;
+
+        private final AtomicLong lastActivity = new AtomicLong(System.currentTimeMillis());
+
+        private final AtomicInteger remainingPumps = new AtomicInteger(2);
+
+        private final long startNanos = System.nanoTime();
+
+        private Session(String routeId, String traceId, Socket client, UpgradeTunnel upstream, Pump upstreamPump, Pump downstreamPump) {
+            this.routeId = routeId;
+            this.traceId = traceId;
+            this.client = client;
+            this.upstream = upstream;
+            this.upstreamPump = upstreamPump;
+            this.downstreamPump = downstreamPump;
+        }
+    }
+}
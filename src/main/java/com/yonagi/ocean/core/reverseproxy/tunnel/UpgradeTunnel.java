@@ -0,0 +1,303 @@
+package com.yonagi.ocean.core.reverseproxy.tunnel;
+
+import com.yonagi.ocean.core.protocol.HttpRequest;
+import com.yonagi.ocean.core.protocol.enums.HttpVersion;
+import com.yonagi.ocean.utils.LocalConfigLoader;
+
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 与上游之间的原始 Upgrade 连接。JDK HttpClient 无法接管连接，这里直接用 Socket（https 时为 TLS）
+ * 发送请求头并读取响应头；读取响应头时不会越过头部结尾，101 之后上游立即发送的数据仍留在输入流中交给 TunnelRelay
+ * @date 2025/11/22 09:30
+ */
+public final class UpgradeTunnel implements Closeable {
+
+    private static final int MAX_HEAD_BYTES = 64 * 1024;
+
+    // 非 101 且没有长度信息的响应体，最多读取这么多字节
+    private static final int MAX_FALLBACK_BODY_BYTES = 1024 * 1024;
+
+    private static final int CONNECT_TIMEOUT_MILLIS = Integer.parseInt(LocalConfigLoader.getProperty("server.reverse_proxy.connect_timeout_millis", "5000"));
+
+    private final Socket socket;
+
+    private final InputStream input;
+
+    private final OutputStream output;
+
+    private final int statusCode;
+
+    private final byte[] responseHead;
+
+    private final Map<String, List<String>> responseHeaders;
+
+    private UpgradeTunnel(Socket socket, InputStream input, OutputStream output, int statusCode,
+                          byte[] responseHead, Map<String, List<String>> responseHeaders) {
+        this.socket = socket;
+        this.input = input;
+        this.output = output;
+        this.statusCode = statusCode;
+        this.responseHead = responseHead;
+        this.responseHeaders = responseHeaders;
+    }
+
+    /**
+     * HTTP/1.1 且同时带有 Upgrade 头和包含 upgrade 的 Connection 头
+     */
+    public static boolean isUpgradeRequest(HttpRequest request) {
+        if (request.getHttpVersion() != HttpVersion.HTTP_1_1 || request.getHeaders() == null) {
+            return false;
+        }
+        String upgrade = request.getHeaders().get("upgrade");
+        String connection = request.getHeaders().get("connection");
+        if (upgrade == null || upgrade.isBlank() || connection == null) {
+            return false;
+        }
+        for (String token : connection.split(",")) {
+            if ("upgrade".equalsIgnoreCase(token.trim())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 连接上游并完成握手的请求/响应头交换；headers 中不应包含 Host、Connection 与 Upgrade，
+     * host 为 null 时 Host 取 uri 中的主机和端口
+     */
+    public static UpgradeTunnel open(URI uri, String host, String method, String requestTarget, String upgrade,
+                                     Map<String, String> headers, int handshakeTimeoutMillis) throws IOException {
+        boolean secure = "https".equalsIgnoreCase(uri.getScheme()) || "wss".equalsIgnoreCase(uri.getScheme());
+        int port = uri.getPort() != -1 ? uri.getPort() : (secure ? 443 : 80);
+        Socket socket = connect(uri.getHost(), port, secure);
+        try {
+            socket.setSoTimeout(handshakeTimeoutMillis);
+            OutputStream output = socket.getOutputStream();
+            StringBuilder head = new StringBuilder(256);
+            head.append(method).append(' ').append(requestTarget).append(" HTTP/1.1\r\n");
+            if (host != null) {
+                head.append("Host: ").append(host);
+            } else {
+                head.append("Host: ").append(uri.getHost());
+                if (uri.getPort() != -1) {
+                    head.append(':').append(port);
+                }
+            }
+            head.append("\r\n");
+            headers.forEach((name, value) -> head.append(name).append(": ").append(value).append("\r\n"));
+            head.append("Connection: Upgrade\r\n");
+            head.append("Upgrade: ").append(upgrade).append("\r\n\r\n");
+            output.write(head.toString().getBytes(StandardCharsets.ISO_8859_1));
+            output.flush();
+
+            InputStream input = new BufferedInputStream(socket.getInputStream());
+            byte[] responseHead = readHead(input);
+            String[] lines = new String(responseHead, StandardCharsets.ISO_8859_1).split("\r\n");
+            String[] statusLine = lines[0].split(" ", 3);
+            if (statusLine.length < 2 || !statusLine[0].startsWith("HTTP/")) {
+                throw new IOException("Invalid upstream status line: " + lines[0]);
+            }
+            int statusCode;
+            try {
+                statusCode = Integer.parseInt(statusLine[1]);
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid upstream status line: " + lines[0], e);
+            }
+            Map<String, List<String>> responseHeaders = new HashMap<>();
+            for (int i = 1; i < lines.length; i++) {
+                int index = lines[i].indexOf(':');
+                if (index > 0) {
+                    responseHeaders.computeIfAbsent(lines[i].substring(0, index).trim(), k -> new ArrayList<>())
+                            .add(lines[i].substring(index + 1).trim());
+                }
+            }
+            return new UpgradeTunnel(socket, input, output, statusCode, responseHead, responseHeaders);
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(socket);
+            throw e;
+        }
+    }
+
+    private static Socket connect(String host, int port, boolean secure) throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MILLIS);
+            if (!secure) {
+                return socket;
+            }
+            SSLSocket sslSocket = (SSLSocket) ((SSLSocketFactory) SSLSocketFactory.getDefault()).createSocket(socket, host, port, true);
+            SSLParameters parameters = sslSocket.getSSLParameters();
+            parameters.setEndpointIdentificationAlgorithm("HTTPS");
+            sslSocket.setSSLParameters(parameters);
+            sslSocket.setSoTimeout(CONNECT_TIMEOUT_MILLIS);
+            sslSocket.startHandshake();
+            return sslSocket;
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(socket);
+            throw e;
+        }
+    }
+
+    /**
+     * 逐字节读取到空行为止，返回包含结尾 CRLFCRLF 的原始响应头
+     */
+    private static byte[] readHead(InputStream input) throws IOException {
+        ByteArrayOutputStream head = new ByteArrayOutputStream(512);
+        int matched = 0;
+        while (matched < 4) {
+            int b = input.read();
+            if (b == -1) {
+                throw new IOException("Upstream closed connection before completing response headers");
+            }
+            head.write(b);
+            if (head.size() > MAX_HEAD_BYTES) {
+                throw new IOException("Upstream response headers exceed " + MAX_HEAD_BYTES + " bytes");
+            }
+            if (b == (matched % 2 == 0 ? '\r' : '\n')) {
+                matched++;
+            } else {
+                matched = b == '\r' ? 1 : 0;
+            }
+        }
+        return head.toByteArray();
+    }
+
+    public boolean isSwitchingProtocols() {
+        return statusCode == 101;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public byte[] getResponseHead() {
+        return responseHead;
+    }
+
+    public HttpHeaders getResponseHeaders() {
+        return HttpHeaders.of(responseHeaders, (name, value) -> true);
+    }
+
+    public Socket getSocket() {
+        return socket;
+    }
+
+    public InputStream getInput() {
+        return input;
+    }
+
+    public OutputStream getOutput() {
+        return output;
+    }
+
+    /**
+     * 上游拒绝升级时读取普通响应体，支持 Content-Length、chunked 以及读到连接关闭为止
+     */
+    public byte[] readBody() throws IOException {
+        if (statusCode == 204 || statusCode == 304 || (statusCode >= 100 && statusCode < 200)) {
+            return new byte[0];
+        }
+        String transferEncoding = getResponseHeaders().firstValue("transfer-encoding").orElse(null);
+        if (transferEncoding != null && transferEncoding.toLowerCase().contains("chunked")) {
+            return readChunked();
+        }
+        String contentLength = getResponseHeaders().firstValue("content-length").orElse(null);
+        if (contentLength != null) {
+            try {
+                int length = Integer.parseInt(contentLength.trim());
+                if (length < 0 || length > MAX_FALLBACK_BODY_BYTES) {
+                    throw new IOException("Unsupported upstream Content-Length: " + contentLength);
+                }
+                byte[] body = input.readNBytes(length);
+                if (body.length < length) {
+                    throw new IOException("Upstream closed connection before completing response body");
+                }
+                return body;
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid upstream Content-Length: " + contentLength, e);
+            }
+        }
+        return input.readNBytes(MAX_FALLBACK_BODY_BYTES);
+    }
+
+    private byte[] readChunked() throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        while (true) {
+            String sizeLine = readLine();
+            int extension = sizeLine.indexOf(';');
+            int size;
+            try {
+                size = Integer.parseInt((extension >= 0 ? sizeLine.substring(0, extension) : sizeLine).trim(), 16);
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid chunk size: " + sizeLine, e);
+            }
+            if (size == 0) {
+                // 跳过 trailer
+                while (!readLine().isEmpty()) {
+                    // ignore
+                }
+                return body.toByteArray();
+            }
+            if (body.size() + size > MAX_FALLBACK_BODY_BYTES) {
+                throw new IOException("Upstream response body exceeds " + MAX_FALLBACK_BODY_BYTES + " bytes");
+            }
+            byte[] chunk = input.readNBytes(size);
+            if (chunk.length < size) {
+                throw new IOException("Upstream closed connection before completing chunk");
+            }
+            body.write(chunk);
+            readLine();
+        }
+    }
+
+    private String readLine() throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = input.read()) != -1 && b != '\n') {
+            if (b != '\r') {
+                line.append((char) b);
+            }
+            if (line.length() > MAX_HEAD_BYTES) {
+                throw new IOException("Upstream line exceeds " + MAX_HEAD_BYTES + " bytes");
+            }
+        }
+        if (b == -1) {
+            throw new IOException("Upstream closed connection unexpectedly");
+        }
+        return line.toString();
+    }
+
+    @Override
+    public void close() {
+        closeQuietly(socket);
+    }
+
+    static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
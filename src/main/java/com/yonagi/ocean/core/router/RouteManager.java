@@ -1,11 +1,15 @@
 package com.yonagi.ocean.core.router;
 
+import com.yonagi.ocean.core.bulkhead.BulkheadRegistry;
+import com.yonagi.ocean.core.bulkhead.config.BulkheadConfig;
 import com.yonagi.ocean.core.router.config.RouteConfig;
 import com.yonagi.ocean.core.router.config.source.ConfigManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
@@ -84,6 +88,7 @@ public class RouteManager {
                 }
             });
             this.dynamicRouteMap = newRouteMap;
+            reconcileBulkheads(newRouteMap.values());
             log.info("Dynamic Router refresh with {} custom routes", dynamicRouteMap.size());
 
             Map<String, Object> routeStats = router.getRouteStats();
@@ -97,6 +102,20 @@ public class RouteManager {
         }
     }
 
+    /**
+     * 把启用的路由声明的舱壁上报给 BulkheadRegistry，配置变化的舱壁被替换，删除的路由对应的舱壁被移除
+     */
+    private static void reconcileBulkheads(Collection<RouteConfig> routeConfigs) {
+        Map<String, BulkheadConfig> declared = new HashMap<>();
+        for (RouteConfig routeConfig : routeConfigs) {
+            BulkheadConfig bulkheadConfig = routeConfig.getBulkhead();
+            if (routeConfig.isEnabled() && bulkheadConfig != null && bulkheadConfig.isEnabled()) {
+                declared.put(BulkheadRegistry.routeName(routeConfig.getMethod(), routeConfig.getPath()), bulkheadConfig);
+            }
+        }
+        BulkheadRegistry.getInstance().reconcile(BulkheadRegistry.SOURCE_ROUTE, declared);
+    }
+
     public void initializeRoutes(ConfigManager configManager) {
         try {
             List<RouteConfig> routeConfigs = configManager.load();
@@ -111,6 +130,7 @@ public class RouteManager {
 
             this.dynamicRouteMap = filteredRouteConfigs.stream()
                     .collect(Collectors.toMap(RouteManager::generateKey, Function.identity(), (e1, e2) -> e2));
+            reconcileBulkheads(dynamicRouteMap.values());
 
             Map<String, Object> routeStats = this.router.getRouteStats();
             log.info("Router refreshed - Total routes: {}, Static routes: {}, " +
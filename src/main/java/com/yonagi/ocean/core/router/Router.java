@@ -1,5 +1,9 @@
 package com.yonagi.ocean.core.router;
 
+import com.yonagi.ocean.core.bulkhead.Bulkhead;
+import com.yonagi.ocean.core.bulkhead.BulkheadFullException;
+import com.yonagi.ocean.core.bulkhead.BulkheadRegistry;
+import com.yonagi.ocean.core.bulkhead.config.BulkheadConfig;
 import com.yonagi.ocean.core.ErrorPageRender;
 import com.yonagi.ocean.core.router.cache.LRUCache;
 import com.yonagi.ocean.core.router.config.RouteConfig;
@@ -9,6 +13,8 @@ import com.yonagi.ocean.core.protocol.enums.ContentType;
 import com.yonagi.ocean.core.protocol.enums.HttpMethod;
 import com.yonagi.ocean.core.protocol.HttpRequest;
 import com.yonagi.ocean.core.protocol.enums.HttpStatus;
+import com.yonagi.ocean.core.reverseproxy.PathMatcher;
+import com.yonagi.ocean.core.reverseproxy.PathPattern;
 import com.yonagi.ocean.handler.RequestHandler;
 import com.yonagi.ocean.handler.impl.*;
 import com.yonagi.ocean.admin.metrics.MetricsRegistry;
@@ -43,6 +49,9 @@ public class Router {
 
         public final List<String> pathVariableNames;
 
+        // 含通配符（末尾单个 * 的前缀路由除外）的简单路由编译后的模式
+        public final PathPattern pathPattern;
+
         public RouteEntry(RouteConfig config, RequestHandler handler) {
             this.config = config;
             this.handler = handler;
@@ -54,6 +63,10 @@ public class Router {
                 this.pathSegments = Collections.emptyList();
                 this.pathVariableNames = Collections.emptyList();
             }
+            String path = config.getPath();
+            this.pathPattern = this.pathSegments.isEmpty() && !PathMatcher.isPrefixPattern(path) && PathMatcher.isPattern(path)
+                    ? PathMatcher.compile(path)
+                    : null;
         }
 
         public RouteEntry(RouteConfig config) {
@@ -254,6 +267,46 @@ public class Router {
         String path = httpContext.getRequest().getUri();
         HttpRequest request = httpContext.getRequest();
 
+        RouteEntry entry = findEntry(request);
+
+        if (entry != null) {
+            if (handleInBulkhead(entry, httpContext)) {
+                return;
+            }
+            MetricsRegistry metricsRegistry = httpContext.getConnectionContext().getServerContext().getMetricsRegistry();
+            metricsRegistry.getRouteFallbackCounter().increment();
+            log.warn("[{}] Custom router failed, falling back to default handler for {} {}", httpContext.getTraceId(), method, path);
+        }
+        RequestHandler defaultHandler = defaultHandlers.get(method);
+        if (defaultHandler != null) {
+            defaultHandler.handle(httpContext);
+        } else {
+            HttpResponse errorResponse = httpContext.getResponse().toBuilder()
+                    .httpVersion(request.getHttpVersion())
+                    .httpStatus(HttpStatus.METHOD_NOT_ALLOWED)
+                    .contentType(ContentType.TEXT_PLAIN)
+                    .body("HTTP Method not specified or supported.".getBytes())
+                    .build();
+            httpContext.setResponse(errorResponse);
+            ErrorPageRender.render(httpContext);
+        }
+    }
+
+    /**
+     * 查找请求匹配的路由配置，不处理请求；没有匹配时返回 null
+     */
+    public RouteConfig findRouteConfig(HttpRequest request) {
+        RouteEntry entry = findEntry(request);
+        return entry == null ? null : entry.config;
+    }
+
+    /**
+     * 依次查找稳定路由、路径变量路由和简单动态路由，命中路径变量路由时写入路径变量
+     */
+    private RouteEntry findEntry(HttpRequest request) {
+        HttpMethod method = request.getMethod();
+        String path = request.getUri();
+
         RouteEntry entry = null;
 
 //        // 查找稳定路由（Controller），支持通配符
@@ -291,28 +344,7 @@ public class Router {
         if (entry == null) {
             entry = findRouteEntry(dynamicRoutes, method, path);
         }
-
-        if (entry != null) {
-            if (handleRouteEntry(entry, httpContext)) {
-                return;
-            }
-            MetricsRegistry metricsRegistry = httpContext.getConnectionContext().getServerContext().getMetricsRegistry();
-            metricsRegistry.getRouteFallbackCounter().increment();
-            log.warn("[{}] Custom router failed, falling back to default handler for {} {}", httpContext.getTraceId(), method, path);
-        }
-        RequestHandler defaultHandler = defaultHandlers.get(method);
-        if (defaultHandler != null) {
-            defaultHandler.handle(httpContext);
-        } else {
-            HttpResponse errorResponse = httpContext.getResponse().toBuilder()
-                    .httpVersion(request.getHttpVersion())
-                    .httpStatus(HttpStatus.METHOD_NOT_ALLOWED)
-                    .contentType(ContentType.TEXT_PLAIN)
-                    .body("HTTP Method not specified or supported.".getBytes())
-                    .build();
-            httpContext.setResponse(errorResponse);
-            ErrorPageRender.render(httpContext);
-        }
+        return entry;
     }
 
     /**
@@ -389,10 +421,14 @@ public class Router {
         }
         for (Map.Entry<String, RouteEntry> entry : methodRoutes.entrySet()) {
             String registeredPath = entry.getKey();
+            PathPattern pattern = entry.getValue().pathPattern;
 
-            if (registeredPath.endsWith("*")) {
-                String prefix = registeredPath.substring(0, registeredPath.length() - 1);
-                if (path.startsWith(prefix)) {
+            if (pattern != null) {
+                if (pattern.matches(path)) {
+                    return entry.getValue();
+                }
+            } else if (registeredPath.endsWith("*")) {
+                if (path.regionMatches(0, registeredPath, 0, registeredPath.length() - 1)) {
                     return entry.getValue();
                 }
             }
@@ -400,6 +436,36 @@ public class Router {
         return null;
     }
 
+    /**
+     * 路由配置了舱壁时在舱壁内处理，舱壁已满时返回 503
+     */
+    private boolean handleInBulkhead(RouteEntry entry, HttpContext httpContext) throws IOException {
+        BulkheadConfig bulkheadConfig = entry.config.getBulkhead();
+        if (bulkheadConfig == null || !bulkheadConfig.isEnabled()) {
+            return handleRouteEntry(entry, httpContext);
+        }
+        Bulkhead bulkhead = BulkheadRegistry.getInstance().getOrCreate(
+                BulkheadRegistry.routeName(entry.config.getMethod(), entry.config.getPath()), bulkheadConfig);
+        try {
+            return bulkhead.call(() -> handleRouteEntry(entry, httpContext));
+        } catch (BulkheadFullException e) {
+            log.debug("[{}] {}", httpContext.getTraceId(), e.getMessage());
+            HttpResponse errorResponse = httpContext.getResponse().toBuilder()
+                    .httpVersion(httpContext.getRequest().getHttpVersion())
+                    .httpStatus(HttpStatus.SERVICE_UNAVAILABLE)
+                    .contentType(ContentType.TEXT_PLAIN)
+                    .body("Server is overloaded. Try again later.".getBytes())
+                    .build();
+            httpContext.setResponse(errorResponse);
+            ErrorPageRender.render(httpContext);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
     /**
      * 处理自定义路由
      * @return true 如果处理成功，false 如果处理失败需要回退到默认处理器
@@ -3,6 +3,8 @@ package com.yonagi.ocean.core.router.config;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import com.yonagi.ocean.core.bulkhead.config.BulkheadConfig;
+import com.yonagi.ocean.core.admission.enums.RequestPriority;
 import com.yonagi.ocean.core.protocol.enums.HttpMethod;
 import com.yonagi.ocean.core.router.RouteType;
 
@@ -32,6 +34,10 @@ public final class RouteConfig {
 
     private final Integer statusCode;
 
+    private final RequestPriority priority;
+
+    private final BulkheadConfig bulkhead;
+
     private RouteConfig(Builder builder) {
         this.enabled = builder.enabled;
         this.method = builder.method;
@@ -41,6 +47,8 @@ public final class RouteConfig {
         this.routeType = builder.routeType;
         this.targetUrl = builder.targetUrl;
         this.statusCode = builder.statusCode;
+        this.priority = builder.priority;
+        this.bulkhead = builder.bulkhead;
     }
 
     public boolean isEnabled() {
@@ -75,6 +83,14 @@ public final class RouteConfig {
         return statusCode;
     }
 
+    public RequestPriority getPriority() {
+        return priority;
+    }
+
+    public BulkheadConfig getBulkhead() {
+        return bulkhead;
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -88,7 +104,9 @@ public final class RouteConfig {
                 .withContentType(this.contentType)
                 .withRouteType(this.routeType)
                 .withTargetUrl(this.targetUrl)
-                .withStatusCode(this.statusCode);
+                .withStatusCode(this.statusCode)
+                .withPriority(this.priority)
+                .withBulkhead(this.bulkhead);
     }
 
     @JsonPOJOBuilder(buildMethodName = "build", withPrefix = "with")
@@ -101,6 +119,8 @@ public final class RouteConfig {
         private RouteType routeType;
         private String targetUrl;
         private Integer statusCode;
+        private RequestPriority priority;
+        private BulkheadConfig bulkhead;
 
         public Builder() {
 
@@ -148,6 +168,16 @@ public final class RouteConfig {
             return this;
         }
 
+        public Builder withPriority(RequestPriority priority) {
+            this.priority = priority;
+            return this;
+        }
+
+        public Builder withBulkhead(BulkheadConfig bulkhead) {
+            this.bulkhead = bulkhead;
+            return this;
+        }
+
         public RouteConfig build() {
             if (method == null || path == null || routeType == null || contentType == null) {
                 throw new IllegalStateException("Method, path, routeType, and content type must be set");
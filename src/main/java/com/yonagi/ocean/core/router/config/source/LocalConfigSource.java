@@ -2,6 +2,8 @@ package com.yonagi.ocean.core.router.config.source;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yonagi.ocean.core.bulkhead.config.BulkheadConfig;
+import com.yonagi.ocean.core.admission.enums.RequestPriority;
 import com.yonagi.ocean.core.router.config.RouteConfig;
 import com.yonagi.ocean.core.router.RouteType;
 import com.yonagi.ocean.core.protocol.enums.HttpMethod;
@@ -82,6 +84,16 @@ public class LocalConfigSource implements ConfigSource {
                 if (dto.statusCode != null) {
                     builder.withStatusCode(dto.statusCode);
                 }
+                if (dto.priority != null) {
+                    RequestPriority priority = RequestPriority.getRequestPriority(dto.priority);
+                    if (priority == null) {
+                        log.warn("Unknown priority {} for route {} {}, using default", dto.priority, dto.method, dto.path);
+                    }
+                    builder.withPriority(priority);
+                }
+                if (dto.bulkhead != null) {
+                    builder.withBulkhead(dto.bulkhead);
+                }
                 if (dto.type == RouteType.HANDLER && dto.handler != null && !dto.handler.isEmpty()) {
                     builder.withHandlerClassName(dto.handler);
                 } else if (dto.type == RouteType.STATIC) {
@@ -111,6 +123,8 @@ public class LocalConfigSource implements ConfigSource {
         public RouteType type;
         public String targetUrl;
         public Integer statusCode;
+        public String priority;
+        public BulkheadConfig bulkhead;
 
         @Override
         public String toString() {
@@ -0,0 +1,106 @@
+package com.yonagi.ocean.middleware.impl;
+
+import com.yonagi.ocean.core.ErrorPageRender;
+import com.yonagi.ocean.core.concurrency.AdaptiveConcurrencyLimiter;
+import com.yonagi.ocean.core.concurrency.AdaptiveConcurrencyManager;
+import com.yonagi.ocean.core.context.HttpContext;
+import com.yonagi.ocean.core.context.ServerContext;
+import com.yonagi.ocean.core.protocol.HttpRequest;
+import com.yonagi.ocean.core.protocol.HttpResponse;
+import com.yonagi.ocean.core.protocol.enums.ContentType;
+import com.yonagi.ocean.core.protocol.enums.HttpStatus;
+import com.yonagi.ocean.core.reverseproxy.config.ReverseProxyConfig;
+import com.yonagi.ocean.core.reverseproxy.tunnel.UpgradeTunnel;
+import com.yonagi.ocean.core.router.config.RouteConfig;
+import com.yonagi.ocean.middleware.ChainExecutor;
+import com.yonagi.ocean.middleware.Middleware;
+import com.yonagi.ocean.middleware.annotation.MiddlewarePriority;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 按观测到的延迟自适应地限制各路由的在途请求数，先占用全局名额再占用路由名额，拿不到名额时返回 503。
+ * 只有真正访问了上游的请求才把上游交换耗时交给限制算法，上游返回 502/503/504 或失败时作为过载信号；
+ * 缓存命中、合并请求、舱壁拒绝和本地处理的请求只归还名额。Upgrade 请求是长连接，不参与限制
+ * @date 2025/11/23 15:10
+ */
+@MiddlewarePriority(value = 7)
+public class AdaptiveConcurrencyMiddleware implements Middleware {
+
+    @Override
+    public void handle(HttpContext httpContext, ChainExecutor executor) throws Exception {
+        AdaptiveConcurrencyManager manager = AdaptiveConcurrencyManager.getInstance();
+        HttpRequest request = httpContext.getRequest();
+        if (!manager.isEnabled() || UpgradeTunnel.isUpgradeRequest(request)) {
+            executor.proceed(httpContext);
+            return;
+        }
+        String route = resolveRoute(httpContext);
+
+        AdaptiveConcurrencyLimiter globalLimiter = manager.getGlobalLimiter();
+        if (!globalLimiter.acquire()) {
+            reject(httpContext);
+            return;
+        }
+        AdaptiveConcurrencyLimiter routeLimiter = manager.getRouteLimiter(route);
+        boolean routeAcquired = false;
+        try {
+            routeAcquired = routeLimiter.acquire();
+        } finally {
+            if (!routeAcquired) {
+                globalLimiter.cancel();
+            }
+        }
+        if (!routeAcquired) {
+            reject(httpContext);
+            return;
+        }
+
+        boolean dropped = true;
+        try {
+            executor.proceed(httpContext);
+            dropped = isOverloaded(httpContext.getResponse());
+        } finally {
+            long rttNanos = httpContext.getUpstreamRttNanos();
+            if (rttNanos < 0) {
+                // 缓存命中、合并请求、舱壁拒绝和本地处理的请求没有访问上游，耗时不能反映上游负载
+                routeLimiter.cancel();
+                globalLimiter.cancel();
+            } else {
+                routeLimiter.release(rttNanos, dropped);
+                globalLimiter.release(rttNanos, dropped);
+            }
+        }
+    }
+
+    private String resolveRoute(HttpContext httpContext) {
+        HttpRequest request = httpContext.getRequest();
+        ServerContext serverContext = httpContext.getConnectionContext().getServerContext();
+        ReverseProxyConfig proxyConfig = serverContext.getReverseProxyChecker().check(request);
+        if (proxyConfig != null) {
+            return proxyConfig.getId();
+        }
+        RouteConfig routeConfig = serverContext.getRouter().findRouteConfig(request);
+        return routeConfig != null ? AdaptiveConcurrencyManager.handlerRoute(routeConfig) : AdaptiveConcurrencyManager.LOCAL_ROUTE;
+    }
+
+    private boolean isOverloaded(HttpResponse response) {
+        if (response == null || response.getHttpStatus() == null) {
+            return false;
+        }
+        HttpStatus status = response.getHttpStatus();
+        return status == HttpStatus.BAD_GATEWAY || status == HttpStatus.SERVICE_UNAVAILABLE || status == HttpStatus.GATEWAY_TIMEOUT;
+    }
+
+    private void reject(HttpContext httpContext) {
+        HttpResponse errorResponse = httpContext.getResponse().toBuilder()
+                .httpVersion(httpContext.getRequest().getHttpVersion())
+                .httpStatus(HttpStatus.SERVICE_UNAVAILABLE)
+                .contentType(ContentType.TEXT_PLAIN)
+                .body("Server is overloaded. Try again later.".getBytes())
+                .build();
+        httpContext.setResponse(errorResponse);
+        ErrorPageRender.render(httpContext);
+    }
+}
@@ -39,8 +39,7 @@ public class AdminRouteMiddleware implements Middleware {
         if (metricsUri.equalsIgnoreCase(request.getUri()) ||
                 healthUri.equalsIgnoreCase(request.getUri()) ||
                 adminUri.equalsIgnoreCase(request.getUri())) {
-            String clientIp = request.getAttribute().getClientIp();
-            if (!AdminUtil.isIpInWhiteList(clientIp)) {
+            if (!AdminUtil.isIpInWhiteList(request.getAttribute().getClientAddress())) {
                 HttpResponse errorResponse = httpContext.getResponse().toBuilder()
                         .httpVersion(request.getHttpVersion())
                         .httpStatus(HttpStatus.FORBIDDEN)
@@ -0,0 +1,86 @@
+package com.yonagi.ocean.middleware.impl;
+
+import com.yonagi.ocean.core.ErrorPageRender;
+import com.yonagi.ocean.core.admission.LoadSheddingManager;
+import com.yonagi.ocean.core.admission.enums.RequestPriority;
+import com.yonagi.ocean.core.context.HttpContext;
+import com.yonagi.ocean.core.context.ServerContext;
+import com.yonagi.ocean.core.protocol.HttpRequest;
+import com.yonagi.ocean.core.protocol.HttpResponse;
+import com.yonagi.ocean.core.protocol.enums.ContentType;
+import com.yonagi.ocean.core.protocol.enums.HttpStatus;
+import com.yonagi.ocean.core.reverseproxy.config.ReverseProxyConfig;
+import com.yonagi.ocean.core.router.config.RouteConfig;
+import com.yonagi.ocean.middleware.ChainExecutor;
+import com.yonagi.ocean.middleware.Middleware;
+import com.yonagi.ocean.middleware.annotation.MiddlewarePriority;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * @author Yonagi
+ * @version 1.0
+ * @program Ocean
+ * @description 按请求优先级丢弃负载。优先级取自匹配的反向代理规则或路由配置，都未配置时使用默认优先级；
+ * 只有负载信号越过某个阈值时才解析优先级。管理端点由优先级更高的 AdminRouteMiddleware 先行处理，不会在这里被丢弃。
+ * 排在 RateLimitMiddleware 之前，过载时被丢弃的请求不消耗客户端的限流额度
+ * @date 2025/11/23 18:40
+ */
+@MiddlewarePriority(value = 5)
+public class LoadSheddingMiddleware implements Middleware {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadSheddingMiddleware.class);
+
+    @Override
+    public void handle(HttpContext httpContext, ChainExecutor executor) throws Exception {
+        LoadSheddingManager manager = LoadSheddingManager.getInstance();
+        if (!manager.isEnabled()) {
+            executor.proceed(httpContext);
+            return;
+        }
+        if (manager.isUnderPressure()) {
+            RequestPriority priority = resolvePriority(httpContext);
+            String reason = manager.shedReason(priority);
+            if (reason != null) {
+                log.debug("[{}] Shedding {} request {} {} due to {}", httpContext.getTraceId(), priority,
+                        httpContext.getRequest().getMethod(), httpContext.getRequest().getUri(), reason);
+                reject(httpContext);
+                return;
+            }
+        }
+        manager.enter();
+        try {
+            executor.proceed(httpContext);
+        } finally {
+            manager.exit();
+        }
+    }
+
+    private RequestPriority resolvePriority(HttpContext httpContext) {
+        HttpRequest request = httpContext.getRequest();
+        ServerContext serverContext = httpContext.getConnectionContext().getServerContext();
+        ReverseProxyConfig proxyConfig = serverContext.getReverseProxyChecker().check(request);
+        if (proxyConfig != null) {
+            if (proxyConfig.getPriority() != null) {
+                return proxyConfig.getPriority();
+            }
+        } else {
+            RouteConfig routeConfig = serverContext.getRouter().findRouteConfig(request);
+            if (routeConfig != null && routeConfig.getPriority() != null) {
+                return routeConfig.getPriority();
+            }
+        }
+        return LoadSheddingManager.getInstance().getDefaultPriority();
+    }
+
+    private void reject(HttpContext httpContext) {
+        HttpResponse errorResponse = httpContext.getResponse().toBuilder()
+                .httpVersion(httpContext.getRequest().getHttpVersion())
+                .httpStatus(HttpStatus.SERVICE_UNAVAILABLE)
+                .contentType(ContentType.TEXT_PLAIN)
+                .body("Server is overloaded. Try again later.".getBytes())
+                .build();
+        httpContext.setResponse(errorResponse);
+        ErrorPageRender.render(httpContext);
+    }
+}
@@ -20,7 +20,7 @@ import com.yonagi.ocean.middleware.annotation.MiddlewarePriority;
  * @description
  * @date 2025/10/18 11:12
  */
-@MiddlewarePriority(value = 5)
+@MiddlewarePriority(value = 6)
 public class RateLimitMiddleware implements Middleware {
 
     @Override
@@ -1,14 +1,26 @@
 package com.yonagi.ocean.middleware.impl;
 
+import com.yonagi.ocean.core.ErrorPageRender;
+import com.yonagi.ocean.core.bulkhead.Bulkhead;
+import com.yonagi.ocean.core.bulkhead.BulkheadFullException;
+import com.yonagi.ocean.core.bulkhead.BulkheadRegistry;
+import com.yonagi.ocean.core.bulkhead.config.BulkheadConfig;
+import com.yonagi.ocean.core.protocol.HttpResponse;
+import com.yonagi.ocean.core.protocol.enums.ContentType;
+import com.yonagi.ocean.core.protocol.enums.HttpStatus;
 import com.yonagi.ocean.core.reverseproxy.ReverseProxyManager;
 import com.yonagi.ocean.core.reverseproxy.config.ReverseProxyConfig;
 import com.yonagi.ocean.core.reverseproxy.ReverseProxyChecker;
 import com.yonagi.ocean.core.context.HttpContext;
 import com.yonagi.ocean.core.reverseproxy.ReverseProxyHandler;
+import com.yonagi.ocean.core.reverseproxy.cache.ProxyResponseCache;
+import com.yonagi.ocean.core.reverseproxy.tunnel.UpgradeTunnel;
 import com.yonagi.ocean.middleware.ChainExecutor;
 import com.yonagi.ocean.middleware.Middleware;
 import com.yonagi.ocean.middleware.annotation.MiddlewarePriority;
 
+import java.io.IOException;
+
 /**
  * @author Yonagi
  * @version 1.0
@@ -16,7 +28,7 @@ import com.yonagi.ocean.middleware.annotation.MiddlewarePriority;
  * @description
  * @date 2025/11/08 18:27
  */
-@MiddlewarePriority(value = 6)
+@MiddlewarePriority(value = 8)
 public class ReverseProxyMiddleware implements Middleware {
 
     @Override
@@ -26,9 +38,39 @@ public class ReverseProxyMiddleware implements Middleware {
         ReverseProxyConfig proxyConfig = reverseProxyChecker.check(httpContext.getRequest());
         if (proxyConfig != null) {
             ReverseProxyHandler handler = reverseProxyManager.getOrCreateHandler(proxyConfig);
-            handler.handle(httpContext);
+            BulkheadConfig bulkheadConfig = proxyConfig.getBulkhead();
+            // Upgrade 请求是长连接，占着名额会饿死普通请求，不进入舱壁
+            if (bulkheadConfig == null || !bulkheadConfig.isEnabled() || UpgradeTunnel.isUpgradeRequest(httpContext.getRequest())) {
+                proxy(httpContext, proxyConfig, handler);
+                return;
+            }
+            Bulkhead bulkhead = BulkheadRegistry.getInstance().getOrCreate(BulkheadRegistry.proxyName(proxyConfig.getId()), bulkheadConfig);
+            try {
+                bulkhead.call(() -> {
+                    proxy(httpContext, proxyConfig, handler);
+                    return null;
+                });
+            } catch (BulkheadFullException e) {
+                HttpResponse errorResponse = httpContext.getResponse().toBuilder()
+                        .httpVersion(httpContext.getRequest().getHttpVersion())
+                        .httpStatus(HttpStatus.SERVICE_UNAVAILABLE)
+                        .contentType(ContentType.TEXT_PLAIN)
+                        .body("Server is overloaded. Try again later.".getBytes())
+                        .build();
+                httpContext.setResponse(errorResponse);
+                ErrorPageRender.render(httpContext);
+            }
             return;
         }
         executor.proceed(httpContext);
     }
+
+    private void proxy(HttpContext httpContext, ReverseProxyConfig proxyConfig, ReverseProxyHandler handler) throws IOException {
+        ProxyResponseCache responseCache = ProxyResponseCache.getInstance();
+        if (responseCache.isEnabled()) {
+            responseCache.handle(httpContext, proxyConfig, handler);
+        } else {
+            handler.handle(httpContext);
+        }
+    }
 }